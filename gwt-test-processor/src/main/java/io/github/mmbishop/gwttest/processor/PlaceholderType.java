@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The placeholders of a step expression and the classes of the arguments they produce, as {@code StepRegistry} converts
+ * them at run time.
+ */
+enum PlaceholderType {
+
+    INT("int", Integer.class),
+    LONG("long", Long.class),
+    DOUBLE("double", Double.class),
+    STRING("string", String.class),
+    WORD("word", String.class),
+    ANONYMOUS("", String.class);
+
+    final String name;
+    final Class<?> javaType;
+
+    PlaceholderType(String name, Class<?> javaType) {
+        this.name = name;
+        this.javaType = javaType;
+    }
+
+    /**
+     * Returns the placeholders of a step expression in order.
+     * @param expression the step expression
+     * @return the placeholders
+     * @throws IllegalArgumentException the expression has an unknown or unclosed placeholder
+     */
+    static List<PlaceholderType> parse(String expression) {
+        List<PlaceholderType> placeholders = new ArrayList<>();
+        int placeholderStart = expression.indexOf('{');
+        while (placeholderStart >= 0) {
+            int placeholderEnd = expression.indexOf('}', placeholderStart);
+            if (placeholderEnd < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in step expression: " + expression);
+            }
+            placeholders.add(forName(expression.substring(placeholderStart + 1, placeholderEnd), expression));
+            placeholderStart = expression.indexOf('{', placeholderEnd + 1);
+        }
+        return placeholders;
+    }
+
+    private static PlaceholderType forName(String name, String expression) {
+        for (PlaceholderType placeholderType : values()) {
+            if (placeholderType.name.equals(name)) {
+                return placeholderType;
+            }
+        }
+        throw new IllegalArgumentException("Unknown placeholder {" + name + "} in step expression: " + expression);
+    }
+
+}
@@ -0,0 +1,358 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates the step bindings of classes whose {@code GwtFunction}, {@code GwtFunctionWithArgument} and
+ * {@code GwtFunctionWithArguments} fields are annotated with {@code @Step}. For each such class a
+ * {@code <Class>_StepBindings} class is generated in the same package, with a static {@code bind} method that binds the
+ * annotated fields to a {@code StepRegistry} in declaration order, so that no reflection or classpath scanning is needed
+ * when the tests start.
+ * <p>
+ * The step expressions are checked while the test code is compiled: an expression must be well formed, have as many
+ * placeholders as its function takes arguments, produce arguments of the type the function takes, and be bound only once
+ * per class. All annotated fields of a class must use the same context class and must not be private.
+ */
+@SupportedAnnotationTypes(StepBindingProcessor.STEP_ANNOTATION)
+public final class StepBindingProcessor extends AbstractProcessor {
+
+    static final String STEP_ANNOTATION = "io.github.mmbishop.gwttest.gherkin.Step";
+    static final String BINDINGS_SUFFIX = "_StepBindings";
+
+    private static final String STEP_REGISTRY = "io.github.mmbishop.gwttest.gherkin.StepRegistry";
+    private static final String GENERATED_ANNOTATION = "javax.annotation.processing.Generated";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        TypeElement stepAnnotation = processingEnv.getElementUtils().getTypeElement(STEP_ANNOTATION);
+        if (stepAnnotation == null) {
+            return false;
+        }
+        Map<Element, List<VariableElement>> fieldsByOwner = new LinkedHashMap<>();
+        for (Element element : roundEnvironment.getElementsAnnotatedWith(stepAnnotation)) {
+            if (element.getKind() == ElementKind.FIELD) {
+                fieldsByOwner.computeIfAbsent(element.getEnclosingElement(), owner -> new ArrayList<>()).add((VariableElement) element);
+            }
+        }
+        for (Map.Entry<Element, List<VariableElement>> entry : fieldsByOwner.entrySet()) {
+            processOwner(entry.getKey(), entry.getValue(), stepAnnotation);
+        }
+        return true;
+    }
+
+    private void processOwner(Element owner, List<VariableElement> fields, TypeElement stepAnnotation) {
+        boolean valid = validateOwner(owner);
+        TypeMirror contextType = null;
+        Set<String> expressions = new HashSet<>();
+        List<Binding> bindings = new ArrayList<>();
+        for (VariableElement field : fields) {
+            AnnotationMirror annotation = findAnnotation(field, stepAnnotation);
+            String expression = annotationValue(annotation);
+            Binding binding = validateField(field, annotation, expression);
+            if (binding == null) {
+                valid = false;
+                continue;
+            }
+            if (contextType == null) {
+                contextType = binding.contextType;
+            }
+            else if (!processingEnv.getTypeUtils().isSameType(contextType, binding.contextType)) {
+                error("All steps of a class must use the same context class, but " + field.getSimpleName() + " uses "
+                        + binding.contextType + " instead of " + contextType, field, annotation);
+                valid = false;
+                continue;
+            }
+            if (!expressions.add(expression)) {
+                error("The step is already bound: " + expression, field, annotation);
+                valid = false;
+                continue;
+            }
+            bindings.add(binding);
+        }
+        if (valid) {
+            writeBindings((TypeElement) owner, contextType, bindings);
+        }
+    }
+
+    private boolean validateOwner(Element owner) {
+        if (!(owner instanceof TypeElement)) {
+            error("Steps must be fields of a class", owner, null);
+            return false;
+        }
+        for (Element element = owner; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            TypeElement type = (TypeElement) element;
+            if (type.getNestingKind() != NestingKind.TOP_LEVEL && type.getNestingKind() != NestingKind.MEMBER) {
+                error("Steps can't be declared in local or anonymous classes", owner, null);
+                return false;
+            }
+            if (type.getModifiers().contains(Modifier.PRIVATE)) {
+                error("Steps can't be declared in private classes", owner, null);
+                return false;
+            }
+        }
+        if (!((TypeElement) owner).getTypeParameters().isEmpty()) {
+            error("Steps can't be declared in generic classes", owner, null);
+            return false;
+        }
+        return true;
+    }
+
+    private Binding validateField(VariableElement field, AnnotationMirror annotation, String expression) {
+        if (field.getModifiers().contains(Modifier.PRIVATE)) {
+            error("Step fields must not be private: " + field.getSimpleName(), field, annotation);
+            return null;
+        }
+        FunctionKind functionKind = FunctionKind.of(field.asType());
+        if (functionKind == null) {
+            error("Step fields must be a GwtFunction, GwtFunctionWithArgument or GwtFunctionWithArguments: "
+                    + field.getSimpleName(), field, annotation);
+            return null;
+        }
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) field.asType()).getTypeArguments();
+        if (typeArguments.isEmpty() || typeArguments.stream().anyMatch(type -> type.getKind() != TypeKind.DECLARED)) {
+            error("Step fields must declare their context and argument classes: " + field.getSimpleName(), field, annotation);
+            return null;
+        }
+        List<PlaceholderType> placeholders;
+        try {
+            placeholders = PlaceholderType.parse(expression);
+        }
+        catch (IllegalArgumentException e) {
+            error(e.getMessage(), field, annotation);
+            return null;
+        }
+        if (!functionKind.fits(placeholders.size())) {
+            error("The step expression has " + placeholders.size() + " placeholder(s), which doesn't fit the function: "
+                    + expression, field, annotation);
+            return null;
+        }
+        if (!placeholders.isEmpty()) {
+            PlaceholderType placeholderType = placeholders.get(0);
+            if (placeholders.stream().anyMatch(type -> type.javaType != placeholderType.javaType)) {
+                error("The placeholders must all have the same type: " + expression, field, annotation);
+                return null;
+            }
+            TypeMirror argumentType = typeArguments.get(1);
+            TypeMirror producedType = processingEnv.getElementUtils().getTypeElement(placeholderType.javaType.getName()).asType();
+            if (!processingEnv.getTypeUtils().isAssignable(producedType, argumentType)) {
+                error("The step expression passes " + placeholderType.javaType.getSimpleName() + " arguments, but "
+                        + field.getSimpleName() + " takes " + argumentType + ": " + expression, field, annotation);
+                return null;
+            }
+        }
+        return new Binding(expression, field, typeArguments.get(0), functionKind);
+    }
+
+    private void writeBindings(TypeElement owner, TypeMirror contextType, List<Binding> bindings) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().toString();
+        String bindingsClassName = bindingsClassName(owner);
+        String ownerName = owner.getQualifiedName().toString();
+        String registryType = STEP_REGISTRY + "<" + contextType + ">";
+        boolean hasInstanceFields = bindings.stream().anyMatch(binding -> !binding.field.getModifiers().contains(Modifier.STATIC));
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n * Binds the steps of {@link ").append(ownerName).append("}.\n */\n");
+        if (processingEnv.getElementUtils().getTypeElement(GENERATED_ANNOTATION) != null) {
+            source.append('@').append(GENERATED_ANNOTATION).append("(\"").append(getClass().getName()).append("\")\n");
+        }
+        source.append(owner.getModifiers().contains(Modifier.PUBLIC) ? "public " : "")
+                .append("final class ").append(bindingsClassName).append(" {\n\n")
+                .append("    private ").append(bindingsClassName).append("() {\n    }\n\n")
+                .append("    /**\n     * Binds the steps to a registry.\n     * @param registry the registry\n");
+        if (hasInstanceFields) {
+            source.append("     * @param steps the instance whose fields are bound\n");
+        }
+        source.append("     * @return the registry\n     */\n")
+                .append("    public static ").append(registryType).append(" bind(").append(registryType).append(" registry");
+        if (hasInstanceFields) {
+            source.append(", ").append(ownerName).append(" steps");
+        }
+        source.append(") {\n");
+        for (Binding binding : bindings) {
+            boolean isStatic = binding.field.getModifiers().contains(Modifier.STATIC);
+            source.append("        registry.").append(binding.functionKind.registryMethod).append('(')
+                    .append(stringLiteral(binding.expression)).append(", ")
+                    .append(isStatic ? ownerName : "steps").append('.').append(binding.field.getSimpleName()).append(");\n");
+        }
+        source.append("        return registry;\n    }\n\n}\n");
+        String qualifiedName = packageName.isEmpty() ? bindingsClassName : packageName + "." + bindingsClassName;
+        try {
+            JavaFileObject sourceFile = processingEnv.getFiler().createSourceFile(qualifiedName, owner);
+            try (Writer writer = sourceFile.openWriter()) {
+                writer.write(source.toString());
+            }
+        }
+        catch (IOException e) {
+            error("Can't write " + qualifiedName + ": " + e.getMessage(), owner, null);
+        }
+    }
+
+    private static String bindingsClassName(TypeElement owner) {
+        Deque<String> names = new ArrayDeque<>();
+        for (Element element = owner; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            names.addFirst(element.getSimpleName().toString());
+        }
+        return String.join("_", names) + BINDINGS_SUFFIX;
+    }
+
+    private static AnnotationMirror findAnnotation(Element element, TypeElement annotationType) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (annotation.getAnnotationType().asElement().equals(annotationType)) {
+                return annotation;
+            }
+        }
+        throw new IllegalStateException("No @Step annotation on " + element);
+    }
+
+    private static String annotationValue(AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return (String) entry.getValue().getValue();
+            }
+        }
+        return "";
+    }
+
+    private static String stringLiteral(String text) {
+        StringBuilder literal = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        literal.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        literal.append(c);
+                    }
+                }
+            }
+        }
+        return literal.append('"').toString();
+    }
+
+    private void error(String message, Element element, AnnotationMirror annotation) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element, annotation);
+    }
+
+    /**
+     * A field bound to a step expression.
+     */
+    private static final class Binding {
+
+        private final String expression;
+        private final VariableElement field;
+        private final TypeMirror contextType;
+        private final FunctionKind functionKind;
+
+        private Binding(String expression, VariableElement field, TypeMirror contextType, FunctionKind functionKind) {
+            this.expression = expression;
+            this.field = field;
+            this.contextType = contextType;
+            this.functionKind = functionKind;
+        }
+
+    }
+
+    /**
+     * The function interfaces a step field can have, with the number of placeholders each one accepts and the
+     * {@code StepRegistry} method that binds it. These are the placeholder counts that the method accepts at run time.
+     */
+    enum FunctionKind {
+
+        FUNCTION("io.github.mmbishop.gwttest.functions.GwtFunction", 0, 0, "bind"),
+        FUNCTION_WITH_ARGUMENT("io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument", 1, 1, "bind"),
+        FUNCTION_WITH_ARGUMENTS("io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments", 1, Integer.MAX_VALUE, "bindAll");
+
+        private final String interfaceName;
+        private final int minimumPlaceholders;
+        private final int maximumPlaceholders;
+        private final String registryMethod;
+
+        FunctionKind(String interfaceName, int minimumPlaceholders, int maximumPlaceholders, String registryMethod) {
+            this.interfaceName = interfaceName;
+            this.minimumPlaceholders = minimumPlaceholders;
+            this.maximumPlaceholders = maximumPlaceholders;
+            this.registryMethod = registryMethod;
+        }
+
+        /**
+         * Returns whether a step expression with the given number of placeholders can be bound to a function of this kind.
+         * @param placeholderCount the number of placeholders in the step expression
+         * @return true if the expression fits the function
+         */
+        boolean fits(int placeholderCount) {
+            return placeholderCount >= minimumPlaceholders && placeholderCount <= maximumPlaceholders;
+        }
+
+        private static FunctionKind of(TypeMirror type) {
+            if (type.getKind() != TypeKind.DECLARED) {
+                return null;
+            }
+            String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+            for (FunctionKind functionKind : values()) {
+                if (functionKind.interfaceName.equals(name)) {
+                    return functionKind;
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.processor;
+
+import io.github.mmbishop.gwttest.gherkin.StepRegistry;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Checks that the placeholders the processor knows match the parameter types that {@code StepExpression} converts at run
+ * time, and that the processor accepts the same number of placeholders for each function interface as
+ * {@link StepRegistry}. The parameter types are private to gwt-test, so they are read reflectively.
+ */
+public class PlaceholderTypeTest {
+
+    private static final int MAXIMUM_CHECKED_PLACEHOLDERS = 3;
+    private static final String PARAMETER_TYPE_CLASS = "io.github.mmbishop.gwttest.gherkin.StepExpression$ParameterType";
+
+    @Test
+    void placeholder_types_match_the_parameter_types_of_step_expressions() throws ReflectiveOperationException {
+        Class<?> parameterTypeClass = Class.forName(PARAMETER_TYPE_CLASS);
+        Field nameField = parameterTypeClass.getDeclaredField("name");
+        Field javaTypeField = parameterTypeClass.getDeclaredField("javaType");
+        nameField.setAccessible(true);
+        javaTypeField.setAccessible(true);
+        List<String> parameterTypes = Arrays.stream(parameterTypeClass.getEnumConstants())
+                .map(parameterType -> describe(((Enum<?>) parameterType).name(), get(nameField, parameterType), get(javaTypeField, parameterType)))
+                .collect(Collectors.toList());
+        List<String> placeholderTypes = Arrays.stream(PlaceholderType.values())
+                .map(placeholderType -> describe(placeholderType.name(), placeholderType.name, placeholderType.javaType))
+                .collect(Collectors.toList());
+
+        assertThat(placeholderTypes, is(parameterTypes));
+    }
+
+    @Test
+    void function_kinds_accept_the_placeholder_counts_that_the_step_registry_binds() {
+        for (StepBindingProcessor.FunctionKind functionKind : StepBindingProcessor.FunctionKind.values()) {
+            for (int placeholderCount = 0; placeholderCount <= MAXIMUM_CHECKED_PLACEHOLDERS; placeholderCount++) {
+                String expression = "step" + " {int}".repeat(placeholderCount);
+                assertThat(functionKind + " with " + expression, functionKind.fits(placeholderCount),
+                        is(registryBinds(functionKind, expression)));
+            }
+        }
+    }
+
+    private static boolean registryBinds(StepBindingProcessor.FunctionKind functionKind, String expression) {
+        StepRegistry<Context> registry = new StepRegistry<>();
+        try {
+            switch (functionKind) {
+                case FUNCTION -> registry.bind(expression, context -> {});
+                case FUNCTION_WITH_ARGUMENT -> registry.bind(expression, (context, arg) -> {});
+                case FUNCTION_WITH_ARGUMENTS -> registry.bindAll(expression, (context, args) -> {});
+            }
+            return true;
+        }
+        catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String describe(String constant, Object placeholder, Object javaType) {
+        return constant + " {" + placeholder + "} " + ((Class<?>) javaType).getName();
+    }
+
+    private static Object get(Field field, Object target) {
+        try {
+            return field.get(target);
+        }
+        catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
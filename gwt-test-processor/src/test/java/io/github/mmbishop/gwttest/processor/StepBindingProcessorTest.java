@@ -0,0 +1,208 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.processor;
+
+import io.github.mmbishop.gwttest.gherkin.StepRegistry;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Compiles test classes with the processor against gwt-test, so that the generated bindings are checked against the real
+ * StepRegistry and function types, and binds them to a real StepRegistry.
+ */
+public class StepBindingProcessorTest {
+
+    private static final String HEADER = "package basket;"
+            + " import io.github.mmbishop.gwttest.functions.*; import io.github.mmbishop.gwttest.gherkin.Step;"
+            + " import io.github.mmbishop.gwttest.model.Context;";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void annotated_fields_are_bound_in_declaration_order() throws Exception {
+        Compilation compilation = compile(Map.of(
+                "basket/BasketContext.java", "package basket; public class BasketContext extends io.github.mmbishop.gwttest.model.Context {"
+                        + " public int apples; public double total; }",
+                "basket/BasketSteps.java", HEADER + " public class BasketSteps {"
+                        + " @Step(\"an empty basket\") final GwtFunction<BasketContext> empty = c -> c.apples = 0;"
+                        + " @Step(\"{int} \\\"apples\\\" are added\") GwtFunctionWithArgument<BasketContext, Integer> added = (c, n) -> c.apples += n;"
+                        + " @Step(\"prices {double} and {double}\") static GwtFunctionWithArguments<BasketContext, Number> prices = (c, p) -> {"
+                        + "   for (Number price : p) { c.total += price.doubleValue(); } };"
+                        + " final GwtFunction<BasketContext> not_a_step = c -> {};"
+                        + " }"));
+
+        assertThat(compilation.errors(), is(empty()));
+        String bindingsSource = Files.readString(compilation.generated().resolve("basket/BasketSteps_StepBindings.java"));
+        assertThat(bindingsSource.indexOf("an empty basket") < bindingsSource.indexOf("are added"), is(true));
+        assertThat(bindingsSource.indexOf("are added") < bindingsSource.indexOf("prices {double} and {double}"), is(true));
+        try (URLClassLoader classLoader = compilation.classLoader()) {
+            Class<?> contextClass = classLoader.loadClass("basket.BasketContext");
+            Class<?> stepsClass = classLoader.loadClass("basket.BasketSteps");
+            Class<?> bindingsClass = classLoader.loadClass("basket.BasketSteps_StepBindings");
+            StepRegistry<Context> registry = new StepRegistry<>();
+            Object returned = bindingsClass.getMethod("bind", StepRegistry.class, stepsClass)
+                    .invoke(null, registry, stepsClass.getDeclaredConstructor().newInstance());
+            assertThat(returned == registry, is(true));
+            assertThat(registry.size(), is(3));
+            Context basket = (Context) contextClass.getConstructor().newInstance();
+            registry.resolve("an empty basket").apply(basket);
+            registry.resolve("3 \"apples\" are added").apply(basket);
+            registry.resolve("prices 1.5 and 2.25").apply(basket);
+            assertThat(contextClass.getField("apples").getInt(basket), is(3));
+            assertThat(contextClass.getField("total").getDouble(basket), is(3.75));
+        }
+    }
+
+    @Test
+    void class_with_only_static_steps_is_bound_without_an_instance() throws Exception {
+        Compilation compilation = compile(Map.of(
+                "basket/Outer.java", HEADER + " public class Outer { public static class Inner {"
+                        + " @Step(\"a step\") static GwtFunction<Context> step = c -> {}; } }"));
+
+        assertThat(compilation.errors(), is(empty()));
+        try (URLClassLoader classLoader = compilation.classLoader()) {
+            StepRegistry<Context> registry = new StepRegistry<>();
+            classLoader.loadClass("basket.Outer_Inner_StepBindings").getMethod("bind", StepRegistry.class).invoke(null, registry);
+            assertThat(registry.size(), is(1));
+        }
+    }
+
+    @Test
+    void private_step_field_is_rejected() throws IOException {
+        assertThat(errorsOf("@Step(\"a step\") private GwtFunction<Context> step = c -> {};"),
+                hasItem(containsString("Step fields must not be private: step")));
+    }
+
+    @Test
+    void field_that_is_not_a_function_is_rejected() throws IOException {
+        assertThat(errorsOf("@Step(\"a step\") Runnable step = () -> {};"),
+                hasItem(containsString("Step fields must be a GwtFunction, GwtFunctionWithArgument or GwtFunctionWithArguments")));
+    }
+
+    @Test
+    void expression_with_the_wrong_number_of_placeholders_is_rejected() throws IOException {
+        assertThat(errorsOf("@Step(\"{int} apples\") GwtFunction<Context> step = c -> {};"),
+                hasItem(containsString("The step expression has 1 placeholder(s), which doesn't fit the function: {int} apples")));
+    }
+
+    @Test
+    void unknown_placeholder_is_rejected() throws IOException {
+        assertThat(errorsOf("@Step(\"{colour} apples\") GwtFunctionWithArgument<Context, String> step = (c, s) -> {};"),
+                hasItem(containsString("Unknown placeholder {colour} in step expression: {colour} apples")));
+    }
+
+    @Test
+    void argument_type_that_the_placeholder_does_not_produce_is_rejected() throws IOException {
+        assertThat(errorsOf("@Step(\"{int} apples\") GwtFunctionWithArgument<Context, String> step = (c, s) -> {};"),
+                hasItem(containsString("The step expression passes Integer arguments, but step takes java.lang.String: {int} apples")));
+    }
+
+    @Test
+    void placeholders_of_different_types_are_rejected() throws IOException {
+        assertThat(errorsOf("@Step(\"{int} and {word}\") GwtFunctionWithArguments<Context, Object> step = (c, a) -> {};"),
+                hasItem(containsString("The placeholders must all have the same type: {int} and {word}")));
+    }
+
+    @Test
+    void expression_bound_twice_is_rejected() throws IOException {
+        assertThat(errorsOf("@Step(\"a step\") GwtFunction<Context> first = c -> {};"
+                        + " @Step(\"a step\") GwtFunction<Context> second = c -> {};"),
+                hasItem(containsString("The step is already bound: a step")));
+    }
+
+    @Test
+    void steps_with_different_context_classes_are_rejected() throws IOException {
+        assertThat(errorsOf("static class OtherContext extends Context {}"
+                        + " @Step(\"a step\") GwtFunction<Context> first = c -> {};"
+                        + " @Step(\"another step\") GwtFunction<OtherContext> second = c -> {};"),
+                hasItem(containsString("All steps of a class must use the same context class")));
+    }
+
+    private List<String> errorsOf(String members) throws IOException {
+        return compile(Map.of("basket/BasketSteps.java", HEADER + " public class BasketSteps { " + members + " }")).errors();
+    }
+
+    private Compilation compile(Map<String, String> testSources) throws IOException {
+        List<Path> sourceFiles = new ArrayList<>();
+        for (Map.Entry<String, String> source : testSources.entrySet()) {
+            Path sourceFile = directory.resolve("src").resolve(source.getKey());
+            Files.createDirectories(sourceFile.getParent());
+            Files.writeString(sourceFile, source.getValue(), StandardCharsets.UTF_8);
+            sourceFiles.add(sourceFile);
+        }
+        Path classes = Files.createDirectories(directory.resolve("classes"));
+        Path generated = Files.createDirectories(directory.resolve("generated"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    List.of("-classpath", gwtTestClasses(), "-d", classes.toString(), "-s", generated.toString()), null,
+                    fileManager.getJavaFileObjectsFromPaths(sourceFiles));
+            task.setProcessors(List.of(new StepBindingProcessor()));
+            task.call();
+        }
+        List<String> errors = diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+        return new Compilation(classes, generated, errors);
+    }
+
+    private static String gwtTestClasses() {
+        try {
+            return Path.of(StepRegistry.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        }
+        catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Compilation(Path classes, Path generated, List<String> errors) {
+
+        URLClassLoader classLoader() throws IOException {
+            return new URLClassLoader(new URL[] { classes.toUri().toURL() }, StepBindingProcessorTest.class.getClassLoader());
+        }
+
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.benchmark;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.model.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the {@link GwtTest} step pipeline: scenario construction, the given, when, then and and step
+ * overloads and the expected-exception path. Run with {@code -prof gc} to see the allocation rate of each path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j2.configurationFile=log4j2-benchmark.xml")
+@State(Scope.Thread)
+public class GwtTestBenchmark {
+
+    private static final RuntimeException EXPECTED_EXCEPTION = new IllegalStateException("expected");
+
+    private GwtTest<BenchmarkContext> gwt;
+    private Scenario<BenchmarkContext> scenario;
+    private final GwtTest<BenchmarkContext> reusableGwt = new GwtTest<>(BenchmarkContext.class);
+
+    private final GwtFunction<BenchmarkContext> a_number = context -> context.number = 7;
+
+    private final GwtFunction<BenchmarkContext> squaring_the_number = context -> context.result = context.number * context.number;
+
+    private final GwtFunction<BenchmarkContext> the_result_is_known = context -> {
+        if (context.result != 49) {
+            throw new AssertionError("Unexpected result " + context.result);
+        }
+    };
+
+    private final GwtFunction<BenchmarkContext> clearing_the_context = context -> {
+        context.number = 0;
+        context.result = 0;
+    };
+
+    private final GwtFunctionWithArgument<BenchmarkContext, Integer> the_number = (context, number) -> context.number = number;
+
+    private final GwtFunctionWithArgument<BenchmarkContext, Integer> the_result_is = (context, expectedResult) -> {
+        if (context.result != expectedResult) {
+            throw new AssertionError("Unexpected result " + context.result);
+        }
+    };
+
+    private final GwtFunctionWithArguments<BenchmarkContext, Integer> the_numbers = (context, numbers) -> context.number = numbers[0];
+
+    private final GwtFunctionWithArguments<BenchmarkContext, Integer> multiplying_the_numbers = (context, numbers) -> {
+        int product = 1;
+        for (Integer number : numbers) {
+            product *= number;
+        }
+        context.result = product;
+    };
+
+    private final GwtFunction<BenchmarkContext> doing_something_that_throws = context -> {
+        throw EXPECTED_EXCEPTION;
+    };
+
+    private final GwtFunction<BenchmarkContext> an_exception_is_caught = context -> {
+        if (context.thrownException == null) {
+            throw new AssertionError("No exception caught");
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        gwt = new GwtTest<>(BenchmarkContext.class);
+        gwt.test("benchmark").given(a_number);
+        scenario = Scenario.builder(BenchmarkContext::new)
+                .named("benchmark")
+                .given(a_number)
+                .when(squaring_the_number)
+                .then(the_result_is_known)
+                .build();
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> scenario_construction_with_test_name() {
+        return new GwtTest<>(BenchmarkContext.class).test("benchmark");
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> scenario_construction_with_context_supplier() {
+        return new GwtTest<>(BenchmarkContext::new).test("benchmark");
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> scenario_construction_with_calling_method_name() {
+        return new GwtTest<>(BenchmarkContext.class).test();
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> complete_scenario() {
+        return new GwtTest<>(BenchmarkContext.class).test("benchmark")
+                .given(a_number)
+                .when(squaring_the_number)
+                .then(the_result_is_known);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> repeated_scenario_with_new_context() {
+        return reusableGwt.reset().test("benchmark")
+                .given(a_number)
+                .when(squaring_the_number)
+                .then(the_result_is_known);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> repeated_scenario_with_reused_context() {
+        return reusableGwt.reset(clearing_the_context).test("benchmark")
+                .given(a_number)
+                .when(squaring_the_number)
+                .then(the_result_is_known);
+    }
+
+    @Benchmark
+    public BenchmarkContext prevalidated_scenario_run() {
+        return scenario.run();
+    }
+
+    /*
+     * A Given clause can only be entered from a newly constructed test, so the given benchmarks construct a test each time.
+     * Subtract scenario_construction_with_context_supplier from them to get the cost of the steps alone.
+     */
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> given_with_function() {
+        return new GwtTest<>(BenchmarkContext::new).test("benchmark").given(a_number);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> given_with_two_functions() {
+        return new GwtTest<>(BenchmarkContext::new).test("benchmark").given(a_number, squaring_the_number);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> given_with_argument() {
+        return new GwtTest<>(BenchmarkContext::new).test("benchmark").given(the_number, 7);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> given_with_arguments() {
+        return new GwtTest<>(BenchmarkContext::new).test("benchmark").given(the_numbers, 7, 8, 9);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> given_and() {
+        return new GwtTest<>(BenchmarkContext::new).test("benchmark")
+                .given(a_number)
+                .and(squaring_the_number)
+                .and(the_number, 7)
+                .and(the_numbers, 7, 8, 9);
+    }
+
+    /*
+     * The step benchmarks below reuse one scenario, relying on when-then cases being repeatable, so that only the
+     * cost of the steps themselves is measured.
+     */
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> when_then_with_function() {
+        return gwt.when(squaring_the_number).then(the_result_is_known);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> when_then_with_argument() {
+        return gwt.when(squaring_the_number).then(the_result_is, 49);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> when_then_with_arguments() {
+        return gwt.when(multiplying_the_numbers, 7, 7).then(the_result_is_known);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> when_and_then_and() {
+        return gwt.when(squaring_the_number).and(the_number, 7).then(the_result_is_known).and(the_result_is, 49);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> when_and_with_arguments() {
+        return gwt.when(squaring_the_number).and(the_numbers, 7, 8, 9).then(the_result_is_known);
+    }
+
+    @Benchmark
+    public GwtTest<BenchmarkContext> expected_exception_scenario() {
+        return new GwtTest<>(BenchmarkContext.class).test("benchmark").expectingException(IllegalStateException.class)
+                .when(doing_something_that_throws)
+                .then(an_exception_is_caught);
+    }
+
+    public static class BenchmarkContext extends Context {
+        int number;
+        int result;
+    }
+
+}
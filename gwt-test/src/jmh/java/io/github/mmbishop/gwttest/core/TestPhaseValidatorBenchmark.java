@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.model.TestPhase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the phase validation done for one scenario by the shared, table-based {@link TestPhaseValidator} with the
+ * map-based validator it replaced, which was built for every scenario. Run with {@code -prof gc} to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TestPhaseValidatorBenchmark {
+
+    private static final TestPhaseValidator sharedValidator = new TestPhaseValidator();
+
+    /*
+     * The phases are read from non-final fields so that the JIT can't fold the validation of constant transitions away.
+     * Each benchmark passes the phase the scenario ends in, and the validator it used, to a Blackhole.
+     */
+    private TestPhase constructed = TestPhase.CONSTRUCTED;
+    private TestPhase given = TestPhase.GIVEN;
+    private TestPhase when = TestPhase.WHEN;
+    private TestPhase then = TestPhase.THEN;
+
+    @Benchmark
+    public void table_based_validation_per_scenario(Blackhole blackhole) {
+        blackhole.consume(validateScenario(sharedValidator));
+        blackhole.consume(sharedValidator);
+    }
+
+    @Benchmark
+    public void map_based_validation_per_scenario(Blackhole blackhole) {
+        MapBasedTestPhaseValidator validator = new MapBasedTestPhaseValidator();
+        blackhole.consume(validator.validateScenario(constructed, given, when, then));
+        blackhole.consume(validator);
+    }
+
+    private TestPhase validateScenario(TestPhaseValidator validator) {
+        validator.validatePhaseTransition(constructed, given);
+        validator.validateSelfTransition(given);
+        validator.validatePhaseTransition(given, when);
+        validator.validatePhaseTransition(when, then);
+        validator.validateSelfTransition(then);
+        return then;
+    }
+
+    /**
+     * The validator as it was before the transition table was made static.
+     */
+    private static class MapBasedTestPhaseValidator {
+
+        private final Map<TestPhase, List<TestPhase>> testPhaseTransitionMap;
+
+        MapBasedTestPhaseValidator() {
+            testPhaseTransitionMap = new HashMap<>();
+            testPhaseTransitionMap.put(TestPhase.CONSTRUCTED, Collections.emptyList());
+            testPhaseTransitionMap.put(TestPhase.GIVEN, List.of(TestPhase.CONSTRUCTED));
+            testPhaseTransitionMap.put(TestPhase.WHEN, List.of(TestPhase.CONSTRUCTED, TestPhase.GIVEN, TestPhase.THEN));
+            testPhaseTransitionMap.put(TestPhase.THEN, List.of(TestPhase.CONSTRUCTED, TestPhase.GIVEN, TestPhase.WHEN));
+        }
+
+        TestPhase validateScenario(TestPhase constructed, TestPhase given, TestPhase when, TestPhase then) {
+            validatePhaseTransition(constructed, given);
+            validateSelfTransition(given);
+            validatePhaseTransition(given, when);
+            validatePhaseTransition(when, then);
+            validateSelfTransition(then);
+            return then;
+        }
+
+        void validatePhaseTransition(TestPhase currentPhase, TestPhase nextPhase) {
+            if (currentPhase == null) {
+                return;
+            }
+            var validCurrentPhases = testPhaseTransitionMap.get(nextPhase);
+            if (!validCurrentPhases.contains(currentPhase)) {
+                throw new MalformedTestException("Invalid test phase transition from " + currentPhase + " to " + nextPhase);
+            }
+        }
+
+        void validateSelfTransition(TestPhase currentPhase) {
+            if (currentPhase == null || currentPhase.equals(TestPhase.CONSTRUCTED)) {
+                throw new MalformedTestException(".and called before .given, .when and .then");
+            }
+        }
+
+    }
+
+}
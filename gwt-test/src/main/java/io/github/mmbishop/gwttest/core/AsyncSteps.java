@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.AsyncGwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.model.Context;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Support for {@link AsyncGwtFunction}s: adapting them to blocking step functions, applying their timeouts, and unwrapping
+ * the exceptions they complete with, so that an asynchronous step fails with the same exception class that a synchronous
+ * step would throw.
+ */
+final class AsyncSteps {
+
+    private AsyncSteps() {
+    }
+
+    /**
+     * Returns a step function that invokes the given asynchronous function and waits for its stage to complete.
+     * @param asyncFunction the asynchronous function
+     * @param timeout the maximum time to wait for the stage to complete, or null to wait indefinitely
+     * @return a blocking step function
+     */
+    static <T extends Context> GwtFunction<T> blocking(AsyncGwtFunction<T> asyncFunction, Duration timeout) {
+        return context -> await(start(asyncFunction, context), timeout);
+    }
+
+    /**
+     * Invokes the given asynchronous function and returns its stage with the given timeout applied. The stage returned by
+     * the function isn't completed by the timeout.
+     * @param asyncFunction the asynchronous function
+     * @param context the context of the test
+     * @param timeout the maximum time for the stage to complete, or null for no timeout
+     * @return a future that completes when the stage completes, or exceptionally with a {@link TimeoutException}
+     */
+    static <T extends Context> CompletableFuture<?> startWithTimeout(AsyncGwtFunction<T> asyncFunction, T context, Duration timeout) {
+        CompletableFuture<?> future = start(asyncFunction, context).toCompletableFuture().copy();
+        return timeout == null ? future : future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the exception that an asynchronous step failed with, without the {@link CompletionException} or
+     * {@link ExecutionException} that wraps it.
+     * @param e the exception the stage completed with
+     * @return the underlying exception
+     */
+    static Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static <T extends Context> CompletionStage<?> start(AsyncGwtFunction<T> asyncFunction, T context) {
+        CompletionStage<?> stage = asyncFunction.apply(context);
+        if (stage == null) {
+            throw new NullPointerException("An asynchronous step function returned null instead of a CompletionStage");
+        }
+        return stage;
+    }
+
+    private static void await(CompletionStage<?> stage, Duration timeout) {
+        CompletableFuture<?> future = stage.toCompletableFuture();
+        try {
+            if (timeout == null) {
+                future.get();
+            }
+            else {
+                future.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throwUnchecked(e);
+        }
+        catch (ExecutionException | TimeoutException e) {
+            throwUnchecked(unwrap(e));
+        }
+    }
+
+    /*
+     * Step functions can't declare checked exceptions, but the exception a step failed with on another thread has to reach
+     * the step invoker unchanged so that it can be matched against the expected exception class.
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Throwable> void throwUnchecked(Throwable e) throws E {
+        throw (E) e;
+    }
+
+}
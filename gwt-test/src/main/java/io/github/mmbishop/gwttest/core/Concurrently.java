@@ -0,0 +1,119 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.model.Context;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Combines independent step functions into one function that runs them concurrently, so that a clause takes as long as
+ * its slowest function rather than the sum of all of them:
+ * <pre>
+ * gwt.test()
+ *         .given(Concurrently.of(a_running_stub_server, the_loaded_price_file))
+ *         .when(...)
+ * </pre>
+ * The first function runs on the calling thread and the others on an executor. The combined function returns when all
+ * functions have finished, and everything they wrote to the context is then visible to the following steps. The functions
+ * must be independent of each other and write to different context fields.
+ * <p>
+ * If functions throw exceptions, the combined function throws the exception of the first function in declaration order
+ * that failed, with the exceptions of the others added as suppressed exceptions, so that it can be declared as expected
+ * like the exception of a single function.
+ */
+public final class Concurrently {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private static final ExecutorService sharedExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "gwt-test-concurrent-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Concurrently() {
+    }
+
+    /**
+     * Returns a function that runs the given functions concurrently on a shared pool of daemon threads.
+     * @param gwtFunctions independent {@code GwtFunction}s
+     * @return a {@code GwtFunction} that runs the functions concurrently and waits for them to finish
+     */
+    @SafeVarargs
+    public static <T extends Context> GwtFunction<T> of(GwtFunction<T>... gwtFunctions) {
+        return on(sharedExecutor, gwtFunctions);
+    }
+
+    /**
+     * Returns a function that runs the given functions concurrently on the given executor.
+     * @param executor the executor that runs all but the first function
+     * @param gwtFunctions independent {@code GwtFunction}s
+     * @return a {@code GwtFunction} that runs the functions concurrently and waits for them to finish
+     */
+    @SafeVarargs
+    public static <T extends Context> GwtFunction<T> on(Executor executor, GwtFunction<T>... gwtFunctions) {
+        GwtFunction<T>[] functions = gwtFunctions.clone();
+        return context -> runConcurrently(executor, context, functions);
+    }
+
+    static Executor sharedExecutor() {
+        return sharedExecutor;
+    }
+
+    private static <T extends Context> void runConcurrently(Executor executor, T context, GwtFunction<T>[] gwtFunctions) {
+        if (gwtFunctions.length == 0) {
+            return;
+        }
+        CompletableFuture<?>[] runs = new CompletableFuture[gwtFunctions.length - 1];
+        for (int i = 1; i < gwtFunctions.length; i++) {
+            GwtFunction<T> gwtFunction = gwtFunctions[i];
+            runs[i - 1] = CompletableFuture.runAsync(() -> gwtFunction.apply(context), executor);
+        }
+        Throwable failure = null;
+        try {
+            gwtFunctions[0].apply(context);
+        }
+        catch (Throwable e) {
+            failure = e;
+        }
+        for (CompletableFuture<?> run : runs) {
+            try {
+                run.join();
+            }
+            catch (CompletionException e) {
+                Throwable cause = AsyncSteps.unwrap(e);
+                if (failure == null) {
+                    failure = cause;
+                }
+                else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            AsyncSteps.throwUnchecked(failure);
+        }
+    }
+
+}
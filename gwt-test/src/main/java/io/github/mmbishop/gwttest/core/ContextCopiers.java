@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.ContextCopier;
+import io.github.mmbishop.gwttest.model.Context;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides {@link ContextCopier}s.
+ */
+public final class ContextCopiers {
+
+    private ContextCopiers() {
+    }
+
+    /**
+     * Returns a copier that copies the values of the non-static, non-final fields declared by the given context class and
+     * its superclasses below {@link Context}. Field values are copied as they are, so objects referenced by the fields are
+     * shared by the source and the target. This is suitable for fields that hold immutable objects, or objects that tests
+     * don't change; otherwise use {@link #deepCopy(Class)} or supply a copier that copies them.
+     * @param contextClass the class of the context objects to copy
+     * @return a shallow copier
+     * @throws TestConstructionException the fields of the context class are not accessible
+     */
+    public static <T extends Context> ContextCopier<T> shallowCopy(Class<T> contextClass) {
+        Field[] fields = copiedFields(contextClass);
+        return (source, target) -> {
+            try {
+                for (Field field : fields) {
+                    field.set(target, field.get(source));
+                }
+            }
+            catch (IllegalAccessException e) {
+                throw new TestConstructionException("Can't copy context of class " + contextClass.getName(), e);
+            }
+        };
+    }
+
+    /**
+     * Returns a copier that copies the values of the same fields as {@link #shallowCopy(Class)}, together with the objects
+     * they reference, by serializing the values and deserializing them into the target. Objects referenced by several
+     * fields are still shared by those fields in the copy, but nothing is shared by the source and the target, so tests
+     * can change the objects they get from a {@link FixtureCache}. Every object reachable from the fields must be
+     * {@link Serializable}; fields declared {@code transient} are copied as they are.
+     * @param contextClass the class of the context objects to copy
+     * @return a deep copier
+     * @throws TestConstructionException the fields of the context class are not accessible. The copier throws this
+     * exception if a field value can't be serialized or deserialized.
+     */
+    public static <T extends Context> ContextCopier<T> deepCopy(Class<T> contextClass) {
+        Field[] fields = copiedFields(contextClass);
+        ClassLoader classLoader = contextClass.getClassLoader();
+        return (source, target) -> {
+            try {
+                Object[] values = new Object[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    if (!Modifier.isTransient(fields[i].getModifiers())) {
+                        values[i] = fields[i].get(source);
+                    }
+                }
+                Object[] copiedValues = serializedCopy(values, classLoader);
+                for (int i = 0; i < fields.length; i++) {
+                    Object value = Modifier.isTransient(fields[i].getModifiers()) ? fields[i].get(source) : copiedValues[i];
+                    fields[i].set(target, value);
+                }
+            }
+            catch (IllegalAccessException | IOException | ClassNotFoundException e) {
+                throw new TestConstructionException("Can't copy context of class " + contextClass.getName(), e);
+            }
+        };
+    }
+
+    /*
+     * The values are serialized together, so that an object referenced by several fields is copied once.
+     */
+    private static Object[] serializedCopy(Object[] values, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(values);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+                try {
+                    return Class.forName(description.getName(), false, classLoader);
+                }
+                catch (ClassNotFoundException e) {
+                    return super.resolveClass(description);
+                }
+            }
+        }) {
+            return (Object[]) in.readObject();
+        }
+    }
+
+    private static Field[] copiedFields(Class<?> contextClass) {
+        List<Field> fields = new ArrayList<>();
+        try {
+            for (Class<?> c = contextClass; c != Context.class && c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isFinal(modifiers) && !field.isSynthetic()) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+        }
+        catch (RuntimeException e) {
+            throw new TestConstructionException("Can't access the fields of context class " + contextClass.getName(), e);
+        }
+        return fields.toArray(new Field[0]);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.model.Context;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+
+/**
+ * Creates context objects from a context class. The no-arg constructor of each context class is looked up once and
+ * cached as a {@link MethodHandle}, so creating a context doesn't repeat the reflective lookup and access checks.
+ * <p>
+ * The cached supplier holds a strong reference to the constructor handle, and so to the context class and its class
+ * loader. When gwt-test is loaded by a longer-lived class loader than the tests, as in an application server or a build
+ * tool that reloads test classes, the class loaders of earlier test runs may be kept alive by this cache until
+ * gwt-test's own class loader is unloaded. Pass a context supplier to {@link GwtTest#GwtTest(Supplier)} to avoid the
+ * cache in such setups.
+ */
+final class ContextFactory {
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Context.class);
+
+    private static final ClassValue<Supplier<? extends Context>> contextSuppliers = new ClassValue<>() {
+        @Override
+        protected Supplier<? extends Context> computeValue(Class<?> contextClass) {
+            return createContextSupplier(contextClass);
+        }
+    };
+
+    private ContextFactory() {
+    }
+
+    /**
+     * Returns a supplier of new instances of the given context class.
+     * @param contextClass the class of the context object used by the test
+     * @return a supplier that invokes the no-arg constructor of the context class. If the constructor can't be found or
+     * isn't accessible, the supplier throws a {@link TestConstructionException}.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends Context> Supplier<T> forClass(Class<T> contextClass) {
+        return (Supplier<T>) contextSuppliers.get(contextClass);
+    }
+
+    /**
+     * Obtains a new context object from the given supplier.
+     * @param contextSupplier supplies context objects
+     * @return the new context object
+     * @throws TestConstructionException the supplier failed or returned null
+     */
+    static <T extends Context> T newContext(Supplier<T> contextSupplier) {
+        T newContext;
+        try {
+            newContext = contextSupplier.get();
+        }
+        catch (TestConstructionException | MalformedTestException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            throw new TestConstructionException("Can't construct test", e);
+        }
+        if (newContext == null) {
+            throw new TestConstructionException("Can't construct test: the context supplier returned null", null);
+        }
+        return newContext;
+    }
+
+    private static Supplier<? extends Context> createContextSupplier(Class<?> contextClass) {
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.lookup()
+                    .unreflectConstructor(contextClass.getDeclaredConstructor())
+                    .asType(CONSTRUCTOR_TYPE);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            return () -> {
+                throw new TestConstructionException("Can't construct test", e);
+            };
+        }
+        return () -> {
+            try {
+                return (Context) constructor.invokeExact();
+            }
+            catch (RuntimeException | Error e) {
+                throw e;
+            }
+            catch (Throwable e) {
+                throw new TestConstructionException("Can't construct test", e);
+            }
+        };
+    }
+
+}
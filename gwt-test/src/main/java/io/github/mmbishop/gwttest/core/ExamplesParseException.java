@@ -14,17 +14,15 @@
  * limitations under the License.
  */
 
-package io.github.mmbishop.gwttest.model;
+package io.github.mmbishop.gwttest.core;
 
 /**
- * Top-level superclass for GWT test context classes. This class is extended in GWT test classes and is used
- * to build the GwtTest object.
+ * An exception that is thrown when an examples file is malformed.
  */
-public class Context {
+public class ExamplesParseException extends RuntimeException {
 
-    public String testName;
-    public TestPhase testPhase;
-    public Class<? extends Throwable> expectedExceptionClass;
-    public Throwable thrownException;
+    public ExamplesParseException(String message) {
+        super(message);
+    }
 
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.ContextCopier;
+import io.github.mmbishop.gwttest.model.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * A bounded cache of the context states produced by Given clauses, used with
+ * {@link GwtTest#givenCached(FixtureCache, Object, io.github.mmbishop.gwttest.functions.GwtFunction[])}. The first test
+ * that uses a key runs the Given functions, and a snapshot of the resulting context is cached; later tests with the same
+ * key get a copy of the snapshot instead of running the functions. When the cache is full, the least recently used
+ * snapshot is evicted.
+ * <p>
+ * Tests are only isolated from each other as far as the cache's {@link ContextCopier} copies the state. With
+ * {@link ContextCopiers#shallowCopy(Class)}, every test gets the same objects that the snapshot references, so a test that
+ * changes a mutable object changes it for later tests too. Use {@link ContextCopiers#deepCopy(Class)}, or a copier that
+ * copies the mutable objects, when tests change the cached state.
+ * <p>
+ * A cache is safe to share among threads. Tests that miss the same key at the same time each run the Given functions.
+ * @param <T> subclass of {@link Context} whose states are cached
+ */
+public final class FixtureCache<T extends Context> {
+
+    private final int maxEntries;
+    private final ContextCopier<T> copier;
+    private final Map<Object, T> snapshots;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Instantiates a {@code FixtureCache}.
+     * @param maxEntries the maximum number of cached snapshots
+     * @param copier copies a context state into a snapshot, and a snapshot into the context of a test
+     * @throws IllegalArgumentException maxEntries is less than one
+     */
+    public FixtureCache(int maxEntries, ContextCopier<T> copier) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("A fixture cache needs room for at least one entry, but has " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.copier = copier;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, T> eldest) {
+                if (size() > FixtureCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of cached snapshots.
+     * @return the number of cached snapshots
+     */
+    public synchronized int size() {
+        return snapshots.size();
+    }
+
+    /**
+     * Discards all cached snapshots. The statistics are kept.
+     */
+    public synchronized void clear() {
+        snapshots.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "FixtureCache[" + snapshots.size() + "/" + maxEntries + " entries, " + hits + " hits, " + misses + " misses, "
+                + evictions + " evictions]";
+    }
+
+    /**
+     * Copies the snapshot cached for the given key into the given context.
+     * @param key the key of the snapshot
+     * @param context the context to copy the snapshot into
+     * @return true if a snapshot was cached for the key
+     */
+    boolean restore(Object key, T context) {
+        T snapshot;
+        synchronized (this) {
+            snapshot = snapshots.get(key);
+            if (snapshot == null) {
+                misses++;
+                return false;
+            }
+            hits++;
+        }
+        copier.copy(snapshot, context);
+        return true;
+    }
+
+    /**
+     * Caches a snapshot of the given context for the given key.
+     * @param key the key of the snapshot
+     * @param context the context to take a snapshot of
+     * @param contextSupplier supplies the context object that becomes the snapshot
+     */
+    void store(Object key, T context, Supplier<T> contextSupplier) {
+        T snapshot = ContextFactory.newContext(contextSupplier);
+        copier.copy(context, snapshot);
+        synchronized (this) {
+            snapshots.put(key, snapshot);
+        }
+    }
+
+}
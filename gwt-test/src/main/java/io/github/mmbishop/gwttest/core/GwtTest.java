@@ -0,0 +1,685 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.AsyncGwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.instrumentation.StepFlightEvent;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.LatencySamples;
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * The core class for building Given-When-Then tests.
+ * @param <T> a subclass of {@link Context} that contains the fields used in test code.
+ */
+public class GwtTest<T extends Context> {
+
+    private static final TestPhaseValidator testPhaseValidator = new TestPhaseValidator();
+
+    private TestPhase testPhase;
+    private final Supplier<T> contextSupplier;
+    private T context;
+    private T reusableContext;
+    private int stepIndex;
+
+    /**
+     * Instantiates a {@code GwtTest} object.
+     * @param contextClass the class of the context object used by the test. The class must be public and have a public
+     *                     no-arg constructor.
+     */
+    public GwtTest(Class<T> contextClass) {
+        this.contextSupplier = ContextFactory.forClass(contextClass);
+    }
+
+    /**
+     * Instantiates a {@code GwtTest} object that obtains its context objects from the given supplier instead of
+     * instantiating a context class reflectively.
+     * @param contextSupplier supplies a new context object each time {@link #test()} is called
+     */
+    public GwtTest(Supplier<T> contextSupplier) {
+        this.contextSupplier = contextSupplier;
+    }
+
+    /**
+     * Initializes the {@code GwtTest} object
+     * @return this {@code GwtTest} object
+     * @throws TestConstructionException could not construct the test, most likely due to an inability to
+     * instantiate the context class
+     */
+    public GwtTest<T> test() {
+        if (testPhase == null) {
+            context = nextContext();
+            context.setTestNameResolver(TestNames.callingMethodName());
+            testPhase = TestPhase.CONSTRUCTED;
+            stepIndex = 0;
+            StepInvoker.testStarted(context);
+            return this;
+        }
+        throw new MalformedTestException("Can't call test() more than once.");
+    }
+
+    /**
+     * Initializes the {@code GwtTest} object
+     * @param testName the name of the test
+     * @return this {@code GwtTest} object
+     * @throws TestConstructionException could not construct the test, most likely due to an inability to
+     * instantiate the context class
+     */
+    public GwtTest<T> test(String testName) {
+        if (testPhase == null) {
+            context = nextContext();
+            context.setTestName(testName);
+            testPhase = TestPhase.CONSTRUCTED;
+            stepIndex = 0;
+            StepInvoker.testStarted(context);
+            return this;
+        }
+        throw new MalformedTestException("Can't call test() more than once.");
+    }
+
+    /**
+     * Ends the current test so that {@link #test()} can be called again on this {@code GwtTest} object, for example to run
+     * the same scenario repeatedly. The next test gets a new context object.
+     * @return this {@code GwtTest} object
+     */
+    public GwtTest<T> reset() {
+        testPhase = null;
+        reusableContext = null;
+        return this;
+    }
+
+    /**
+     * Ends the current test so that {@link #test()} can be called again on this {@code GwtTest} object, reusing the current
+     * context object instead of creating a new one. The test metadata in the context (test name, phase, expected and thrown
+     * exceptions) is cleared, and the given function is invoked to clear the fields declared by the context class.
+     * @param contextReset {@code GwtFunction} that restores the fields of the context object to their initial state
+     * @return this {@code GwtTest} object
+     * @throws TestConstructionException the context reset function threw an exception or error. The context object is then
+     * discarded, and the next test gets a new one.
+     */
+    public GwtTest<T> reset(GwtFunction<T> contextReset) {
+        testPhase = null;
+        reusableContext = null;
+        if (context != null) {
+            context.setTestName(null);
+            context.testPhase = null;
+            context.expectedExceptionClass = null;
+            context.thrownException = null;
+            context.whenLatency = null;
+            context.loadReport = null;
+            context.exampleRow = null;
+            try {
+                contextReset.apply(context);
+            }
+            catch (Throwable e) {
+                context = null;
+                throw new TestConstructionException("Can't reset context", e);
+            }
+            reusableContext = context;
+        }
+        return this;
+    }
+
+    public GwtTest<T> expectingException(Class<? extends Throwable> expectedExceptionClass) {
+        context.expectedExceptionClass = expectedExceptionClass;
+        return this;
+    }
+
+    /**
+     * Invokes the given function with the context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> given(GwtFunction<T> gwtFunction) {
+        enterPhase(TestPhase.GIVEN);
+        invokeGwtFunction(gwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions, in order, with the context object.
+     * @param firstGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause
+     * @param secondGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> given(GwtFunction<T> firstGwtFunction, GwtFunction<T> secondGwtFunction) {
+        enterPhase(TestPhase.GIVEN);
+        invokeGwtFunctions(firstGwtFunction, secondGwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions, in order, with the context object.
+     * @param firstGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause
+     * @param secondGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause
+     * @param thirdGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> given(GwtFunction<T> firstGwtFunction, GwtFunction<T> secondGwtFunction,
+                                  GwtFunction<T> thirdGwtFunction) {
+        enterPhase(TestPhase.GIVEN);
+        invokeGwtFunctions(firstGwtFunction, secondGwtFunction, thirdGwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions with the context object.
+     * @param gwtFunctions {@code GwtFunction}s that contain logic to be performed as part of the Given clause
+     * @return this {@code GwtTest} object
+     */
+    @SafeVarargs
+    public final GwtTest<T> given(GwtFunction<T>... gwtFunctions) {
+        enterPhase(TestPhase.GIVEN);
+        invokeGwtFunctions(gwtFunctions);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions with the context object, unless the state they produce is already cached under the given
+     * key, in which case a copy of the cached state is put into the context object instead. After the functions have run
+     * without throwing an exception, a snapshot of the context is cached under the key.
+     * @param cache the cache of context states
+     * @param key identifies the state produced by the functions
+     * @param gwtFunctions {@code GwtFunction}s that contain logic to be performed as part of the Given clause
+     * @return this {@code GwtTest} object
+     */
+    @SafeVarargs
+    public final GwtTest<T> givenCached(FixtureCache<T> cache, Object key, GwtFunction<T>... gwtFunctions) {
+        enterPhase(TestPhase.GIVEN);
+        if (!cache.restore(key, context)) {
+            invokeGwtFunctions(gwtFunctions);
+            if (context.thrownException == null) {
+                cache.store(key, context, contextSupplier);
+            }
+        }
+        return this;
+    }
+
+    @SafeVarargs
+    final GwtTest<T> callGiven(GwtFunction<T>... gwtFunctions) {
+        return given(gwtFunctions);
+    }
+
+    /**
+     * Invokes the given function on the given argument and context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause. This function takes
+     *                                       an argument of type {@code V} and an instance of a subclass of {@link Context}.
+     * @param arg an argument of type {@code V}
+     * @return this {@code GwtTest} object
+     */
+    public final <V> GwtTest<T> given(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+        enterPhase(TestPhase.GIVEN);
+        invokeGwtFunction(gwtFunction, arg);
+        return this;
+    }
+
+    final <V> GwtTest<T> callGiven(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+        return given(gwtFunction, arg);
+    }
+
+    /**
+     * Invokes the given function on the given argument and context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause. This function takes
+     *                                       an argument of type {@code V} and an instance of a subclass of {@link Context}.
+     * @param args arguments of type {@code V}
+     * @return this {@code GwtTest} object
+     */
+    @SafeVarargs
+    public final <V> GwtTest<T> given(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+        enterPhase(TestPhase.GIVEN);
+        invokeGwtFunction(gwtFunction, args);
+        return this;
+    }
+
+    @SafeVarargs
+    final <V> GwtTest<T> callGiven(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+        return given(gwtFunction, args);
+    }
+
+    /**
+     * Invokes the given function with the context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> when(GwtFunction<T> gwtFunction) {
+        enterPhase(TestPhase.WHEN);
+        invokeGwtFunction(gwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions, in order, with the context object.
+     * @param firstGwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+     * @param secondGwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> when(GwtFunction<T> firstGwtFunction, GwtFunction<T> secondGwtFunction) {
+        enterPhase(TestPhase.WHEN);
+        invokeGwtFunctions(firstGwtFunction, secondGwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions, in order, with the context object.
+     * @param firstGwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+     * @param secondGwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+     * @param thirdGwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> when(GwtFunction<T> firstGwtFunction, GwtFunction<T> secondGwtFunction,
+                                  GwtFunction<T> thirdGwtFunction) {
+        enterPhase(TestPhase.WHEN);
+        invokeGwtFunctions(firstGwtFunction, secondGwtFunction, thirdGwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions with the context object.
+     * @param gwtFunctions {@code GwtFunction}s that contain logic to be performed as part of the When clause
+     * @return this {@code GwtTest} object
+     */
+    @SafeVarargs
+    public final GwtTest<T> when(GwtFunction<T>... gwtFunctions) {
+        enterPhase(TestPhase.WHEN);
+        invokeGwtFunctions(gwtFunctions);
+        return this;
+    }
+
+    @SafeVarargs
+    final GwtTest<T> callWhen(GwtFunction<T>... gwtFunctions) {
+        return when(gwtFunctions);
+    }
+
+    /**
+     * Invokes the given function on the given argument and context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause. This function takes
+     *                                       an argument of type {@code V} and an instance of a subclass of {@link Context}.
+     * @param arg an argument of type {@code V}
+     * @return this {@code GwtTest} object
+     */
+    public final <V> GwtTest<T> when(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+        enterPhase(TestPhase.WHEN);
+        invokeGwtFunction(gwtFunction, arg);
+        return this;
+    }
+
+    final <V> GwtTest<T> callWhen(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+        return when(gwtFunction, arg);
+    }
+
+    /**
+     * Invokes the given function on the given argument and context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause. This function takes
+     *                                       an argument of type {@code V} and an instance of a subclass of {@link Context}.
+     * @param args arguments of type {@code V}
+     * @return this {@code GwtTest} object
+     */
+    @SafeVarargs
+    public final <V> GwtTest<T> when(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+        enterPhase(TestPhase.WHEN);
+        invokeGwtFunction(gwtFunction, args);
+        return this;
+    }
+
+    @SafeVarargs
+    final <V> GwtTest<T> callWhen(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+        return when(gwtFunction, args);
+    }
+
+    /**
+     * Invokes the given asynchronous function with the context object and waits for the stage it returns to complete. If
+     * the stage completes exceptionally, the exception is handled as if the function had thrown it. Use
+     * {@link Scenario#runAsync()} to run asynchronous steps without blocking a thread.
+     * @param asyncFunction {@code AsyncGwtFunction} that starts the logic to be performed as part of the When clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> whenAsync(AsyncGwtFunction<T> asyncFunction) {
+        return whenAsync(null, asyncFunction);
+    }
+
+    /**
+     * Invokes the given asynchronous function with the context object and waits at most the given time for the stage it
+     * returns to complete. If the stage doesn't complete in time, the step fails with a
+     * {@link java.util.concurrent.TimeoutException}.
+     * @param timeout the maximum time to wait for the stage to complete
+     * @param asyncFunction {@code AsyncGwtFunction} that starts the logic to be performed as part of the When clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> whenAsync(Duration timeout, AsyncGwtFunction<T> asyncFunction) {
+        enterPhase(TestPhase.WHEN);
+        invokeGwtFunction(AsyncSteps.blocking(asyncFunction, timeout));
+        return this;
+    }
+
+    /**
+     * Invokes the given function with the context object and records its duration in {@link Context#whenLatency}, so that
+     * it can be checked against a budget with {@link LatencyBudget}.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> whenTimed(GwtFunction<T> gwtFunction) {
+        return whenTimed(0, 1, gwtFunction);
+    }
+
+    /**
+     * Invokes the given function with the context object repeatedly, first the given number of warmup times and then the
+     * given number of measured times, and records the durations of the measured invocations in {@link Context#whenLatency},
+     * so that their median or a percentile can be checked against a budget with {@link LatencyBudget}. If the function
+     * throws an expected exception, it is not invoked again and only the durations measured so far are recorded. All the
+     * invocations make up a single step, so step listeners and Flight Recorder see one step that spans the warmup and
+     * measured runs.
+     * @param warmupRuns the number of times the function is invoked before it is measured
+     * @param measuredRuns the number of times the function is invoked and measured
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+     * @return this {@code GwtTest} object
+     * @throws MalformedTestException warmupRuns is negative or measuredRuns is less than one
+     */
+    public final GwtTest<T> whenTimed(int warmupRuns, int measuredRuns, GwtFunction<T> gwtFunction) {
+        if (warmupRuns < 0 || measuredRuns < 1) {
+            throw new MalformedTestException("A timed When step needs zero or more warmup runs and at least one measured run.");
+        }
+        enterPhase(TestPhase.WHEN);
+        long[] samples = new long[measuredRuns];
+        int sampleCount = 0;
+        long stepStartNanos = StepInvoker.stepStarted(context, stepIndex);
+        StepFlightEvent flightEvent = StepInvoker.beginFlightEvent();
+        try {
+            for (int i = 0; i < warmupRuns; i++) {
+                gwtFunction.apply(context);
+            }
+            while (sampleCount < measuredRuns) {
+                long startNanos = System.nanoTime();
+                try {
+                    gwtFunction.apply(context);
+                }
+                finally {
+                    samples[sampleCount++] = System.nanoTime() - startNanos;
+                }
+            }
+        }
+        catch (Throwable e) {
+            if (sampleCount > 0) {
+                context.whenLatency = new LatencySamples(Arrays.copyOf(samples, sampleCount));
+            }
+            StepInvoker.stepFailed(context, stepIndex++, stepStartNanos, flightEvent, e);
+            return this;
+        }
+        StepInvoker.stepPassed(context, stepIndex++, stepStartNanos, flightEvent);
+        context.whenLatency = new LatencySamples(samples);
+        return this;
+    }
+
+    /**
+     * Invokes the given function with the context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> then(GwtFunction<T> gwtFunction) {
+        enterPhase(TestPhase.THEN);
+        invokeGwtFunction(gwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions, in order, with the context object.
+     * @param firstGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause
+     * @param secondGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> then(GwtFunction<T> firstGwtFunction, GwtFunction<T> secondGwtFunction) {
+        enterPhase(TestPhase.THEN);
+        invokeGwtFunctions(firstGwtFunction, secondGwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions, in order, with the context object.
+     * @param firstGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause
+     * @param secondGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause
+     * @param thirdGwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> then(GwtFunction<T> firstGwtFunction, GwtFunction<T> secondGwtFunction,
+                                 GwtFunction<T> thirdGwtFunction) {
+        enterPhase(TestPhase.THEN);
+        invokeGwtFunctions(firstGwtFunction, secondGwtFunction, thirdGwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given functions with the context object.
+     * @param gwtFunctions {@code GwtFunction}s that contain logic to be performed as part of the Then clause
+     * @return this {@code GwtTest} object
+     */
+    @SafeVarargs
+    public final GwtTest<T> then(GwtFunction<T>... gwtFunctions) {
+        enterPhase(TestPhase.THEN);
+        invokeGwtFunctions(gwtFunctions);
+        return this;
+    }
+
+    @SafeVarargs
+    final GwtTest<T> callThen(GwtFunction<T>... gwtFunctions) {
+        return then(gwtFunctions);
+    }
+
+    /**
+     * Invokes the given function on the given argument and context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause. This function takes
+     *                                       an argument of type {@code V} and an instance of a subclass of {@link Context}.
+     * @param arg an argument of type {@code V}
+     * @return this {@code GwtTest} object
+     */
+    public final <V> GwtTest<T> then(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+        enterPhase(TestPhase.THEN);
+        invokeGwtFunction(gwtFunction, arg);
+        return this;
+    }
+
+    final <V> GwtTest<T> callThen(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+        return then(gwtFunction, arg);
+    }
+
+    /**
+     * Invokes the given function on the given argument and context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause. This function takes
+     *                                       an argument of type {@code V} and an instance of a subclass of {@link Context}.
+     * @param args arguments of type {@code V}
+     * @return this {@code GwtTest} object
+     */
+    @SafeVarargs
+    public final <V> GwtTest<T> then(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+        enterPhase(TestPhase.THEN);
+        invokeGwtFunction(gwtFunction, args);
+        return this;
+    }
+
+    @SafeVarargs
+    final <V> GwtTest<T> callThen(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+        return then(gwtFunction, args);
+    }
+
+    /**
+     * Invokes the given function with the context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of an And clause attached
+     *                                       to a Given, When or Then
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> and(GwtFunction<T> gwtFunction) {
+        testPhaseValidator.validateSelfTransition(context.testPhase);
+        invokeGwtFunction(gwtFunction);
+        return this;
+    }
+
+    /**
+     * Invokes the given function on the given argument and context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of an And clause attached
+     *                                       to a Given, When or Then.  This function takes an argument of type {@code V}
+     *                                       and an instance of a subclass of {@link Context}.
+     * @param arg an argument of type {@code V}
+     * @return this {@code GwtTest} object
+     */
+    public final <V> GwtTest<T> and(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+        testPhaseValidator.validateSelfTransition(context.testPhase);
+        invokeGwtFunction(gwtFunction, arg);
+        return this;
+    }
+
+    /**
+     * Invokes the given function on the given argument and context object.
+     * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of an And clause attached
+     *                                       to a Given, When or Then.  This function takes an argument of type {@code V}
+     *                                       and an instance of a subclass of {@link Context}.
+     * @param args arguments of type {@code V}
+     * @return this {@code GwtTest} object
+     */
+    @SafeVarargs
+    public final <V> GwtTest<T> and(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+        testPhaseValidator.validateSelfTransition(context.testPhase);
+        invokeGwtFunction(gwtFunction, args);
+        return this;
+    }
+
+    /**
+     * Invokes the given asynchronous function with the context object and waits for the stage it returns to complete.
+     * @param asyncFunction {@code AsyncGwtFunction} that starts the logic to be performed as part of an And clause
+     *                                              attached to a Given, When or Then
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> andAsync(AsyncGwtFunction<T> asyncFunction) {
+        return andAsync(null, asyncFunction);
+    }
+
+    /**
+     * Invokes the given asynchronous function with the context object and waits at most the given time for the stage it
+     * returns to complete.
+     * @param timeout the maximum time to wait for the stage to complete
+     * @param asyncFunction {@code AsyncGwtFunction} that starts the logic to be performed as part of an And clause
+     *                                              attached to a Given, When or Then
+     * @return this {@code GwtTest} object
+     */
+    public final GwtTest<T> andAsync(Duration timeout, AsyncGwtFunction<T> asyncFunction) {
+        testPhaseValidator.validateSelfTransition(context.testPhase);
+        invokeGwtFunction(AsyncSteps.blocking(asyncFunction, timeout));
+        return this;
+    }
+
+    /*
+     * The name of the test is resolved before its first step function runs, so that step functions that read the
+     * deprecated Context.testName field find it filled in. Every When clause discards the latency of the previous one, so
+     * that a latency budget is only ever checked against the When clause just before it.
+     */
+    private void enterPhase(TestPhase nextPhase) {
+        testPhaseValidator.validatePhaseTransition(context.testPhase, nextPhase);
+        if (stepIndex == 0) {
+            context.getTestName();
+        }
+        if (nextPhase == TestPhase.WHEN) {
+            context.whenLatency = null;
+        }
+        else if (nextPhase == TestPhase.THEN) {
+            StepInvoker.failIfExpectedExceptionWasNotThrown(context);
+        }
+        context.testPhase = nextPhase;
+    }
+
+    /*
+     * The invocation methods below don't allocate: functions are called directly or in an indexed loop, without streams or
+     * capturing lambdas, and the fixed-arity forms avoid creating a varargs array. Each method returns false if its function
+     * threw an expected exception, in which case the remaining functions of the clause are skipped.
+     */
+
+    private boolean invokeGwtFunction(GwtFunction<T> gwtFunction) {
+        long startNanos = StepInvoker.stepStarted(context, stepIndex);
+        StepFlightEvent flightEvent = StepInvoker.beginFlightEvent();
+        try {
+            gwtFunction.apply(context);
+        }
+        catch (Throwable e) {
+            StepInvoker.stepFailed(context, stepIndex++, startNanos, flightEvent, e);
+            return false;
+        }
+        StepInvoker.stepPassed(context, stepIndex++, startNanos, flightEvent);
+        return true;
+    }
+
+    private void invokeGwtFunctions(GwtFunction<T> firstGwtFunction, GwtFunction<T> secondGwtFunction) {
+        if (invokeGwtFunction(firstGwtFunction)) {
+            invokeGwtFunction(secondGwtFunction);
+        }
+    }
+
+    private void invokeGwtFunctions(GwtFunction<T> firstGwtFunction, GwtFunction<T> secondGwtFunction,
+                                    GwtFunction<T> thirdGwtFunction) {
+        if (invokeGwtFunction(firstGwtFunction) && invokeGwtFunction(secondGwtFunction)) {
+            invokeGwtFunction(thirdGwtFunction);
+        }
+    }
+
+    @SafeVarargs
+    private void invokeGwtFunctions(GwtFunction<T>... gwtFunctions) {
+        for (int i = 0; i < gwtFunctions.length; i++) {
+            if (!invokeGwtFunction(gwtFunctions[i])) {
+                return;
+            }
+        }
+    }
+
+    private <V> void invokeGwtFunction(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+        long startNanos = StepInvoker.stepStarted(context, stepIndex);
+        StepFlightEvent flightEvent = StepInvoker.beginFlightEvent();
+        try {
+            gwtFunction.apply(context, arg);
+        }
+        catch (Throwable e) {
+            StepInvoker.stepFailed(context, stepIndex++, startNanos, flightEvent, e);
+            return;
+        }
+        StepInvoker.stepPassed(context, stepIndex++, startNanos, flightEvent);
+    }
+
+    @SafeVarargs
+    private <V> void invokeGwtFunction(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+        long startNanos = StepInvoker.stepStarted(context, stepIndex);
+        StepFlightEvent flightEvent = StepInvoker.beginFlightEvent();
+        try {
+            gwtFunction.apply(context, args);
+        }
+        catch (Throwable e) {
+            StepInvoker.stepFailed(context, stepIndex++, startNanos, flightEvent, e);
+            return;
+        }
+        StepInvoker.stepPassed(context, stepIndex++, startNanos, flightEvent);
+    }
+
+    private T nextContext() {
+        if (reusableContext != null) {
+            T nextContext = reusableContext;
+            reusableContext = null;
+            return nextContext;
+        }
+        return ContextFactory.newContext(contextSupplier);
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.LatencySamples;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Then functions that check the latency of the preceding timed When step against a budget. The When step must be run with
+ * {@link GwtTest#whenTimed(GwtFunction)} or {@link GwtTest#whenTimed(int, int, GwtFunction)}, for example:
+ * <pre>
+ * gwt.test()
+ *         .given(a_warm_cache)
+ *         .whenTimed(5, 50, looking_up_a_customer)
+ *         .then(LatencyBudget.percentileWithin(99.0, Duration.ofMillis(10)));
+ * </pre>
+ */
+public final class LatencyBudget {
+
+    private LatencyBudget() {
+    }
+
+    /**
+     * Returns a function that fails the test if any repetition of the timed When step exceeded the budget.
+     * @param budget the latency budget
+     * @return a {@code GwtFunction} to be used in a Then clause
+     */
+    public static <T extends Context> GwtFunction<T> within(Duration budget) {
+        return budgetCheck("maximum", LatencySamples::getMax, budget);
+    }
+
+    /**
+     * Returns a function that fails the test if the median latency of the timed When step exceeded the budget.
+     * @param budget the latency budget
+     * @return a {@code GwtFunction} to be used in a Then clause
+     */
+    public static <T extends Context> GwtFunction<T> medianWithin(Duration budget) {
+        return budgetCheck("median", LatencySamples::getMedian, budget);
+    }
+
+    /**
+     * Returns a function that fails the test if the given percentile of the latency of the timed When step exceeded the
+     * budget.
+     * @param percentile the percentile, from 0 to 100
+     * @param budget the latency budget
+     * @return a {@code GwtFunction} to be used in a Then clause
+     * @throws IllegalArgumentException the percentile is not between 0 and 100
+     */
+    public static <T extends Context> GwtFunction<T> percentileWithin(double percentile, Duration budget) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, but was " + percentile);
+        }
+        return budgetCheck("p" + formatPercentile(percentile), samples -> samples.getPercentile(percentile), budget);
+    }
+
+    private static <T extends Context> GwtFunction<T> budgetCheck(String statistic, Function<LatencySamples, Duration> latencyOf,
+                                                                  Duration budget) {
+        return context -> {
+            if (context.whenLatency == null) {
+                throw new MalformedTestException("Can't check a latency budget without a timed When step.");
+            }
+            Duration latency = latencyOf.apply(context.whenLatency);
+            if (latency.compareTo(budget) > 0) {
+                throw new LatencyBudgetExceededException(statistic, latency, budget);
+            }
+        };
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+}
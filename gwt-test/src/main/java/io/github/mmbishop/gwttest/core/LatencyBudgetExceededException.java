@@ -0,0 +1,30 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import java.time.Duration;
+
+/**
+ * An exception that is thrown when a timed When step took longer than its latency budget.
+ */
+public class LatencyBudgetExceededException extends RuntimeException {
+
+    public LatencyBudgetExceededException(String statistic, Duration latency, Duration budget) {
+        super("The " + statistic + " latency of the When step was " + latency + ", which exceeds the budget of " + budget + ".");
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import java.time.Duration;
+
+/**
+ * Describes how a scenario is run under load with {@link Scenario#runLoad(LoadProfile)}: the number of threads, and either
+ * the total number of times the When clause is run or how long it is run for.
+ */
+public final class LoadProfile {
+
+    private final int threads;
+    private final long iterations;
+    private final Duration duration;
+    private final long warmupIterations;
+
+    private LoadProfile(int threads, long iterations, Duration duration, long warmupIterations) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A load profile needs at least one thread, but has " + threads);
+        }
+        if (warmupIterations < 0) {
+            throw new IllegalArgumentException("The number of warmup iterations can't be negative, but is " + warmupIterations);
+        }
+        this.threads = threads;
+        this.iterations = iterations;
+        this.duration = duration;
+        this.warmupIterations = warmupIterations;
+    }
+
+    /**
+     * Returns a profile that runs the When clause the given total number of times, shared among the given number of threads.
+     * @param threads the number of threads
+     * @param iterations the total number of times the When clause is run
+     * @return a load profile
+     * @throws IllegalArgumentException threads or iterations is less than one
+     */
+    public static LoadProfile iterations(int threads, long iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("A load profile needs at least one iteration, but has " + iterations);
+        }
+        return new LoadProfile(threads, iterations, null, 0);
+    }
+
+    /**
+     * Returns a profile that runs the When clause repeatedly on the given number of threads for the given duration.
+     * @param threads the number of threads
+     * @param duration how long the When clause is run for
+     * @return a load profile
+     * @throws IllegalArgumentException threads is less than one or the duration is not positive
+     */
+    public static LoadProfile duration(int threads, Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("A load profile needs a positive duration, but has " + duration);
+        }
+        return new LoadProfile(threads, 0, duration, 0);
+    }
+
+    /**
+     * Returns a copy of this profile in which each thread runs the When clause the given number of times before
+     * measurement starts.
+     * @param warmupIterations the number of unmeasured runs per thread
+     * @return a load profile
+     * @throws IllegalArgumentException warmupIterations is negative
+     */
+    public LoadProfile withWarmupIterations(long warmupIterations) {
+        return new LoadProfile(threads, iterations, duration, warmupIterations);
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the total number of measured iterations.
+     * @return the number of iterations, or 0 if the profile is limited by duration
+     */
+    public long getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns how long the When clause is run for.
+     * @return the duration, or null if the profile is limited by the number of iterations
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public long getWarmupIterations() {
+        return warmupIterations;
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.instrumentation.LatencyHistogram;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.LoadReport;
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a scenario under load. Each worker thread has its own context object and runs the steps before the first When
+ * clause once. When every worker is ready, they all run the first When clause, including its And clauses, repeatedly
+ * until the profile's iterations or duration are used up, each recording latencies in its own histogram. The remaining
+ * steps then run on the first worker's context, whose {@link Context#loadReport} holds the merged results.
+ */
+final class LoadRunner<T extends Context> {
+
+    private final Scenario<T> scenario;
+    private final LoadProfile profile;
+    private final int loadStartIndex;
+    private final int loadEndIndex;
+    private final CountDownLatch workersReady;
+    private final CountDownLatch startSignal = new CountDownLatch(1);
+    private final AtomicLong remainingIterations;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean stopped;
+    private volatile long deadlineNanos;
+
+    LoadRunner(Scenario<T> scenario, LoadProfile profile) {
+        this.scenario = scenario;
+        this.profile = profile;
+        this.loadStartIndex = findFirstWhenClause(scenario.steps());
+        this.loadEndIndex = findNextPhase(scenario.steps(), loadStartIndex);
+        this.workersReady = new CountDownLatch(profile.getThreads());
+        this.remainingIterations = new AtomicLong(profile.getIterations());
+    }
+
+    T run() {
+        int threadCount = profile.getThreads();
+        List<Worker> workers = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            Worker worker = new Worker(i);
+            workers.add(worker);
+            worker.start();
+        }
+        long elapsedNanos;
+        try {
+            workersReady.await();
+            long startNanos = System.nanoTime();
+            if (profile.getDuration() != null) {
+                deadlineNanos = startNanos + profile.getDuration().toNanos();
+            }
+            startSignal.countDown();
+            for (Worker worker : workers) {
+                worker.join();
+            }
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+        catch (InterruptedException e) {
+            stopped = true;
+            startSignal.countDown();
+            Thread.currentThread().interrupt();
+            throw new ScenarioFailedException("Interrupted while waiting for the load run of " + scenario.getName() + " to finish");
+        }
+        Worker firstWorker = workers.get(0);
+        boolean passed = false;
+        try {
+            rethrowFailure();
+            LatencyHistogram latencies = new LatencyHistogram();
+            for (Worker worker : workers) {
+                latencies.add(worker.latencies);
+            }
+            T context = firstWorker.context;
+            context.loadReport = new LoadReport(threadCount, latencies.getCount(), elapsedNanos,
+                    Duration.ofNanos(Math.round(latencies.getMeanNanos())), latencies.getPercentile(50.0),
+                    latencies.getPercentile(90.0), latencies.getPercentile(99.0), latencies.getPercentile(99.9),
+                    Duration.ofNanos(latencies.getMaxNanos()));
+            scenario.runSteps(context, loadEndIndex, scenario.steps().length);
+            passed = true;
+            return context;
+        }
+        finally {
+            firstWorker.finishRun(passed);
+        }
+    }
+
+    private boolean claimIteration() {
+        if (stopped) {
+            return false;
+        }
+        if (profile.getDuration() != null) {
+            return System.nanoTime() < deadlineNanos;
+        }
+        return remainingIterations.getAndDecrement() > 0;
+    }
+
+    private void fail(Throwable e) {
+        failure.compareAndSet(null, e);
+        stopped = true;
+    }
+
+    private void rethrowFailure() {
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        if (e != null) {
+            throw new UnexpectedExceptionCaughtException(e);
+        }
+    }
+
+    private static int findFirstWhenClause(ScenarioStep<?>[] steps) {
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i].entersPhase && steps[i].phase == TestPhase.WHEN) {
+                return i;
+            }
+        }
+        throw new MalformedTestException("Can't run a scenario under load without a When clause.");
+    }
+
+    private static int findNextPhase(ScenarioStep<?>[] steps, int fromIndex) {
+        for (int i = fromIndex + 1; i < steps.length; i++) {
+            if (steps[i].entersPhase) {
+                return i;
+            }
+        }
+        return steps.length;
+    }
+
+    /*
+     * Each worker's context is reported to step listeners as a run of the scenario. The first worker's run also includes
+     * the steps after the When clause, so it is finished by the thread that runs them.
+     */
+    private class Worker extends Thread {
+
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final int workerIndex;
+        private T context;
+        private StepInvoker.ScenarioRun run;
+
+        Worker(int workerIndex) {
+            super("gwt-test-load-" + scenario.getName() + "-" + workerIndex);
+            this.workerIndex = workerIndex;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            boolean passed = false;
+            try {
+                context = scenario.newContext();
+                scenario.prepareContext(context);
+                run = StepInvoker.scenarioStarted(context);
+                scenario.runSteps(context, 0, loadStartIndex);
+                for (long i = 0; i < profile.getWarmupIterations() && !stopped; i++) {
+                    scenario.runSteps(context, loadStartIndex, loadEndIndex);
+                }
+                passed = true;
+            }
+            catch (Throwable e) {
+                fail(e);
+            }
+            finally {
+                workersReady.countDown();
+            }
+            try {
+                startSignal.await();
+                while (claimIteration()) {
+                    long startNanos = System.nanoTime();
+                    scenario.runSteps(context, loadStartIndex, loadEndIndex);
+                    latencies.record(System.nanoTime() - startNanos);
+                }
+            }
+            catch (Throwable e) {
+                passed = false;
+                fail(e);
+            }
+            if (workerIndex > 0) {
+                finishRun(passed);
+            }
+        }
+
+        void finishRun(boolean passed) {
+            if (run != null) {
+                StepInvoker.scenarioFinished(context, run, scenario.steps().length, passed);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the events in which a virtual thread was pinned to its carrier thread, for example by blocking inside a
+ * {@code synchronized} block, while scenarios run. Pinned virtual threads keep carrier threads busy and limit how many
+ * scenarios can make progress at once.
+ * <p>
+ * The monitor uses a JDK Flight Recorder recording of the {@code jdk.VirtualThreadPinned} event. On runtimes without
+ * virtual threads, or without Flight Recorder, it records nothing.
+ * <pre>
+ * try (PinnedThreadMonitor monitor = PinnedThreadMonitor.start()) {
+ *     runner.runAll(scenarios);
+ * }
+ * </pre>
+ */
+public final class PinnedThreadMonitor implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final String PINNED_EVENT_NAME = "jdk.VirtualThreadPinned";
+    private static final int MAX_REPORTED_FRAMES = 8;
+
+    private final Recording recording;
+    private List<PinnedThreadEvent> pinnedThreadEvents = Collections.emptyList();
+
+    private PinnedThreadMonitor(Recording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Starts monitoring virtual threads that are pinned for at least 20 milliseconds, the JDK's default threshold.
+     * @return the started monitor
+     */
+    public static PinnedThreadMonitor start() {
+        return start(Duration.ofMillis(20));
+    }
+
+    /**
+     * Starts monitoring virtual threads that are pinned for at least the given threshold.
+     * @param threshold the minimum duration of a pinned event to record
+     * @return the started monitor
+     */
+    public static PinnedThreadMonitor start(Duration threshold) {
+        Recording recording;
+        try {
+            recording = new Recording();
+            recording.enable(PINNED_EVENT_NAME).withThreshold(threshold).withStackTrace();
+            recording.start();
+        }
+        catch (RuntimeException | LinkageError e) {
+            logger.warn("Can't monitor pinned virtual threads: {}", e.toString());
+            recording = null;
+        }
+        return new PinnedThreadMonitor(recording);
+    }
+
+    /**
+     * Stops monitoring, reads the recorded events and logs a warning if any virtual thread was pinned.
+     */
+    @Override
+    public void close() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.stop();
+            pinnedThreadEvents = readPinnedThreadEvents(recording);
+        }
+        catch (IOException e) {
+            logger.warn("Can't read pinned virtual thread events: {}", e.toString());
+        }
+        finally {
+            recording.close();
+        }
+        if (!pinnedThreadEvents.isEmpty()) {
+            PinnedThreadEvent firstEvent = pinnedThreadEvents.get(0);
+            logger.warn("{} pinned virtual thread event(s) recorded. First pinned for {} ms on {} at:{}{}",
+                    pinnedThreadEvents.size(), firstEvent.getDuration().toMillis(), firstEvent.getThreadName(),
+                    System.lineSeparator(), firstEvent.getStackTrace());
+        }
+    }
+
+    /**
+     * Returns the pinned events recorded by this monitor. The events are available once the monitor is closed.
+     * @return the recorded pinned events
+     */
+    public List<PinnedThreadEvent> getPinnedThreadEvents() {
+        return pinnedThreadEvents;
+    }
+
+    private static List<PinnedThreadEvent> readPinnedThreadEvents(Recording recording) throws IOException {
+        Path recordingFile = Files.createTempFile("gwt-test-pinned-threads", ".jfr");
+        try {
+            recording.dump(recordingFile);
+            List<PinnedThreadEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+                if (event.getEventType().getName().equals(PINNED_EVENT_NAME)) {
+                    events.add(new PinnedThreadEvent(threadNameOf(event), event.getDuration(), stackTraceOf(event)));
+                }
+            }
+            return Collections.unmodifiableList(events);
+        }
+        finally {
+            Files.deleteIfExists(recordingFile);
+        }
+    }
+
+    private static String threadNameOf(RecordedEvent event) {
+        RecordedThread thread = event.getThread();
+        if (thread == null) {
+            return "unknown";
+        }
+        return thread.getJavaName() != null ? thread.getJavaName() : "virtual thread " + thread.getJavaThreadId();
+    }
+
+    private static String stackTraceOf(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder builder = new StringBuilder();
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (int i = 0; i < Math.min(frames.size(), MAX_REPORTED_FRAMES); i++) {
+            RecordedFrame frame = frames.get(i);
+            builder.append("    at ").append(frame.getMethod().getType().getName()).append('.')
+                    .append(frame.getMethod().getName()).append(" line ").append(frame.getLineNumber())
+                    .append(System.lineSeparator());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * An event in which a virtual thread was pinned to its carrier thread.
+     */
+    public static final class PinnedThreadEvent {
+
+        private final String threadName;
+        private final Duration duration;
+        private final String stackTrace;
+
+        PinnedThreadEvent(String threadName, Duration duration, String stackTrace) {
+            this.threadName = threadName;
+            this.duration = duration;
+            this.stackTrace = stackTrace;
+        }
+
+        public String getThreadName() {
+            return threadName;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        /**
+         * Returns the top frames of the stack of the pinned thread, one per line.
+         * @return the top frames of the stack of the pinned thread
+         */
+        public String getStackTrace() {
+            return stackTrace;
+        }
+
+    }
+
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.AsyncGwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.instrumentation.StepFlightEvent;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * An immutable plan of the Given, When and Then steps of a test. The phase sequence of a scenario is validated once,
+ * when it is built, after which the scenario can be run any number of times, including concurrently. Each run uses its
+ * own context object.
+ * <p>
+ * A scenario is built with the same {@code given}, {@code when}, {@code then} and {@code and} methods as a
+ * {@link GwtTest}:
+ * <pre>
+ * Scenario&lt;TestContext&gt; scenario = Scenario.builder(TestContext.class)
+ *         .given(a_number, 7)
+ *         .when(squaring_the_number)
+ *         .then(the_result_is, 49)
+ *         .build();
+ * scenario.run();
+ * </pre>
+ * @param <T> a subclass of {@link Context} that contains the fields used in test code.
+ */
+public final class Scenario<T extends Context> {
+
+    private final Supplier<T> contextSupplier;
+    private final String name;
+    private final Class<? extends Throwable> expectedExceptionClass;
+    private final ScenarioStep<T>[] steps;
+
+    private Scenario(Supplier<T> contextSupplier, String name, Class<? extends Throwable> expectedExceptionClass,
+                     ScenarioStep<T>[] steps) {
+        this.contextSupplier = contextSupplier;
+        this.name = name;
+        this.expectedExceptionClass = expectedExceptionClass;
+        this.steps = steps;
+    }
+
+    /**
+     * Starts building a scenario whose context objects are instances of the given class.
+     * @param contextClass the class of the context object used by the scenario. The class must be public and have a public
+     *                     no-arg constructor.
+     * @return a scenario builder
+     */
+    public static <T extends Context> Builder<T> builder(Class<T> contextClass) {
+        return new Builder<>(ContextFactory.forClass(contextClass));
+    }
+
+    /**
+     * Starts building a scenario whose context objects are obtained from the given supplier.
+     * @param contextSupplier supplies a new context object for each run of the scenario
+     * @return a scenario builder
+     */
+    public static <T extends Context> Builder<T> builder(Supplier<T> contextSupplier) {
+        return new Builder<>(contextSupplier);
+    }
+
+    /**
+     * Returns the name of the scenario, which is the test name of each run.
+     * @return the name of the scenario
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Runs the scenario with a new context object.
+     * @return the context object used by the run
+     * @throws TestConstructionException the context object could not be created
+     * @throws UnexpectedExceptionCaughtException a step threw an exception that was not expected
+     * @throws ExpectedExceptionNotThrownException an expected exception was declared but not thrown
+     */
+    public T run() {
+        return run(newContext());
+    }
+
+    /**
+     * Runs the scenario with the given context object, which must be new or reset to its initial state.
+     * @param context the context object to run the scenario with
+     * @return the context object
+     * @throws UnexpectedExceptionCaughtException a step threw an exception that was not expected
+     * @throws ExpectedExceptionNotThrownException an expected exception was declared but not thrown
+     */
+    public T run(T context) {
+        return run(context, name);
+    }
+
+    /*
+     * Runs the scenario under another test name, e.g. the name of an example row of a scenario outline.
+     */
+    T run(T context, String testName) {
+        prepareContext(context);
+        context.setTestName(testName);
+        StepInvoker.ScenarioRun run = StepInvoker.scenarioStarted(context);
+        boolean passed = false;
+        try {
+            runSteps(context, 0, steps.length);
+            passed = true;
+        }
+        finally {
+            StepInvoker.scenarioFinished(context, run, steps.length, passed);
+        }
+        return context;
+    }
+
+    /**
+     * Runs the scenario with a new context object without blocking on its asynchronous steps. Steps before the first
+     * asynchronous step run on the calling thread; each later step runs when the stage of the preceding asynchronous step
+     * completes, on the thread that completes it.
+     * @return a future that completes with the context object when the scenario has finished, or exceptionally with the
+     *         exception that failed it
+     */
+    public CompletableFuture<T> runAsync() {
+        T context;
+        try {
+            context = newContext();
+            prepareContext(context);
+        }
+        catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        StepInvoker.ScenarioRun run = StepInvoker.scenarioStarted(context);
+        /*
+         * The steps are composed onto a completed stage, rather than called directly, so that a step that fails before the
+         * first asynchronous step completes the returned future exceptionally and still finishes the scenario.
+         */
+        return CompletableFuture.completedFuture(context)
+                .thenCompose(startedContext -> runStepsAsync(startedContext, 0))
+                .whenComplete((result, e) -> StepInvoker.scenarioFinished(context, run, steps.length, e == null));
+    }
+
+    /**
+     * Runs the scenario under load. Each of the profile's threads gets its own context object and runs the Given clauses
+     * once. The threads then run the first When clause, including its And clauses, repeatedly for the profile's iterations
+     * or duration, after which the remaining steps run once, on the context of the first thread. Its
+     * {@link Context#loadReport} holds the throughput and latency percentiles of the When clause, so that Then clauses can
+     * check them.
+     * <pre>
+     * Scenario.builder(TestContext.class)
+     *         .given(a_connection_pool)
+     *         .when(fetching_a_customer)
+     *         .then(context -&gt; assertThat(context.loadReport.getP99Latency(), lessThan(Duration.ofMillis(5))))
+     *         .build()
+     *         .runLoad(LoadProfile.duration(8, Duration.ofSeconds(10)));
+     * </pre>
+     * @param profile how the When clause is run
+     * @return the context object of the first thread
+     * @throws MalformedTestException the scenario has no When clause
+     * @throws UnexpectedExceptionCaughtException a step threw an exception that was not expected. The first failure stops
+     *                                            all threads.
+     * @throws ExpectedExceptionNotThrownException an expected exception was declared but not thrown
+     */
+    public T runLoad(LoadProfile profile) {
+        return new LoadRunner<>(this, profile).run();
+    }
+
+    T newContext() {
+        return ContextFactory.newContext(contextSupplier);
+    }
+
+    void prepareContext(T context) {
+        context.setTestName(name);
+        context.expectedExceptionClass = expectedExceptionClass;
+    }
+
+    /*
+     * Runs the steps from fromIndex (inclusive) to toIndex (exclusive). An expected exception skips the rest of the clause
+     * that threw it, as it does in GwtTest.
+     */
+    void runSteps(T context, int fromIndex, int toIndex) {
+        int stepIndex = fromIndex;
+        while (stepIndex < toIndex) {
+            stepIndex = runStep(context, stepIndex);
+        }
+    }
+
+    /*
+     * Runs the step at stepIndex and returns the index of the step to run next.
+     */
+    private int runStep(T context, int stepIndex) {
+        ScenarioStep<T> step = steps[stepIndex];
+        enterStep(context, step);
+        long startNanos = StepInvoker.stepStarted(context, stepIndex);
+        StepFlightEvent flightEvent = StepInvoker.beginFlightEvent();
+        try {
+            step.function.apply(context);
+        }
+        catch (Throwable e) {
+            StepInvoker.stepFailed(context, stepIndex, startNanos, flightEvent, e);
+            return step.nextClauseIndex;
+        }
+        StepInvoker.stepPassed(context, stepIndex, startNanos, flightEvent);
+        return stepIndex + 1;
+    }
+
+    /*
+     * Runs the steps from fromIndex to the end. Synchronous steps run on the calling thread; at an asynchronous step, the
+     * remaining steps are composed onto its stage, so they run on the thread that completes it and no thread waits for it.
+     */
+    private CompletableFuture<T> runStepsAsync(T context, int fromIndex) {
+        int stepIndex = fromIndex;
+        while (stepIndex < steps.length) {
+            ScenarioStep<T> step = steps[stepIndex];
+            if (step.asyncFunction == null) {
+                stepIndex = runStep(context, stepIndex);
+                continue;
+            }
+            enterStep(context, step);
+            int asyncStepIndex = stepIndex;
+            long startNanos = StepInvoker.stepStarted(context, asyncStepIndex);
+            StepFlightEvent flightEvent = StepInvoker.beginFlightEvent();
+            CompletableFuture<?> stepFuture;
+            try {
+                stepFuture = AsyncSteps.startWithTimeout(step.asyncFunction, context, step.timeout);
+            }
+            catch (Throwable e) {
+                stepFuture = CompletableFuture.failedFuture(e);
+            }
+            return stepFuture.handle((result, e) -> {
+                if (e == null) {
+                    StepInvoker.stepPassed(context, asyncStepIndex, startNanos, flightEvent);
+                    return asyncStepIndex + 1;
+                }
+                StepInvoker.stepFailed(context, asyncStepIndex, startNanos, flightEvent, AsyncSteps.unwrap(e));
+                return step.nextClauseIndex;
+            }).thenCompose(nextStepIndex -> runStepsAsync(context, nextStepIndex));
+        }
+        return CompletableFuture.completedFuture(context);
+    }
+
+    private void enterStep(T context, ScenarioStep<T> step) {
+        if (step.entersPhase && step.phase == TestPhase.THEN) {
+            StepInvoker.failIfExpectedExceptionWasNotThrown(context);
+        }
+        context.testPhase = step.phase;
+    }
+
+    /*
+     * Returns the indexes of the steps that start a When clause, each of which starts a case of the scenario.
+     */
+    int[] caseStartIndexes() {
+        int caseCount = 0;
+        int[] caseStartIndexes = new int[steps.length];
+        for (int i = 0; i < steps.length; i++) {
+            if (steps[i].entersPhase && steps[i].phase == TestPhase.WHEN) {
+                caseStartIndexes[caseCount++] = i;
+            }
+        }
+        return Arrays.copyOf(caseStartIndexes, caseCount);
+    }
+
+    ScenarioStep<T>[] steps() {
+        return steps;
+    }
+
+    /**
+     * Builds a {@link Scenario}. Each phase transition is validated as the builder methods are called, so a malformed
+     * scenario fails while it is being built rather than when it is run.
+     * @param <T> a subclass of {@link Context} that contains the fields used in test code.
+     */
+    public static final class Builder<T extends Context> {
+
+        private static final TestPhaseValidator testPhaseValidator = new TestPhaseValidator();
+
+        private final Supplier<T> contextSupplier;
+        private final List<ScenarioStep<T>> steps = new ArrayList<>();
+        private TestPhase currentPhase;
+        private String name;
+        private Class<? extends Throwable> expectedExceptionClass;
+
+        private Builder(Supplier<T> contextSupplier) {
+            this.contextSupplier = contextSupplier;
+        }
+
+        /**
+         * Names the scenario. If no name is given, the scenario is named after the method that builds it.
+         * @param name the name of the scenario
+         * @return this builder
+         */
+        public Builder<T> named(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Declares an exception class that is expected to be thrown by a step of the scenario.
+         * @param expectedExceptionClass the expected exception class
+         * @return this builder
+         */
+        public Builder<T> expectingException(Class<? extends Throwable> expectedExceptionClass) {
+            this.expectedExceptionClass = expectedExceptionClass;
+            return this;
+        }
+
+        /**
+         * Adds a Given clause.
+         * @param gwtFunctions {@code GwtFunction}s that contain logic to be performed as part of the Given clause
+         * @return this builder
+         */
+        @SafeVarargs
+        public final Builder<T> given(GwtFunction<T>... gwtFunctions) {
+            enterPhase(TestPhase.GIVEN);
+            addClause(true, gwtFunctions);
+            return this;
+        }
+
+        /**
+         * Adds a Given clause whose state is cached. Each run of the scenario either copies the state cached under the
+         * given key into its context, or runs the functions and caches a snapshot of the resulting state.
+         * @param cache the cache of context states
+         * @param key identifies the state produced by the functions
+         * @param gwtFunctions {@code GwtFunction}s that contain logic to be performed as part of the Given clause
+         * @return this builder
+         */
+        @SafeVarargs
+        public final Builder<T> givenCached(FixtureCache<T> cache, Object key, GwtFunction<T>... gwtFunctions) {
+            enterPhase(TestPhase.GIVEN);
+            Supplier<T> snapshotSupplier = contextSupplier;
+            addClause(true, context -> {
+                if (!cache.restore(key, context)) {
+                    for (GwtFunction<T> gwtFunction : gwtFunctions) {
+                        gwtFunction.apply(context);
+                    }
+                    cache.store(key, context, snapshotSupplier);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Adds a Given clause.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause
+         * @param arg an argument of type {@code V}
+         * @return this builder
+         */
+        public <V> Builder<T> given(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+            enterPhase(TestPhase.GIVEN);
+            addClause(true, context -> gwtFunction.apply(context, arg));
+            return this;
+        }
+
+        /**
+         * Adds a Given clause.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Given clause
+         * @param args arguments of type {@code V}
+         * @return this builder
+         */
+        @SafeVarargs
+        public final <V> Builder<T> given(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+            enterPhase(TestPhase.GIVEN);
+            addClause(true, context -> gwtFunction.apply(context, args));
+            return this;
+        }
+
+        /**
+         * Adds a When clause.
+         * @param gwtFunctions {@code GwtFunction}s that contain logic to be performed as part of the When clause
+         * @return this builder
+         */
+        @SafeVarargs
+        public final Builder<T> when(GwtFunction<T>... gwtFunctions) {
+            enterPhase(TestPhase.WHEN);
+            addClause(true, gwtFunctions);
+            return this;
+        }
+
+        /**
+         * Adds a When clause.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+         * @param arg an argument of type {@code V}
+         * @return this builder
+         */
+        public <V> Builder<T> when(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+            enterPhase(TestPhase.WHEN);
+            addClause(true, context -> gwtFunction.apply(context, arg));
+            return this;
+        }
+
+        /**
+         * Adds a When clause.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the When clause
+         * @param args arguments of type {@code V}
+         * @return this builder
+         */
+        @SafeVarargs
+        public final <V> Builder<T> when(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+            enterPhase(TestPhase.WHEN);
+            addClause(true, context -> gwtFunction.apply(context, args));
+            return this;
+        }
+
+        /**
+         * Adds a When clause whose function completes asynchronously. The step finishes when the stage returned by the
+         * function completes.
+         * @param asyncFunction {@code AsyncGwtFunction} that starts the logic to be performed as part of the When clause
+         * @return this builder
+         */
+        public Builder<T> whenAsync(AsyncGwtFunction<T> asyncFunction) {
+            return whenAsync(null, asyncFunction);
+        }
+
+        /**
+         * Adds a When clause whose function completes asynchronously. The step fails with a
+         * {@link java.util.concurrent.TimeoutException} if the stage returned by the function doesn't complete within the
+         * timeout.
+         * @param timeout the maximum time for the stage to complete
+         * @param asyncFunction {@code AsyncGwtFunction} that starts the logic to be performed as part of the When clause
+         * @return this builder
+         */
+        public Builder<T> whenAsync(Duration timeout, AsyncGwtFunction<T> asyncFunction) {
+            enterPhase(TestPhase.WHEN);
+            steps.add(new ScenarioStep<>(currentPhase, true, asyncFunction, timeout));
+            return this;
+        }
+
+        /**
+         * Adds a Then clause.
+         * @param gwtFunctions {@code GwtFunction}s that contain logic to be performed as part of the Then clause
+         * @return this builder
+         */
+        @SafeVarargs
+        public final Builder<T> then(GwtFunction<T>... gwtFunctions) {
+            enterPhase(TestPhase.THEN);
+            addClause(true, gwtFunctions);
+            return this;
+        }
+
+        /**
+         * Adds a Then clause.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause
+         * @param arg an argument of type {@code V}
+         * @return this builder
+         */
+        public <V> Builder<T> then(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+            enterPhase(TestPhase.THEN);
+            addClause(true, context -> gwtFunction.apply(context, arg));
+            return this;
+        }
+
+        /**
+         * Adds a Then clause.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the Then clause
+         * @param args arguments of type {@code V}
+         * @return this builder
+         */
+        @SafeVarargs
+        public final <V> Builder<T> then(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+            enterPhase(TestPhase.THEN);
+            addClause(true, context -> gwtFunction.apply(context, args));
+            return this;
+        }
+
+        /**
+         * Adds an And clause to the current Given, When or Then.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the And clause
+         * @return this builder
+         */
+        public Builder<T> and(GwtFunction<T> gwtFunction) {
+            testPhaseValidator.validateSelfTransition(currentPhase);
+            addClause(false, gwtFunction);
+            return this;
+        }
+
+        /**
+         * Adds an And clause to the current Given, When or Then.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the And clause
+         * @param arg an argument of type {@code V}
+         * @return this builder
+         */
+        public <V> Builder<T> and(GwtFunctionWithArgument<T, V> gwtFunction, V arg) {
+            testPhaseValidator.validateSelfTransition(currentPhase);
+            addClause(false, context -> gwtFunction.apply(context, arg));
+            return this;
+        }
+
+        /**
+         * Adds an And clause to the current Given, When or Then.
+         * @param gwtFunction {@code GwtFunction} that contains logic to be performed as part of the And clause
+         * @param args arguments of type {@code V}
+         * @return this builder
+         */
+        @SafeVarargs
+        public final <V> Builder<T> and(GwtFunctionWithArguments<T, V> gwtFunction, V... args) {
+            testPhaseValidator.validateSelfTransition(currentPhase);
+            addClause(false, context -> gwtFunction.apply(context, args));
+            return this;
+        }
+
+        /**
+         * Adds an And clause, whose function completes asynchronously, to the current Given, When or Then.
+         * @param asyncFunction {@code AsyncGwtFunction} that starts the logic to be performed as part of the And clause
+         * @return this builder
+         */
+        public Builder<T> andAsync(AsyncGwtFunction<T> asyncFunction) {
+            return andAsync(null, asyncFunction);
+        }
+
+        /**
+         * Adds an And clause, whose function completes asynchronously, to the current Given, When or Then. The step fails
+         * with a {@link java.util.concurrent.TimeoutException} if the stage returned by the function doesn't complete
+         * within the timeout.
+         * @param timeout the maximum time for the stage to complete
+         * @param asyncFunction {@code AsyncGwtFunction} that starts the logic to be performed as part of the And clause
+         * @return this builder
+         */
+        public Builder<T> andAsync(Duration timeout, AsyncGwtFunction<T> asyncFunction) {
+            testPhaseValidator.validateSelfTransition(currentPhase);
+            steps.add(new ScenarioStep<>(currentPhase, false, asyncFunction, timeout));
+            return this;
+        }
+
+        /**
+         * Builds the scenario. The builder can continue to be used afterwards without affecting the built scenario.
+         * @return the scenario
+         */
+        @SuppressWarnings("unchecked")
+        public Scenario<T> build() {
+            ScenarioStep<T>[] builtSteps = new ScenarioStep[steps.size()];
+            int nextClauseIndex = builtSteps.length;
+            for (int i = builtSteps.length - 1; i >= 0; i--) {
+                ScenarioStep<T> step = steps.get(i);
+                builtSteps[i] = step.withNextClauseIndex(nextClauseIndex);
+                if (step.startsClause) {
+                    nextClauseIndex = i;
+                }
+            }
+            String scenarioName = name != null ? name : TestNames.outermostCallingMethodName();
+            return new Scenario<>(contextSupplier, scenarioName, expectedExceptionClass, builtSteps);
+        }
+
+        private void enterPhase(TestPhase nextPhase) {
+            testPhaseValidator.validatePhaseTransition(currentPhase, nextPhase);
+            currentPhase = nextPhase;
+        }
+
+        /*
+         * A clause without functions still gets a step, because entering its phase has an effect of its own: entering
+         * Then checks that a declared expected exception was thrown.
+         */
+        @SafeVarargs
+        private void addClause(boolean entersPhase, GwtFunction<T>... gwtFunctions) {
+            if (gwtFunctions.length == 0) {
+                steps.add(new ScenarioStep<>(currentPhase, entersPhase, true, context -> {}, -1));
+            }
+            for (int i = 0; i < gwtFunctions.length; i++) {
+                steps.add(new ScenarioStep<>(currentPhase, entersPhase && i == 0, i == 0, gwtFunctions[i], -1));
+            }
+        }
+
+    }
+
+}
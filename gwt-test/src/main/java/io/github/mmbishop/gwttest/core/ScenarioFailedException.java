@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+/**
+ * An exception that is thrown when one or more scenarios run by a {@link ScenarioRunner} fail. The exception that failed
+ * each scenario is added as a suppressed exception.
+ */
+public class ScenarioFailedException extends RuntimeException {
+
+    public ScenarioFailedException(String message) {
+        super(message);
+    }
+
+    public ScenarioFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
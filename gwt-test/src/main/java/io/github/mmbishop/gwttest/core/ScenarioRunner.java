@@ -0,0 +1,453 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.ContextCopier;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.ExampleRow;
+import io.github.mmbishop.gwttest.model.ExamplesResult;
+import io.github.mmbishop.gwttest.model.ScenarioResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs {@link Scenario}s concurrently on an executor. Each run creates its context object on the thread that runs it, and
+ * the context is only handed back to the caller, through the run's result, after the run has finished. Context objects
+ * are therefore confined to one thread at a time, and no state is shared between runs other than the scenarios
+ * themselves, which are immutable.
+ * <p>
+ * Unlike a {@link GwtTest}, which holds the state of the test it is running, a {@code ScenarioRunner} can be shared by
+ * tests that run in parallel.
+ */
+public class ScenarioRunner implements AutoCloseable {
+
+    static final int MAX_EXAMPLES_IN_FLIGHT = 1024;
+    static final int MAX_RETAINED_EXAMPLE_FAILURES = 100;
+
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Semaphore concurrencyLimit;
+
+    /**
+     * Creates a runner that runs scenarios on the given executor. The executor is not shut down when the runner is closed.
+     * @param executor the executor that runs the scenarios
+     */
+    public ScenarioRunner(ExecutorService executor) {
+        this(executor, false);
+    }
+
+    /**
+     * Creates a runner that runs scenarios on its own pool of the given number of daemon threads. The pool is shut down
+     * when the runner is closed.
+     * @param parallelism the number of scenarios to run at the same time
+     */
+    public ScenarioRunner(int parallelism) {
+        this(Executors.newFixedThreadPool(parallelism, new ScenarioThreadFactory()), true);
+    }
+
+    /**
+     * Creates a runner that runs as many scenarios at the same time as there are available processors.
+     * @return a new runner
+     */
+    public static ScenarioRunner withAvailableProcessors() {
+        return new ScenarioRunner(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a runner that runs each scenario on its own virtual thread, which suits scenarios that spend most of their
+     * time blocked, e.g. waiting on services in When steps. Virtual threads require Java 21; on earlier runtimes each
+     * scenario runs on its own platform thread instead (see {@link #virtualThreadsAvailable()}).
+     * <p>
+     * The number of carrier threads that run virtual threads is set by the JDK system property
+     * {@code jdk.virtualThreadScheduler.parallelism}, which defaults to the number of available processors.
+     * Use a {@link PinnedThreadMonitor} to find steps that pin virtual threads to their carriers.
+     * @param maxConcurrentScenarios the maximum number of scenarios that are in flight at the same time. Submitting more
+     *                               scenarios waits until running ones finish.
+     * @return a new runner
+     */
+    public static ScenarioRunner withVirtualThreads(int maxConcurrentScenarios) {
+        return new ScenarioRunner(VirtualThreads.newThreadPerTaskExecutor(), true, new Semaphore(maxConcurrentScenarios));
+    }
+
+    /**
+     * Returns whether the runtime supports virtual threads, which are used by {@link #withVirtualThreads(int)}.
+     * @return true if virtual threads are available
+     */
+    public static boolean virtualThreadsAvailable() {
+        return VirtualThreads.isSupported();
+    }
+
+    ScenarioRunner(ExecutorService executor, boolean ownsExecutor) {
+        this(executor, ownsExecutor, null);
+    }
+
+    ScenarioRunner(ExecutorService executor, boolean ownsExecutor, Semaphore concurrencyLimit) {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * Runs the given scenarios concurrently and waits for all of them to finish.
+     * @param scenarios the scenarios to run
+     * @return the result of each run, in the order of the given scenarios
+     */
+    public <T extends Context> List<ScenarioResult<T>> run(Collection<Scenario<T>> scenarios) {
+        List<Future<ScenarioResult<T>>> runs = new ArrayList<>(scenarios.size());
+        for (Scenario<T> scenario : scenarios) {
+            runs.add(submit(scenario));
+        }
+        return awaitResults(runs);
+    }
+
+    /**
+     * Runs the given scenario the given number of times concurrently and waits for all runs to finish.
+     * @param scenario the scenario to run
+     * @param runCount the number of times to run the scenario
+     * @return the result of each run
+     */
+    public <T extends Context> List<ScenarioResult<T>> run(Scenario<T> scenario, int runCount) {
+        return run(Collections.nCopies(runCount, scenario));
+    }
+
+    /**
+     * Runs the given scenarios concurrently, waits for all of them to finish and fails if any of them failed.
+     * @param scenarios the scenarios to run
+     * @return the result of each run, in the order of the given scenarios
+     * @throws ScenarioFailedException one or more scenarios failed
+     */
+    public <T extends Context> List<ScenarioResult<T>> runAll(Collection<Scenario<T>> scenarios) {
+        List<ScenarioResult<T>> results = run(scenarios);
+        failIfAnyScenarioFailed(results);
+        return results;
+    }
+
+    /**
+     * Shuts down the pool of threads created by this runner, if it created one.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs the Given clauses of the given scenario once, and then runs each of its cases concurrently, each on its own copy
+     * of the context that the Given clauses produced. A case is a When clause together with the clauses that follow it up
+     * to the next When clause, so a scenario built as given-when-then-when-then has two cases. Each case is reported as a
+     * separate result, named after the scenario and the number of the case, e.g. {@code "pricing [case 2]"}. The Given
+     * clauses are reported to step listeners as a scenario of their own, named e.g. {@code "pricing [given]"}.
+     * @param scenario the scenario whose cases are run
+     * @param copier copies the state produced by the Given clauses into the context of each case
+     * @return the result of each case, in the order of the cases in the scenario
+     * @throws MalformedTestException the scenario has no When clause
+     * @throws UnexpectedExceptionCaughtException a Given step threw an exception that was not expected
+     */
+    public <T extends Context> List<ScenarioResult<T>> runCases(Scenario<T> scenario, ContextCopier<T> copier) {
+        int[] caseStartIndexes = scenario.caseStartIndexes();
+        if (caseStartIndexes.length == 0) {
+            throw new MalformedTestException("Can't run the cases of a scenario without a When clause.");
+        }
+        T givenContext = runGivenClauses(scenario, caseStartIndexes[0]);
+        List<Future<ScenarioResult<T>>> runs = new ArrayList<>(caseStartIndexes.length);
+        for (int i = 0; i < caseStartIndexes.length; i++) {
+            int fromIndex = caseStartIndexes[i];
+            int toIndex = i + 1 < caseStartIndexes.length ? caseStartIndexes[i + 1] : scenario.steps().length;
+            String caseName = scenario.getName() + " [case " + (i + 1) + "]";
+            runs.add(submit(() -> runCase(scenario, caseName, givenContext, copier, fromIndex, toIndex)));
+        }
+        return awaitResults(runs);
+    }
+
+    /**
+     * Runs the cases of the given scenario concurrently, as {@link #runCases(Scenario, ContextCopier)} does, and fails if
+     * any of them failed.
+     * @param scenario the scenario whose cases are run
+     * @param copier copies the state produced by the Given clauses into the context of each case
+     * @return the result of each case, in the order of the cases in the scenario
+     * @throws ScenarioFailedException one or more cases failed
+     */
+    public <T extends Context> List<ScenarioResult<T>> runAllCases(Scenario<T> scenario, ContextCopier<T> copier) {
+        List<ScenarioResult<T>> results = runCases(scenario, copier);
+        failIfAnyScenarioFailed(results);
+        return results;
+    }
+
+    /**
+     * Runs a scenario outline once per example row, with the rows' runs running concurrently, and waits for all of them
+     * to finish. The outline is an ordinary scenario whose steps take their arguments from {@link Context#exampleRow}, e.g.
+     * through {@code ExampleSteps}. Rows are taken from the iterator as runs finish, with at most 1024 rows in flight at a
+     * time, so a stream of millions of rows, e.g. from an {@code ExamplesReader}, is run in constant memory. Each run is
+     * named after the outline and the number of its row, e.g. {@code "pricing [row 7]"}.
+     * @param outline the scenario outline
+     * @param rows the example rows, which are read by the calling thread
+     * @return the number of rows run and failed, and the results of the first failed rows
+     * @throws ScenarioFailedException the calling thread was interrupted
+     */
+    public <T extends Context> ExamplesResult<T> runExamples(Scenario<T> outline, Iterator<ExampleRow> rows) {
+        long startTime = System.nanoTime();
+        ExampleFailures<T> failures = new ExampleFailures<>();
+        Semaphore inFlight = new Semaphore(MAX_EXAMPLES_IN_FLIGHT);
+        long rowCount = 0;
+        boolean drained = false;
+        try {
+            while (rows.hasNext()) {
+                ExampleRow row = rows.next();
+                inFlight.acquire();
+                rowCount++;
+                try {
+                    submit(() -> {
+                        try {
+                            ScenarioResult<T> result = runExample(outline, row);
+                            if (!result.isSuccessful()) {
+                                failures.add(result);
+                            }
+                            return null;
+                        }
+                        finally {
+                            inFlight.release();
+                        }
+                    });
+                }
+                catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+            inFlight.acquire(MAX_EXAMPLES_IN_FLIGHT);
+            drained = true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScenarioFailedException("Interrupted while waiting for examples to finish");
+        }
+        finally {
+            // If reading the rows failed, the rows already submitted still finish before the exception is passed on.
+            if (!drained && !Thread.currentThread().isInterrupted()) {
+                inFlight.acquireUninterruptibly(MAX_EXAMPLES_IN_FLIGHT);
+            }
+        }
+        return failures.result(rowCount, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Runs a scenario outline once per example row, as {@link #runExamples(Scenario, Iterator)} does, and fails if any row
+     * failed.
+     * @param outline the scenario outline
+     * @param rows the example rows, which are read by the calling thread
+     * @return the number of rows run
+     * @throws ScenarioFailedException one or more rows failed; the first failures are added as suppressed exceptions
+     */
+    public <T extends Context> ExamplesResult<T> runAllExamples(Scenario<T> outline, Iterator<ExampleRow> rows) {
+        ExamplesResult<T> result = runExamples(outline, rows);
+        if (!result.isSuccessful()) {
+            ScenarioFailedException failure = new ScenarioFailedException(result.getFailureCount() + " of " + result.getRowCount()
+                    + " examples failed");
+            result.getFailures().forEach(failedRow -> failure.addSuppressed(failedRow.getFailure()));
+            throw failure;
+        }
+        return result;
+    }
+
+    private <T extends Context> Future<ScenarioResult<T>> submit(Scenario<T> scenario) {
+        return submit(() -> runScenario(scenario));
+    }
+
+    private <T extends Context> Future<ScenarioResult<T>> submit(Callable<ScenarioResult<T>> run) {
+        if (concurrencyLimit == null) {
+            return executor.submit(run);
+        }
+        concurrencyLimit.acquireUninterruptibly();
+        try {
+            return executor.submit(() -> {
+                try {
+                    return run.call();
+                }
+                finally {
+                    concurrencyLimit.release();
+                }
+            });
+        }
+        catch (RuntimeException e) {
+            concurrencyLimit.release();
+            throw e;
+        }
+    }
+
+    static <T extends Context> ScenarioResult<T> runScenario(Scenario<T> scenario) {
+        long startTime = System.nanoTime();
+        T context = null;
+        try {
+            context = scenario.newContext();
+            scenario.run(context);
+            return new ScenarioResult<>(scenario.getName(), context, null, System.nanoTime() - startTime);
+        }
+        catch (Exception | Error e) {
+            return new ScenarioResult<>(scenario.getName(), context, e, System.nanoTime() - startTime);
+        }
+    }
+
+    /*
+     * Runs the steps before the first case on the calling thread, as a scenario of their own, so that step listeners see
+     * their steps between a start and a finish like every other step.
+     */
+    static <T extends Context> T runGivenClauses(Scenario<T> scenario, int toIndex) {
+        T givenContext = scenario.newContext();
+        scenario.prepareContext(givenContext);
+        givenContext.setTestName(scenario.getName() + " [given]");
+        StepInvoker.ScenarioRun run = StepInvoker.scenarioStarted(givenContext);
+        boolean passed = false;
+        try {
+            scenario.runSteps(givenContext, 0, toIndex);
+            passed = true;
+        }
+        finally {
+            StepInvoker.scenarioFinished(givenContext, run, toIndex, passed);
+        }
+        return givenContext;
+    }
+
+    /*
+     * The context of the Given clauses is only read while the cases run, so it can be shared by them.
+     */
+    static <T extends Context> ScenarioResult<T> runCase(Scenario<T> scenario, String caseName, T givenContext,
+                                                         ContextCopier<T> copier, int fromIndex, int toIndex) {
+        long startTime = System.nanoTime();
+        T context = null;
+        try {
+            context = scenario.newContext();
+            copier.copy(givenContext, context);
+            scenario.prepareContext(context);
+            context.setTestName(caseName);
+            context.testPhase = givenContext.testPhase;
+            context.thrownException = givenContext.thrownException;
+            StepInvoker.ScenarioRun run = StepInvoker.scenarioStarted(context);
+            boolean passed = false;
+            try {
+                scenario.runSteps(context, fromIndex, toIndex);
+                passed = true;
+            }
+            finally {
+                StepInvoker.scenarioFinished(context, run, toIndex - fromIndex, passed);
+            }
+            return new ScenarioResult<>(caseName, context, null, System.nanoTime() - startTime);
+        }
+        catch (Exception | Error e) {
+            return new ScenarioResult<>(caseName, context, e, System.nanoTime() - startTime);
+        }
+    }
+
+    static <T extends Context> ScenarioResult<T> runExample(Scenario<T> outline, ExampleRow row) {
+        String name = outline.getName() + " [row " + row.getRowNumber() + "]";
+        long startTime = System.nanoTime();
+        T context = null;
+        try {
+            context = outline.newContext();
+            context.exampleRow = row;
+            outline.run(context, name);
+            return new ScenarioResult<>(name, context, null, System.nanoTime() - startTime);
+        }
+        catch (Exception | Error e) {
+            return new ScenarioResult<>(name, context, e, System.nanoTime() - startTime);
+        }
+    }
+
+    static <T extends Context> List<ScenarioResult<T>> awaitResults(List<Future<ScenarioResult<T>>> runs) {
+        List<ScenarioResult<T>> results = new ArrayList<>(runs.size());
+        try {
+            for (Future<ScenarioResult<T>> run : runs) {
+                results.add(run.get());
+            }
+        }
+        catch (InterruptedException e) {
+            runs.forEach(run -> run.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new ScenarioFailedException("Interrupted while waiting for scenarios to finish");
+        }
+        catch (ExecutionException e) {
+            throw new ScenarioFailedException("Scenario runner failed: " + e.getCause(), e.getCause());
+        }
+        return results;
+    }
+
+    static <T extends Context> void failIfAnyScenarioFailed(List<ScenarioResult<T>> results) {
+        ScenarioFailedException failure = null;
+        for (ScenarioResult<T> result : results) {
+            if (!result.isSuccessful()) {
+                if (failure == null) {
+                    long failureCount = results.stream().filter(r -> !r.isSuccessful()).count();
+                    failure = new ScenarioFailedException(failureCount + " of " + results.size() + " scenarios failed");
+                }
+                failure.addSuppressed(result.getFailure());
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /*
+     * Counts the failed rows of a scenario outline and keeps the first of them. Rows finish on the runner's threads.
+     */
+    private static final class ExampleFailures<T extends Context> {
+
+        private final List<ScenarioResult<T>> retained = new ArrayList<>();
+        private long count;
+
+        synchronized void add(ScenarioResult<T> failure) {
+            count++;
+            if (retained.size() < MAX_RETAINED_EXAMPLE_FAILURES) {
+                retained.add(failure);
+            }
+        }
+
+        synchronized ExamplesResult<T> result(long rowCount, long elapsedNanos) {
+            return new ExamplesResult<>(rowCount, count, retained, elapsedNanos);
+        }
+
+    }
+
+    private static class ScenarioThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger poolCount = new AtomicInteger();
+
+        private final int poolNumber = poolCount.incrementAndGet();
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "gwt-test-" + poolNumber + "-scenario-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
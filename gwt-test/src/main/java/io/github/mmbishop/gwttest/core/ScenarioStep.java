@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.AsyncGwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.time.Duration;
+
+/**
+ * A single step function of a {@link Scenario}, together with the phase it runs in and its position within its clause.
+ * @param <T> subclass of {@link Context} used by the scenario
+ */
+final class ScenarioStep<T extends Context> {
+
+    final TestPhase phase;
+    final boolean entersPhase;
+    final boolean startsClause;
+    final GwtFunction<T> function;
+    final AsyncGwtFunction<T> asyncFunction;
+    final Duration timeout;
+    final int nextClauseIndex;
+
+    /**
+     * Creates a step.
+     * @param phase the phase the step runs in
+     * @param entersPhase whether this is the first step of a Given, When or Then clause
+     * @param startsClause whether this is the first step of a clause, including an And clause
+     * @param function the step function
+     * @param nextClauseIndex the index of the first step of the next clause, where execution continues if this step throws
+     *                        an expected exception
+     */
+    ScenarioStep(TestPhase phase, boolean entersPhase, boolean startsClause, GwtFunction<T> function, int nextClauseIndex) {
+        this(phase, entersPhase, startsClause, function, null, null, nextClauseIndex);
+    }
+
+    /**
+     * Creates an asynchronous step.
+     * @param phase the phase the step runs in
+     * @param entersPhase whether this is the first step of a When clause
+     * @param asyncFunction the asynchronous step function
+     * @param timeout the maximum time for the stage returned by the step function to complete, or null for no timeout
+     */
+    ScenarioStep(TestPhase phase, boolean entersPhase, AsyncGwtFunction<T> asyncFunction, Duration timeout) {
+        this(phase, entersPhase, true, AsyncSteps.blocking(asyncFunction, timeout), asyncFunction, timeout, -1);
+    }
+
+    private ScenarioStep(TestPhase phase, boolean entersPhase, boolean startsClause, GwtFunction<T> function,
+                         AsyncGwtFunction<T> asyncFunction, Duration timeout, int nextClauseIndex) {
+        this.phase = phase;
+        this.entersPhase = entersPhase;
+        this.startsClause = startsClause;
+        this.function = function;
+        this.asyncFunction = asyncFunction;
+        this.timeout = timeout;
+        this.nextClauseIndex = nextClauseIndex;
+    }
+
+    ScenarioStep<T> withNextClauseIndex(int nextClauseIndex) {
+        return new ScenarioStep<>(phase, entersPhase, startsClause, function, asyncFunction, timeout, nextClauseIndex);
+    }
+
+}
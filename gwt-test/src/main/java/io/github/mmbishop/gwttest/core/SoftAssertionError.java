@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * An error that is thrown by {@link SoftAssertions} when one or more assertions failed. It describes every failure and the
+ * time each assertion took, and each failure is also added as a suppressed exception so its stack trace is reported.
+ * It extends {@link AssertionError} because it is itself an assertion failure.
+ */
+public class SoftAssertionError extends AssertionError {
+
+    private final List<AssertionResult> results;
+
+    public SoftAssertionError(List<AssertionResult> results) {
+        super(describe(results));
+        this.results = List.copyOf(results);
+        for (AssertionResult result : results) {
+            if (result.getFailure() != null) {
+                addSuppressed(result.getFailure());
+            }
+        }
+    }
+
+    /**
+     * Returns the results of all assertions, in the order they were declared.
+     * @return the results of all assertions
+     */
+    public List<AssertionResult> getResults() {
+        return results;
+    }
+
+    private static String describe(List<AssertionResult> results) {
+        long failureCount = results.stream().filter(result -> result.getFailure() != null).count();
+        StringBuilder description = new StringBuilder()
+                .append(failureCount).append(" of ").append(results.size()).append(" assertions failed:");
+        for (AssertionResult result : results) {
+            description.append(System.lineSeparator()).append("  ").append(result);
+        }
+        return description.toString();
+    }
+
+    /**
+     * The outcome and duration of one soft assertion.
+     */
+    public static final class AssertionResult {
+
+        private final int index;
+        private final long durationNanos;
+        private final Throwable failure;
+
+        public AssertionResult(int index, long durationNanos, Throwable failure) {
+            this.index = index;
+            this.durationNanos = durationNanos;
+            this.failure = failure;
+        }
+
+        /**
+         * Returns the position of the assertion among the assertions passed to {@link SoftAssertions}, starting at 1.
+         * @return the position of the assertion
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public Duration getDuration() {
+            return Duration.ofNanos(durationNanos);
+        }
+
+        /**
+         * Returns the exception the assertion failed with.
+         * @return the exception the assertion failed with, or null if it passed
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            String outcome = failure == null ? "passed" : "failed: " + failure;
+            return "assertion " + index + " " + outcome + " (" + getDuration().toMillis() + " ms)";
+        }
+
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.model.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Combines the assertions of a Then clause into one function that evaluates all of them, instead of stopping at the first
+ * failure, and then fails with a {@link SoftAssertionError} that describes every failure:
+ * <pre>
+ * gwt.test()
+ *         .when(placing_the_order)
+ *         .then(SoftAssertions.all(the_order_is_stored, the_stock_is_reduced, the_invoice_is_written));
+ * </pre>
+ * The duration of each assertion is measured; it is reported in the error, and logged at debug level when all assertions
+ * pass. Slow assertions, e.g. ones that query a database, can be evaluated concurrently with
+ * {@link #allConcurrently(GwtFunction[])}.
+ */
+public final class SoftAssertions {
+
+    private static final Logger logger = LoggerFactory.getLogger(SoftAssertions.class);
+
+    private SoftAssertions() {
+    }
+
+    /**
+     * Returns a function that evaluates the given assertions one after another.
+     * @param gwtFunctions {@code GwtFunction}s that contain assertions
+     * @return a {@code GwtFunction} to be used in a Then clause
+     */
+    @SafeVarargs
+    public static <T extends Context> GwtFunction<T> all(GwtFunction<T>... gwtFunctions) {
+        GwtFunction<T>[] assertions = gwtFunctions.clone();
+        return context -> {
+            List<SoftAssertionError.AssertionResult> results = new ArrayList<>(assertions.length);
+            for (int i = 0; i < assertions.length; i++) {
+                results.add(evaluate(assertions[i], i + 1, context));
+            }
+            report(results);
+        };
+    }
+
+    /**
+     * Returns a function that evaluates the given assertions concurrently on a shared pool of daemon threads.
+     * @param gwtFunctions independent {@code GwtFunction}s that contain assertions
+     * @return a {@code GwtFunction} to be used in a Then clause
+     */
+    @SafeVarargs
+    public static <T extends Context> GwtFunction<T> allConcurrently(GwtFunction<T>... gwtFunctions) {
+        return allConcurrently(Concurrently.sharedExecutor(), gwtFunctions);
+    }
+
+    /**
+     * Returns a function that evaluates the given assertions concurrently on the given executor.
+     * @param executor the executor that evaluates the assertions
+     * @param gwtFunctions independent {@code GwtFunction}s that contain assertions
+     * @return a {@code GwtFunction} to be used in a Then clause
+     */
+    @SafeVarargs
+    public static <T extends Context> GwtFunction<T> allConcurrently(Executor executor, GwtFunction<T>... gwtFunctions) {
+        GwtFunction<T>[] assertions = gwtFunctions.clone();
+        return context -> {
+            List<CompletableFuture<SoftAssertionError.AssertionResult>> evaluations = new ArrayList<>(assertions.length);
+            for (int i = 0; i < assertions.length; i++) {
+                GwtFunction<T> assertion = assertions[i];
+                int index = i + 1;
+                evaluations.add(CompletableFuture.supplyAsync(() -> evaluate(assertion, index, context), executor));
+            }
+            List<SoftAssertionError.AssertionResult> results = new ArrayList<>(assertions.length);
+            for (CompletableFuture<SoftAssertionError.AssertionResult> evaluation : evaluations) {
+                results.add(evaluation.join());
+            }
+            report(results);
+        };
+    }
+
+    private static <T extends Context> SoftAssertionError.AssertionResult evaluate(GwtFunction<T> assertion, int index, T context) {
+        long startNanos = System.nanoTime();
+        try {
+            assertion.apply(context);
+            return new SoftAssertionError.AssertionResult(index, System.nanoTime() - startNanos, null);
+        }
+        catch (Throwable e) {
+            return new SoftAssertionError.AssertionResult(index, System.nanoTime() - startNanos, e);
+        }
+    }
+
+    private static void report(List<SoftAssertionError.AssertionResult> results) {
+        for (SoftAssertionError.AssertionResult result : results) {
+            if (result.getFailure() != null) {
+                throw new SoftAssertionError(results);
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            results.forEach(result -> logger.debug("Soft {}", result));
+        }
+    }
+
+}
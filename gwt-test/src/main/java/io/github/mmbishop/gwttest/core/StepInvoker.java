@@ -0,0 +1,200 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import io.github.mmbishop.gwttest.instrumentation.ScenarioFlightEvent;
+import io.github.mmbishop.gwttest.instrumentation.StepEventLog;
+import io.github.mmbishop.gwttest.instrumentation.StepFlightEvent;
+import io.github.mmbishop.gwttest.instrumentation.StepListeners;
+import io.github.mmbishop.gwttest.instrumentation.StepOutcome;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+/**
+ * Applies the exception rules shared by every way of running steps: a caught exception is recorded in the context and
+ * fails the test unless it is of the expected exception class, and a declared expected exception must have been thrown
+ * before a Then clause is reached. Registered {@link io.github.mmbishop.gwttest.instrumentation.StepListener}s are
+ * notified around every step function; when none is registered, no timestamps are taken. A {@link StepFlightEvent} is
+ * recorded for every step function, and a {@link ScenarioFlightEvent} for every scenario run, while the events are
+ * enabled in a Flight Recorder recording.
+ */
+final class StepInvoker {
+
+    private StepInvoker() {
+    }
+
+    /**
+     * Notifies the step listeners that a step is starting.
+     * @param context the context of the test
+     * @param stepIndex the zero-based index of the step function within the test
+     * @return the start time of the step, or 0 if no step listener is registered
+     */
+    static long stepStarted(Context context, int stepIndex) {
+        if (!StepListeners.isActive()) {
+            return 0L;
+        }
+        StepListeners.notifyStepStarted(context, stepIndex);
+        return System.nanoTime();
+    }
+
+    /**
+     * Notifies the step listeners that a test has been started by a {@code GwtTest}. Such a test has no end of its own, so
+     * no {@link ScenarioFlightEvent} is recorded for it; its steps are recorded with the name of the test.
+     * @param context the context of the test
+     */
+    static void testStarted(Context context) {
+        if (StepListeners.isActive()) {
+            StepListeners.notifyScenarioStarted(context);
+        }
+    }
+
+    /**
+     * Notifies the step listeners that a scenario has started, and begins a Flight Recorder event for it if the event is
+     * enabled in a running recording.
+     * @param context the context of the scenario
+     * @return the started run, to be passed to {@link #scenarioFinished(Context, ScenarioRun, int, boolean)}
+     */
+    static ScenarioRun scenarioStarted(Context context) {
+        ScenarioFlightEvent flightEvent = null;
+        if (ScenarioFlightEvent.enabled()) {
+            flightEvent = new ScenarioFlightEvent();
+            flightEvent.begin();
+        }
+        if (!StepListeners.isActive()) {
+            return flightEvent == null ? ScenarioRun.UNOBSERVED : new ScenarioRun(0L, flightEvent);
+        }
+        StepListeners.notifyScenarioStarted(context);
+        return new ScenarioRun(System.nanoTime(), flightEvent);
+    }
+
+    /**
+     * Notifies the step listeners that a scenario has finished, and commits its Flight Recorder event.
+     * @param context the context of the scenario
+     * @param run the run returned by {@link #scenarioStarted(Context)}
+     * @param stepCount the number of steps in the scenario
+     * @param passed whether the scenario passed
+     */
+    static void scenarioFinished(Context context, ScenarioRun run, int stepCount, boolean passed) {
+        ScenarioFlightEvent flightEvent = run.flightEvent;
+        if (flightEvent != null) {
+            flightEvent.end();
+            if (flightEvent.shouldCommit()) {
+                flightEvent.set(context.getTestName(), stepCount, passed);
+                flightEvent.commit();
+            }
+        }
+        if (StepListeners.isActive()) {
+            StepListeners.notifyScenarioFinished(context, run.startNanos, System.nanoTime(), passed);
+        }
+    }
+
+    /**
+     * Begins a Flight Recorder event for a step if the event is enabled in a running recording.
+     * @return the begun event, or null if the event isn't enabled
+     */
+    static StepFlightEvent beginFlightEvent() {
+        if (!StepFlightEvent.enabled()) {
+            return null;
+        }
+        StepFlightEvent flightEvent = new StepFlightEvent();
+        flightEvent.begin();
+        return flightEvent;
+    }
+
+    /**
+     * Notifies the step listeners that a step function returned normally.
+     * @param context the context of the test
+     * @param stepIndex the zero-based index of the step function within the test
+     * @param startNanos the start time returned by {@link #stepStarted(Context, int)}
+     * @param flightEvent the event returned by {@link #beginFlightEvent()}
+     */
+    static void stepPassed(Context context, int stepIndex, long startNanos, StepFlightEvent flightEvent) {
+        if (flightEvent != null) {
+            commitFlightEvent(flightEvent, context, stepIndex, StepOutcome.PASSED);
+        }
+        if (StepListeners.isActive()) {
+            StepListeners.notifyStepFinished(context, stepIndex, startNanos, System.nanoTime(), StepOutcome.PASSED);
+        }
+    }
+
+    /**
+     * Records an exception thrown by a step function in the {@link StepEventLog} and notifies the step listeners.
+     * @param context the context of the test in which the exception was thrown
+     * @param stepIndex the zero-based index of the step function within the test
+     * @param startNanos the start time returned by {@link #stepStarted(Context, int)}
+     * @param flightEvent the event returned by {@link #beginFlightEvent()}
+     * @param e the exception thrown by the step function
+     * @throws UnexpectedExceptionCaughtException the exception is not of the expected exception class
+     */
+    static void stepFailed(Context context, int stepIndex, long startNanos, StepFlightEvent flightEvent, Throwable e) {
+        long endNanos = StepListeners.isActive() ? System.nanoTime() : 0L;
+        context.thrownException = e;
+        StepOutcome outcome = isExpected(context, e) ? StepOutcome.EXPECTED_EXCEPTION : StepOutcome.FAILED;
+        if (flightEvent != null) {
+            commitFlightEvent(flightEvent, context, stepIndex, outcome);
+        }
+        StepEventLog.record(context, stepIndex, outcome, e);
+        if (StepListeners.isActive()) {
+            StepListeners.notifyStepFinished(context, stepIndex, startNanos, endNanos, outcome);
+        }
+        if (outcome == StepOutcome.FAILED) {
+            throw new UnexpectedExceptionCaughtException(e);
+        }
+    }
+
+    /**
+     * Fails the test if an expected exception was declared but none has been thrown.
+     * @param context the context of the test
+     * @throws ExpectedExceptionNotThrownException an expected exception was declared but not thrown
+     */
+    static void failIfExpectedExceptionWasNotThrown(Context context) {
+        if (context.expectedExceptionClass != null && context.thrownException == null) {
+            throw new ExpectedExceptionNotThrownException(context.expectedExceptionClass);
+        }
+    }
+
+    private static void commitFlightEvent(StepFlightEvent flightEvent, Context context, int stepIndex, StepOutcome outcome) {
+        flightEvent.end();
+        if (flightEvent.shouldCommit()) {
+            TestPhase phase = context.testPhase;
+            flightEvent.set(context.getTestName(), phase == null ? null : phase.name(), stepIndex, outcome);
+            flightEvent.commit();
+        }
+    }
+
+    private static boolean isExpected(Context context, Throwable e) {
+        return context.expectedExceptionClass != null && context.expectedExceptionClass.equals(e.getClass());
+    }
+
+    /**
+     * A started run of a scenario: the start time passed to the step listeners and the scenario's Flight Recorder event.
+     */
+    static final class ScenarioRun {
+
+        static final ScenarioRun UNOBSERVED = new ScenarioRun(0L, null);
+
+        private final long startNanos;
+        private final ScenarioFlightEvent flightEvent;
+
+        private ScenarioRun(long startNanos, ScenarioFlightEvent flightEvent) {
+            this.startNanos = startNanos;
+            this.flightEvent = flightEvent;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Resolves the name of a test from the name of the method that started it.
+ */
+final class TestNames {
+
+    private static final String UNKNOWN = "unknown";
+    private static final String CORE_PACKAGE_PREFIX = TestNames.class.getPackageName() + ".";
+
+    private static final StackWalker stackWalker = StackWalker.getInstance();
+
+    private TestNames() {
+    }
+
+    /**
+     * Captures the frame of the method that called into gwt-test, and returns a resolver of its name. Only the frames down
+     * to the first one outside gwt-test are walked, and the method name, which is the costly part of a stack frame, is
+     * only looked up if the resolver is called. The resolver can be called from any thread and always returns the same
+     * name.
+     * @return a resolver of the name of the calling method
+     */
+    static Supplier<String> callingMethodName() {
+        Optional<StackWalker.StackFrame> callingFrame = stackWalker.walk(TestNames::findCallingFrame);
+        if (callingFrame.isEmpty()) {
+            return () -> UNKNOWN;
+        }
+        StackWalker.StackFrame frame = callingFrame.get();
+        return frame::getMethodName;
+    }
+
+    /**
+     * Returns the name of the method below the outermost run of gwt-test frames on the current stack. This is the method
+     * that started the test, even when it's called from a step function of that test, e.g. to build a {@link Scenario}.
+     * The whole stack is walked, so this is meant for calls that happen once, not for every test.
+     * @return the name of the method that started the current test
+     */
+    static String outermostCallingMethodName() {
+        return stackWalker.walk(TestNames::findOutermostCallingMethodName);
+    }
+
+    private static Optional<StackWalker.StackFrame> findCallingFrame(Stream<StackWalker.StackFrame> frames) {
+        return frames.filter(frame -> !isFrameworkFrame(frame)).findFirst();
+    }
+
+    private static String findOutermostCallingMethodName(Stream<StackWalker.StackFrame> frames) {
+        String callingMethodName = UNKNOWN;
+        boolean previousFrameIsFrameworkFrame = false;
+        for (Iterator<StackWalker.StackFrame> iterator = frames.iterator(); iterator.hasNext(); ) {
+            StackWalker.StackFrame frame = iterator.next();
+            boolean frameIsFrameworkFrame = isFrameworkFrame(frame);
+            if (previousFrameIsFrameworkFrame && !frameIsFrameworkFrame) {
+                callingMethodName = frame.getMethodName();
+            }
+            previousFrameIsFrameworkFrame = frameIsFrameworkFrame;
+        }
+        return callingMethodName;
+    }
+
+    private static boolean isFrameworkFrame(StackWalker.StackFrame frame) {
+        return frame.getClassName().startsWith(CORE_PACKAGE_PREFIX);
+    }
+
+}
@@ -18,24 +18,23 @@ package io.github.mmbishop.gwttest.core;
 
 import io.github.mmbishop.gwttest.model.TestPhase;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 /**
- * Validates test phase transitions.
+ * Validates test phase transitions. The valid transitions are held in a static table, so a validator has no state of its
+ * own and validating a transition doesn't allocate.
  */
 public class TestPhaseValidator {
 
-    private final Map<TestPhase, List<TestPhase>> testPhaseTransitionMap;
+    /*
+     * For each phase, indexed by ordinal, a bit mask of the phases from which that phase can be entered. The bit for a
+     * phase is 1 << its ordinal.
+     */
+    private static final int[] VALID_CURRENT_PHASES = new int[TestPhase.values().length];
 
-    public TestPhaseValidator() {
-        testPhaseTransitionMap = new HashMap<>();
-        testPhaseTransitionMap.put(TestPhase.CONSTRUCTED, Collections.emptyList());
-        testPhaseTransitionMap.put(TestPhase.GIVEN, List.of(TestPhase.CONSTRUCTED));
-        testPhaseTransitionMap.put(TestPhase.WHEN, List.of(TestPhase.CONSTRUCTED, TestPhase.GIVEN, TestPhase.THEN));
-        testPhaseTransitionMap.put(TestPhase.THEN, List.of(TestPhase.CONSTRUCTED, TestPhase.GIVEN, TestPhase.WHEN));
+    static {
+        VALID_CURRENT_PHASES[TestPhase.CONSTRUCTED.ordinal()] = 0;
+        VALID_CURRENT_PHASES[TestPhase.GIVEN.ordinal()] = bitsOf(TestPhase.CONSTRUCTED);
+        VALID_CURRENT_PHASES[TestPhase.WHEN.ordinal()] = bitsOf(TestPhase.CONSTRUCTED, TestPhase.GIVEN, TestPhase.THEN);
+        VALID_CURRENT_PHASES[TestPhase.THEN.ordinal()] = bitsOf(TestPhase.CONSTRUCTED, TestPhase.GIVEN, TestPhase.WHEN);
     }
 
     /**
@@ -48,8 +47,7 @@ public class TestPhaseValidator {
         if (currentPhase == null) {
             return;
         }
-        var validCurrentPhases = testPhaseTransitionMap.get(nextPhase);
-        if (!validCurrentPhases.contains(currentPhase)) {
+        if ((VALID_CURRENT_PHASES[nextPhase.ordinal()] & (1 << currentPhase.ordinal())) == 0) {
             throw new MalformedTestException("Invalid test phase transition from " + currentPhase + " to " + nextPhase);
         }
     }
@@ -60,9 +58,17 @@ public class TestPhaseValidator {
      * @throws MalformedTestException there is no current phase, meaning that .and was called before .given, .when or .then
      */
     void validateSelfTransition(TestPhase currentPhase) {
-        if (currentPhase == null || currentPhase.equals(TestPhase.CONSTRUCTED)) {
+        if (currentPhase == null || currentPhase == TestPhase.CONSTRUCTED) {
             throw new MalformedTestException(".and called before .given, .when and .then");
         }
     }
 
+    private static int bitsOf(TestPhase... testPhases) {
+        int bits = 0;
+        for (TestPhase testPhase : testPhases) {
+            bits |= 1 << testPhase.ordinal();
+        }
+        return bits;
+    }
+
 }
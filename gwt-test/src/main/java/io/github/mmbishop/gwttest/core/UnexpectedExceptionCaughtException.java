@@ -3,6 +3,6 @@ package io.github.mmbishop.gwttest.core;
 public class UnexpectedExceptionCaughtException extends RuntimeException {
 
     public UnexpectedExceptionCaughtException(Throwable cause) {
-        super("Unexpected exception of type " + cause.getClass() + " caught.");
+        super("Unexpected exception of type " + cause.getClass() + " caught.", cause);
     }
 }
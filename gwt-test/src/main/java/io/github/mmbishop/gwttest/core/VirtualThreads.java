@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates executors that run each task on a new virtual thread. gwt-test is compiled for Java 17, so the Java 21 factory
+ * method is looked up at run time; on earlier runtimes, each task runs on a new daemon platform thread instead.
+ */
+final class VirtualThreads {
+
+    private static final MethodHandle newVirtualThreadPerTaskExecutor = findNewVirtualThreadPerTaskExecutor();
+
+    private VirtualThreads() {
+    }
+
+    static boolean isSupported() {
+        return newVirtualThreadPerTaskExecutor != null;
+    }
+
+    static ExecutorService newThreadPerTaskExecutor() {
+        if (newVirtualThreadPerTaskExecutor != null) {
+            try {
+                return (ExecutorService) newVirtualThreadPerTaskExecutor.invokeExact();
+            }
+            catch (Throwable e) {
+                throw new IllegalStateException("Can't create virtual thread executor", e);
+            }
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "gwt-test-scenario-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static MethodHandle findNewVirtualThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.examples;
+
+import io.github.mmbishop.gwttest.model.ExampleRow;
+
+import java.util.function.Function;
+
+/**
+ * A typed column of an examples table, which converts the text of a cell to the value passed to a step. Columns are looked
+ * up by name, so the order of the columns in an examples file doesn't matter.
+ * @param <V> the type of the column's values
+ */
+public final class ExampleColumn<V> {
+
+    private final String name;
+    private final Class<V> type;
+    private final Function<String, V> converter;
+
+    private ExampleColumn(String name, Class<V> type, Function<String, V> converter) {
+        this.name = name;
+        this.type = type;
+        this.converter = converter;
+    }
+
+    /**
+     * Returns a column whose values are passed as they are.
+     * @param name the name of the column
+     * @return the column
+     */
+    public static ExampleColumn<String> ofString(String name) {
+        return new ExampleColumn<>(name, String.class, value -> value);
+    }
+
+    /**
+     * Returns a column whose values are converted to {@code Integer}s.
+     * @param name the name of the column
+     * @return the column
+     */
+    public static ExampleColumn<Integer> ofInt(String name) {
+        return new ExampleColumn<>(name, Integer.class, value -> Integer.valueOf(value.strip()));
+    }
+
+    /**
+     * Returns a column whose values are converted to {@code Long}s.
+     * @param name the name of the column
+     * @return the column
+     */
+    public static ExampleColumn<Long> ofLong(String name) {
+        return new ExampleColumn<>(name, Long.class, value -> Long.valueOf(value.strip()));
+    }
+
+    /**
+     * Returns a column whose values are converted to {@code Double}s.
+     * @param name the name of the column
+     * @return the column
+     */
+    public static ExampleColumn<Double> ofDouble(String name) {
+        return new ExampleColumn<>(name, Double.class, value -> Double.valueOf(value.strip()));
+    }
+
+    /**
+     * Returns a column whose values are {@code true} or {@code false}, in any case.
+     * @param name the name of the column
+     * @return the column
+     */
+    public static ExampleColumn<Boolean> ofBoolean(String name) {
+        return new ExampleColumn<>(name, Boolean.class, value -> {
+            String text = value.strip();
+            if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+                return Boolean.valueOf(text);
+            }
+            throw new IllegalArgumentException(text);
+        });
+    }
+
+    /**
+     * Returns a column whose values are converted by the given function.
+     * @param name the name of the column
+     * @param type the type of the column's values
+     * @param converter converts the text of a cell to a value
+     * @param <V> the type of the column's values
+     * @return the column
+     */
+    public static <V> ExampleColumn<V> of(String name, Class<V> type, Function<String, V> converter) {
+        return new ExampleColumn<>(name, type, converter);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<V> getType() {
+        return type;
+    }
+
+    /**
+     * Returns the value of this column in a row.
+     * @param row the row
+     * @return the converted value
+     * @throws IllegalArgumentException the row has no such column, or its value can't be converted
+     */
+    public V get(ExampleRow row) {
+        String value = row.get(name);
+        try {
+            return converter.apply(value);
+        }
+        catch (RuntimeException e) {
+            throw new IllegalArgumentException("The value of column " + name + " in row " + row.getRowNumber() + " is not a valid "
+                    + type.getSimpleName() + ": " + value, e);
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.examples;
+
+import io.github.mmbishop.gwttest.core.MalformedTestException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.ExampleRow;
+
+import java.lang.reflect.Array;
+
+/**
+ * Turns step functions that take arguments into functions that take them from the columns of the example row that a
+ * scenario outline is run with, so that a scenario built once serves as the template for every row:
+ * <pre>
+ * ExampleColumn&lt;Integer&gt; APPLES = ExampleColumn.ofInt("apples");
+ * ExampleColumn&lt;Integer&gt; TOTAL = ExampleColumn.ofInt("total");
+ *
+ * Scenario&lt;BasketContext&gt; outline = Scenario.builder(BasketContext.class)
+ *         .given(an_empty_basket)
+ *         .when(ExampleSteps.withColumn(apples_are_added, APPLES))
+ *         .then(ExampleSteps.withColumn(the_basket_holds, TOTAL))
+ *         .build();
+ * try (ExamplesReader rows = ExamplesReader.open(Path.of("baskets.csv"))) {
+ *     scenarioRunner.runAllExamples(outline, rows);
+ * }
+ * </pre>
+ */
+public final class ExampleSteps {
+
+    private ExampleSteps() {
+    }
+
+    /**
+     * Returns a function that invokes the given function with the value of a column of the current row.
+     * @param gwtFunction the function to invoke
+     * @param column the column whose value is passed to the function
+     * @return a {@code GwtFunction} to be used in any clause of a scenario outline
+     */
+    public static <T extends Context, V> GwtFunction<T> withColumn(GwtFunctionWithArgument<T, V> gwtFunction, ExampleColumn<V> column) {
+        return context -> gwtFunction.apply(context, column.get(currentRow(context)));
+    }
+
+    /**
+     * Returns a function that invokes the given function with the values of columns of the current row. The columns must
+     * all have the same type.
+     * @param gwtFunction the function to invoke
+     * @param columns the columns whose values are passed to the function, in order
+     * @return a {@code GwtFunction} to be used in any clause of a scenario outline
+     * @throws IllegalArgumentException no columns are given, or they have different types
+     */
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public static <T extends Context, V> GwtFunction<T> withColumns(GwtFunctionWithArguments<T, V> gwtFunction, ExampleColumn<V>... columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("At least one column is required");
+        }
+        Class<V> type = columns[0].getType();
+        for (ExampleColumn<V> column : columns) {
+            if (column.getType() != type) {
+                throw new IllegalArgumentException("The columns must all have the same type, but " + column.getName() + " is a "
+                        + column.getType().getSimpleName() + " instead of a " + type.getSimpleName());
+            }
+        }
+        ExampleColumn<V>[] columnsCopy = columns.clone();
+        return context -> {
+            ExampleRow row = currentRow(context);
+            V[] args = (V[]) Array.newInstance(type, columnsCopy.length);
+            for (int i = 0; i < args.length; i++) {
+                args[i] = columnsCopy[i].get(row);
+            }
+            gwtFunction.apply(context, args);
+        };
+    }
+
+    private static ExampleRow currentRow(Context context) {
+        if (context.exampleRow == null) {
+            throw new MalformedTestException("The step takes its arguments from an example row, but the scenario isn't run with examples.");
+        }
+        return context.exampleRow;
+    }
+
+}
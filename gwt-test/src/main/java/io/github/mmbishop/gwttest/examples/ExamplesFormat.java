@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.examples;
+
+/**
+ * The format of an examples file read by an {@link ExamplesReader}.
+ */
+public enum ExamplesFormat {
+
+    /** Comma-separated values. Cells may be quoted with double quotes, and a quote in a quoted cell is written twice. */
+    CSV(','),
+    /** Tab-separated values. Cells are not quoted. */
+    TSV('\t');
+
+    private final char delimiter;
+
+    ExamplesFormat(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    char delimiter() {
+        return delimiter;
+    }
+
+    boolean allowsQuotes() {
+        return this == CSV;
+    }
+
+    /**
+     * Returns the format of an examples file from its name: TSV if the name ends with {@code .tsv} or {@code .tab}, CSV
+     * otherwise.
+     * @param fileName the name of the examples file
+     * @return the format of the examples file
+     */
+    public static ExamplesFormat forFileName(String fileName) {
+        return fileName.endsWith(".tsv") || fileName.endsWith(".tab") ? TSV : CSV;
+    }
+
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.examples;
+
+import io.github.mmbishop.gwttest.core.ExamplesParseException;
+import io.github.mmbishop.gwttest.model.ExampleRow;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the rows of an examples table from a CSV or TSV file, one row at a time. The first row of the file holds the names
+ * of the columns; blank lines are skipped. The file must be encoded in UTF-8.
+ * <p>
+ * The file is read a window at a time into one direct buffer instead of through a stream, and rows are parsed directly
+ * from the buffer, so the memory used by the reader doesn't depend on the size of the file. The window moves forward when
+ * a row crosses its end, by reading the file again from the start of that row into the same buffer, and grows if a single
+ * row is larger than the window. The file isn't memory-mapped, so moving the window doesn't leave mappings behind for the
+ * garbage collector to release, and the file is no longer held open once the reader is closed.
+ * <p>
+ * A reader is meant to be read by one thread, e.g. by {@code ScenarioRunner.runExamples}, which hands the rows to the
+ * threads that run them. Rows are immutable.
+ */
+public final class ExamplesReader implements Iterator<ExampleRow>, AutoCloseable {
+
+    /**
+     * The size of the part of the file that is read at a time by default, 1 MB.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 1 << 20;
+
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte QUOTE = '"';
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final byte delimiter;
+    private final boolean allowsQuotes;
+    private final List<String> columnNames;
+    private final Map<String, Integer> columnIndexes;
+    private final List<String> cells = new ArrayList<>();
+    private int windowSize;
+    private ByteBuffer window;
+    private long windowStart;
+    private int position;
+    private long lineNumber = 1;
+    private long recordLineNumber;
+    private long rowNumber;
+    private byte[] cellBytes = new byte[256];
+    private int cellLength;
+    private ExampleRow nextRow;
+    private boolean finished;
+
+    private ExamplesReader(Path file, FileChannel channel, ExamplesFormat format, int windowSize) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.delimiter = (byte) format.delimiter();
+        this.allowsQuotes = format.allowsQuotes();
+        this.windowSize = windowSize;
+        read(0);
+        skipByteOrderMark();
+        if (!readRecord()) {
+            throw error(1, "The examples file has no header row");
+        }
+        columnNames = List.copyOf(cells);
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (indexes.put(columnNames.get(i), i) != null) {
+                throw error(recordLineNumber, "Duplicate column name: " + columnNames.get(i));
+            }
+        }
+        columnIndexes = Map.copyOf(indexes);
+    }
+
+    /**
+     * Opens an examples file, whose format is chosen from its name by {@link ExamplesFormat#forFileName(String)}.
+     * @param file the examples file
+     * @return a reader positioned after the header row
+     * @throws ExamplesParseException the file has no header row
+     * @throws UncheckedIOException the file could not be read
+     */
+    public static ExamplesReader open(Path file) {
+        return open(file, ExamplesFormat.forFileName(file.getFileName().toString()));
+    }
+
+    /**
+     * Opens an examples file.
+     * @param file the examples file
+     * @param format the format of the file
+     * @return a reader positioned after the header row
+     * @throws ExamplesParseException the file has no header row
+     * @throws UncheckedIOException the file could not be read
+     */
+    public static ExamplesReader open(Path file, ExamplesFormat format) {
+        return open(file, format, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Opens an examples file, reading the given number of bytes of it at a time.
+     * @param file the examples file
+     * @param format the format of the file
+     * @param windowSize the number of bytes read at a time, which is also the size of the reader's buffer unless the file
+     *                   is smaller
+     * @return a reader positioned after the header row
+     * @throws ExamplesParseException the file has no header row
+     * @throws UncheckedIOException the file could not be read
+     */
+    public static ExamplesReader open(Path file, ExamplesFormat format, int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("The window size must be positive, but was " + windowSize);
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            return new ExamplesReader(file, channel, format, windowSize);
+        }
+        catch (IOException e) {
+            closeQuietly(channel);
+            throw new UncheckedIOException(e);
+        }
+        catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the names of the columns, from the header row.
+     * @return the names of the columns
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /**
+     * Returns whether the file has another row.
+     * @return true if the file has another row
+     * @throws ExamplesParseException the next row is malformed
+     * @throws UncheckedIOException the file could not be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextRow == null && !finished) {
+            if (readRecord()) {
+                if (cells.size() != columnNames.size()) {
+                    throw error(recordLineNumber, "The row has " + cells.size() + " cells, but the header has "
+                            + columnNames.size() + " columns");
+                }
+                nextRow = new ExampleRow(columnNames, columnIndexes, cells.toArray(new String[0]), ++rowNumber, recordLineNumber);
+            }
+            else {
+                finished = true;
+            }
+        }
+        return nextRow != null;
+    }
+
+    /**
+     * Returns the next row of the file.
+     * @return the next row
+     * @throws NoSuchElementException the file has no more rows
+     * @throws ExamplesParseException the row is malformed
+     * @throws UncheckedIOException the file could not be read
+     */
+    @Override
+    public ExampleRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ExampleRow row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    /**
+     * Closes the file.
+     * @throws UncheckedIOException the file could not be closed
+     */
+    @Override
+    public void close() {
+        window = null;
+        finished = true;
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void skipByteOrderMark() {
+        if (window.limit() >= 3 && window.get(0) == (byte) 0xEF && window.get(1) == (byte) 0xBB && window.get(2) == (byte) 0xBF) {
+            position = 3;
+        }
+    }
+
+    /*
+     * Reads the next record into cells, skipping blank lines. Returns false at the end of the file.
+     */
+    private boolean readRecord() {
+        if (window == null) {
+            throw new IllegalStateException("The examples reader is closed");
+        }
+        while (windowStart + position < fileSize) {
+            if (position >= window.limit()) {
+                moveWindow();
+                continue;
+            }
+            byte b = window.get(position);
+            if (b == CR || b == LF) {
+                if (b == CR && position + 1 == window.limit() && !isLastWindow()) {
+                    moveWindow();
+                    continue;
+                }
+                position += b == CR && position + 1 < window.limit() && window.get(position + 1) == LF ? 2 : 1;
+                lineNumber++;
+                continue;
+            }
+            recordLineNumber = lineNumber;
+            if (parseRecord()) {
+                return true;
+            }
+            moveWindow();
+        }
+        return false;
+    }
+
+    /*
+     * Parses the record at the current position. Returns false, without consuming anything, if the record continues past
+     * the end of the window, so that it can be parsed again once the window has moved.
+     */
+    private boolean parseRecord() {
+        cells.clear();
+        int limit = window.limit();
+        boolean lastWindow = isLastWindow();
+        int i = position;
+        long quotedLineBreaks = 0;
+        while (true) {
+            cellLength = 0;
+            if (allowsQuotes && i < limit && window.get(i) == QUOTE) {
+                i++;
+                while (true) {
+                    if (i >= limit) {
+                        if (lastWindow) {
+                            throw error(recordLineNumber, "Unclosed quote");
+                        }
+                        return false;
+                    }
+                    byte b = window.get(i++);
+                    if (b != QUOTE) {
+                        if (b == LF) {
+                            quotedLineBreaks++;
+                        }
+                        append(b);
+                    }
+                    else if (i < limit && window.get(i) == QUOTE) {
+                        append(QUOTE);
+                        i++;
+                    }
+                    else if (i >= limit && !lastWindow) {
+                        return false;
+                    }
+                    else {
+                        break;
+                    }
+                }
+            }
+            while (i < limit) {
+                byte b = window.get(i);
+                if (b == delimiter || b == CR || b == LF) {
+                    break;
+                }
+                append(b);
+                i++;
+            }
+            if (i >= limit) {
+                if (!lastWindow) {
+                    return false;
+                }
+                cells.add(cell());
+                position = i;
+                lineNumber += quotedLineBreaks;
+                return true;
+            }
+            byte b = window.get(i);
+            cells.add(cell());
+            if (b == delimiter) {
+                i++;
+                continue;
+            }
+            if (b == CR) {
+                if (i + 1 >= limit && !lastWindow) {
+                    return false;
+                }
+                if (i + 1 < limit && window.get(i + 1) == LF) {
+                    i++;
+                }
+            }
+            position = i + 1;
+            lineNumber += quotedLineBreaks + 1;
+            return true;
+        }
+    }
+
+    private void append(byte b) {
+        if (cellLength == cellBytes.length) {
+            cellBytes = Arrays.copyOf(cellBytes, cellBytes.length * 2);
+        }
+        cellBytes[cellLength++] = b;
+    }
+
+    private String cell() {
+        return new String(cellBytes, 0, cellLength, StandardCharsets.UTF_8);
+    }
+
+    private boolean isLastWindow() {
+        return windowStart + window.limit() == fileSize;
+    }
+
+    /*
+     * Reads the window again, starting at the current position. If the position is already at the start of the window, a
+     * single record is larger than the window, so the window grows.
+     */
+    private void moveWindow() {
+        if (position == 0) {
+            if (windowSize == MAX_WINDOW_SIZE) {
+                throw error(recordLineNumber, "The row is larger than " + MAX_WINDOW_SIZE + " bytes");
+            }
+            windowSize = (int) Math.min(MAX_WINDOW_SIZE, windowSize * 2L);
+        }
+        try {
+            read(windowStart + position);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * The buffer is only replaced when the window has grown past its capacity, i.e. when a row is larger than the window.
+     */
+    private void read(long start) throws IOException {
+        int length = (int) Math.min(windowSize, fileSize - start);
+        if (window == null || window.capacity() < length) {
+            window = ByteBuffer.allocateDirect(length);
+        }
+        window.clear().limit(length);
+        while (window.hasRemaining()) {
+            if (channel.read(window, start + window.position()) < 0) {
+                throw new EOFException("The examples file " + file + " became shorter while it was read");
+            }
+        }
+        windowStart = start;
+        position = 0;
+    }
+
+    private ExamplesParseException error(long line, String message) {
+        return new ExamplesParseException(file + ":" + line + ": " + message);
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            }
+            catch (IOException e) {
+                // The exception that made the file unusable is the one to report.
+            }
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.flow;
+
+import io.github.mmbishop.gwttest.core.StreamInvariantViolatedException;
+import io.github.mmbishop.gwttest.functions.AsyncGwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.model.Context;
+
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+
+/**
+ * Step functions for testing a {@link Flow.Publisher} with a {@link StreamMonitor}. The When step subscribes the monitor
+ * and finishes when the stream ends; the Then steps check what the monitor saw:
+ * <pre>
+ * gwt.test()
+ *         .given(a_price_feed_monitor)
+ *         .whenAsync(FlowSteps.subscribing(context -&gt; context.priceFeed, context -&gt; context.monitor))
+ *         .then(FlowSteps.invariantsHeld(context -&gt; context.monitor))
+ *         .and(the_number_of_prices_is, 1_000_000);
+ * </pre>
+ */
+public final class FlowSteps {
+
+    private FlowSteps() {
+    }
+
+    /**
+     * Returns an asynchronous function that subscribes a monitor to a publisher. Its stage completes when the stream
+     * completes, or exceptionally with the exception that ended the stream.
+     * @param publisher returns the publisher to subscribe to
+     * @param monitor returns the monitor to subscribe
+     * @return an {@code AsyncGwtFunction} to be used with {@code whenAsync} or {@code andAsync}
+     */
+    public static <T extends Context, E> AsyncGwtFunction<T> subscribing(Function<T, Flow.Publisher<E>> publisher,
+                                                                         Function<T, StreamMonitor<E>> monitor) {
+        return context -> {
+            StreamMonitor<E> streamMonitor = monitor.apply(context);
+            publisher.apply(context).subscribe(streamMonitor);
+            return streamMonitor.getCompletion();
+        };
+    }
+
+    /**
+     * Returns a function that fails the test if the stream didn't complete normally or an item violated an invariant of
+     * the monitor.
+     * @param monitor returns the monitor to check
+     * @return a {@code GwtFunction} to be used in a Then clause
+     */
+    public static <T extends Context> GwtFunction<T> invariantsHeld(Function<T, StreamMonitor<?>> monitor) {
+        return context -> {
+            StreamMonitor<?> streamMonitor = monitor.apply(context);
+            if (!streamMonitor.isCompleted()) {
+                throw new StreamInvariantViolatedException("The stream did not complete after " + streamMonitor.getItemCount() + " items.");
+            }
+            if (streamMonitor.getViolationCount() > 0) {
+                throw new StreamInvariantViolatedException(streamMonitor.getViolationCount() + " invariant violations in "
+                        + streamMonitor.getItemCount() + " items. " + streamMonitor.getFirstViolation());
+            }
+        };
+    }
+
+}
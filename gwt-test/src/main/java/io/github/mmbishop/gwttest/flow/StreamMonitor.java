@@ -0,0 +1,228 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.flow;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Flow.Subscriber} that checks the items of a stream as they arrive, without keeping them. It requests items in
+ * batches, so a fast publisher can't overwhelm it, counts the items, checks each one against its invariants and passes
+ * it to its observers, which can keep running aggregates. Memory use doesn't depend on the length of the stream.
+ * Exceptions thrown by invariants and observers never reach the publisher: they cancel the subscription and fail the
+ * stream.
+ * <p>
+ * A monitor can subscribe to one publisher only. Its counts and timings are read once the stream has ended, which can be
+ * awaited with {@link #getCompletion()}.
+ * @param <E> the type of the stream's items
+ */
+public class StreamMonitor<E> implements Flow.Subscriber<E> {
+
+    /** The number of items requested at a time unless another batch size is given. */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private final int batchSize;
+    private final List<Invariant<? super E>> invariants = new ArrayList<>();
+    private final List<Consumer<? super E>> observers = new ArrayList<>();
+    private final CompletableFuture<Long> completion = new CompletableFuture<>();
+
+    private Flow.Subscription subscription;
+    private long outstandingRequests;
+    private long itemCount;
+    private long violationCount;
+    private String firstViolation;
+    private long subscribeNanos;
+    private long endNanos;
+
+    /**
+     * Instantiates a {@code StreamMonitor} that requests {@value #DEFAULT_BATCH_SIZE} items at a time.
+     */
+    public StreamMonitor() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Instantiates a {@code StreamMonitor} that requests the given number of items at a time.
+     * @param batchSize the number of items requested at a time
+     * @throws IllegalArgumentException the batch size is less than one
+     */
+    public StreamMonitor(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1, but was " + batchSize);
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Adds an invariant that every item must satisfy. Items that don't are counted as violations; the first one is
+     * described by {@link #getFirstViolation()}. If the invariant throws an exception, the subscription is cancelled and
+     * the stream fails with that exception.
+     * @param description a description of the invariant
+     * @param invariant a predicate that returns true for items that satisfy the invariant
+     * @return this monitor
+     */
+    public StreamMonitor<E> withInvariant(String description, Predicate<? super E> invariant) {
+        invariants.add(new Invariant<>(description, invariant));
+        return this;
+    }
+
+    /**
+     * Adds an observer that is passed every item, for example to keep a running total. If an observer throws an exception,
+     * the subscription is cancelled and the stream fails with that exception.
+     * @param observer the observer
+     * @return this monitor
+     */
+    public StreamMonitor<E> withObserver(Consumer<? super E> observer) {
+        observers.add(observer);
+        return this;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscribeNanos = System.nanoTime();
+        outstandingRequests = batchSize;
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(E item) {
+        if (item == null) {
+            subscription.cancel();
+            end(new NullPointerException("The publisher emitted a null item"));
+            return;
+        }
+        if (completion.isDone()) {
+            return;
+        }
+        itemCount++;
+        try {
+            for (int i = 0; i < invariants.size(); i++) {
+                Invariant<? super E> invariant = invariants.get(i);
+                if (!invariant.holdsFor(item)) {
+                    recordViolation(invariant, item);
+                }
+            }
+            for (int i = 0; i < observers.size(); i++) {
+                observers.get(i).accept(item);
+            }
+        }
+        catch (Throwable e) {
+            subscription.cancel();
+            end(e);
+            return;
+        }
+        if (--outstandingRequests <= batchSize / 2) {
+            long additionalRequests = batchSize - outstandingRequests;
+            outstandingRequests += additionalRequests;
+            subscription.request(additionalRequests);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        end(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        endNanos = System.nanoTime();
+        completion.complete(itemCount);
+    }
+
+    /**
+     * Returns a future that completes with the number of items when the stream completes, or exceptionally with the
+     * exception that ended the stream.
+     * @return the completion of the stream
+     */
+    public CompletableFuture<Long> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Returns whether the stream has completed normally.
+     * @return true if the stream has completed normally
+     */
+    public boolean isCompleted() {
+        return completion.isDone() && !completion.isCompletedExceptionally();
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    /**
+     * Returns the number of invariant violations. An item that violates several invariants is counted once for each.
+     * @return the number of invariant violations
+     */
+    public long getViolationCount() {
+        return violationCount;
+    }
+
+    /**
+     * Returns a description of the first invariant violation.
+     * @return a description of the first invariant violation, or null if there was none
+     */
+    public String getFirstViolation() {
+        return firstViolation;
+    }
+
+    /**
+     * Returns the rate at which items arrived, from subscription until the end of the stream.
+     * @return the number of items per second, or 0 if the stream hasn't ended
+     */
+    public double getItemsPerSecond() {
+        long elapsedNanos = endNanos - subscribeNanos;
+        return endNanos == 0 || elapsedNanos <= 0 ? 0.0 : itemCount * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    private void recordViolation(Invariant<? super E> invariant, E item) {
+        if (violationCount++ == 0) {
+            firstViolation = "Item " + itemCount + " (" + item + ") violated the invariant: " + invariant.description;
+        }
+    }
+
+    private void end(Throwable throwable) {
+        endNanos = System.nanoTime();
+        completion.completeExceptionally(throwable);
+    }
+
+    private static final class Invariant<E> {
+
+        private final String description;
+        private final Predicate<E> predicate;
+
+        Invariant(String description, Predicate<E> predicate) {
+            this.description = description;
+            this.predicate = predicate;
+        }
+
+        boolean holdsFor(E item) {
+            return predicate.test(item);
+        }
+
+    }
+
+}
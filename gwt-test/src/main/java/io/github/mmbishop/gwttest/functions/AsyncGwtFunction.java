@@ -0,0 +1,34 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.functions;
+
+import io.github.mmbishop.gwttest.model.Context;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A function that is invoked by the GWT {@code whenAsync} or {@code andAsync} method and starts work that completes
+ * asynchronously. The step is finished when the returned {@link CompletionStage} completes, and fails if it completes
+ * exceptionally. An instance of a {@link Context} subclass is passed as the argument to the function.
+ * @param <T> subclass of {@link Context} declared in the test class in which this function exists
+ */
+@FunctionalInterface
+public interface AsyncGwtFunction<T extends Context> {
+
+    CompletionStage<?> apply(T context);
+
+}
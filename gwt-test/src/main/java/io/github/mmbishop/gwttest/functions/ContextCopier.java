@@ -0,0 +1,32 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.functions;
+
+import io.github.mmbishop.gwttest.model.Context;
+
+/**
+ * A function that copies the test fields of one context object into another. It is used to give each test its own copy
+ * of a context state that was computed once, for example by a {@code FixtureCache}. The test metadata declared by
+ * {@link Context} itself (test name, phase and exceptions) must not be copied.
+ * @param <T> subclass of {@link Context} declared in the test class in which this function exists
+ */
+@FunctionalInterface
+public interface ContextCopier<T extends Context> {
+
+    void copy(T source, T target);
+
+}
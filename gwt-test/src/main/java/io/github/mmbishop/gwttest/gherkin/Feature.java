@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.gherkin;
+
+import java.util.List;
+
+/**
+ * A parsed Gherkin feature file.
+ */
+public final class Feature {
+
+    private final String uri;
+    private final String name;
+    private final List<GherkinStep> backgroundSteps;
+    private final List<GherkinScenario> scenarios;
+
+    Feature(String uri, String name, List<GherkinStep> backgroundSteps, List<GherkinScenario> scenarios) {
+        this.uri = uri;
+        this.name = name;
+        this.backgroundSteps = List.copyOf(backgroundSteps);
+        this.scenarios = List.copyOf(scenarios);
+    }
+
+    /**
+     * Returns the location the feature was read from, which is used in error messages.
+     * @return the location of the feature
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the steps of the feature's background, which run before the steps of each of its scenarios.
+     * @return the background steps, or an empty list if the feature has no background
+     */
+    public List<GherkinStep> getBackgroundSteps() {
+        return backgroundSteps;
+    }
+
+    public List<GherkinScenario> getScenarios() {
+        return scenarios;
+    }
+
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.gherkin;
+
+import io.github.mmbishop.gwttest.core.FeatureParseException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses Gherkin feature files. The parser supports features with a name, a description, tags, an optional background and
+ * scenarios whose steps start with {@code Given}, {@code When}, {@code Then}, {@code And}, {@code But} or {@code *}.
+ * Comments and blank lines are ignored. A scenario outline is expanded into one scenario per row of its examples tables,
+ * named after the outline and the number of the row, e.g. {@code "Adding apples [example 2]"}, in whose name and steps
+ * each {@code <column>} is replaced by the row's value; the tags of an examples table are added to the tags of its
+ * scenarios. Rules, doc strings and data tables are rejected with a {@link FeatureParseException}.
+ * <p>
+ * Examples tables are kept in the feature, so they should be small; run a scenario outline with the rows of a large data
+ * file through {@code ScenarioRunner.runExamples} instead.
+ * <p>
+ * The parser keeps no state between calls, so feature files can be parsed concurrently.
+ */
+public final class FeatureParser {
+
+    private static final StepKeyword[] STEP_KEYWORDS = StepKeyword.values();
+
+    private FeatureParser() {
+    }
+
+    /**
+     * Parses a feature file, which must be encoded in UTF-8.
+     * @param featureFile the feature file
+     * @return the parsed feature
+     * @throws FeatureParseException the feature file is malformed
+     * @throws UncheckedIOException the feature file could not be read
+     */
+    public static Feature parse(Path featureFile) {
+        try {
+            return parse(Files.readString(featureFile), featureFile.toString());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the source of a feature.
+     * @param source the source of the feature
+     * @param uri the location of the source, which is used in error messages
+     * @return the parsed feature
+     * @throws FeatureParseException the source is malformed
+     */
+    public static Feature parse(String source, String uri) {
+        return new ParseState(uri).parse(source);
+    }
+
+    /*
+     * The state of a single parse. A block is the feature header, the background or a scenario; the description of a block
+     * may follow its header until its first step.
+     */
+    private static final class ParseState {
+
+        private final String uri;
+        private String featureName;
+        private List<String> featureTags = List.of();
+        private final List<String> pendingTags = new ArrayList<>();
+        private final List<GherkinStep> backgroundSteps = new ArrayList<>();
+        private final List<GherkinScenario> scenarios = new ArrayList<>();
+        private boolean hasBackground;
+        private String scenarioName;
+        private List<String> scenarioTags;
+        private int scenarioLine;
+        private boolean outline;
+        private boolean inExamples;
+        private List<String> examplesTags;
+        private List<String> examplesHeader;
+        private int exampleCount;
+        private List<GherkinStep> blockSteps;
+        private boolean inDescription;
+        private int lineNumber;
+
+        ParseState(String uri) {
+            this.uri = uri;
+        }
+
+        Feature parse(String source) {
+            for (String rawLine : source.split("\\R", -1)) {
+                lineNumber++;
+                parseLine(rawLine.strip());
+            }
+            finishScenario();
+            if (featureName == null) {
+                throw error("The feature has no Feature: line");
+            }
+            return new Feature(uri, featureName, backgroundSteps, scenarios);
+        }
+
+        private void parseLine(String line) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                return;
+            }
+            if (line.startsWith("@")) {
+                for (String tag : line.split("\\s+")) {
+                    pendingTags.add(tag.startsWith("@") ? tag.substring(1) : tag);
+                }
+                return;
+            }
+            if (line.startsWith("Feature:")) {
+                startFeature(headerName(line, "Feature:"));
+            }
+            else if (line.startsWith("Background:")) {
+                startBackground();
+            }
+            else if (line.startsWith("Scenario:") || line.startsWith("Example:")) {
+                startScenario(headerName(line, line.startsWith("Scenario:") ? "Scenario:" : "Example:"), false);
+            }
+            else if (line.startsWith("Scenario Outline:") || line.startsWith("Scenario Template:")) {
+                startScenario(headerName(line, line.startsWith("Scenario Outline:") ? "Scenario Outline:" : "Scenario Template:"), true);
+            }
+            else if (line.startsWith("Examples:") || line.startsWith("Scenarios:")) {
+                startExamples();
+            }
+            else if (line.startsWith("Rule:")) {
+                throw error("Rules are not supported");
+            }
+            else if (line.startsWith("\"\"\"") || line.startsWith("```")) {
+                throw error("Doc strings are not supported");
+            }
+            else if (line.startsWith("|")) {
+                if (!inExamples) {
+                    throw error("Data tables are not supported");
+                }
+                parseExamplesRow(line);
+            }
+            else if (!parseStep(line)) {
+                if (!inDescription) {
+                    throw error("Expected a step, but found: " + line);
+                }
+            }
+        }
+
+        private boolean parseStep(String line) {
+            for (StepKeyword keyword : STEP_KEYWORDS) {
+                if (line.startsWith(keyword.prefix())) {
+                    if (blockSteps == null) {
+                        throw error("A step must be in a background or scenario");
+                    }
+                    if (inExamples) {
+                        throw error("The steps of a scenario outline must come before its examples");
+                    }
+                    blockSteps.add(new GherkinStep(keyword, line.substring(keyword.prefix().length()).strip(), lineNumber));
+                    inDescription = false;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void startFeature(String name) {
+            if (featureName != null) {
+                throw error("A feature file can only have one Feature: line");
+            }
+            featureName = name;
+            featureTags = List.copyOf(pendingTags);
+            pendingTags.clear();
+            inDescription = true;
+        }
+
+        private void startBackground() {
+            requireFeature();
+            if (hasBackground || !scenarios.isEmpty() || scenarioName != null) {
+                throw error("A feature can only have one background, before its scenarios");
+            }
+            hasBackground = true;
+            blockSteps = backgroundSteps;
+            inDescription = true;
+        }
+
+        private void startScenario(String name, boolean isOutline) {
+            requireFeature();
+            finishScenario();
+            scenarioName = name;
+            scenarioTags = new ArrayList<>(featureTags);
+            scenarioTags.addAll(pendingTags);
+            pendingTags.clear();
+            scenarioLine = lineNumber;
+            blockSteps = new ArrayList<>();
+            outline = isOutline;
+            inExamples = false;
+            exampleCount = 0;
+            inDescription = true;
+        }
+
+        private void finishScenario() {
+            if (scenarioName != null) {
+                if (!outline) {
+                    scenarios.add(new GherkinScenario(scenarioName, scenarioTags, blockSteps, scenarioLine));
+                }
+                scenarioName = null;
+            }
+        }
+
+        private void startExamples() {
+            if (scenarioName == null || !outline) {
+                throw error("Examples must belong to a scenario outline");
+            }
+            inExamples = true;
+            examplesTags = new ArrayList<>(scenarioTags);
+            examplesTags.addAll(pendingTags);
+            pendingTags.clear();
+            examplesHeader = null;
+            inDescription = true;
+        }
+
+        /*
+         * The first row of an examples table is its header; each later row becomes a scenario.
+         */
+        private void parseExamplesRow(String line) {
+            List<String> cells = tableCells(line);
+            inDescription = false;
+            if (examplesHeader == null) {
+                examplesHeader = cells;
+                return;
+            }
+            if (cells.size() != examplesHeader.size()) {
+                throw error("The row has " + cells.size() + " cells, but the header has " + examplesHeader.size());
+            }
+            List<GherkinStep> steps = new ArrayList<>(blockSteps.size());
+            for (GherkinStep step : blockSteps) {
+                steps.add(new GherkinStep(step.getKeyword(), substitute(step.getText(), cells), step.getLine()));
+            }
+            String name = substitute(scenarioName, cells) + " [example " + ++exampleCount + "]";
+            scenarios.add(new GherkinScenario(name, examplesTags, steps, lineNumber));
+        }
+
+        private String substitute(String text, List<String> cells) {
+            if (text.indexOf('<') < 0) {
+                return text;
+            }
+            for (int i = 0; i < cells.size(); i++) {
+                text = text.replace("<" + examplesHeader.get(i) + ">", cells.get(i));
+            }
+            return text;
+        }
+
+        private List<String> tableCells(String line) {
+            if (line.length() < 2 || !line.endsWith("|")) {
+                throw error("A table row must end with |");
+            }
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            for (int i = 1; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '|') {
+                    cells.add(cell.toString().strip());
+                    cell.setLength(0);
+                }
+                else if (c == '\\' && i + 1 < line.length()) {
+                    char escaped = line.charAt(++i);
+                    if (escaped == 'n') {
+                        cell.append('\n');
+                    }
+                    else if (escaped == '|' || escaped == '\\') {
+                        cell.append(escaped);
+                    }
+                    else {
+                        cell.append(c).append(escaped);
+                    }
+                }
+                else {
+                    cell.append(c);
+                }
+            }
+            return cells;
+        }
+
+        private void requireFeature() {
+            if (featureName == null) {
+                throw error("Expected a Feature: line first");
+            }
+        }
+
+        private String headerName(String line, String keyword) {
+            return line.substring(keyword.length()).strip();
+        }
+
+        private FeatureParseException error(String message) {
+            return new FeatureParseException(uri + ":" + lineNumber + ": " + message);
+        }
+
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.gherkin;
+
+import io.github.mmbishop.gwttest.core.FeatureParseException;
+import io.github.mmbishop.gwttest.core.MalformedTestException;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.UndefinedStepException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.ScenarioResult;
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Runs Gherkin feature files. Each scenario of a feature is bound, with the steps of the feature's background, to a
+ * {@link Scenario} whose steps are resolved by a {@link StepRegistry}. {@code And}, {@code But} and {@code *} steps continue
+ * the clause of the preceding step, as do consecutive steps with the same keyword. The scenarios are named
+ * {@code <feature name>: <scenario name>}.
+ * <pre>
+ * FeatureRunner&lt;TestContext&gt; featureRunner = new FeatureRunner&lt;&gt;(steps, TestContext.class);
+ * List&lt;ScenarioResult&lt;TestContext&gt;&gt; results = scenarioRunner.run(featureRunner.scenarios(Path.of("basket.feature")));
+ * </pre>
+ * @param <T> a subclass of {@link Context} that contains the fields used in test code.
+ */
+public final class FeatureRunner<T extends Context> {
+
+    private final StepRegistry<T> registry;
+    private final Supplier<Scenario.Builder<T>> builderFactory;
+
+    /**
+     * Creates a runner whose scenarios use context objects of the given class.
+     * @param registry the registry that resolves the steps
+     * @param contextClass the class of the context object. The class must be public and have a public no-argument
+     *                     constructor.
+     */
+    public FeatureRunner(StepRegistry<T> registry, Class<T> contextClass) {
+        this.registry = registry;
+        this.builderFactory = () -> Scenario.builder(contextClass);
+    }
+
+    /**
+     * Creates a runner whose scenarios get their context objects from a supplier.
+     * @param registry the registry that resolves the steps
+     * @param contextSupplier supplies a new context object for each run of a scenario. A scenario whose supplier returns
+     *                        null fails with a {@link MalformedTestException} before any of its steps run.
+     */
+    public FeatureRunner(StepRegistry<T> registry, Supplier<T> contextSupplier) {
+        this.registry = registry;
+        this.builderFactory = () -> Scenario.builder(() -> {
+            T context = contextSupplier.get();
+            if (context == null) {
+                throw new MalformedTestException("The context supplier of the feature runner returned null");
+            }
+            return context;
+        });
+    }
+
+    /**
+     * Parses a feature file and binds its scenarios.
+     * @param featureFile the feature file
+     * @return the scenarios of the feature, in the order they appear in the file
+     * @throws FeatureParseException the feature file is malformed
+     * @throws UndefinedStepException a step isn't bound in the registry
+     * @throws io.github.mmbishop.gwttest.core.MalformedTestException the steps of a scenario are in an invalid order
+     */
+    public List<Scenario<T>> scenarios(Path featureFile) {
+        return scenarios(FeatureParser.parse(featureFile));
+    }
+
+    /**
+     * Parses feature files and binds their scenarios. The files are parsed and bound in parallel.
+     * @param featureFiles the feature files
+     * @return the scenarios of the features, in the order of the files and of the scenarios within them
+     * @throws FeatureParseException a feature file is malformed
+     * @throws UndefinedStepException a step isn't bound in the registry
+     * @throws io.github.mmbishop.gwttest.core.MalformedTestException the steps of a scenario are in an invalid order
+     */
+    public List<Scenario<T>> scenarios(Collection<Path> featureFiles) {
+        return featureFiles.parallelStream()
+                .map(this::scenarios)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Binds the scenarios of a parsed feature.
+     * @param feature the feature
+     * @return the scenarios of the feature, in the order they appear in the feature
+     * @throws FeatureParseException a scenario starts with an {@code And}, {@code But} or {@code *} step
+     * @throws UndefinedStepException a step isn't bound in the registry
+     * @throws io.github.mmbishop.gwttest.core.MalformedTestException the steps of a scenario are in an invalid order
+     */
+    public List<Scenario<T>> scenarios(Feature feature) {
+        List<Scenario<T>> scenarios = new ArrayList<>(feature.getScenarios().size());
+        for (GherkinScenario gherkinScenario : feature.getScenarios()) {
+            scenarios.add(bind(feature, gherkinScenario));
+        }
+        return scenarios;
+    }
+
+    /**
+     * Runs the scenarios of a feature file one after another on the calling thread. A failed scenario doesn't stop the
+     * others. To run scenarios concurrently, pass the result of {@link #scenarios(Path)} to a
+     * {@link io.github.mmbishop.gwttest.core.ScenarioRunner}.
+     * @param featureFile the feature file
+     * @return the results of the scenarios, in the order they appear in the file. The context of a failed scenario is null.
+     * @throws FeatureParseException the feature file is malformed
+     * @throws UndefinedStepException a step isn't bound in the registry
+     */
+    public List<ScenarioResult<T>> run(Path featureFile) {
+        List<Scenario<T>> scenarios = scenarios(featureFile);
+        List<ScenarioResult<T>> results = new ArrayList<>(scenarios.size());
+        for (Scenario<T> scenario : scenarios) {
+            long startTime = System.nanoTime();
+            try {
+                T context = scenario.run();
+                results.add(new ScenarioResult<>(scenario.getName(), context, null, System.nanoTime() - startTime));
+            }
+            catch (Exception | Error e) {
+                results.add(new ScenarioResult<>(scenario.getName(), null, e, System.nanoTime() - startTime));
+            }
+        }
+        return results;
+    }
+
+    private Scenario<T> bind(Feature feature, GherkinScenario gherkinScenario) {
+        Scenario.Builder<T> builder = builderFactory.get().named(feature.getName() + ": " + gherkinScenario.getName());
+        TestPhase phase = null;
+        for (GherkinStep step : feature.getBackgroundSteps()) {
+            phase = addStep(builder, phase, step, feature.getUri());
+        }
+        for (GherkinStep step : gherkinScenario.getSteps()) {
+            phase = addStep(builder, phase, step, feature.getUri());
+        }
+        return builder.build();
+    }
+
+    private TestPhase addStep(Scenario.Builder<T> builder, TestPhase phase, GherkinStep step, String uri) {
+        GwtFunction<T> gwtFunction;
+        try {
+            gwtFunction = registry.resolve(step.getText());
+        }
+        catch (UndefinedStepException e) {
+            throw new UndefinedStepException(uri + ":" + step.getLine() + ": " + e.getMessage());
+        }
+        TestPhase stepPhase = step.getKeyword().isConjunction() ? phase : phaseOf(step.getKeyword());
+        if (stepPhase == null) {
+            throw new FeatureParseException(uri + ":" + step.getLine() + ": A scenario can't start with \"" + step + "\"");
+        }
+        if (stepPhase == phase) {
+            builder.and(gwtFunction);
+        }
+        else if (stepPhase == TestPhase.GIVEN) {
+            builder.given(gwtFunction);
+        }
+        else if (stepPhase == TestPhase.WHEN) {
+            builder.when(gwtFunction);
+        }
+        else {
+            builder.then(gwtFunction);
+        }
+        return stepPhase;
+    }
+
+    private static TestPhase phaseOf(StepKeyword keyword) {
+        switch (keyword) {
+            case GIVEN:
+                return TestPhase.GIVEN;
+            case WHEN:
+                return TestPhase.WHEN;
+            default:
+                return TestPhase.THEN;
+        }
+    }
+
+}
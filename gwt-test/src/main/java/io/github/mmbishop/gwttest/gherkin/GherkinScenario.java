@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.gherkin;
+
+import java.util.List;
+
+/**
+ * A scenario of a Gherkin feature.
+ */
+public final class GherkinScenario {
+
+    private final String name;
+    private final List<String> tags;
+    private final List<GherkinStep> steps;
+    private final int line;
+
+    GherkinScenario(String name, List<String> tags, List<GherkinStep> steps, int line) {
+        this.name = name;
+        this.tags = List.copyOf(tags);
+        this.steps = List.copyOf(steps);
+        this.line = line;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the tags of the scenario, including the tags of its feature, without their leading {@code @}.
+     * @return the tags of the scenario
+     */
+    public List<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Returns the steps of the scenario, not including the steps of the feature's background.
+     * @return the steps of the scenario
+     */
+    public List<GherkinStep> getSteps() {
+        return steps;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.gherkin;
+
+/**
+ * A step of a Gherkin scenario or background.
+ */
+public final class GherkinStep {
+
+    private final StepKeyword keyword;
+    private final String text;
+    private final int line;
+
+    GherkinStep(StepKeyword keyword, String text, int line) {
+        this.keyword = keyword;
+        this.text = text;
+        this.line = line;
+    }
+
+    public StepKeyword getKeyword() {
+        return keyword;
+    }
+
+    /**
+     * Returns the text of the step after its keyword.
+     * @return the text of the step
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns the one-based line number of the step in its feature file.
+     * @return the line number of the step
+     */
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public String toString() {
+        return keyword.prefix() + text;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.gherkin;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code GwtFunction}, {@code GwtFunctionWithArgument} or {@code GwtFunctionWithArguments} field as the function
+ * that runs a step. The value is a step expression as described in {@link StepRegistry}.
+ * <p>
+ * The annotation is read at compile time by the annotation processor in the {@code gwt-test-processor} module, which
+ * generates a {@code <Class>_StepBindings} class next to each class with annotated fields. Its {@code bind} method binds
+ * the fields to a {@link StepRegistry} without reflection, and checks of the expressions that {@link StepRegistry} would
+ * otherwise make at run time are made when the test code is compiled. Annotated fields must not be private.
+ * <pre>
+ * public class BasketSteps {
+ *     &#64;Step("{int} apples are added")
+ *     final GwtFunctionWithArgument&lt;BasketContext, Integer&gt; apples_are_added = (context, count) -&gt; ...;
+ * }
+ *
+ * StepRegistry&lt;BasketContext&gt; steps = BasketSteps_StepBindings.bind(new StepRegistry&lt;&gt;(), new BasketSteps());
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Step {
+
+    /**
+     * Returns the step expression.
+     * @return the step expression
+     */
+    String value();
+
+}
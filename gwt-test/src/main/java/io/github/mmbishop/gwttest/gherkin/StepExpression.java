@@ -0,0 +1,175 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.gherkin;
+
+import io.github.mmbishop.gwttest.core.UndefinedStepException;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled step expression. The expression is split into the literal prefix before its first placeholder, which
+ * {@link StepRegistry} indexes in a trie, and a pattern for the rest of the expression, which is only matched against the
+ * text after the prefix.
+ */
+final class StepExpression {
+
+    private final String expression;
+    private final String literalPrefix;
+    private final Pattern suffixPattern;
+    private final List<ParameterType> parameterTypes;
+
+    private StepExpression(String expression, String literalPrefix, Pattern suffixPattern, List<ParameterType> parameterTypes) {
+        this.expression = expression;
+        this.literalPrefix = literalPrefix;
+        this.suffixPattern = suffixPattern;
+        this.parameterTypes = parameterTypes;
+    }
+
+    /**
+     * Compiles a step expression.
+     * @param expression the step expression
+     * @return the compiled expression
+     * @throws IllegalArgumentException the expression has an unknown or unclosed placeholder
+     */
+    static StepExpression compile(String expression) {
+        int firstPlaceholder = expression.indexOf('{');
+        if (firstPlaceholder < 0) {
+            return new StepExpression(expression, expression, null, List.of());
+        }
+        List<ParameterType> parameterTypes = new ArrayList<>();
+        StringBuilder regex = new StringBuilder();
+        int position = firstPlaceholder;
+        while (position < expression.length()) {
+            int placeholderStart = expression.indexOf('{', position);
+            if (placeholderStart < 0) {
+                regex.append(Pattern.quote(expression.substring(position)));
+                break;
+            }
+            if (placeholderStart > position) {
+                regex.append(Pattern.quote(expression.substring(position, placeholderStart)));
+            }
+            int placeholderEnd = expression.indexOf('}', placeholderStart);
+            if (placeholderEnd < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in step expression: " + expression);
+            }
+            ParameterType parameterType = ParameterType.forPlaceholder(expression.substring(placeholderStart + 1, placeholderEnd), expression);
+            regex.append('(').append(parameterType.regex).append(')');
+            parameterTypes.add(parameterType);
+            position = placeholderEnd + 1;
+        }
+        return new StepExpression(expression, expression.substring(0, firstPlaceholder), Pattern.compile(regex.toString()),
+                List.copyOf(parameterTypes));
+    }
+
+    String expression() {
+        return expression;
+    }
+
+    String literalPrefix() {
+        return literalPrefix;
+    }
+
+    List<ParameterType> parameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * Matches the text of a step whose literal prefix has already been matched.
+     * @param stepText the text of the step
+     * @return the converted arguments, or null if the text doesn't match
+     * @throws UndefinedStepException the text matches, but an argument doesn't fit the type of its placeholder
+     */
+    Object[] matchArguments(String stepText) {
+        if (suffixPattern == null) {
+            return stepText.equals(literalPrefix) ? new Object[0] : null;
+        }
+        Matcher matcher = suffixPattern.matcher(stepText).region(literalPrefix.length(), stepText.length());
+        if (!matcher.matches()) {
+            return null;
+        }
+        Class<?> componentType = commonArgumentType();
+        Object[] arguments = (Object[]) Array.newInstance(componentType == null ? Object.class : componentType, parameterTypes.size());
+        for (int i = 0; i < arguments.length; i++) {
+            String argument = matcher.group(i + 1);
+            try {
+                arguments[i] = parameterTypes.get(i).converter.apply(argument);
+            }
+            catch (NumberFormatException e) {
+                throw new UndefinedStepException("The argument " + argument + " of \"" + stepText + "\" is out of range for {"
+                        + parameterTypes.get(i).name + "} in step expression: " + expression);
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * Returns the type shared by all arguments, or null if the placeholders have different types.
+     * @return the type shared by all arguments
+     */
+    Class<?> commonArgumentType() {
+        Class<?> commonType = null;
+        for (ParameterType parameterType : parameterTypes) {
+            if (commonType == null) {
+                commonType = parameterType.javaType;
+            }
+            else if (commonType != parameterType.javaType) {
+                return null;
+            }
+        }
+        return commonType;
+    }
+
+    /**
+     * The types of placeholder in a step expression.
+     */
+    enum ParameterType {
+
+        INT("int", "-?\\d+", Integer.class, Integer::valueOf),
+        LONG("long", "-?\\d+", Long.class, Long::valueOf),
+        DOUBLE("double", "-?(?:\\d+\\.?\\d*|\\.\\d+)(?:[eE][-+]?\\d+)?", Double.class, Double::valueOf),
+        STRING("string", "\"[^\"]*\"|'[^']*'", String.class, text -> text.substring(1, text.length() - 1)),
+        WORD("word", "\\S+", String.class, text -> text),
+        ANONYMOUS("", ".*", String.class, text -> text);
+
+        private final String name;
+        private final String regex;
+        private final Class<?> javaType;
+        private final Function<String, Object> converter;
+
+        ParameterType(String name, String regex, Class<?> javaType, Function<String, Object> converter) {
+            this.name = name;
+            this.regex = regex;
+            this.javaType = javaType;
+            this.converter = converter;
+        }
+
+        static ParameterType forPlaceholder(String name, String expression) {
+            for (ParameterType parameterType : values()) {
+                if (parameterType.name.equals(name)) {
+                    return parameterType;
+                }
+            }
+            throw new IllegalArgumentException("Unknown placeholder {" + name + "} in step expression: " + expression);
+        }
+
+    }
+
+}
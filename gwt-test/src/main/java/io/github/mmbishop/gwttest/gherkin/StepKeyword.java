@@ -0,0 +1,49 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.gherkin;
+
+/**
+ * The keyword that starts a Gherkin step.
+ */
+public enum StepKeyword {
+
+    GIVEN("Given "),
+    WHEN("When "),
+    THEN("Then "),
+    AND("And "),
+    BUT("But "),
+    /** The {@code *} keyword, which continues the clause of the preceding step like {@code And}. */
+    ASTERISK("* ");
+
+    private final String prefix;
+
+    StepKeyword(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Returns whether the step continues the clause of the preceding step.
+     * @return true for {@code And}, {@code But} and {@code *}
+     */
+    public boolean isConjunction() {
+        return this == AND || this == BUT || this == ASTERISK;
+    }
+
+    String prefix() {
+        return prefix;
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.gherkin;
+
+import io.github.mmbishop.gwttest.core.UndefinedStepException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.model.Context;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Binds the text of Gherkin steps to gwt-test functions. A step expression is the text of a step in which placeholders
+ * stand for arguments:
+ * <ul>
+ *     <li>{@code {int}}, {@code {long}} and {@code {double}} match numbers, which are passed as {@code Integer},
+ *     {@code Long} and {@code Double}</li>
+ *     <li>{@code {string}} matches text in double or single quotes, which is passed without the quotes</li>
+ *     <li>{@code {word}} matches text without whitespace, and {@code {}} matches any text</li>
+ * </ul>
+ * A {@link GwtFunction} is bound with {@code bind} to an expression without placeholders, a
+ * {@link GwtFunctionWithArgument} with {@code bind} to an expression with one placeholder, and a
+ * {@link GwtFunctionWithArguments} with {@code bindAll} to an expression whose placeholders all have the same type. The
+ * varargs binding has a name of its own so that a lambda without parameter types is never ambiguous between the two
+ * functions that take arguments.
+ * <pre>
+ * StepRegistry&lt;TestContext&gt; steps = new StepRegistry&lt;TestContext&gt;()
+ *         .bind("an empty basket", an_empty_basket)
+ *         .bind("{int} apples are added", apples_are_added)
+ *         .bindAll("the fruits {int}, {int} and {int} are added", fruits_are_added)
+ *         .bind("the basket holds {int} fruits", the_basket_holds);
+ * </pre>
+ * <p>
+ * Steps are matched through an index instead of by trying every expression: expressions without placeholders are looked
+ * up in a hash map, and the literal prefixes of the others are kept in a trie, so only the expressions whose prefix
+ * matches the step are matched against the rest of its text, longest prefix first. All steps should be bound before
+ * steps are resolved; resolving steps is then thread-safe.
+ * @param <T> a subclass of {@link Context} that contains the fields used in test code.
+ */
+public final class StepRegistry<T extends Context> {
+
+    private final Map<String, GwtFunction<T>> literalSteps = new HashMap<>();
+    private final TrieNode<T> prefixIndex = new TrieNode<>();
+    private int bindingCount;
+
+    /**
+     * Binds a step expression without placeholders to a function.
+     * @param expression the step expression
+     * @param gwtFunction the function the step runs
+     * @return this registry
+     * @throws IllegalArgumentException the expression has placeholders or is already bound
+     */
+    public StepRegistry<T> bind(String expression, GwtFunction<T> gwtFunction) {
+        StepExpression stepExpression = StepExpression.compile(expression);
+        requireParameterCount(stepExpression, 0, 0);
+        add(stepExpression, arguments -> gwtFunction);
+        return this;
+    }
+
+    /**
+     * Binds a step expression with one placeholder to a function that takes the argument matched by the placeholder. The
+     * type of the function's argument must be the type the placeholder produces.
+     * @param expression the step expression
+     * @param gwtFunction the function the step runs
+     * @param <V> the type of the argument
+     * @return this registry
+     * @throws IllegalArgumentException the expression doesn't have exactly one placeholder, or is already bound
+     */
+    @SuppressWarnings("unchecked")
+    public <V> StepRegistry<T> bind(String expression, GwtFunctionWithArgument<T, V> gwtFunction) {
+        StepExpression stepExpression = StepExpression.compile(expression);
+        requireParameterCount(stepExpression, 1, 1);
+        add(stepExpression, arguments -> context -> gwtFunction.apply(context, (V) arguments[0]));
+        return this;
+    }
+
+    /**
+     * Binds a step expression with placeholders of the same type to a function that takes the arguments matched by the
+     * placeholders. The type of the function's arguments must be the type the placeholders produce.
+     * @param expression the step expression
+     * @param gwtFunction the function the step runs
+     * @param <V> the type of the arguments
+     * @return this registry
+     * @throws IllegalArgumentException the expression has no placeholders or placeholders of different types, or is already
+     *                                  bound
+     */
+    @SuppressWarnings("unchecked")
+    public <V> StepRegistry<T> bindAll(String expression, GwtFunctionWithArguments<T, V> gwtFunction) {
+        StepExpression stepExpression = StepExpression.compile(expression);
+        requireParameterCount(stepExpression, 1, Integer.MAX_VALUE);
+        if (stepExpression.commonArgumentType() == null) {
+            throw new IllegalArgumentException("The placeholders must all have the same type: " + expression);
+        }
+        add(stepExpression, arguments -> context -> gwtFunction.apply(context, (V[]) arguments));
+        return this;
+    }
+
+    /**
+     * Resolves the text of a step to the function it runs, with its arguments applied.
+     * @param stepText the text of the step after its keyword
+     * @return the function the step runs
+     * @throws UndefinedStepException no step expression matches the text, or the arguments of the text don't fit the
+     *                                types of the placeholders of any expression that matches it
+     */
+    public GwtFunction<T> resolve(String stepText) {
+        GwtFunction<T> literalStep = literalSteps.get(stepText);
+        if (literalStep != null) {
+            return literalStep;
+        }
+        List<TrieNode<T>> matchedNodes = new ArrayList<>();
+        TrieNode<T> node = prefixIndex;
+        int position = 0;
+        while (node != null) {
+            if (!node.bindings.isEmpty()) {
+                matchedNodes.add(node);
+            }
+            node = position < stepText.length() ? node.children.get(stepText.charAt(position++)) : null;
+        }
+        UndefinedStepException argumentOutOfRange = null;
+        for (int i = matchedNodes.size() - 1; i >= 0; i--) {
+            for (Binding<T> binding : matchedNodes.get(i).bindings) {
+                Object[] arguments;
+                try {
+                    arguments = binding.expression.matchArguments(stepText);
+                }
+                catch (UndefinedStepException e) {
+                    // another expression may still match, e.g. {long} where {int} overflows
+                    argumentOutOfRange = argumentOutOfRange == null ? e : argumentOutOfRange;
+                    continue;
+                }
+                if (arguments != null) {
+                    return binding.factory.apply(arguments);
+                }
+            }
+        }
+        if (argumentOutOfRange != null) {
+            throw argumentOutOfRange;
+        }
+        throw new UndefinedStepException("No step is bound to \"" + stepText + "\"");
+    }
+
+    /**
+     * Returns the number of bound step expressions.
+     * @return the number of bound step expressions
+     */
+    public int size() {
+        return bindingCount;
+    }
+
+    private void add(StepExpression expression, Function<Object[], GwtFunction<T>> factory) {
+        if (expression.parameterTypes().isEmpty()) {
+            if (literalSteps.putIfAbsent(expression.expression(), factory.apply(new Object[0])) != null) {
+                throw new IllegalArgumentException("The step is already bound: " + expression.expression());
+            }
+        }
+        else {
+            TrieNode<T> node = prefixIndex;
+            String prefix = expression.literalPrefix();
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new TrieNode<>());
+            }
+            for (Binding<T> binding : node.bindings) {
+                if (binding.expression.expression().equals(expression.expression())) {
+                    throw new IllegalArgumentException("The step is already bound: " + expression.expression());
+                }
+            }
+            node.bindings.add(new Binding<>(expression, factory));
+        }
+        bindingCount++;
+    }
+
+    private static void requireParameterCount(StepExpression expression, int min, int max) {
+        int count = expression.parameterTypes().size();
+        if (count < min || count > max) {
+            throw new IllegalArgumentException("The step expression has " + count + " placeholder(s), which doesn't fit the function: "
+                    + expression.expression());
+        }
+    }
+
+    private static final class TrieNode<T extends Context> {
+        final Map<Character, TrieNode<T>> children = new HashMap<>();
+        final List<Binding<T>> bindings = new ArrayList<>(1);
+    }
+
+    private static final class Binding<T extends Context> {
+
+        final StepExpression expression;
+        final Function<Object[], GwtFunction<T>> factory;
+
+        Binding(StepExpression expression, Function<Object[], GwtFunction<T>> factory) {
+            this.expression = expression;
+            this.factory = factory;
+        }
+
+    }
+
+}
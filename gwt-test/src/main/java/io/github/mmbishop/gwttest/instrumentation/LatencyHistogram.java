@@ -0,0 +1,182 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.instrumentation;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, thread-safe histogram of durations in nanoseconds. Each power of two is divided into 16 linear
+ * sub-buckets, so recorded values are kept with a relative error of at most 1/16 using a constant amount of memory.
+ * Recording a value doesn't allocate.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a duration. Negative durations are recorded as zero.
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        totalNanos.add(value);
+        minNanos.accumulateAndGet(value, Math::min);
+        maxNanos.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded durations.
+     * @return the sum of the recorded durations in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Returns the smallest recorded duration.
+     * @return the smallest recorded duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMinNanos() {
+        return getCount() == 0 ? 0L : minNanos.get();
+    }
+
+    /**
+     * Returns the largest recorded duration.
+     * @return the largest recorded duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    /**
+     * Returns the mean of the recorded durations.
+     * @return the mean of the recorded durations in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMeanNanos() {
+        long currentCount = getCount();
+        return currentCount == 0 ? 0.0 : (double) getTotalNanos() / currentCount;
+    }
+
+    /**
+     * Returns an estimate of the given percentile of the recorded durations. The estimate is the upper bound of the bucket
+     * that contains the percentile, capped at the largest recorded duration.
+     * @param percentile the percentile, from 0 to 100
+     * @return the estimated percentile in nanoseconds, or 0 if nothing was recorded
+     * @throws IllegalArgumentException the percentile is not between 0 and 100
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, but was " + percentile);
+        }
+        long currentCount = getCount();
+        if (currentCount == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * currentCount));
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Returns an estimate of the given percentile of the recorded durations.
+     * @param percentile the percentile, from 0 to 100
+     * @return the estimated percentile
+     * @see #getPercentileNanos(double)
+     */
+    public Duration getPercentile(double percentile) {
+        return Duration.ofNanos(getPercentileNanos(percentile));
+    }
+
+    /**
+     * Adds the durations recorded by another histogram to this histogram.
+     * @param other the histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = other.counts.get(i);
+            if (bucketCount > 0) {
+                counts.addAndGet(i, bucketCount);
+            }
+        }
+        long otherCount = other.getCount();
+        if (otherCount > 0) {
+            count.add(otherCount);
+            totalNanos.add(other.getTotalNanos());
+            minNanos.accumulateAndGet(other.getMinNanos(), Math::min);
+            maxNanos.accumulateAndGet(other.getMaxNanos(), Math::max);
+        }
+    }
+
+    /**
+     * Discards all recorded durations.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        count.reset();
+        totalNanos.reset();
+        minNanos.set(Long.MAX_VALUE);
+        maxNanos.set(0L);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+}
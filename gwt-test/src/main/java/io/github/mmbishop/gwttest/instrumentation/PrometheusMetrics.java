@@ -0,0 +1,324 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.instrumentation;
+
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link StepListener} that counts scenarios and steps and keeps histograms of step durations per phase and per step, and
+ * writes them in the Prometheus text exposition format. The metrics can be trended across builds by keeping the written
+ * files, without running a metrics server.
+ * <p>
+ * If the {@code gwttest.metrics.file} system property is set, a {@code PrometheusMetrics} listener is registered when
+ * {@link StepListeners} is initialized, and the metrics are written to that file when the JVM shuts down. Otherwise,
+ * register a listener and write its metrics explicitly:
+ * <pre>
+ * PrometheusMetrics metrics = new PrometheusMetrics();
+ * StepListeners.register(metrics);
+ * // run the tests
+ * metrics.writeTo(Path.of("target/gwt-test-metrics.prom"));
+ * </pre>
+ */
+public class PrometheusMetrics implements StepListener {
+
+    /** The system property naming the file the metrics are written to at JVM shutdown. */
+    public static final String METRICS_FILE_PROPERTY = "gwttest.metrics.file";
+
+    private static final Logger logger = LoggerFactory.getLogger(PrometheusMetrics.class);
+
+    private static final int DEFAULT_MAX_TRACKED_STEPS = 10_000;
+
+    private static final double[] BUCKET_BOUNDS_SECONDS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 2.5, 5.0, 10.0
+    };
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_SECONDS.length];
+    private static final String[] BUCKET_LABELS = new String[BUCKET_BOUNDS_SECONDS.length];
+
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = Math.round(BUCKET_BOUNDS_SECONDS[i] * 1e9);
+            BUCKET_LABELS[i] = BigDecimal.valueOf(BUCKET_BOUNDS_SECONDS[i]).stripTrailingZeros().toPlainString();
+        }
+    }
+
+    private final LongAdder scenariosStarted = new LongAdder();
+    private final LongAdder scenariosPassed = new LongAdder();
+    private final LongAdder scenariosFailed = new LongAdder();
+    private final Histogram scenarioDurations = new Histogram();
+    private final Map<TestPhase, LongAdder[]> stepCounts = new EnumMap<>(TestPhase.class);
+    private final Map<TestPhase, Histogram> phaseDurations = new EnumMap<>(TestPhase.class);
+    private final Map<StepKey, Histogram> stepDurations = new ConcurrentHashMap<>();
+    private final LongAdder untrackedStepDurations = new LongAdder();
+    private final int maxTrackedSteps;
+
+    /**
+     * Creates a listener that keeps histograms for up to 10,000 steps.
+     */
+    public PrometheusMetrics() {
+        this(DEFAULT_MAX_TRACKED_STEPS);
+    }
+
+    /**
+     * Creates a listener that keeps histograms for up to a number of steps. A step is identified by the name of its test,
+     * its phase and its index within the test, so a test that runs its step functions in a loop, or with a different name
+     * each time, adds a step for each of them. Steps beyond that number are still counted and included in the per-phase
+     * histograms, and the number of their durations that weren't kept per step is written as
+     * {@code gwttest_test_step_durations_dropped_total}.
+     * @param maxTrackedSteps the maximum number of steps to keep a histogram for
+     * @throws IllegalArgumentException the maximum number of steps is negative
+     */
+    public PrometheusMetrics(int maxTrackedSteps) {
+        if (maxTrackedSteps < 0) {
+            throw new IllegalArgumentException("The maximum number of tracked steps can't be negative");
+        }
+        this.maxTrackedSteps = maxTrackedSteps;
+        for (TestPhase phase : TestPhase.values()) {
+            LongAdder[] outcomeCounts = new LongAdder[StepOutcome.values().length];
+            for (int i = 0; i < outcomeCounts.length; i++) {
+                outcomeCounts[i] = new LongAdder();
+            }
+            stepCounts.put(phase, outcomeCounts);
+            phaseDurations.put(phase, new Histogram());
+        }
+    }
+
+    /**
+     * Creates a listener that writes its metrics at JVM shutdown to the file named by the {@code gwttest.metrics.file}
+     * system property. This is called by {@link StepListeners} when it's initialized.
+     * @return the listener, or an empty optional if the property isn't set
+     */
+    public static Optional<StepListener> fromSystemProperties() {
+        String metricsFile = System.getProperty(METRICS_FILE_PROPERTY);
+        if (metricsFile == null || metricsFile.isBlank()) {
+            return Optional.empty();
+        }
+        PrometheusMetrics metrics = new PrometheusMetrics();
+        metrics.writeOnShutdown(Path.of(metricsFile));
+        return Optional.of(metrics);
+    }
+
+    @Override
+    public void scenarioStarted(Context context) {
+        scenariosStarted.increment();
+    }
+
+    @Override
+    public void scenarioFinished(Context context, long startNanos, long endNanos, boolean passed) {
+        (passed ? scenariosPassed : scenariosFailed).increment();
+        scenarioDurations.record(endNanos - startNanos);
+    }
+
+    @Override
+    public void stepFinished(Context context, int stepIndex, long startNanos, long endNanos, StepOutcome outcome) {
+        long durationNanos = endNanos - startNanos;
+        TestPhase phase = context.testPhase == null ? TestPhase.CONSTRUCTED : context.testPhase;
+        stepCounts.get(phase)[outcome.ordinal()].increment();
+        phaseDurations.get(phase).record(durationNanos);
+        StepKey key = new StepKey(context.getTestName(), phase, stepIndex);
+        Histogram stepHistogram = stepDurations.get(key);
+        if (stepHistogram == null) {
+            if (stepDurations.size() >= maxTrackedSteps) {
+                untrackedStepDurations.increment();
+                return;
+            }
+            stepHistogram = stepDurations.computeIfAbsent(key, newKey -> new Histogram());
+        }
+        stepHistogram.record(durationNanos);
+    }
+
+    /**
+     * Registers a shutdown hook that writes the metrics to a file when the JVM shuts down.
+     * @param file the file to write the metrics to
+     */
+    public void writeOnShutdown(Path file) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                writeTo(file);
+            }
+            catch (UncheckedIOException e) {
+                logger.error("Can't write metrics to {}", file, e.getCause());
+            }
+        }, "gwt-test-metrics-writer"));
+    }
+
+    /**
+     * Writes the metrics to a file. The metrics are written to a temporary file that then replaces the file, so a reader
+     * never sees a partly written file.
+     * @param file the file to write the metrics to
+     * @throws UncheckedIOException the file could not be written
+     */
+    public void writeTo(Path file) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                writeTo(writer);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format.
+     * @param writer the writer to write the metrics to
+     * @throws IOException the metrics could not be written
+     */
+    public void writeTo(Writer writer) throws IOException {
+        writeHeader(writer, "gwttest_scenarios_started_total", "Tests and scenarios started.", "counter");
+        writer.write("gwttest_scenarios_started_total " + scenariosStarted.sum() + "\n");
+
+        writeHeader(writer, "gwttest_scenarios_finished_total", "Scenario runs finished, by result.", "counter");
+        writer.write("gwttest_scenarios_finished_total{result=\"passed\"} " + scenariosPassed.sum() + "\n");
+        writer.write("gwttest_scenarios_finished_total{result=\"failed\"} " + scenariosFailed.sum() + "\n");
+
+        writeHeader(writer, "gwttest_scenario_duration_seconds", "Duration of scenario runs.", "histogram");
+        scenarioDurations.writeTo(writer, "gwttest_scenario_duration_seconds", "");
+
+        writeHeader(writer, "gwttest_steps_total", "Step functions run, by phase and outcome.", "counter");
+        for (Map.Entry<TestPhase, LongAdder[]> entry : stepCounts.entrySet()) {
+            for (StepOutcome outcome : StepOutcome.values()) {
+                long count = entry.getValue()[outcome.ordinal()].sum();
+                if (count > 0) {
+                    writer.write("gwttest_steps_total{phase=\"" + entry.getKey() + "\",outcome=\"" + outcome + "\"} " + count + "\n");
+                }
+            }
+        }
+
+        writeHeader(writer, "gwttest_step_duration_seconds", "Duration of step functions, by phase.", "histogram");
+        for (Map.Entry<TestPhase, Histogram> entry : phaseDurations.entrySet()) {
+            if (entry.getValue().count() > 0) {
+                entry.getValue().writeTo(writer, "gwttest_step_duration_seconds", "phase=\"" + entry.getKey() + "\",");
+            }
+        }
+
+        writeHeader(writer, "gwttest_test_step_durations_dropped_total", "Step durations not kept per step because too many steps were tracked.",
+                "counter");
+        writer.write("gwttest_test_step_durations_dropped_total " + untrackedStepDurations.sum() + "\n");
+
+        writeHeader(writer, "gwttest_test_step_duration_seconds", "Duration of each step function, by test, phase and step index.",
+                "histogram");
+        List<StepKey> stepKeys = new ArrayList<>(stepDurations.keySet());
+        stepKeys.sort(StepKey.ORDER);
+        for (StepKey key : stepKeys) {
+            String labels = "test=\"" + escapeLabelValue(key.testName) + "\",phase=\"" + key.phase + "\",step=\"" + key.stepIndex + "\",";
+            stepDurations.get(key).writeTo(writer, "gwttest_test_step_duration_seconds", labels);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Clears the collected metrics.
+     */
+    public void reset() {
+        scenariosStarted.reset();
+        scenariosPassed.reset();
+        scenariosFailed.reset();
+        scenarioDurations.reset();
+        stepCounts.values().forEach(outcomeCounts -> {
+            for (LongAdder count : outcomeCounts) {
+                count.reset();
+            }
+        });
+        phaseDurations.values().forEach(Histogram::reset);
+        stepDurations.clear();
+        untrackedStepDurations.reset();
+    }
+
+    private static void writeHeader(Writer writer, String name, String help, String type) throws IOException {
+        writer.write("# HELP " + name + " " + help + "\n");
+        writer.write("# TYPE " + name + " " + type + "\n");
+    }
+
+    private static String escapeLabelValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /*
+     * A histogram with the fixed buckets in BUCKET_BOUNDS_SECONDS. The bucket counts are kept per bucket and made cumulative
+     * when written, as the exposition format requires.
+     */
+    private static final class Histogram {
+
+        private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS_NANOS.length + 1);
+        private final LongAdder totalNanos = new LongAdder();
+
+        void record(long durationNanos) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_NANOS.length && durationNanos > BUCKET_BOUNDS_NANOS[bucket]) {
+                bucket++;
+            }
+            bucketCounts.incrementAndGet(bucket);
+            totalNanos.add(durationNanos);
+        }
+
+        long count() {
+            long count = 0;
+            for (int i = 0; i < bucketCounts.length(); i++) {
+                count += bucketCounts.get(i);
+            }
+            return count;
+        }
+
+        void writeTo(Writer writer, String name, String labels) throws IOException {
+            long cumulativeCount = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+                cumulativeCount += bucketCounts.get(i);
+                writer.write(name + "_bucket{" + labels + "le=\"" + BUCKET_LABELS[i] + "\"} " + cumulativeCount + "\n");
+            }
+            cumulativeCount += bucketCounts.get(BUCKET_BOUNDS_SECONDS.length);
+            writer.write(name + "_bucket{" + labels + "le=\"+Inf\"} " + cumulativeCount + "\n");
+            String sumAndCountLabels = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+            writer.write(name + "_sum" + sumAndCountLabels + " " + totalNanos.sum() / 1e9 + "\n");
+            writer.write(name + "_count" + sumAndCountLabels + " " + cumulativeCount + "\n");
+        }
+
+        void reset() {
+            for (int i = 0; i < bucketCounts.length(); i++) {
+                bucketCounts.set(i, 0L);
+            }
+            totalNanos.reset();
+        }
+
+    }
+
+}
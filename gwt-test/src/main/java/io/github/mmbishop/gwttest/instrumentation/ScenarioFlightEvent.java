@@ -0,0 +1,69 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for a run of a {@link io.github.mmbishop.gwttest.core.Scenario}, including each case, Given
+ * clause run and example row run by a {@link io.github.mmbishop.gwttest.core.ScenarioRunner} and each worker of a load
+ * run. The duration of the event is the duration of the run. A test run by a {@link io.github.mmbishop.gwttest.core.GwtTest}
+ * has no end of its own, so it has no scenario event; its step events carry its test name.
+ */
+@Name("io.github.mmbishop.gwttest.Scenario")
+@Label("gwt-test Scenario")
+@Category("gwt-test")
+@Description("A run of a gwt-test scenario")
+@StackTrace(false)
+public final class ScenarioFlightEvent extends Event {
+
+    private static final ScenarioFlightEvent probe = new ScenarioFlightEvent();
+
+    @Label("Test Name")
+    String testName;
+
+    @Label("Step Count")
+    int stepCount;
+
+    @Label("Passed")
+    boolean passed;
+
+    /**
+     * Returns whether the event is enabled in a running recording. When it isn't, checking costs a field read.
+     * @return true if the event is enabled
+     */
+    public static boolean enabled() {
+        return probe.isEnabled();
+    }
+
+    /**
+     * Sets the fields of the event.
+     * @param testName the name of the scenario
+     * @param stepCount the number of steps in the scenario
+     * @param passed whether the scenario passed
+     */
+    public void set(String testName, int stepCount, boolean passed) {
+        this.testName = testName;
+        this.stepCount = stepCount;
+        this.passed = passed;
+    }
+
+}
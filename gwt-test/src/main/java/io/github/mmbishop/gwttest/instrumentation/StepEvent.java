@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.instrumentation;
+
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * An exception thrown by a step function, as recorded in the {@link StepEventLog}. The stack trace of the exception is only
+ * rendered when {@link #renderStackTrace()} is called.
+ */
+public final class StepEvent {
+
+    private final long sequence;
+    private final long timestampMillis;
+    private final Supplier<String> testName;
+    private final TestPhase phase;
+    private final int stepIndex;
+    private final StepOutcome outcome;
+    private final Throwable exception;
+
+    StepEvent(long sequence, long timestampMillis, Supplier<String> testName, TestPhase phase, int stepIndex, StepOutcome outcome,
+              Throwable exception) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.testName = testName;
+        this.phase = phase;
+        this.stepIndex = stepIndex;
+        this.outcome = outcome;
+        this.exception = exception;
+    }
+
+    /**
+     * Returns the sequence number of the event. Sequence numbers increase by one for every recorded event.
+     * @return the sequence number of the event
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns the time at which the exception was caught.
+     * @return the time at which the exception was caught
+     */
+    public Instant getTimestamp() {
+        return Instant.ofEpochMilli(timestampMillis);
+    }
+
+    /**
+     * Returns the name of the test, which is resolved when it's first read if it wasn't known when the exception was caught.
+     * @return the name of the test
+     */
+    public String getTestName() {
+        return testName.get();
+    }
+
+    public TestPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * Returns the zero-based index of the step function within the test.
+     * @return the index of the step function
+     */
+    public int getStepIndex() {
+        return stepIndex;
+    }
+
+    /**
+     * Returns the outcome of the step, which is either {@link StepOutcome#EXPECTED_EXCEPTION} or {@link StepOutcome#FAILED}.
+     * @return the outcome of the step
+     */
+    public StepOutcome getOutcome() {
+        return outcome;
+    }
+
+    public Throwable getException() {
+        return exception;
+    }
+
+    /**
+     * Renders the stack trace of the exception.
+     * @return the stack trace of the exception, as printed by {@link Throwable#printStackTrace()}
+     */
+    public String renderStackTrace() {
+        StringWriter stackTrace = new StringWriter();
+        exception.printStackTrace(new PrintWriter(stackTrace));
+        return stackTrace.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + getTimestamp() + " " + getTestName() + " " + phase + " step " + stepIndex + " " + outcome + ": " + exception;
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.instrumentation;
+
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records the exceptions thrown by step functions in a preallocated ring buffer that keeps the most recent events. Recording an
+ * event doesn't format anything, and doesn't even resolve the name of the test; an event is only logged if a level is set for its
+ * outcome and that level is enabled, and only unexpected exceptions are logged with their stack traces.
+ * <p>
+ * The ring buffer is shared by all tests in the JVM and keeps each recorded exception, with its stack trace and causes, until
+ * the slot is reused or {@link #clear()} is called. At the default capacity, up to 1024 exceptions stay reachable for the life of
+ * the JVM; a test suite whose exceptions hold large objects can lower the capacity or clear the log after each test.
+ * <p>
+ * By default, unexpected exceptions are logged at ERROR and expected exceptions at DEBUG. The levels can be set with
+ * {@link #setLevel(StepOutcome, Level)} or with the {@code gwttest.eventLog.failedLevel} and
+ * {@code gwttest.eventLog.expectedExceptionLevel} system properties, whose value is a level name or {@code OFF}. The capacity of
+ * the ring buffer can be set with the {@code gwttest.eventLog.capacity} system property and is rounded up to a power of two.
+ */
+public final class StepEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepEventLog.class);
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private static final Slot[] slots = createSlots(Integer.getInteger("gwttest.eventLog.capacity", DEFAULT_CAPACITY));
+    private static final int mask = slots.length - 1;
+    private static final AtomicLong nextSequence = new AtomicLong();
+
+    private static volatile Level[] levels = {
+            null,
+            levelProperty("gwttest.eventLog.expectedExceptionLevel", Level.DEBUG),
+            levelProperty("gwttest.eventLog.failedLevel", Level.ERROR)
+    };
+    private static volatile long firstSequence;
+
+    private StepEventLog() {
+    }
+
+    /**
+     * Records an exception thrown by a step function and logs it if the level for its outcome is enabled. This is called by
+     * gwt-test.
+     * @param context the context of the test in which the exception was thrown
+     * @param stepIndex the zero-based index of the step function within the test
+     * @param outcome the outcome of the step
+     * @param exception the exception thrown by the step function
+     */
+    public static void record(Context context, int stepIndex, StepOutcome outcome, Throwable exception) {
+        Supplier<String> testName = context.getTestNameSupplier();
+        long sequence = nextSequence.getAndIncrement();
+        Slot slot = slots[(int) (sequence & mask)];
+        synchronized (slot) {
+            slot.set(sequence, System.currentTimeMillis(), testName, context.testPhase, stepIndex, outcome, exception);
+        }
+        Level level = levels[outcome.ordinal()];
+        if (level != null && logger.isEnabledForLevel(level)) {
+            log(level, testName.get(), context.testPhase, stepIndex, outcome, exception);
+        }
+    }
+
+    /**
+     * Returns the recorded events that are still in the ring buffer, oldest first.
+     * @return the most recent events
+     */
+    public static List<StepEvent> getRecentEvents() {
+        long endSequence = nextSequence.get();
+        long startSequence = Math.max(firstSequence, endSequence - slots.length);
+        List<StepEvent> events = new ArrayList<>((int) (endSequence - startSequence));
+        for (long sequence = startSequence; sequence < endSequence; sequence++) {
+            Slot slot = slots[(int) (sequence & mask)];
+            synchronized (slot) {
+                if (slot.sequence == sequence) {
+                    events.add(slot.toEvent());
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Discards the recorded events.
+     */
+    public static void clear() {
+        firstSequence = nextSequence.get();
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                if (slot.sequence < firstSequence) {
+                    slot.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events the ring buffer holds.
+     * @return the capacity of the ring buffer
+     */
+    public static int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the level at which events with an outcome are logged.
+     * @param outcome the outcome of the step
+     * @return the level at which the events are logged, or null if they aren't logged
+     */
+    public static Level getLevel(StepOutcome outcome) {
+        return levels[outcome.ordinal()];
+    }
+
+    /**
+     * Sets the level at which events with an outcome are logged. Events are recorded regardless of the level.
+     * @param outcome the outcome of the step, which is either {@link StepOutcome#EXPECTED_EXCEPTION} or {@link StepOutcome#FAILED}
+     * @param level the level at which the events are logged, or null to not log them
+     * @throws IllegalArgumentException the outcome is {@link StepOutcome#PASSED}, for which no events are recorded
+     */
+    public static synchronized void setLevel(StepOutcome outcome, Level level) {
+        if (outcome == StepOutcome.PASSED) {
+            throw new IllegalArgumentException("Events are only recorded for steps that threw an exception");
+        }
+        Level[] updatedLevels = levels.clone();
+        updatedLevels[outcome.ordinal()] = level;
+        levels = updatedLevels;
+    }
+
+    private static void log(Level level, String testName, TestPhase phase, int stepIndex, StepOutcome outcome, Throwable exception) {
+        if (outcome == StepOutcome.FAILED) {
+            logger.atLevel(level).setCause(exception)
+                    .log("{} step {} of {} threw an unexpected exception: {}", phase, stepIndex, testName, exception.getMessage());
+        }
+        else {
+            logger.atLevel(level).log("{} step {} of {} threw an expected exception: {}", phase, stepIndex, testName, exception);
+        }
+    }
+
+    private static Level levelProperty(String name, Level defaultLevel) {
+        String value = System.getProperty(name);
+        if (value == null) {
+            return defaultLevel;
+        }
+        if (value.equalsIgnoreCase("OFF")) {
+            return null;
+        }
+        try {
+            return Level.valueOf(value.toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException e) {
+            logger.warn("Ignoring invalid level {}={}", name, value);
+            return defaultLevel;
+        }
+    }
+
+    private static Slot[] createSlots(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 1) - 1) << 1;
+        Slot[] createdSlots = new Slot[Math.max(size, 1)];
+        for (int i = 0; i < createdSlots.length; i++) {
+            createdSlots[i] = new Slot();
+        }
+        return createdSlots;
+    }
+
+    private static final class Slot {
+        long sequence = -1;
+        long timestampMillis;
+        Supplier<String> testName;
+        TestPhase phase;
+        int stepIndex;
+        StepOutcome outcome;
+        Throwable exception;
+
+        void set(long sequence, long timestampMillis, Supplier<String> testName, TestPhase phase, int stepIndex, StepOutcome outcome,
+                 Throwable exception) {
+            this.sequence = sequence;
+            this.timestampMillis = timestampMillis;
+            this.testName = testName;
+            this.phase = phase;
+            this.stepIndex = stepIndex;
+            this.outcome = outcome;
+            this.exception = exception;
+        }
+
+        void clear() {
+            set(-1, 0L, null, null, 0, null, null);
+        }
+
+        StepEvent toEvent() {
+            return new StepEvent(sequence, timestampMillis, testName, phase, stepIndex, outcome, exception);
+        }
+    }
+
+}
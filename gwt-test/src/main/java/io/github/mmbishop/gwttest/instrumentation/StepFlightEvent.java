@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A JDK Flight Recorder event for a step function run by a {@link io.github.mmbishop.gwttest.core.GwtTest} or a
+ * {@link io.github.mmbishop.gwttest.core.Scenario}. The duration of the event is the duration of the step function.
+ */
+@Name("io.github.mmbishop.gwttest.Step")
+@Label("gwt-test Step")
+@Category("gwt-test")
+@Description("A step function of a gwt-test test or scenario")
+@StackTrace(false)
+public final class StepFlightEvent extends Event {
+
+    private static final StepFlightEvent probe = new StepFlightEvent();
+
+    @Label("Test Name")
+    String testName;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Step Index")
+    int stepIndex;
+
+    @Label("Outcome")
+    String outcome;
+
+    /**
+     * Returns whether the event is enabled in a running recording. When it isn't, checking costs a field read.
+     * @return true if the event is enabled
+     */
+    public static boolean enabled() {
+        return probe.isEnabled();
+    }
+
+    /**
+     * Sets the fields of the event.
+     * @param testName the name of the test
+     * @param phase the phase of the step, or null if the test has no phase yet
+     * @param stepIndex the zero-based index of the step function within the test
+     * @param outcome the outcome of the step
+     */
+    public void set(String testName, String phase, int stepIndex, StepOutcome outcome) {
+        this.testName = testName;
+        this.phase = phase;
+        this.stepIndex = stepIndex;
+        this.outcome = outcome.name();
+    }
+
+}
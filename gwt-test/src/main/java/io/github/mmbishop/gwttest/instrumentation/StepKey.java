@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.instrumentation;
+
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Identifies a step function by the name of its test, its phase and its index within the test.
+ */
+final class StepKey {
+
+    static final Comparator<StepKey> ORDER = Comparator
+            .comparing((StepKey key) -> key.testName, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(key -> key.stepIndex)
+            .thenComparing(key -> key.phase);
+
+    final String testName;
+    final TestPhase phase;
+    final int stepIndex;
+
+    StepKey(String testName, TestPhase phase, int stepIndex) {
+        this.testName = testName;
+        this.phase = phase;
+        this.stepIndex = stepIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StepKey)) {
+            return false;
+        }
+        StepKey other = (StepKey) o;
+        return stepIndex == other.stepIndex && phase == other.phase && Objects.equals(testName, other.testName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(testName, phase, stepIndex);
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.instrumentation;
+
+import io.github.mmbishop.gwttest.model.Context;
+
+/**
+ * A listener that is notified around the invocation of every step function by a {@code GwtTest} or {@code Scenario}, and
+ * when tests and scenarios start and finish.
+ * Listeners are registered with {@link StepListeners#register(StepListener)}, or discovered with
+ * {@link java.util.ServiceLoader} by listing their class names in
+ * {@code META-INF/services/io.github.mmbishop.gwttest.instrumentation.StepListener}.
+ * <p>
+ * The name of the test is available from {@link Context#getTestName()} and the phase of the step from
+ * {@link Context#testPhase}. Listeners are called on the thread that runs the step and must be thread-safe if scenarios
+ * run concurrently.
+ */
+public interface StepListener {
+
+    /**
+     * Called before a step function is invoked.
+     * @param context the context of the test
+     * @param stepIndex the zero-based index of the step function within the test
+     */
+    default void stepStarted(Context context, int stepIndex) {
+    }
+
+    /**
+     * Called after a step function has returned or thrown an exception. If it threw an exception, the exception is
+     * available from {@link Context#thrownException}.
+     * @param context the context of the test
+     * @param stepIndex the zero-based index of the step function within the test
+     * @param startNanos the value of {@link System#nanoTime()} before the step function was invoked
+     * @param endNanos the value of {@link System#nanoTime()} after the step function returned or threw
+     * @param outcome the outcome of the step
+     */
+    void stepFinished(Context context, int stepIndex, long startNanos, long endNanos, StepOutcome outcome);
+
+    /**
+     * Called when a test is started with {@code GwtTest.test} or a {@code Scenario} starts running.
+     * @param context the context of the test
+     */
+    default void scenarioStarted(Context context) {
+    }
+
+    /**
+     * Called when a run of a {@code Scenario} has finished. A test run by a {@code GwtTest} has no end of its own, so this
+     * isn't called for it.
+     * @param context the context of the scenario
+     * @param startNanos the value of {@link System#nanoTime()} when the scenario started
+     * @param endNanos the value of {@link System#nanoTime()} when the scenario finished
+     * @param passed whether the scenario passed
+     */
+    default void scenarioFinished(Context context, long startNanos, long endNanos, boolean passed) {
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.instrumentation;
+
+import java.util.Optional;
+
+/**
+ * A provider of a {@link StepListener} that is registered when {@link StepListeners} is initialized, for listeners that
+ * need configuration, such as a file named by a system property, before they can be created. Providers are discovered with
+ * {@link java.util.ServiceLoader} by listing their class names in
+ * {@code META-INF/services/io.github.mmbishop.gwttest.instrumentation.StepListenerProvider}.
+ */
+@FunctionalInterface
+public interface StepListenerProvider {
+
+    /**
+     * Creates the listener to register.
+     * @return the listener, or an empty optional if no listener should be registered
+     */
+    Optional<StepListener> listener();
+
+}
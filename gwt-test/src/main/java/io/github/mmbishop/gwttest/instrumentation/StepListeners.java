@@ -0,0 +1,147 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.instrumentation;
+
+import io.github.mmbishop.gwttest.model.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.stream.Stream;
+
+/**
+ * The registry of {@link StepListener}s. Listeners listed as {@link ServiceLoader} providers, and the listeners created by
+ * {@link StepListenerProvider}s listed as providers, are registered when this class is initialized. When no listener is registered, notifying listeners costs a single volatile read.
+ */
+public final class StepListeners {
+
+    private static final Logger logger = LoggerFactory.getLogger(StepListeners.class);
+
+    private static volatile StepListener[] listeners = loadListeners();
+
+    private StepListeners() {
+    }
+
+    /**
+     * Registers a listener.
+     * @param listener the listener to register
+     */
+    public static synchronized void register(StepListener listener) {
+        StepListener[] registeredListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        registeredListeners[listeners.length] = listener;
+        listeners = registeredListeners;
+    }
+
+    /**
+     * Unregisters a listener. Nothing happens if the listener isn't registered.
+     * @param listener the listener to unregister
+     */
+    public static synchronized void unregister(StepListener listener) {
+        listeners = Arrays.stream(listeners).filter(registeredListener -> registeredListener != listener).toArray(StepListener[]::new);
+    }
+
+    /**
+     * Returns the registered listeners.
+     * @return the registered listeners
+     */
+    public static List<StepListener> getListeners() {
+        return List.of(listeners);
+    }
+
+    /**
+     * Returns whether any listener is registered. gwt-test only measures step timings when this is true.
+     * @return true if any listener is registered
+     */
+    public static boolean isActive() {
+        return listeners.length > 0;
+    }
+
+    /**
+     * Notifies the registered listeners that a step is starting. This is called by gwt-test.
+     * @param context the context of the test
+     * @param stepIndex the zero-based index of the step function within the test
+     */
+    public static void notifyStepStarted(Context context, int stepIndex) {
+        StepListener[] currentListeners = listeners;
+        for (int i = 0; i < currentListeners.length; i++) {
+            currentListeners[i].stepStarted(context, stepIndex);
+        }
+    }
+
+    /**
+     * Notifies the registered listeners that a step has finished. This is called by gwt-test.
+     * @param context the context of the test
+     * @param stepIndex the zero-based index of the step function within the test
+     * @param startNanos the value of {@link System#nanoTime()} before the step function was invoked
+     * @param endNanos the value of {@link System#nanoTime()} after the step function returned or threw
+     * @param outcome the outcome of the step
+     */
+    public static void notifyStepFinished(Context context, int stepIndex, long startNanos, long endNanos, StepOutcome outcome) {
+        StepListener[] currentListeners = listeners;
+        for (int i = 0; i < currentListeners.length; i++) {
+            currentListeners[i].stepFinished(context, stepIndex, startNanos, endNanos, outcome);
+        }
+    }
+
+    /**
+     * Notifies the registered listeners that a test or scenario has started. This is called by gwt-test.
+     * @param context the context of the test
+     */
+    public static void notifyScenarioStarted(Context context) {
+        StepListener[] currentListeners = listeners;
+        for (int i = 0; i < currentListeners.length; i++) {
+            currentListeners[i].scenarioStarted(context);
+        }
+    }
+
+    /**
+     * Notifies the registered listeners that a scenario has finished. This is called by gwt-test.
+     * @param context the context of the scenario
+     * @param startNanos the value of {@link System#nanoTime()} when the scenario started
+     * @param endNanos the value of {@link System#nanoTime()} when the scenario finished
+     * @param passed whether the scenario passed
+     */
+    public static void notifyScenarioFinished(Context context, long startNanos, long endNanos, boolean passed) {
+        StepListener[] currentListeners = listeners;
+        for (int i = 0; i < currentListeners.length; i++) {
+            currentListeners[i].scenarioFinished(context, startNanos, endNanos, passed);
+        }
+    }
+
+    /*
+     * Besides the ServiceLoader providers, a PrometheusMetrics listener is registered if the metrics file system property
+     * is set. Listeners of other packages that are configured by system properties, such as the ScenarioReportWriter, are
+     * created by StepListenerProviders, so that this package doesn't depend on them.
+     */
+    private static StepListener[] loadListeners() {
+        try {
+            Stream<StepListener> serviceListeners = ServiceLoader.load(StepListener.class).stream().map(ServiceLoader.Provider::get);
+            Stream<StepListener> providedListeners = ServiceLoader.load(StepListenerProvider.class).stream()
+                    .flatMap(provider -> provider.get().listener().stream());
+            Stream<StepListener> propertyListeners = Stream.concat(providedListeners, PrometheusMetrics.fromSystemProperties().stream());
+            return Stream.concat(serviceListeners, propertyListeners).toArray(StepListener[]::new);
+        }
+        catch (ServiceConfigurationError e) {
+            logger.error("Can't load step listeners", e);
+            return new StepListener[0];
+        }
+    }
+
+}
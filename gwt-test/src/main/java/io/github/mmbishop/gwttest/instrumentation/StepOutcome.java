@@ -0,0 +1,31 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.instrumentation;
+
+/**
+ * The outcome of a step function.
+ */
+public enum StepOutcome {
+
+    /** The step function returned normally. */
+    PASSED,
+    /** The step function threw an exception of the expected exception class. */
+    EXPECTED_EXCEPTION,
+    /** The step function threw an exception that was not expected, which fails the test. */
+    FAILED
+
+}
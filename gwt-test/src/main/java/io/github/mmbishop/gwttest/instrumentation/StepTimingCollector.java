@@ -0,0 +1,179 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.instrumentation;
+
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link StepListener} that keeps step timings in memory: a {@link LatencyHistogram} for each phase, and the count,
+ * total and maximum duration of each step, identified by test name, phase and step index. It can be used to find the
+ * steps that dominate the running time of a test suite.
+ * <pre>
+ * StepTimingCollector collector = new StepTimingCollector();
+ * StepListeners.register(collector);
+ * // run the tests
+ * collector.getSlowestSteps(10).forEach(System.out::println);
+ * </pre>
+ */
+public class StepTimingCollector implements StepListener {
+
+    private final Map<TestPhase, LatencyHistogram> phaseHistograms = new EnumMap<>(TestPhase.class);
+    private final Map<StepKey, StepStatistics> stepStatistics = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a {@code StepTimingCollector}.
+     */
+    public StepTimingCollector() {
+        for (TestPhase phase : TestPhase.values()) {
+            phaseHistograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void stepFinished(Context context, int stepIndex, long startNanos, long endNanos, StepOutcome outcome) {
+        long durationNanos = endNanos - startNanos;
+        TestPhase phase = context.testPhase == null ? TestPhase.CONSTRUCTED : context.testPhase;
+        phaseHistograms.get(phase).record(durationNanos);
+        stepStatistics.computeIfAbsent(new StepKey(context.getTestName(), phase, stepIndex), key -> new StepStatistics())
+                .record(durationNanos);
+    }
+
+    /**
+     * Returns the histogram of the durations of the steps of the given phase.
+     * @param phase the phase
+     * @return the histogram of the durations of the steps of the phase
+     */
+    public LatencyHistogram getPhaseHistogram(TestPhase phase) {
+        return phaseHistograms.get(phase);
+    }
+
+    /**
+     * Returns the timings of all steps.
+     * @return the timings of all steps, in no particular order
+     */
+    public List<StepTiming> getStepTimings() {
+        return stepStatistics.entrySet().stream()
+                .map(entry -> entry.getValue().toStepTiming(entry.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the timings of the steps with the largest total duration.
+     * @param limit the maximum number of steps to return
+     * @return the timings of the slowest steps, slowest first
+     */
+    public List<StepTiming> getSlowestSteps(int limit) {
+        return getStepTimings().stream()
+                .sorted(Comparator.comparing(StepTiming::getTotalDuration).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Discards all collected timings.
+     */
+    public void reset() {
+        phaseHistograms.values().forEach(LatencyHistogram::reset);
+        stepStatistics.clear();
+    }
+
+    /**
+     * The collected timing of one step.
+     */
+    public static final class StepTiming {
+
+        private final String testName;
+        private final TestPhase phase;
+        private final int stepIndex;
+        private final long count;
+        private final Duration totalDuration;
+        private final Duration maxDuration;
+
+        StepTiming(String testName, TestPhase phase, int stepIndex, long count, Duration totalDuration, Duration maxDuration) {
+            this.testName = testName;
+            this.phase = phase;
+            this.stepIndex = stepIndex;
+            this.count = count;
+            this.totalDuration = totalDuration;
+            this.maxDuration = maxDuration;
+        }
+
+        public String getTestName() {
+            return testName;
+        }
+
+        public TestPhase getPhase() {
+            return phase;
+        }
+
+        public int getStepIndex() {
+            return stepIndex;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public Duration getTotalDuration() {
+            return totalDuration;
+        }
+
+        public Duration getMaxDuration() {
+            return maxDuration;
+        }
+
+        public Duration getMeanDuration() {
+            return count == 0 ? Duration.ZERO : totalDuration.dividedBy(count);
+        }
+
+        @Override
+        public String toString() {
+            return testName + " " + phase + " step " + stepIndex + ": " + count + " runs, total " + totalDuration
+                    + ", mean " + getMeanDuration() + ", max " + maxDuration;
+        }
+
+    }
+
+    private static final class StepStatistics {
+
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void record(long durationNanos) {
+            count++;
+            totalNanos += durationNanos;
+            maxNanos = Math.max(maxNanos, durationNanos);
+        }
+
+        synchronized StepTiming toStepTiming(StepKey key) {
+            return new StepTiming(key.testName, key.phase, key.stepIndex, count, Duration.ofNanos(totalNanos),
+                    Duration.ofNanos(maxNanos));
+        }
+
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.model;
+
+import java.util.function.Supplier;
+
+/**
+ * Top-level superclass for GWT test context classes. This class is extended in GWT test classes and is used
+ * to build the GwtTest object.
+ */
+public class Context {
+
+    public TestPhase testPhase;
+    public Class<? extends Throwable> expectedExceptionClass;
+    public Throwable thrownException;
+    public LatencySamples whenLatency;
+    public LoadReport loadReport;
+    public ExampleRow exampleRow;
+
+    /**
+     * The name of the test.
+     * @deprecated read the name with {@link #getTestName()} instead. When a test is started without a name, the name of
+     * the calling method is resolved into this field before the first step function of the test runs.
+     */
+    @Deprecated
+    public volatile String testName;
+
+    private Supplier<String> testNameResolver;
+
+    /**
+     * Returns the name of the test. If the name was not supplied when the test was started, the name of the method that
+     * started the test is resolved the first time this method is called, and the resolved name is kept for subsequent
+     * calls. This method can be called from any thread.
+     * @return the name of the test
+     */
+    @SuppressWarnings("deprecation")
+    public synchronized String getTestName() {
+        if (testNameResolver != null) {
+            testName = testNameResolver.get();
+            testNameResolver = null;
+        }
+        return testName;
+    }
+
+    /**
+     * Returns a supplier of the name of the test, which resolves the name only when it's called. The supplier doesn't keep
+     * this context reachable, so it can be kept after the test has finished.
+     * @return a supplier of the name of the test
+     */
+    @SuppressWarnings("deprecation")
+    public synchronized Supplier<String> getTestNameSupplier() {
+        if (testNameResolver != null) {
+            return testNameResolver;
+        }
+        String resolvedTestName = testName;
+        return () -> resolvedTestName;
+    }
+
+    /**
+     * Sets the name of the test.
+     * @param testName the name of the test
+     */
+    @SuppressWarnings("deprecation")
+    public synchronized void setTestName(String testName) {
+        this.testName = testName;
+        this.testNameResolver = null;
+    }
+
+    /**
+     * Sets a resolver that supplies the name of the test the first time it's needed. This defers the cost of finding the
+     * name until it's actually read. The resolver may be called from any thread that reads the name.
+     * @param testNameResolver supplies the name of the test
+     */
+    @SuppressWarnings("deprecation")
+    public synchronized void setTestNameResolver(Supplier<String> testNameResolver) {
+        this.testName = null;
+        this.testNameResolver = testNameResolver;
+    }
+
+}
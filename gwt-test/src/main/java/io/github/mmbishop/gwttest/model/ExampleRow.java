@@ -0,0 +1,95 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A row of an examples table, which supplies the values for one run of a scenario outline. The values are the text of the
+ * row's cells; an {@code ExampleColumn} converts them to the type a step takes. Rows read from the same table share their
+ * column names.
+ */
+public final class ExampleRow {
+
+    private final List<String> columnNames;
+    private final Map<String, Integer> columnIndexes;
+    private final String[] values;
+    private final long rowNumber;
+    private final long lineNumber;
+
+    /**
+     * Creates a row.
+     * @param columnNames the names of the table's columns
+     * @param columnIndexes the index of each column, by name
+     * @param values the values of the row's cells, one per column
+     * @param rowNumber the number of the row in its table, starting at 1 for the first row after the header
+     * @param lineNumber the line on which the row starts in its file
+     */
+    public ExampleRow(List<String> columnNames, Map<String, Integer> columnIndexes, String[] values, long rowNumber, long lineNumber) {
+        this.columnNames = columnNames;
+        this.columnIndexes = columnIndexes;
+        this.values = values;
+        this.rowNumber = rowNumber;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Returns the value of a column.
+     * @param columnName the name of the column
+     * @return the value of the column
+     * @throws IllegalArgumentException the table has no column with that name
+     */
+    public String get(String columnName) {
+        Integer index = columnIndexes.get(columnName);
+        if (index == null) {
+            throw new IllegalArgumentException("No column named " + columnName + " in " + columnNames);
+        }
+        return values[index];
+    }
+
+    /**
+     * Returns the value of a column.
+     * @param columnIndex the index of the column, starting at 0
+     * @return the value of the column
+     */
+    public String get(int columnIndex) {
+        return values[columnIndex];
+    }
+
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            text.append(i == 0 ? "" : ", ").append(columnNames.get(i)).append('=').append(values[i]);
+        }
+        return text.append('}').toString();
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.model;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The outcome of running a scenario outline once per row of an examples table. Only the counts and the first failures are
+ * kept, so that the memory used by a run doesn't grow with the number of rows.
+ * @param <T> subclass of {@link Context} used by the scenario outline
+ */
+public final class ExamplesResult<T extends Context> {
+
+    private final long rowCount;
+    private final long failureCount;
+    private final List<ScenarioResult<T>> failures;
+    private final long elapsedNanos;
+
+    public ExamplesResult(long rowCount, long failureCount, List<ScenarioResult<T>> failures, long elapsedNanos) {
+        this.rowCount = rowCount;
+        this.failureCount = failureCount;
+        this.failures = List.copyOf(failures);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of rows that were run.
+     * @return the number of rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of rows whose run failed.
+     * @return the number of failed rows
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns the results of the first rows that failed, in the order in which they finished. At most 100 failures are
+     * kept; {@link #getFailureCount()} counts all of them.
+     * @return the results of the first failed rows
+     */
+    public List<ScenarioResult<T>> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Returns whether the runs of all rows succeeded.
+     * @return true if no row failed
+     */
+    public boolean isSuccessful() {
+        return failureCount == 0;
+    }
+
+    /**
+     * Returns the wall-clock time taken to run all rows.
+     * @return the elapsed time
+     */
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * Returns the number of rows run per second.
+     * @return the number of rows per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowCount * 1_000_000_000.0 / elapsedNanos;
+    }
+
+}
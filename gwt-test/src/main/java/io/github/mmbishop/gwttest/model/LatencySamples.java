@@ -0,0 +1,106 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.model;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * The measured durations of the repetitions of a timed When step. Percentiles are exact, using the nearest-rank method.
+ */
+public final class LatencySamples {
+
+    private final long[] sortedNanos;
+
+    /**
+     * Instantiates a {@code LatencySamples} object.
+     * @param nanos the measured durations in nanoseconds
+     * @throws IllegalArgumentException no durations are given
+     */
+    public LatencySamples(long... nanos) {
+        if (nanos.length == 0) {
+            throw new IllegalArgumentException("At least one sample is required");
+        }
+        this.sortedNanos = nanos.clone();
+        Arrays.sort(sortedNanos);
+    }
+
+    /**
+     * Returns the number of samples.
+     * @return the number of samples
+     */
+    public int getCount() {
+        return sortedNanos.length;
+    }
+
+    /**
+     * Returns the shortest duration.
+     * @return the shortest duration
+     */
+    public Duration getMin() {
+        return Duration.ofNanos(sortedNanos[0]);
+    }
+
+    /**
+     * Returns the longest duration.
+     * @return the longest duration
+     */
+    public Duration getMax() {
+        return Duration.ofNanos(sortedNanos[sortedNanos.length - 1]);
+    }
+
+    /**
+     * Returns the mean duration.
+     * @return the mean duration
+     */
+    public Duration getMean() {
+        long total = 0L;
+        for (long nanos : sortedNanos) {
+            total += nanos;
+        }
+        return Duration.ofNanos(total / sortedNanos.length);
+    }
+
+    /**
+     * Returns the median duration.
+     * @return the median duration
+     */
+    public Duration getMedian() {
+        return getPercentile(50.0);
+    }
+
+    /**
+     * Returns the given percentile of the durations: the smallest duration that is greater than or equal to the given
+     * percentage of the samples.
+     * @param percentile the percentile, from 0 to 100
+     * @return the percentile of the durations
+     * @throws IllegalArgumentException the percentile is not between 0 and 100
+     */
+    public Duration getPercentile(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100, but was " + percentile);
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedNanos.length);
+        return Duration.ofNanos(sortedNanos[Math.max(rank, 1) - 1]);
+    }
+
+    @Override
+    public String toString() {
+        return sortedNanos.length + " samples, min " + getMin() + ", median " + getMedian() + ", max " + getMax();
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.model;
+
+import java.time.Duration;
+
+/**
+ * The throughput and latency measured by running the When clause of a scenario under load. Latencies are estimated from a
+ * histogram with a relative error of at most 1/16.
+ */
+public final class LoadReport {
+
+    private final int threads;
+    private final long operations;
+    private final long elapsedNanos;
+    private final Duration meanLatency;
+    private final Duration medianLatency;
+    private final Duration p90Latency;
+    private final Duration p99Latency;
+    private final Duration p999Latency;
+    private final Duration maxLatency;
+
+    public LoadReport(int threads, long operations, long elapsedNanos, Duration meanLatency, Duration medianLatency,
+                      Duration p90Latency, Duration p99Latency, Duration p999Latency, Duration maxLatency) {
+        this.threads = threads;
+        this.operations = operations;
+        this.elapsedNanos = elapsedNanos;
+        this.meanLatency = meanLatency;
+        this.medianLatency = medianLatency;
+        this.p90Latency = p90Latency;
+        this.p99Latency = p99Latency;
+        this.p999Latency = p999Latency;
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Returns the number of threads that ran the When clause.
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Returns the number of times the When clause was run, not counting warmup runs.
+     * @return the number of operations
+     */
+    public long getOperations() {
+        return operations;
+    }
+
+    /**
+     * Returns the wall-clock time taken by the measured runs of the When clause.
+     * @return the elapsed time
+     */
+    public Duration getElapsed() {
+        return Duration.ofNanos(elapsedNanos);
+    }
+
+    /**
+     * Returns the throughput of the When clause across all threads.
+     * @return the number of operations per second
+     */
+    public double getOperationsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : operations * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public Duration getMeanLatency() {
+        return meanLatency;
+    }
+
+    public Duration getMedianLatency() {
+        return medianLatency;
+    }
+
+    public Duration getP90Latency() {
+        return p90Latency;
+    }
+
+    public Duration getP99Latency() {
+        return p99Latency;
+    }
+
+    public Duration getP999Latency() {
+        return p999Latency;
+    }
+
+    public Duration getMaxLatency() {
+        return maxLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d operations on %d threads in %s (%.1f ops/s), latency mean %s, p50 %s, p90 %s, p99 %s, p99.9 %s, max %s",
+                operations, threads, getElapsed(), getOperationsPerSecond(), meanLatency, medianLatency, p90Latency, p99Latency,
+                p999Latency, maxLatency);
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.model;
+
+/**
+ * The outcome of one run of a scenario.
+ * @param <T> subclass of {@link Context} used by the scenario
+ */
+public final class ScenarioResult<T extends Context> {
+
+    private final String name;
+    private final T context;
+    private final Throwable failure;
+    private final long durationNanos;
+
+    public ScenarioResult(String name, T context, Throwable failure, long durationNanos) {
+        this.name = name;
+        this.context = context;
+        this.failure = failure;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Returns the name of the scenario.
+     * @return the name of the scenario
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the context object used by the run. The context is null if it could not be created.
+     * @return the context object used by the run
+     */
+    public T getContext() {
+        return context;
+    }
+
+    /**
+     * Returns the exception that failed the run.
+     * @return the exception that failed the run, or null if the run succeeded
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     * Returns whether the run succeeded.
+     * @return true if the run succeeded
+     */
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+
+    /**
+     * Returns how long the run took, in nanoseconds.
+     * @return the duration of the run in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.report;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Encodes the scenario records as the test cases of a JUnit XML test suite. A scenario whose result is unknown is written as
+ * a skipped test case. The numbers of tests and failures aren't known
+ * until the last record is written, so the header holds a placeholder of spaces that is overwritten with them when the
+ * report is closed.
+ */
+final class JUnitXmlEncoder implements ReportEncoder {
+
+    private static final String SUITE_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<testsuite name=\"gwt-test\" ";
+    private static final int SUMMARY_LENGTH = 96;
+
+    @Override
+    public void appendHeader(StringBuilder text) {
+        text.append(SUITE_START).append(" ".repeat(SUMMARY_LENGTH))
+                .append("timestamp=\"").append(Instant.now()).append("\">\n");
+    }
+
+    @Override
+    public void appendRecord(ScenarioRecord record, StringBuilder text) {
+        text.append("  <testcase classname=\"gwt-test\" name=\"");
+        appendEscaped(record.name, text);
+        text.append("\" time=\"").append(seconds(record.durationNanos)).append("\">\n");
+        if (record.result == ScenarioRecord.Result.UNKNOWN) {
+            text.append("    <skipped message=\"The test has no end of its own, so whether it passed is unknown\"/>\n");
+        }
+        else if (record.result == ScenarioRecord.Result.FAILED) {
+            text.append("    <failure");
+            if (record.thrownException != null) {
+                text.append(" type=\"");
+                appendEscaped(record.thrownException.getClass().getName(), text);
+                text.append("\" message=\"");
+                appendEscaped(record.thrownException.getMessage(), text);
+                text.append('"');
+            }
+            text.append("/>\n");
+        }
+        text.append("    <system-out>");
+        for (ScenarioRecord.StepRecord step : record.steps) {
+            text.append('\n').append(step.phase).append(" step ").append(step.stepIndex).append(' ').append(step.outcome)
+                    .append(' ').append(seconds(step.durationNanos)).append(" s");
+        }
+        text.append("\n    </system-out>\n  </testcase>\n");
+    }
+
+    @Override
+    public void appendFooter(StringBuilder text) {
+        text.append("</testsuite>\n");
+    }
+
+    @Override
+    public String summary(long scenarioCount, long failureCount, long unknownCount) {
+        return "tests=\"" + scenarioCount + "\" failures=\"" + failureCount + "\" errors=\"0\" skipped=\"" + unknownCount + "\"";
+    }
+
+    @Override
+    public int summaryOffset() {
+        return SUITE_START.length();
+    }
+
+    private static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static void appendEscaped(String value, StringBuilder text) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    text.append("&amp;");
+                    break;
+                case '<':
+                    text.append("&lt;");
+                    break;
+                case '>':
+                    text.append("&gt;");
+                    break;
+                case '"':
+                    text.append("&quot;");
+                    break;
+                case '\n':
+                    text.append("&#10;");
+                    break;
+                default:
+                    if (c >= 0x20 || c == '\t') {
+                        text.append(c);
+                    }
+            }
+        }
+    }
+
+}
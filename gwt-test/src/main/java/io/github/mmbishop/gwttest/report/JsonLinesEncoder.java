@@ -0,0 +1,108 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.report;
+
+import java.time.Instant;
+
+/**
+ * Encodes each scenario record as a JSON object on its own line.
+ */
+final class JsonLinesEncoder implements ReportEncoder {
+
+    @Override
+    public void appendHeader(StringBuilder text) {
+    }
+
+    @Override
+    public void appendRecord(ScenarioRecord record, StringBuilder text) {
+        text.append("{\"name\":");
+        appendString(record.name, text);
+        text.append(",\"result\":\"").append(record.result.label())
+                .append("\",\"startTime\":\"").append(Instant.ofEpochMilli(record.startTimeMillis))
+                .append("\",\"durationNanos\":").append(record.durationNanos)
+                .append(",\"steps\":[");
+        for (int i = 0; i < record.steps.size(); i++) {
+            ScenarioRecord.StepRecord step = record.steps.get(i);
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append("{\"phase\":\"").append(step.phase)
+                    .append("\",\"index\":").append(step.stepIndex)
+                    .append(",\"durationNanos\":").append(step.durationNanos)
+                    .append(",\"outcome\":\"").append(step.outcome).append("\"}");
+        }
+        text.append(']');
+        if (record.thrownException != null) {
+            text.append(",\"thrownException\":{\"type\":");
+            appendString(record.thrownException.getClass().getName(), text);
+            text.append(",\"message\":");
+            appendString(record.thrownException.getMessage(), text);
+            text.append('}');
+        }
+        text.append("}\n");
+    }
+
+    @Override
+    public void appendFooter(StringBuilder text) {
+    }
+
+    @Override
+    public String summary(long scenarioCount, long failureCount, long unknownCount) {
+        return null;
+    }
+
+    @Override
+    public int summaryOffset() {
+        return 0;
+    }
+
+    private static void appendString(String value, StringBuilder text) {
+        if (value == null) {
+            text.append("null");
+            return;
+        }
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    text.append("\\\"");
+                    break;
+                case '\\':
+                    text.append("\\\\");
+                    break;
+                case '\n':
+                    text.append("\\n");
+                    break;
+                case '\r':
+                    text.append("\\r");
+                    break;
+                case '\t':
+                    text.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        text.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        text.append(c);
+                    }
+            }
+        }
+        text.append('"');
+    }
+
+}
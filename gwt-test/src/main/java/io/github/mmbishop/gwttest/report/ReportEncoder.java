@@ -0,0 +1,63 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.report;
+
+/**
+ * Encodes scenario records in a report format. An encoder is only used by the writer thread of a
+ * {@link ScenarioReportWriter}.
+ */
+interface ReportEncoder {
+
+    /**
+     * Appends the text that starts the report.
+     * @param text the text to append to
+     */
+    void appendHeader(StringBuilder text);
+
+    /**
+     * Appends a scenario record.
+     * @param record the record of the scenario
+     * @param text the text to append to
+     */
+    void appendRecord(ScenarioRecord record, StringBuilder text);
+
+    /**
+     * Appends the text that ends the report.
+     * @param text the text to append to
+     */
+    void appendFooter(StringBuilder text);
+
+    /**
+     * Returns the text that replaces the summary placeholder in the header once all records are written, or null if the
+     * format has no summary. The text must be no longer than the placeholder.
+     * @param scenarioCount the number of scenarios written
+     * @param failureCount the number of failed scenarios written
+     * @param unknownCount the number of scenarios written whose result is unknown
+     * @return the summary text, or null
+     */
+    String summary(long scenarioCount, long failureCount, long unknownCount);
+
+    /**
+     * Returns the offset of the summary placeholder from the start of the report.
+     * @return the offset of the summary placeholder
+     */
+    int summaryOffset();
+
+    static ReportEncoder of(ReportFormat format) {
+        return format == ReportFormat.JUNIT_XML ? new JUnitXmlEncoder() : new JsonLinesEncoder();
+    }
+
+}
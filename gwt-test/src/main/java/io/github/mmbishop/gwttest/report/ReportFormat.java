@@ -0,0 +1,37 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.report;
+
+/**
+ * The format of a report written by a {@link ScenarioReportWriter}.
+ */
+public enum ReportFormat {
+
+    /** One JSON object per scenario, each on its own line. */
+    JSON_LINES,
+    /** A JUnit XML test suite with one test case per scenario. */
+    JUNIT_XML;
+
+    /**
+     * Returns the format of a report file from its name: JUnit XML if the name ends with {@code .xml}, JSON Lines otherwise.
+     * @param fileName the name of the report file
+     * @return the format of the report file
+     */
+    public static ReportFormat forFileName(String fileName) {
+        return fileName.endsWith(".xml") ? JUNIT_XML : JSON_LINES;
+    }
+
+}
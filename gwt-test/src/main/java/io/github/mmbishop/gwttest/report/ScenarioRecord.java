@@ -0,0 +1,76 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.report;
+
+import io.github.mmbishop.gwttest.instrumentation.StepOutcome;
+import io.github.mmbishop.gwttest.model.TestPhase;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * An immutable record of a finished scenario, as it's written to a report.
+ */
+final class ScenarioRecord {
+
+    final String name;
+    final long startTimeMillis;
+    final long durationNanos;
+    final Result result;
+    final Throwable thrownException;
+    final List<StepRecord> steps;
+
+    ScenarioRecord(String name, long startTimeMillis, long durationNanos, Result result, Throwable thrownException,
+                   List<StepRecord> steps) {
+        this.name = name;
+        this.startTimeMillis = startTimeMillis;
+        this.durationNanos = durationNanos;
+        this.result = result;
+        this.thrownException = thrownException;
+        this.steps = steps;
+    }
+
+    /**
+     * The result of a scenario. A test run by a {@code GwtTest} has no end of its own, so it passed if its last clause was a
+     * Then clause that completed, and its result is unknown if it was abandoned before that.
+     */
+    enum Result {
+
+        PASSED, FAILED, UNKNOWN;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+    }
+
+    static final class StepRecord {
+
+        final TestPhase phase;
+        final int stepIndex;
+        final long durationNanos;
+        final StepOutcome outcome;
+
+        StepRecord(TestPhase phase, int stepIndex, long durationNanos, StepOutcome outcome) {
+            this.phase = phase;
+            this.stepIndex = stepIndex;
+            this.durationNanos = durationNanos;
+            this.outcome = outcome;
+        }
+
+    }
+
+}
@@ -0,0 +1,459 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest.report;
+
+import io.github.mmbishop.gwttest.instrumentation.StepListener;
+import io.github.mmbishop.gwttest.instrumentation.StepOutcome;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link StepListener} that streams a record of every finished test and scenario to a report file, as JSON Lines or
+ * JUnit XML. Each record holds the name of the scenario, its result, the phase, outcome and duration of each of its steps,
+ * and the exception it threw. Records are handed to a background thread through a bounded queue and written through a
+ * buffered {@link FileChannel}, so the memory used by the writer doesn't grow with the number of scenarios.
+ * <p>
+ * A {@code Scenario} run is recorded when it finishes. A test run by a {@code GwtTest} has no end of its own, so it's
+ * recorded when the next test starts on the same thread, when the thread that ran it has ended, or when the writer is
+ * closed. Its result is failed if one of its steps failed, passed if its last clause was a Then clause that completed,
+ * and unknown if it was abandoned before that. Records of tests that end after the writer is closed are dropped.
+ * <p>
+ * If the {@code gwttest.report.file} system property is set, a writer is registered when
+ * {@link io.github.mmbishop.gwttest.instrumentation.StepListeners} is initialized and closed when the JVM shuts down. The
+ * format is JUnit XML if the file name ends with {@code .xml}, and JSON Lines otherwise.
+ * <pre>
+ * try (ScenarioReportWriter writer = ScenarioReportWriter.open(Path.of("target/scenarios.jsonl"), ReportFormat.JSON_LINES)) {
+ *     StepListeners.register(writer);
+ *     // run the tests
+ *     StepListeners.unregister(writer);
+ * }
+ * </pre>
+ */
+public final class ScenarioReportWriter implements StepListener, AutoCloseable {
+
+    /** The system property naming the report file written during a test run. */
+    public static final String REPORT_FILE_PROPERTY = "gwttest.report.file";
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioReportWriter.class);
+
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int EVICTION_INTERVAL = 1024;
+    private static final int BUFFER_CAPACITY = 64 * 1024;
+    private static final ScenarioRecord END_OF_REPORT = new ScenarioRecord(null, 0L, 0L, ScenarioRecord.Result.UNKNOWN, null, List.of());
+
+    private final FileChannel channel;
+    private final ReportEncoder encoder;
+    private final BlockingQueue<ScenarioRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<Context, ScenarioInProgress> scenariosInProgress = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final ThreadLocal<ArrayDeque<ScenarioInProgress>> scenariosStartedOnThread = ThreadLocal.withInitial(ArrayDeque::new);
+    private final Thread writerThread;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+    private final StringBuilder text = new StringBuilder();
+
+    private final AtomicLong startedScenarioCount = new AtomicLong();
+
+    private volatile boolean closed;
+    private volatile boolean acceptingRecords = true;
+    private volatile IOException writeFailure;
+    private long scenarioCount;
+    private long failureCount;
+    private long unknownCount;
+
+    private ScenarioReportWriter(FileChannel channel, ReportEncoder encoder) {
+        this.channel = channel;
+        this.encoder = encoder;
+        this.writerThread = new Thread(this::writeRecords, "gwt-test-report-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    /**
+     * Opens a report file, replacing it if it exists, and starts the thread that writes to it.
+     * @param file the report file
+     * @param format the format of the report
+     * @return the writer
+     * @throws UncheckedIOException the file could not be opened
+     */
+    public static ScenarioReportWriter open(Path file, ReportFormat format) {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            ScenarioReportWriter writer = new ScenarioReportWriter(channel, ReportEncoder.of(format));
+            writer.writerThread.start();
+            return writer;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens the report file named by the {@code gwttest.report.file} system property and closes it at JVM shutdown. This is
+     * called by the {@link ScenarioReportWriterProvider} when {@link io.github.mmbishop.gwttest.instrumentation.StepListeners}
+     * is initialized.
+     * @return the writer, or an empty optional if the property isn't set or the file can't be opened
+     */
+    public static Optional<StepListener> fromSystemProperties() {
+        String reportFile = System.getProperty(REPORT_FILE_PROPERTY);
+        if (reportFile == null || reportFile.isBlank()) {
+            return Optional.empty();
+        }
+        ScenarioReportWriter writer;
+        try {
+            writer = open(Path.of(reportFile), ReportFormat.forFileName(reportFile));
+        }
+        catch (UncheckedIOException e) {
+            logger.error("Can't open the report file {}", reportFile, e.getCause());
+            return Optional.empty();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                writer.close();
+            }
+            catch (UncheckedIOException e) {
+                logger.error("Can't write the report to {}", reportFile, e.getCause());
+            }
+        }, "gwt-test-report-closer"));
+        return Optional.of(writer);
+    }
+
+    /*
+     * Tests that were started earlier on this thread and aren't running a step have ended, so they are recorded first.
+     * A test that is running a step is still in progress: the new test is nested in that step. Every so often, the tests
+     * last run by threads that have since ended are recorded too, so that they don't stay in memory until the writer is
+     * closed.
+     */
+    @Override
+    public void scenarioStarted(Context context) {
+        if (closed) {
+            return;
+        }
+        if (startedScenarioCount.incrementAndGet() % EVICTION_INTERVAL == 0) {
+            finishScenariosOfEndedThreads();
+        }
+        ArrayDeque<ScenarioInProgress> startedOnThread = scenariosStartedOnThread.get();
+        for (Iterator<ScenarioInProgress> iterator = startedOnThread.iterator(); iterator.hasNext(); ) {
+            ScenarioInProgress scenario = iterator.next();
+            if (scenario.isFinished() || !scenario.isRunningStep()) {
+                iterator.remove();
+                finish(scenario, ScenarioRecord.Result.UNKNOWN);
+            }
+        }
+        ScenarioInProgress scenario = new ScenarioInProgress(context);
+        startedOnThread.push(scenario);
+        scenariosInProgress.put(context, scenario);
+    }
+
+    @Override
+    public void stepStarted(Context context, int stepIndex) {
+        ScenarioInProgress scenario = scenariosInProgress.get(context);
+        if (scenario != null) {
+            scenario.stepStarted(Thread.currentThread());
+        }
+    }
+
+    @Override
+    public void stepFinished(Context context, int stepIndex, long startNanos, long endNanos, StepOutcome outcome) {
+        ScenarioInProgress scenario = scenariosInProgress.get(context);
+        if (scenario != null) {
+            scenario.stepFinished(Thread.currentThread(), context, stepIndex, endNanos - startNanos, outcome);
+        }
+    }
+
+    @Override
+    public void scenarioFinished(Context context, long startNanos, long endNanos, boolean passed) {
+        ScenarioInProgress scenario = scenariosInProgress.get(context);
+        if (scenario != null) {
+            finish(scenario, passed ? ScenarioRecord.Result.PASSED : ScenarioRecord.Result.FAILED);
+        }
+    }
+
+    /**
+     * Records the tests that are still in progress, in the order they started, writes the remaining records and closes the
+     * report file. Calling this method again has no effect.
+     * @throws UncheckedIOException the report could not be written
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        List<ScenarioInProgress> remainingScenarios;
+        synchronized (scenariosInProgress) {
+            remainingScenarios = new ArrayList<>(scenariosInProgress.values());
+        }
+        remainingScenarios.sort(Comparator.comparingLong(scenario -> scenario.startNanos));
+        remainingScenarios.forEach(scenario -> finish(scenario, ScenarioRecord.Result.UNKNOWN));
+        acceptingRecords = false;
+        try {
+            queue.put(END_OF_REPORT);
+            writerThread.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writeFailure != null) {
+            throw new UncheckedIOException(writeFailure);
+        }
+    }
+
+    private void finish(ScenarioInProgress scenario, ScenarioRecord.Result reportedResult) {
+        ScenarioRecord record = scenario.finish(reportedResult);
+        if (record != null) {
+            scenariosInProgress.remove(scenario.context, scenario);
+            enqueue(record);
+        }
+    }
+
+    private void finishScenariosOfEndedThreads() {
+        List<ScenarioInProgress> scenarios;
+        synchronized (scenariosInProgress) {
+            scenarios = new ArrayList<>(scenariosInProgress.values());
+        }
+        for (ScenarioInProgress scenario : scenarios) {
+            if (scenario.isAbandoned()) {
+                finish(scenario, ScenarioRecord.Result.UNKNOWN);
+            }
+        }
+    }
+
+    /*
+     * Once the writer is closed, the writer thread stops taking records off the queue, so records of tests that end after
+     * that are dropped instead of blocking the thread that ran them.
+     */
+    private void enqueue(ScenarioRecord record) {
+        try {
+            while (acceptingRecords) {
+                if (queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            }
+            logger.debug("The report is closed, so {} isn't recorded", record.name);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * Runs on the writer thread. The buffer is written to the channel when it's full and whenever the queue has been idle for
+     * a while, so the report stays current during a long run.
+     */
+    private void writeRecords() {
+        try {
+            encoder.appendHeader(text);
+            writeText();
+            while (true) {
+                ScenarioRecord record = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (record == null) {
+                    flushBuffer();
+                    continue;
+                }
+                if (record == END_OF_REPORT) {
+                    break;
+                }
+                scenarioCount++;
+                if (record.result == ScenarioRecord.Result.FAILED) {
+                    failureCount++;
+                }
+                else if (record.result == ScenarioRecord.Result.UNKNOWN) {
+                    unknownCount++;
+                }
+                encoder.appendRecord(record, text);
+                writeText();
+            }
+            encoder.appendFooter(text);
+            writeText();
+            flushBuffer();
+            writeSummary();
+        }
+        catch (IOException e) {
+            writeFailure = e;
+            logger.error("Can't write the report", e);
+            drainQueue();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            try {
+                channel.close();
+            }
+            catch (IOException e) {
+                logger.warn("Can't close the report file: {}", e.toString());
+            }
+        }
+    }
+
+    private void writeText() throws IOException {
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+        text.setLength(0);
+        if (bytes.length > buffer.remaining()) {
+            flushBuffer();
+        }
+        if (bytes.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes));
+        }
+        else {
+            buffer.put(bytes);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    private void writeSummary() throws IOException {
+        String summary = encoder.summary(scenarioCount, failureCount, unknownCount);
+        if (summary != null) {
+            ByteBuffer summaryBytes = ByteBuffer.wrap(summary.getBytes(StandardCharsets.UTF_8));
+            int position = encoder.summaryOffset();
+            while (summaryBytes.hasRemaining()) {
+                position += channel.write(summaryBytes, position);
+            }
+        }
+        channel.force(false);
+    }
+
+    /*
+     * After a write failure, records are taken off the queue and dropped so that threads running scenarios don't block.
+     */
+    private void drainQueue() {
+        try {
+            while (queue.take() != END_OF_REPORT) {
+                // dropped
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class ScenarioInProgress {
+
+        private final Context context;
+        private final String name;
+        private final long startTimeMillis = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+        private final List<ScenarioRecord.StepRecord> steps = new ArrayList<>();
+        private long endNanos = startNanos;
+        private Thread lastThread = Thread.currentThread();
+        private boolean runningStep;
+        private boolean thenClauseCompleted;
+        private boolean failed;
+        private boolean finished;
+        private Throwable thrownException;
+        private Class<? extends Throwable> expectedExceptionClass;
+
+        ScenarioInProgress(Context context) {
+            this.context = context;
+            this.name = context.getTestName();
+        }
+
+        synchronized boolean isRunningStep() {
+            return runningStep;
+        }
+
+        synchronized boolean isFinished() {
+            return finished;
+        }
+
+        /*
+         * A scenario is abandoned if the thread that last ran it has ended between its steps.
+         */
+        synchronized boolean isAbandoned() {
+            return !finished && !runningStep && !lastThread.isAlive();
+        }
+
+        synchronized void stepStarted(Thread thread) {
+            lastThread = thread;
+            runningStep = true;
+        }
+
+        synchronized void stepFinished(Thread thread, Context context, int stepIndex, long durationNanos, StepOutcome outcome) {
+            TestPhase phase = context.testPhase == null ? TestPhase.CONSTRUCTED : context.testPhase;
+            steps.add(new ScenarioRecord.StepRecord(phase, stepIndex, durationNanos, outcome));
+            lastThread = thread;
+            runningStep = false;
+            thenClauseCompleted = phase == TestPhase.THEN && outcome != StepOutcome.FAILED;
+            endNanos = System.nanoTime();
+            failed |= outcome == StepOutcome.FAILED;
+            thrownException = context.thrownException;
+            expectedExceptionClass = context.expectedExceptionClass;
+        }
+
+        /*
+         * Returns the record of the scenario, or null if it has already been finished. A scenario with a failed step, or
+         * that declared an expected exception that wasn't thrown, has failed whatever result was reported for it. When no
+         * result was reported, which is the case for a test run by a GwtTest, the test passed if its last step completed a
+         * Then clause, and its result is unknown if it was abandoned before that.
+         */
+        synchronized ScenarioRecord finish(ScenarioRecord.Result reportedResult) {
+            if (finished) {
+                return null;
+            }
+            finished = true;
+            boolean expectedExceptionNotThrown = expectedExceptionClass != null && thrownException == null;
+            ScenarioRecord.Result result;
+            if (failed || expectedExceptionNotThrown) {
+                result = ScenarioRecord.Result.FAILED;
+            }
+            else if (reportedResult == ScenarioRecord.Result.UNKNOWN && thenClauseCompleted) {
+                result = ScenarioRecord.Result.PASSED;
+            }
+            else {
+                result = reportedResult;
+            }
+            return new ScenarioRecord(name, startTimeMillis, endNanos - startNanos, result, thrownException, steps);
+        }
+
+    }
+
+}
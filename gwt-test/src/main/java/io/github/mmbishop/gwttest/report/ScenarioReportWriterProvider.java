@@ -0,0 +1,34 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest.report;
+
+import io.github.mmbishop.gwttest.instrumentation.StepListener;
+import io.github.mmbishop.gwttest.instrumentation.StepListenerProvider;
+
+import java.util.Optional;
+
+/**
+ * Registers a {@link ScenarioReportWriter} when the {@code gwttest.report.file} system property is set.
+ */
+public final class ScenarioReportWriterProvider implements StepListenerProvider {
+
+    @Override
+    public Optional<StepListener> listener() {
+        return ScenarioReportWriter.fromSystemProperties();
+    }
+
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.functions.AsyncGwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.instrumentation.StepListener;
+import io.github.mmbishop.gwttest.instrumentation.StepListeners;
+import io.github.mmbishop.gwttest.instrumentation.StepOutcome;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class AsyncStepTest {
+
+    private static final Executor delayedExecutor = CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS);
+
+    private final GwtTest<AsyncTestContext> gwt = new GwtTest<>(AsyncTestContext.class);
+
+    @Test
+    void async_when_step_completes_before_then_clause() {
+        gwt.test()
+                .given(a_number, 7)
+                .whenAsync(squaring_the_number_asynchronously)
+                .andAsync(Duration.ofSeconds(5), adding_one_asynchronously)
+                .then(the_result_is, 50);
+    }
+
+    @Test
+    void exceptionally_completed_stage_is_handled_like_a_thrown_exception() {
+        gwt.test().expectingException(IllegalStateException.class)
+                .whenAsync(failing_asynchronously)
+                .then(the_thrown_exception_is_an_illegal_state_exception);
+    }
+
+    @Test
+    void async_step_fails_when_its_stage_does_not_complete_within_the_timeout() {
+        gwt.test().expectingException(TimeoutException.class)
+                .whenAsync(Duration.ofMillis(50), never_completing);
+    }
+
+    @Test
+    void async_scenario_runs_then_clause_when_the_stage_completes() {
+        gwt.test()
+                .given(a_scenario_waiting_on_a_pending_stage)
+                .when(running_the_scenario_asynchronously)
+                .then(the_run_is_not_done)
+                .when(completing_the_pending_stage)
+                .then(the_run_is_done_with_the_then_clause_run);
+    }
+
+    @Test
+    void many_async_scenarios_are_in_flight_at_once() {
+        gwt.test()
+                .given(a_squaring_scenario_with_an_async_when_clause)
+                .when(running_the_scenario_asynchronously_times, 1000)
+                .then(every_run_squared_the_number);
+    }
+
+    @Test
+    void async_scenario_fails_with_an_unexpected_exception() {
+        gwt.test()
+                .given(a_scenario_that_fails_asynchronously)
+                .when(running_the_scenario_asynchronously)
+                .then(the_run_failed_with_an_unexpected_exception);
+    }
+
+    @Test
+    void async_scenario_finishes_when_a_step_fails_before_the_first_async_step() {
+        gwt.test()
+                .given(a_scenario_that_fails_before_its_async_step)
+                .when(running_the_scenario_asynchronously_with_a_step_listener)
+                .then(the_run_failed_with_an_unexpected_exception)
+                .and(the_scenario_finished_as_failed);
+    }
+
+    @Test
+    void async_scenario_handles_a_timeout_as_an_expected_exception() {
+        gwt.test()
+                .given(a_scenario_that_expects_a_timeout)
+                .when(running_the_scenario_asynchronously)
+                .then(the_run_is_done_with_the_then_clause_run);
+    }
+
+    @Test
+    void async_steps_are_awaited_when_the_scenario_is_run_synchronously() {
+        gwt.test()
+                .given(a_squaring_scenario_with_an_async_when_clause)
+                .when(running_the_scenario)
+                .then(the_run_squared_the_number);
+    }
+
+    private final GwtFunctionWithArgument<AsyncTestContext, Integer> a_number = (context, number) -> context.number = number;
+
+    private final AsyncGwtFunction<AsyncTestContext> squaring_the_number_asynchronously = context ->
+            CompletableFuture.runAsync(() -> context.result = context.number * context.number, delayedExecutor);
+
+    private final AsyncGwtFunction<AsyncTestContext> adding_one_asynchronously = context ->
+            CompletableFuture.runAsync(() -> context.result++, delayedExecutor);
+
+    private final AsyncGwtFunction<AsyncTestContext> failing_asynchronously = context ->
+            CompletableFuture.runAsync(() -> {
+                throw new IllegalStateException("Expected by the test");
+            }, delayedExecutor);
+
+    private final AsyncGwtFunction<AsyncTestContext> never_completing = context -> new CompletableFuture<>();
+
+    private final GwtFunction<AsyncTestContext> a_scenario_waiting_on_a_pending_stage = context -> {
+        CompletableFuture<Void> pendingStage = new CompletableFuture<>();
+        context.pendingStage = pendingStage;
+        context.scenario = Scenario.builder(AsyncTestContext.class)
+                .whenAsync(c -> pendingStage)
+                .then(c -> c.thenClauseRun = true)
+                .build();
+    };
+
+    private final GwtFunction<AsyncTestContext> a_squaring_scenario_with_an_async_when_clause = context ->
+            context.scenario = Scenario.builder(AsyncTestContext.class)
+                    .given(a_number, 12)
+                    .whenAsync(Duration.ofSeconds(5), squaring_the_number_asynchronously)
+                    .build();
+
+    private final GwtFunction<AsyncTestContext> a_scenario_that_fails_asynchronously = context ->
+            context.scenario = Scenario.builder(AsyncTestContext.class)
+                    .whenAsync(failing_asynchronously)
+                    .then(c -> c.thenClauseRun = true)
+                    .build();
+
+    private final GwtFunction<AsyncTestContext> a_scenario_that_fails_before_its_async_step = context ->
+            context.scenario = Scenario.builder(AsyncTestContext.class)
+                    .given(c -> {
+                        throw new IllegalStateException("Unexpected by the test");
+                    })
+                    .whenAsync(squaring_the_number_asynchronously)
+                    .build();
+
+    private final GwtFunction<AsyncTestContext> a_scenario_that_expects_a_timeout = context ->
+            context.scenario = Scenario.builder(AsyncTestContext.class)
+                    .expectingException(TimeoutException.class)
+                    .whenAsync(Duration.ofMillis(50), never_completing)
+                    .then(c -> c.thenClauseRun = true)
+                    .build();
+
+    private final GwtFunction<AsyncTestContext> running_the_scenario_asynchronously = context ->
+            context.run = context.scenario.runAsync();
+
+    private final GwtFunction<AsyncTestContext> running_the_scenario_asynchronously_with_a_step_listener = context -> {
+        StepListener listener = new StepListener() {
+            @Override
+            public void stepFinished(Context stepContext, int stepIndex, long startNanos, long endNanos, StepOutcome outcome) {
+            }
+
+            @Override
+            public void scenarioFinished(Context scenarioContext, long startNanos, long endNanos, boolean passed) {
+                if (scenarioContext != context) {
+                    context.scenarioPassed = passed;
+                }
+            }
+        };
+        StepListeners.register(listener);
+        try {
+            context.run = context.scenario.runAsync();
+        }
+        finally {
+            StepListeners.unregister(listener);
+        }
+    };
+
+    private final GwtFunctionWithArgument<AsyncTestContext, Integer> running_the_scenario_asynchronously_times = (context, times) ->
+            context.runs = IntStream.range(0, times).mapToObj(i -> context.scenario.runAsync()).collect(Collectors.toList());
+
+    private final GwtFunction<AsyncTestContext> running_the_scenario = context -> context.runResult = context.scenario.run();
+
+    private final GwtFunction<AsyncTestContext> completing_the_pending_stage = context -> context.pendingStage.complete(null);
+
+    private final GwtFunctionWithArgument<AsyncTestContext, Integer> the_result_is = (context, result) ->
+            assertThat(context.result, is(result));
+
+    private final GwtFunction<AsyncTestContext> the_thrown_exception_is_an_illegal_state_exception = context ->
+            assertThat(context.thrownException, is(instanceOf(IllegalStateException.class)));
+
+    private final GwtFunction<AsyncTestContext> the_run_is_not_done = context -> assertThat(context.run.isDone(), is(false));
+
+    private final GwtFunction<AsyncTestContext> the_run_is_done_with_the_then_clause_run = context ->
+            assertThat(context.run.orTimeout(5, TimeUnit.SECONDS).join().thenClauseRun, is(true));
+
+    private final GwtFunction<AsyncTestContext> every_run_squared_the_number = context -> {
+        CompletableFuture.allOf(context.runs.toArray(new CompletableFuture[0])).orTimeout(10, TimeUnit.SECONDS).join();
+        List<Integer> results = context.runs.stream().map(run -> run.join().result).collect(Collectors.toList());
+        assertThat(results, everyItem(is(144)));
+    };
+
+    private final GwtFunction<AsyncTestContext> the_run_failed_with_an_unexpected_exception = context -> {
+        try {
+            context.run.orTimeout(5, TimeUnit.SECONDS).join();
+        }
+        catch (CompletionException e) {
+            assertThat(e.getCause(), is(instanceOf(UnexpectedExceptionCaughtException.class)));
+            assertThat(e.getCause().getCause(), is(instanceOf(IllegalStateException.class)));
+            return;
+        }
+        Assertions.fail("The scenario run did not fail");
+    };
+
+    private final GwtFunction<AsyncTestContext> the_scenario_finished_as_failed = context ->
+            assertThat(context.scenarioPassed, is(false));
+
+    private final GwtFunction<AsyncTestContext> the_run_squared_the_number = context -> {
+        assertThat(context.runResult.result, is(144));
+        assertThat(context.runResult.thrownException, is(nullValue()));
+    };
+
+    public static class AsyncTestContext extends Context {
+        int number;
+        int result;
+        boolean thenClauseRun;
+        CompletableFuture<Void> pendingStage;
+        Scenario<AsyncTestContext> scenario;
+        CompletableFuture<AsyncTestContext> run;
+        List<CompletableFuture<AsyncTestContext>> runs;
+        AsyncTestContext runResult;
+        Boolean scenarioPassed;
+    }
+
+}
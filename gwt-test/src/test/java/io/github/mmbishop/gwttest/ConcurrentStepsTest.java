@@ -0,0 +1,122 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.Concurrently;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public class ConcurrentStepsTest {
+
+    private final GwtTest<ConcurrentTestContext> gwt = new GwtTest<>(ConcurrentTestContext.class);
+
+    @Test
+    void independent_given_functions_run_concurrently() {
+        gwt.test()
+                .given(Concurrently.of(a_stub_server_is_started, a_file_is_loaded))
+                .then(both_given_functions_saw_each_other_running)
+                .and(the_fields_set_by_both_functions_are_visible);
+    }
+
+    @Test
+    void independent_then_functions_run_concurrently() {
+        gwt.test()
+                .when(context -> context.stubServerStarted = true)
+                .then(Concurrently.of(waiting_for_another_function, waiting_for_another_function));
+    }
+
+    @Test
+    void exception_of_the_first_failing_function_is_thrown_after_all_functions_finish() {
+        gwt.test().expectingException(IllegalStateException.class)
+                .given(Concurrently.of(a_file_is_loaded_slowly, failing_with_an_illegal_state_exception, failing_with_an_illegal_argument_exception))
+                .then(the_file_was_loaded)
+                .and(the_other_failure_is_suppressed);
+    }
+
+    private final CountDownLatch bothFunctionsRunning = new CountDownLatch(2);
+
+    private final GwtFunction<ConcurrentTestContext> waiting_for_another_function = context -> {
+        bothFunctionsRunning.countDown();
+        try {
+            if (!bothFunctionsRunning.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("The other function did not run concurrently");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    private final GwtFunction<ConcurrentTestContext> a_stub_server_is_started = context -> {
+        waiting_for_another_function.apply(context);
+        context.stubServerStarted = true;
+    };
+
+    private final GwtFunction<ConcurrentTestContext> a_file_is_loaded = context -> {
+        waiting_for_another_function.apply(context);
+        context.fileContents = "contents";
+    };
+
+    private final GwtFunction<ConcurrentTestContext> a_file_is_loaded_slowly = context -> {
+        try {
+            Thread.sleep(50);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        context.fileContents = "contents";
+    };
+
+    private final GwtFunction<ConcurrentTestContext> failing_with_an_illegal_state_exception = context -> {
+        throw new IllegalStateException("Expected by the test");
+    };
+
+    private final GwtFunction<ConcurrentTestContext> failing_with_an_illegal_argument_exception = context -> {
+        throw new IllegalArgumentException("Expected by the test");
+    };
+
+    private final GwtFunction<ConcurrentTestContext> both_given_functions_saw_each_other_running = context ->
+            assertThat(bothFunctionsRunning.getCount(), is(0L));
+
+    private final GwtFunction<ConcurrentTestContext> the_fields_set_by_both_functions_are_visible = context -> {
+        assertThat(context.stubServerStarted, is(true));
+        assertThat(context.fileContents, is("contents"));
+    };
+
+    private final GwtFunction<ConcurrentTestContext> the_file_was_loaded = context -> assertThat(context.fileContents, is("contents"));
+
+    private final GwtFunction<ConcurrentTestContext> the_other_failure_is_suppressed = context -> {
+        assertThat(context.thrownException.getSuppressed(), is(arrayWithSize(1)));
+        assertThat(context.thrownException.getSuppressed()[0], is(instanceOf(IllegalArgumentException.class)));
+    };
+
+    public static class ConcurrentTestContext extends Context {
+        boolean stubServerStarted;
+        String fileContents;
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.TestConstructionException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ContextCreationTest {
+
+    @Test
+    void context_is_created_by_the_supplier_passed_to_the_constructor() {
+        new GwtTest<>(() -> new SuppliedContext(42)).test()
+                .when(nothing_is_done)
+                .then(the_initial_value_is, 42);
+    }
+
+    @Test
+    void each_test_gets_a_new_instance_of_the_context_class() {
+        GwtTest<SuppliedContext> firstTest = new GwtTest<>(SuppliedContext.class);
+        GwtTest<SuppliedContext> secondTest = new GwtTest<>(SuppliedContext.class);
+        firstTest.test().given(a_context_is_captured);
+        secondTest.test().then(the_context_is_not_the_captured_one);
+    }
+
+    @Test
+    void test_cannot_be_constructed_when_context_class_is_not_accessible() {
+        try {
+            new GwtTest<>(InaccessibleContext.class).test();
+            Assertions.fail();  // TestConstructionException should have been thrown.
+        }
+        catch (TestConstructionException e) {
+            // Test succeeds if this exception is thrown.
+        }
+    }
+
+    @Test
+    void test_cannot_be_constructed_when_context_supplier_returns_null() {
+        try {
+            new GwtTest<SuppliedContext>(() -> null).test();
+            Assertions.fail();  // TestConstructionException should have been thrown.
+        }
+        catch (TestConstructionException e) {
+            // Test succeeds if this exception is thrown.
+        }
+    }
+
+    private static Context capturedContext;
+
+    private final GwtFunction<SuppliedContext> nothing_is_done = context -> {};
+
+    private final GwtFunction<SuppliedContext> a_context_is_captured = context -> capturedContext = context;
+
+    private final GwtFunction<SuppliedContext> the_context_is_not_the_captured_one = context ->
+            assertThat(context, is(not(sameInstance(capturedContext))));
+
+    private final GwtFunctionWithArgument<SuppliedContext, Integer> the_initial_value_is = (context, expectedValue) ->
+            assertThat(context.initialValue, is(expectedValue));
+
+    public static class SuppliedContext extends Context {
+        int initialValue;
+
+        public SuppliedContext() {
+        }
+
+        SuppliedContext(int initialValue) {
+            this.initialValue = initialValue;
+        }
+    }
+
+    private static class InaccessibleContext extends Context {}
+
+}
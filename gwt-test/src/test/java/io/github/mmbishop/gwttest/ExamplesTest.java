@@ -0,0 +1,287 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.ExamplesParseException;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.ScenarioFailedException;
+import io.github.mmbishop.gwttest.core.ScenarioRunner;
+import io.github.mmbishop.gwttest.examples.ExampleColumn;
+import io.github.mmbishop.gwttest.examples.ExampleSteps;
+import io.github.mmbishop.gwttest.examples.ExamplesFormat;
+import io.github.mmbishop.gwttest.examples.ExamplesReader;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.ExampleRow;
+import io.github.mmbishop.gwttest.model.ExamplesResult;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+public class ExamplesTest {
+
+    private static final ExampleColumn<String> FRUIT = ExampleColumn.ofString("fruit");
+    private static final ExampleColumn<Integer> COUNT = ExampleColumn.ofInt("count");
+    private static final ExampleColumn<Double> PRICE = ExampleColumn.ofDouble("price");
+    private static final ExampleColumn<Double> TOTAL = ExampleColumn.ofDouble("total");
+    private static final ExampleColumn<Long> NUMBER = ExampleColumn.ofLong("number");
+    private static final ExampleColumn<Long> DOUBLED = ExampleColumn.ofLong("doubled");
+
+    private final GwtTest<ExamplesTestContext> gwt = new GwtTest<>(ExamplesTestContext.class);
+    private final Set<String> fruits = ConcurrentHashMap.newKeySet();
+    private final AtomicLong numberSum = new AtomicLong();
+
+    @Test
+    void outline_is_run_once_per_row_of_a_csv_file() {
+        gwt.test()
+                .given(the_basket_outline)
+                .and(the_examples_file, "baskets.csv")
+                .when(running_the_examples)
+                .then(the_number_of_rows_run_is, 3L)
+                .and(no_example_failed)
+                .and(the_quoted_cells_were_read_without_their_quotes);
+    }
+
+    @Test
+    void failed_rows_are_counted_and_named_after_their_row() {
+        gwt.test()
+                .given(the_basket_outline)
+                .and(an_examples_file_with_a_wrong_total)
+                .when(running_the_examples)
+                .then(the_number_of_rows_run_is, 3L)
+                .and(the_failed_rows_are, List.of("baskets [row 2]"));
+    }
+
+    @Test
+    void running_all_examples_fails_if_a_row_failed() {
+        gwt.test()
+                .expectingException(ScenarioFailedException.class)
+                .given(the_basket_outline)
+                .and(an_examples_file_with_a_wrong_total)
+                .when(running_all_examples)
+                .then(the_exception_message_contains, "1 of 3 examples failed");
+    }
+
+    @Test
+    void large_file_is_read_through_a_small_moving_window() {
+        gwt.test()
+                .given(the_doubling_outline)
+                .and(a_tsv_file_with_rows, 100_000)
+                .when(running_the_examples_through_a_window_of, 256)
+                .then(the_number_of_rows_run_is, 100_000L)
+                .and(no_example_failed)
+                .and(every_row_was_run_once, 100_000L);
+    }
+
+    @Test
+    void rows_larger_than_the_window_and_windows_line_endings_are_read() {
+        gwt.test()
+                .given(a_csv_file_with_a_long_multi_line_cell_and_crlf_line_endings)
+                .when(reading_the_rows_through_a_window_of, 16)
+                .then(the_rows_and_their_line_numbers_are_read);
+    }
+
+    @Test
+    void row_with_a_missing_cell_is_rejected_with_its_line() {
+        gwt.test()
+                .expectingException(ExamplesParseException.class)
+                .given(the_basket_outline)
+                .and(an_examples_file_with_a_missing_cell)
+                .when(running_the_examples)
+                .then(the_exception_message_contains, "missing.csv:3: The row has 3 cells, but the header has 4 columns");
+    }
+
+    @Test
+    void column_that_can_not_be_converted_fails_its_row() {
+        gwt.test()
+                .given(the_basket_outline)
+                .and(an_examples_file_with_a_count_that_is_not_a_number)
+                .when(running_the_examples)
+                .then(the_failure_message_of_the_first_failed_row_contains, "The value of column count in row 1 is not a valid Integer: many");
+    }
+
+    private final GwtFunctionWithArgument<OutlineContext, String> fruit_is_added = (context, fruit) -> {
+        fruits.add(fruit);
+        context.fruit = fruit;
+    };
+
+    private final GwtFunctionWithArgument<OutlineContext, Integer> the_count_is = (context, count) -> context.count = count;
+
+    private final GwtFunctionWithArgument<OutlineContext, Double> the_price_is = (context, price) -> context.price = price;
+
+    private final GwtFunctionWithArgument<OutlineContext, Double> the_total_is = (context, total) ->
+            assertThat(context.count * context.price, closeTo(total, 0.0001));
+
+    private final GwtFunctionWithArguments<OutlineContext, Long> the_second_number_is_double_the_first = (context, numbers) -> {
+        assertThat(numbers[1], is(numbers[0] * 2));
+        numberSum.addAndGet(numbers[0]);
+    };
+
+    private final GwtFunction<ExamplesTestContext> the_basket_outline = context ->
+            context.outline = Scenario.builder(OutlineContext.class).named("baskets")
+                    .given(ExampleSteps.withColumn(fruit_is_added, FRUIT))
+                    .when(ExampleSteps.withColumn(the_count_is, COUNT))
+                    .and(ExampleSteps.withColumn(the_price_is, PRICE))
+                    .then(ExampleSteps.withColumn(the_total_is, TOTAL))
+                    .build();
+
+    private final GwtFunction<ExamplesTestContext> the_doubling_outline = context ->
+            context.outline = Scenario.builder(OutlineContext.class).named("doubling")
+                    .then(ExampleSteps.withColumns(the_second_number_is_double_the_first, NUMBER, DOUBLED))
+                    .build();
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, String> the_examples_file = (context, fileName) -> {
+        try {
+            context.examplesFile = Path.of(getClass().getResource("/examples/" + fileName).toURI());
+        }
+        catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    };
+
+    private final GwtFunction<ExamplesTestContext> an_examples_file_with_a_wrong_total = context ->
+            context.examplesFile = temporaryFile("wrong.csv", "fruit,count,price,total\napple,3,0.5,1.5\npear,2,1.25,3.0\nplum,4,0.25,1.0\n");
+
+    private final GwtFunction<ExamplesTestContext> an_examples_file_with_a_missing_cell = context ->
+            context.examplesFile = temporaryFile("missing.csv", "fruit,count,price,total\napple,3,0.5,1.5\npear,2,1.25\n");
+
+    private final GwtFunction<ExamplesTestContext> an_examples_file_with_a_count_that_is_not_a_number = context ->
+            context.examplesFile = temporaryFile("many.csv", "fruit,count,price,total\napple,many,0.5,1.5\n");
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, Integer> a_tsv_file_with_rows = (context, rowCount) -> {
+        try {
+            context.examplesFile = Files.createTempDirectory("gwt-test-examples").resolve("numbers.tsv");
+            try (BufferedWriter writer = Files.newBufferedWriter(context.examplesFile, StandardCharsets.UTF_8)) {
+                writer.write("number\tdoubled\n");
+                for (long number = 1; number <= rowCount; number++) {
+                    writer.write(number + "\t" + number * 2 + "\n");
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    };
+
+    private final GwtFunction<ExamplesTestContext> a_csv_file_with_a_long_multi_line_cell_and_crlf_line_endings = context ->
+            context.examplesFile = temporaryFile("long.csv", "\uFEFFname,note\r\nfirst,\"" + "x".repeat(100) + "\r\n" + "y".repeat(100)
+                    + "\"\r\n\r\nsecond,\u00e9t\u00e9\r\nthird,\"a \"\"quoted\"\" word\"");
+
+    private final GwtFunction<ExamplesTestContext> running_the_examples = context -> {
+        try (ScenarioRunner runner = new ScenarioRunner(4); ExamplesReader rows = ExamplesReader.open(context.examplesFile)) {
+            context.result = runner.runExamples(context.outline, rows);
+        }
+    };
+
+    private final GwtFunction<ExamplesTestContext> running_all_examples = context -> {
+        try (ScenarioRunner runner = new ScenarioRunner(4); ExamplesReader rows = ExamplesReader.open(context.examplesFile)) {
+            runner.runAllExamples(context.outline, rows);
+        }
+    };
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, Integer> running_the_examples_through_a_window_of = (context, windowSize) -> {
+        try (ScenarioRunner runner = new ScenarioRunner(4);
+             ExamplesReader rows = ExamplesReader.open(context.examplesFile, ExamplesFormat.TSV, windowSize)) {
+            context.result = runner.runExamples(context.outline, rows);
+        }
+    };
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, Integer> reading_the_rows_through_a_window_of = (context, windowSize) -> {
+        context.rows = new ArrayList<>();
+        try (ExamplesReader rows = ExamplesReader.open(context.examplesFile, ExamplesFormat.CSV, windowSize)) {
+            rows.forEachRemaining(context.rows::add);
+        }
+    };
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, Long> the_number_of_rows_run_is = (context, rowCount) ->
+            assertThat(context.result.getRowCount(), is(rowCount));
+
+    private final GwtFunction<ExamplesTestContext> no_example_failed = context ->
+            assertThat(context.result.getFailures().toString(), context.result.isSuccessful(), is(true));
+
+    private final GwtFunction<ExamplesTestContext> the_quoted_cells_were_read_without_their_quotes = context ->
+            assertThat(fruits, containsInAnyOrder("apple", "pear, conference", "plum \"victoria\""));
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, List<String>> the_failed_rows_are = (context, names) -> {
+        assertThat(context.result.getFailureCount(), is((long) names.size()));
+        assertThat(context.result.getFailures().stream().map(failure -> failure.getName()).toList(), is(names));
+    };
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, Long> every_row_was_run_once = (context, rowCount) ->
+            assertThat(numberSum.get(), is(rowCount * (rowCount + 1) / 2));
+
+    private final GwtFunction<ExamplesTestContext> the_rows_and_their_line_numbers_are_read = context -> {
+        assertThat(context.rows.stream().map(row -> row.get("name")).toList(), contains("first", "second", "third"));
+        assertThat(context.rows.stream().map(ExampleRow::getLineNumber).toList(), contains(2L, 5L, 6L));
+        assertThat(context.rows.get(0).get("note"), is("x".repeat(100) + "\r\n" + "y".repeat(100)));
+        assertThat(context.rows.get(1).get("note"), is("\u00e9t\u00e9"));
+        assertThat(context.rows.get(2).get(1), is("a \"quoted\" word"));
+    };
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, String> the_exception_message_contains = (context, text) ->
+            assertThat(context.thrownException.getMessage(), containsString(text));
+
+    private final GwtFunctionWithArgument<ExamplesTestContext, String> the_failure_message_of_the_first_failed_row_contains = (context, text) ->
+            assertThat(context.result.getFailures().get(0).getFailure().getCause().getMessage(), containsString(text));
+
+    private static Path temporaryFile(String fileName, String content) {
+        try {
+            Path file = Files.createTempDirectory("gwt-test-examples").resolve(fileName);
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+            return file;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static class ExamplesTestContext extends Context {
+        Scenario<OutlineContext> outline;
+        Path examplesFile;
+        ExamplesResult<OutlineContext> result;
+        List<ExampleRow> rows;
+    }
+
+    public static class OutlineContext extends Context {
+        String fruit;
+        int count;
+        double price;
+    }
+
+}
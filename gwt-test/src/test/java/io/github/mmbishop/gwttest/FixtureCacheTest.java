@@ -0,0 +1,212 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.ContextCopiers;
+import io.github.mmbishop.gwttest.core.FixtureCache;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class FixtureCacheTest {
+
+    private final GwtTest<FixtureTestContext> gwt = new GwtTest<>(FixtureTestContext.class);
+
+    @Test
+    void given_functions_run_once_and_later_tests_get_a_copy_of_their_state() {
+        gwt.test()
+                .given(a_cache_with_room_for, 10)
+                .when(running_tests_with_cached_reference_data, List.of("prices", "prices", "prices"))
+                .then(the_reference_data_was_loaded_times, 1)
+                .and(the_cache_statistics_are, new long[] {2, 1, 0})
+                .and(every_test_saw_the_reference_data);
+    }
+
+    @Test
+    void each_test_gets_its_own_copy_of_the_cached_state() {
+        gwt.test()
+                .given(a_cache_with_room_for, 10)
+                .when(running_tests_that_change_the_cached_reference_data, 3)
+                .then(every_test_saw_the_reference_data)
+                .and(no_two_tests_shared_a_list);
+    }
+
+    @Test
+    void least_recently_used_state_is_evicted() {
+        gwt.test()
+                .given(a_cache_with_room_for, 2)
+                .when(running_tests_with_cached_reference_data, List.of("a", "b", "a", "c", "b"))
+                .then(the_reference_data_was_loaded_times, 4)
+                .and(the_cache_statistics_are, new long[] {1, 4, 2});
+    }
+
+    @Test
+    void state_is_not_cached_when_a_given_function_throws() {
+        gwt.test()
+                .given(a_cache_with_room_for, 10)
+                .when(running_a_test_whose_given_throws_an_expected_exception)
+                .then(the_cache_size_is, 0);
+    }
+
+    @Test
+    void shallow_copy_copies_the_fields_of_the_context_class_but_not_the_test_metadata() {
+        gwt.test()
+                .given(a_source_context_with_reference_data)
+                .when(copying_the_source_context_shallowly)
+                .then(the_copy_has_the_same_reference_data_and_its_own_test_name);
+    }
+
+    @Test
+    void deep_copy_gives_each_test_its_own_copy_of_nested_cached_state() {
+        gwt.test()
+                .when(running_tests_that_change_nested_cached_reference_data, 3)
+                .then(every_test_saw_the_reference_data)
+                .and(no_two_tests_shared_a_list);
+    }
+
+    @Test
+    void scenario_given_clause_is_cached() {
+        gwt.test()
+                .given(a_cache_with_room_for, 10)
+                .when(running_a_scenario_with_a_cached_given_clause_times, 3)
+                .then(the_reference_data_was_loaded_times, 1)
+                .and(every_test_saw_the_reference_data);
+    }
+
+    private final GwtFunctionWithArgument<FixtureTestContext, Integer> a_cache_with_room_for = (context, maxEntries) ->
+            context.cache = new FixtureCache<>(maxEntries, (source, target) -> target.referenceData = new ArrayList<>(source.referenceData));
+
+    private final GwtFunctionWithArgument<FixtureTestContext, String> loading_reference_data = (context, name) -> {
+        context.loadCount++;
+        context.referenceData = new ArrayList<>(List.of(name + "-1", name + "-2"));
+    };
+
+    private final GwtFunctionWithArgument<FixtureTestContext, List<String>> running_tests_with_cached_reference_data = (context, keys) -> {
+        for (String key : keys) {
+            FixtureTestContext testContext = new FixtureTestContext();
+            new GwtTest<>(() -> testContext).test()
+                    .givenCached(context.cache, key, c -> loading_reference_data.apply(context, key), c -> c.referenceData = context.referenceData)
+                    .then(c -> context.observedReferenceData.add(c.referenceData));
+        }
+    };
+
+    private final GwtFunctionWithArgument<FixtureTestContext, Integer> running_tests_that_change_the_cached_reference_data = (context, times) -> {
+        for (int i = 0; i < times; i++) {
+            new GwtTest<>(FixtureTestContext.class).test()
+                    .givenCached(context.cache, "prices", c -> loading_reference_data.apply(c, "prices"))
+                    .when(c -> context.observedReferenceData.add(new ArrayList<>(c.referenceData)))
+                    .and(c -> context.usedLists.add(c.referenceData))
+                    .then(c -> c.referenceData.add("changed by the test"));
+        }
+    };
+
+    private final GwtFunctionWithArgument<FixtureTestContext, Integer> running_tests_that_change_nested_cached_reference_data = (context, times) -> {
+        FixtureCache<NestedFixtureContext> cache = new FixtureCache<>(10, ContextCopiers.deepCopy(NestedFixtureContext.class));
+        for (int i = 0; i < times; i++) {
+            new GwtTest<>(NestedFixtureContext.class).test()
+                    .givenCached(cache, "prices", c -> c.referenceDataByName.put("prices", new ArrayList<>(List.of("prices-1", "prices-2"))))
+                    .when(c -> context.observedReferenceData.add(new ArrayList<>(c.referenceDataByName.get("prices"))))
+                    .and(c -> context.usedLists.add(c.referenceDataByName.get("prices")))
+                    .then(c -> c.referenceDataByName.get("prices").add("changed by the test"));
+        }
+    };
+
+    private final GwtFunction<FixtureTestContext> running_a_test_whose_given_throws_an_expected_exception = context ->
+            new GwtTest<>(FixtureTestContext.class).test().expectingException(IllegalStateException.class)
+                    .givenCached(context.cache, "broken", c -> {
+                        throw new IllegalStateException("Expected by the test");
+                    })
+                    .then(c -> {});
+
+    private final GwtFunctionWithArgument<FixtureTestContext, Integer> running_a_scenario_with_a_cached_given_clause_times = (context, times) -> {
+        Scenario<FixtureTestContext> scenario = Scenario.builder(FixtureTestContext.class)
+                .givenCached(context.cache, "prices", c -> loading_reference_data.apply(context, "prices"), c -> c.referenceData = context.referenceData)
+                .then(c -> context.observedReferenceData.add(c.referenceData))
+                .build();
+        for (int i = 0; i < times; i++) {
+            scenario.run();
+        }
+    };
+
+    private final GwtFunction<FixtureTestContext> a_source_context_with_reference_data = context -> {
+        context.source = new FixtureTestContext();
+        context.source.referenceData = List.of("prices-1");
+        context.source.setTestName("source test");
+    };
+
+    private final GwtFunction<FixtureTestContext> copying_the_source_context_shallowly = context -> {
+        context.copy = new FixtureTestContext();
+        context.copy.setTestName("copy test");
+        ContextCopiers.shallowCopy(FixtureTestContext.class).copy(context.source, context.copy);
+    };
+
+    private final GwtFunctionWithArgument<FixtureTestContext, Integer> the_reference_data_was_loaded_times = (context, times) ->
+            assertThat(context.loadCount, is(times));
+
+    private final GwtFunctionWithArgument<FixtureTestContext, long[]> the_cache_statistics_are = (context, hitsMissesEvictions) ->
+            assertThat(List.of(context.cache.getHits(), context.cache.getMisses(), context.cache.getEvictions()),
+                    contains(hitsMissesEvictions[0], hitsMissesEvictions[1], hitsMissesEvictions[2]));
+
+    private final GwtFunctionWithArgument<FixtureTestContext, Integer> the_cache_size_is = (context, size) ->
+            assertThat(context.cache.size(), is(size));
+
+    private final GwtFunction<FixtureTestContext> every_test_saw_the_reference_data = context -> {
+        for (List<String> referenceData : context.observedReferenceData) {
+            assertThat(referenceData, contains("prices-1", "prices-2"));
+        }
+    };
+
+    private final GwtFunction<FixtureTestContext> no_two_tests_shared_a_list = context -> {
+        for (int i = 1; i < context.usedLists.size(); i++) {
+            assertThat(context.usedLists.get(i), is(not(sameInstance(context.usedLists.get(i - 1)))));
+        }
+    };
+
+    private final GwtFunction<FixtureTestContext> the_copy_has_the_same_reference_data_and_its_own_test_name = context -> {
+        assertThat(context.copy.referenceData, is(sameInstance(context.source.referenceData)));
+        assertThat(context.copy.getTestName(), is("copy test"));
+    };
+
+    public static class FixtureTestContext extends Context {
+        List<String> referenceData;
+        FixtureCache<FixtureTestContext> cache;
+        int loadCount;
+        List<List<String>> observedReferenceData = new ArrayList<>();
+        List<List<String>> usedLists = new ArrayList<>();
+        FixtureTestContext source;
+        FixtureTestContext copy;
+    }
+
+    public static class NestedFixtureContext extends Context {
+        Map<String, List<String>> referenceDataByName = new HashMap<>();
+    }
+
+}
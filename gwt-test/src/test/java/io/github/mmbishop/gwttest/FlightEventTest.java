@@ -0,0 +1,213 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.ContextCopiers;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.ScenarioRunner;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class FlightEventTest {
+
+    private static final String STEP_EVENT_NAME = "io.github.mmbishop.gwttest.Step";
+    private static final String SCENARIO_EVENT_NAME = "io.github.mmbishop.gwttest.Scenario";
+    private static final String SUBJECT_TEST_NAME = "subject";
+
+    private final GwtTest<FlightEventTestContext> gwt = new GwtTest<>(FlightEventTestContext.class);
+
+    @Test
+    void step_events_are_recorded_for_a_test() {
+        gwt.test()
+                .given(a_recording_of_gwt_test_events)
+                .when(running_a_test_with_an_expected_exception)
+                .then(the_step_phases_are_recorded)
+                .and(the_step_outcomes_are_recorded)
+                .and(the_step_durations_are_recorded);
+    }
+
+    @Test
+    void scenario_event_is_recorded_for_a_scenario_run() {
+        gwt.test()
+                .given(a_recording_of_gwt_test_events)
+                .when(running_a_scenario)
+                .then(one_passed_scenario_event_is_recorded_with_its_step_count);
+    }
+
+    @Test
+    void scenario_events_are_recorded_for_the_given_clauses_and_cases_of_a_scenario() {
+        gwt.test()
+                .given(a_recording_of_gwt_test_events)
+                .when(running_the_cases_of_a_scenario)
+                .then(the_scenario_events_are_named, List.of("subject [given]", "subject [case 1]", "subject [case 2]"));
+    }
+
+    @Test
+    void no_events_are_recorded_when_the_events_are_not_enabled() {
+        gwt.test()
+                .given(a_recording_without_gwt_test_events)
+                .when(running_a_scenario)
+                .then(no_events_are_recorded);
+    }
+
+    private final GwtFunction<SubjectContext> passing_step = context -> {};
+
+    private final GwtFunction<SubjectContext> throwing_step = context -> {
+        throw new IllegalStateException("expected");
+    };
+
+    private final GwtFunction<FlightEventTestContext> a_recording_of_gwt_test_events = context -> {
+        context.recording = new Recording();
+        context.recording.enable(STEP_EVENT_NAME);
+        context.recording.enable(SCENARIO_EVENT_NAME);
+    };
+
+    private final GwtFunction<FlightEventTestContext> a_recording_without_gwt_test_events = context -> {
+        context.recording = new Recording();
+        context.recording.disable(STEP_EVENT_NAME);
+        context.recording.disable(SCENARIO_EVENT_NAME);
+    };
+
+    private final GwtFunction<FlightEventTestContext> running_a_test_with_an_expected_exception = context -> {
+        context.recording.start();
+        new GwtTest<>(SubjectContext.class).test(SUBJECT_TEST_NAME)
+                .expectingException(IllegalStateException.class)
+                .given(passing_step)
+                .when(throwing_step)
+                .then(passing_step);
+        context.events = stopRecording(context.recording);
+    };
+
+    private final GwtFunction<FlightEventTestContext> running_a_scenario = context -> {
+        context.recording.start();
+        Scenario.builder(SubjectContext.class)
+                .named(SUBJECT_TEST_NAME)
+                .given(passing_step)
+                .when(passing_step)
+                .then(passing_step)
+                .build()
+                .run();
+        context.events = stopRecording(context.recording);
+    };
+
+    private final GwtFunction<FlightEventTestContext> running_the_cases_of_a_scenario = context -> {
+        context.recording.start();
+        Scenario<SubjectContext> scenario = Scenario.builder(SubjectContext.class)
+                .named(SUBJECT_TEST_NAME)
+                .given(passing_step)
+                .when(passing_step).then(passing_step)
+                .when(passing_step).then(passing_step)
+                .build();
+        try (ScenarioRunner runner = new ScenarioRunner(2)) {
+            runner.runAllCases(scenario, ContextCopiers.shallowCopy(SubjectContext.class));
+        }
+        context.events = stopRecording(context.recording);
+    };
+
+    private final GwtFunction<FlightEventTestContext> the_step_phases_are_recorded = context ->
+            assertThat(stepEvents(context).stream().map(event -> event.getString("phase")).collect(Collectors.toList()),
+                    contains("GIVEN", "WHEN", "THEN"));
+
+    private final GwtFunction<FlightEventTestContext> the_step_outcomes_are_recorded = context ->
+            assertThat(stepEvents(context).stream().map(event -> event.getString("outcome")).collect(Collectors.toList()),
+                    contains("PASSED", "EXPECTED_EXCEPTION", "PASSED"));
+
+    private final GwtFunction<FlightEventTestContext> the_step_durations_are_recorded = context -> {
+        assertThat(stepEvents(context).stream().map(event -> event.getInt("stepIndex")).collect(Collectors.toList()), contains(0, 1, 2));
+        assertThat(stepEvents(context).stream().map(event -> event.getDuration().toNanos()).collect(Collectors.toList()),
+                everyItem(greaterThanOrEqualTo(0L)));
+    };
+
+    private final GwtFunction<FlightEventTestContext> one_passed_scenario_event_is_recorded_with_its_step_count = context -> {
+        List<RecordedEvent> scenarioEvents = eventsNamed(context, SCENARIO_EVENT_NAME);
+        assertThat(scenarioEvents, hasSize(1));
+        assertThat(scenarioEvents.get(0).getInt("stepCount"), is(3));
+        assertThat(scenarioEvents.get(0).getBoolean("passed"), is(true));
+        assertThat(stepEvents(context), hasSize(3));
+    };
+
+    private final GwtFunctionWithArgument<FlightEventTestContext, List<String>> the_scenario_events_are_named = (context, names) ->
+            assertThat(context.events.stream()
+                    .filter(event -> event.getEventType().getName().equals(SCENARIO_EVENT_NAME))
+                    .map(event -> event.getString("testName"))
+                    .filter(testName -> testName.startsWith(SUBJECT_TEST_NAME))
+                    .collect(Collectors.toList()), containsInAnyOrder(names.toArray()));
+
+    private final GwtFunction<FlightEventTestContext> no_events_are_recorded = context -> {
+        assertThat(eventsNamed(context, SCENARIO_EVENT_NAME), is(empty()));
+        assertThat(stepEvents(context), is(empty()));
+    };
+
+    private static List<RecordedEvent> stopRecording(Recording recording) {
+        try {
+            recording.stop();
+            Path file = Files.createTempFile("gwt-test", ".jfr");
+            try {
+                recording.dump(file);
+                return RecordingFile.readAllEvents(file);
+            }
+            finally {
+                recording.close();
+                Files.delete(file);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<RecordedEvent> stepEvents(FlightEventTestContext context) {
+        return eventsNamed(context, STEP_EVENT_NAME);
+    }
+
+    private static List<RecordedEvent> eventsNamed(FlightEventTestContext context, String eventName) {
+        return context.events.stream()
+                .filter(event -> event.getEventType().getName().equals(eventName))
+                .filter(event -> SUBJECT_TEST_NAME.equals(event.getString("testName")))
+                .collect(Collectors.toList());
+    }
+
+    public static class FlightEventTestContext extends Context {
+        Recording recording;
+        List<RecordedEvent> events;
+    }
+
+    public static class SubjectContext extends Context {
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.StreamInvariantViolatedException;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.flow.FlowSteps;
+import io.github.mmbishop.gwttest.flow.StreamMonitor;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class FlowStepTest {
+
+    private final GwtTest<FlowTestContext> gwt = new GwtTest<>(FlowTestContext.class);
+
+    @Test
+    void millions_of_items_are_checked_with_bounded_demand() {
+        gwt.test()
+                .given(a_publisher_of_items, 2_000_000)
+                .and(a_monitor_with_a_non_negative_invariant_and_a_running_sum)
+                .whenAsync(FlowSteps.subscribing(context -> context.publisher, context -> context.monitor))
+                .then(FlowSteps.invariantsHeld(context -> context.monitor))
+                .and(the_item_count_is, 2_000_000L)
+                .and(the_running_sum_is, 1_999_999L * 2_000_000L / 2)
+                .and(the_outstanding_demand_never_exceeded_the_batch_size)
+                .and(the_item_rate_is_reported);
+    }
+
+    @Test
+    void invariant_violation_fails_the_then_clause() {
+        gwt.test()
+                .given(a_publisher_of_items, 1000)
+                .and(a_monitor_with_an_invariant_that_items_are_below, 500)
+                .when(running_a_test_that_checks_the_invariants)
+                .then(the_subject_failed_with_a_description_of_the_first_violation);
+    }
+
+    @Test
+    void publisher_error_fails_the_when_clause() {
+        gwt.test().expectingException(IllegalStateException.class)
+                .given(a_failing_publisher)
+                .and(a_monitor_with_a_non_negative_invariant_and_a_running_sum)
+                .whenAsync(FlowSteps.subscribing(context -> context.publisher, context -> context.monitor))
+                .then(the_monitor_did_not_complete);
+    }
+
+    @Test
+    void observer_failure_cancels_the_subscription() {
+        gwt.test().expectingException(IllegalArgumentException.class)
+                .given(a_publisher_of_items, 1000)
+                .and(a_monitor_with_an_observer_that_fails_at, 10)
+                .whenAsync(FlowSteps.subscribing(context -> context.publisher, context -> context.monitor))
+                .then(the_item_count_is, 10L)
+                .and(the_subscription_was_cancelled);
+    }
+
+    @Test
+    void invariant_failure_cancels_the_subscription() {
+        gwt.test().expectingException(IllegalArgumentException.class)
+                .given(a_publisher_of_items, 1000)
+                .and(a_monitor_with_an_invariant_that_fails_at, 10)
+                .whenAsync(FlowSteps.subscribing(context -> context.publisher, context -> context.monitor))
+                .then(the_item_count_is, 10L)
+                .and(the_subscription_was_cancelled);
+    }
+
+    private final GwtFunctionWithArgument<FlowTestContext, Integer> a_publisher_of_items = (context, count) ->
+            context.publisher = new RangePublisher(count);
+
+    private final GwtFunction<FlowTestContext> a_failing_publisher = context ->
+            context.publisher = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscriber.onError(new IllegalStateException("Expected by the test"));
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+
+    private final GwtFunction<FlowTestContext> a_monitor_with_a_non_negative_invariant_and_a_running_sum = context ->
+            context.monitor = new StreamMonitor<Integer>()
+                    .withInvariant("items are not negative", item -> item >= 0)
+                    .withObserver(item -> context.sum += item);
+
+    private final GwtFunctionWithArgument<FlowTestContext, Integer> a_monitor_with_an_invariant_that_items_are_below = (context, limit) ->
+            context.monitor = new StreamMonitor<Integer>().withInvariant("items are below " + limit, item -> item < limit);
+
+    private final GwtFunctionWithArgument<FlowTestContext, Integer> a_monitor_with_an_observer_that_fails_at = (context, failingItem) ->
+            context.monitor = new StreamMonitor<Integer>(4).withObserver(item -> {
+                if (item == failingItem - 1) {
+                    throw new IllegalArgumentException("Expected by the test");
+                }
+            });
+
+    private final GwtFunctionWithArgument<FlowTestContext, Integer> a_monitor_with_an_invariant_that_fails_at = (context, failingItem) ->
+            context.monitor = new StreamMonitor<Integer>(4).withInvariant("items can be checked", item -> {
+                if (item == failingItem - 1) {
+                    throw new IllegalArgumentException("Expected by the test");
+                }
+                return true;
+            });
+
+    private final GwtFunction<FlowTestContext> running_a_test_that_checks_the_invariants = context -> {
+        try {
+            new GwtTest<>(FlowTestContext.class).test()
+                    .whenAsync(FlowSteps.subscribing(c -> context.publisher, c -> context.monitor))
+                    .then(FlowSteps.invariantsHeld(c -> context.monitor));
+        }
+        catch (UnexpectedExceptionCaughtException e) {
+            context.subjectFailure = e.getCause();
+        }
+    };
+
+    private final GwtFunctionWithArgument<FlowTestContext, Long> the_item_count_is = (context, count) ->
+            assertThat(context.monitor.getItemCount(), is(count));
+
+    private final GwtFunctionWithArgument<FlowTestContext, Long> the_running_sum_is = (context, sum) ->
+            assertThat(context.sum, is(sum));
+
+    private final GwtFunction<FlowTestContext> the_outstanding_demand_never_exceeded_the_batch_size = context ->
+            assertThat(((RangePublisher) context.publisher).maxDemand, is(lessThanOrEqualTo((long) StreamMonitor.DEFAULT_BATCH_SIZE)));
+
+    private final GwtFunction<FlowTestContext> the_item_rate_is_reported = context ->
+            assertThat(context.monitor.getItemsPerSecond(), is(greaterThan(0.0)));
+
+    private final GwtFunction<FlowTestContext> the_subject_failed_with_a_description_of_the_first_violation = context -> {
+        assertThat(context.subjectFailure, is(instanceOf(StreamInvariantViolatedException.class)));
+        assertThat(context.subjectFailure.getMessage(), containsString("500 invariant violations in 1000 items"));
+        assertThat(context.subjectFailure.getMessage(), containsString("Item 501 (500) violated the invariant: items are below 500"));
+    };
+
+    private final GwtFunction<FlowTestContext> the_monitor_did_not_complete = context ->
+            assertThat(context.monitor.isCompleted(), is(false));
+
+    private final GwtFunction<FlowTestContext> the_subscription_was_cancelled = context ->
+            assertThat(((RangePublisher) context.publisher).cancelled, is(true));
+
+    public static class FlowTestContext extends Context {
+        Flow.Publisher<Integer> publisher;
+        StreamMonitor<Integer> monitor;
+        long sum;
+        Throwable subjectFailure;
+    }
+
+    /*
+     * Emits the integers from 0 to count - 1 on the thread that requests them, never more than requested. Requests made
+     * from onNext only add to the demand of the running emission loop.
+     */
+    private static class RangePublisher implements Flow.Publisher<Integer> {
+
+        private final int count;
+        private volatile long maxDemand;
+        private volatile boolean cancelled;
+
+        RangePublisher(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                private final AtomicLong demand = new AtomicLong();
+                private int next;
+                private boolean emitting;
+
+                @Override
+                public void request(long n) {
+                    maxDemand = Math.max(maxDemand, demand.addAndGet(n));
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    try {
+                        while (!cancelled) {
+                            if (next == count) {
+                                cancelled = true;
+                                subscriber.onComplete();
+                                return;
+                            }
+                            if (demand.get() == 0) {
+                                return;
+                            }
+                            demand.decrementAndGet();
+                            subscriber.onNext(next++);
+                        }
+                    }
+                    finally {
+                        emitting = false;
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+
+            });
+        }
+
+    }
+
+}
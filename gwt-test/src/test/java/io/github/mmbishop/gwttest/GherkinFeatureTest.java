@@ -0,0 +1,307 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.FeatureParseException;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.MalformedTestException;
+import io.github.mmbishop.gwttest.core.UndefinedStepException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.gherkin.Feature;
+import io.github.mmbishop.gwttest.gherkin.FeatureParser;
+import io.github.mmbishop.gwttest.gherkin.FeatureRunner;
+import io.github.mmbishop.gwttest.gherkin.StepRegistry;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.ScenarioResult;
+import org.junit.jupiter.api.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class GherkinFeatureTest {
+
+    private final GwtTest<GherkinTestContext> gwt = new GwtTest<>(GherkinTestContext.class);
+
+    @Test
+    void feature_file_is_parsed_with_its_background_tags_and_scenarios() {
+        gwt.test()
+                .given(the_basket_feature_file)
+                .when(parsing_the_feature_file)
+                .then(the_feature_has_its_name_and_background)
+                .and(the_scenarios_have_their_names_tags_and_steps);
+    }
+
+    @Test
+    void scenarios_of_a_feature_file_are_run_with_the_bound_steps() {
+        gwt.test()
+                .given(the_basket_feature_file)
+                .and(the_basket_steps)
+                .when(running_the_feature_file)
+                .then(the_scenario_names_are_prefixed_with_the_feature_name)
+                .and(the_first_two_scenarios_pass)
+                .and(the_third_scenario_fails_at_its_but_step);
+    }
+
+    @Test
+    void step_with_the_longest_matching_literal_prefix_is_chosen() {
+        gwt.test()
+                .given(the_basket_steps)
+                .and(a_catch_all_basket_step)
+                .when(resolving_and_running_steps_on_a_basket)
+                .then(the_specific_steps_ran_before_the_catch_all_step);
+    }
+
+    @Test
+    void undefined_step_is_reported_with_its_location() {
+        gwt.test()
+                .expectingException(UndefinedStepException.class)
+                .given(the_basket_steps)
+                .when(binding_a_feature_with_an_undefined_step)
+                .then(the_exception_message_contains, "inline.feature:4:");
+    }
+
+    @Test
+    void argument_out_of_range_for_its_placeholder_is_reported_as_an_undefined_step() {
+        gwt.test()
+                .expectingException(UndefinedStepException.class)
+                .given(the_basket_steps)
+                .when(resolving_a_step_with_an_argument_too_large_for_an_int)
+                .then(the_exception_message_contains, "The argument 99999999999 of \"99999999999 apples are added\" is out of range for {int}");
+    }
+
+    @Test
+    void scenario_whose_context_supplier_returns_null_fails_as_malformed() {
+        gwt.test()
+                .given(the_basket_feature_file)
+                .and(the_basket_steps)
+                .when(running_the_feature_file_with_a_context_supplier_returning_null)
+                .then(every_scenario_fails_as_malformed);
+    }
+
+    @Test
+    void scenario_outline_is_run_once_per_example() {
+        gwt.test()
+                .given(the_outline_feature_file)
+                .and(the_basket_steps)
+                .when(running_the_feature_file)
+                .then(the_examples_are_named_after_the_outline_with_their_values)
+                .and(every_example_passes)
+                .and(the_examples_have_the_tags_of_their_table);
+    }
+
+    @Test
+    void examples_outside_a_scenario_outline_are_rejected() {
+        gwt.test()
+                .expectingException(FeatureParseException.class)
+                .when(parsing_a_feature_with_examples_outside_an_outline)
+                .then(the_exception_message_contains, "outline.feature:4: Examples must belong to a scenario outline");
+    }
+
+    @Test
+    void expression_with_an_unknown_placeholder_is_rejected() {
+        gwt.test()
+                .expectingException(IllegalArgumentException.class)
+                .when(binding_an_expression_with_an_unknown_placeholder)
+                .then(the_exception_message_contains, "Unknown placeholder {color}");
+    }
+
+    private final GwtFunction<BasketContext> an_empty_basket = context -> context.fruits = 0;
+
+    private final GwtFunctionWithArgument<BasketContext, String> an_empty_basket_owned_by = (context, owner) -> {
+        context.fruits = 0;
+        context.owner = owner;
+    };
+
+    private final GwtFunctionWithArgument<BasketContext, Integer> apples_are_added = (context, count) -> context.fruits += count;
+
+    private final GwtFunctionWithArguments<BasketContext, Double> pears_weighing_are_added = (context, values) -> {
+        context.fruits += values[0].intValue();
+        context.weight += values[0] * values[1];
+    };
+
+    private final GwtFunctionWithArguments<BasketContext, Integer> fruits_are_added = (context, counts) -> {
+        for (Integer count : counts) {
+            context.fruits += count;
+        }
+    };
+
+    private final GwtFunctionWithArgument<BasketContext, Integer> the_basket_holds = (context, count) ->
+            assertThat(context.fruits, is(count));
+
+    private final GwtFunctionWithArgument<BasketContext, String> the_basket_is_owned_by = (context, owner) ->
+            assertThat(context.owner, is(owner));
+
+    private final GwtFunctionWithArgument<BasketContext, Double> the_basket_weighs = (context, weight) ->
+            assertThat(context.weight, closeTo(weight, 0.0001));
+
+    private final GwtFunction<GherkinTestContext> the_basket_feature_file = context -> {
+        try {
+            context.featureFile = Path.of(getClass().getResource("/features/basket.feature").toURI());
+        }
+        catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    };
+
+    private final GwtFunction<GherkinTestContext> the_basket_steps = context -> context.steps = new StepRegistry<BasketContext>()
+            .bind("an empty basket", an_empty_basket)
+            .bind("an empty basket owned by {string}", an_empty_basket_owned_by)
+            .bind("{int} apples are added", apples_are_added)
+            .bindAll("{double} pears weighing {double} kg are added", pears_weighing_are_added)
+            .bindAll("the fruits {int}, {int} and {int} are added", fruits_are_added)
+            .bind("the basket holds {int} fruits", the_basket_holds)
+            .bind("the basket is owned by {string}", the_basket_is_owned_by)
+            .bind("the basket weighs {double} kg", the_basket_weighs);
+
+    private final GwtFunction<GherkinTestContext> a_catch_all_basket_step = context ->
+            context.steps.bind("the basket {}", (basket, text) -> basket.owner = "caught: " + text);
+
+    private final GwtFunction<GherkinTestContext> the_outline_feature_file = context -> {
+        try {
+            context.featureFile = Path.of(getClass().getResource("/features/outline.feature").toURI());
+        }
+        catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    };
+
+    private final GwtFunction<GherkinTestContext> parsing_the_feature_file = context -> context.feature = FeatureParser.parse(context.featureFile);
+
+    private final GwtFunction<GherkinTestContext> running_the_feature_file = context ->
+            context.results = new FeatureRunner<>(context.steps, BasketContext.class).run(context.featureFile);
+
+    private final GwtFunction<GherkinTestContext> running_the_feature_file_with_a_context_supplier_returning_null = context ->
+            context.results = new FeatureRunner<>(context.steps, () -> (BasketContext) null).run(context.featureFile);
+
+    private final GwtFunction<GherkinTestContext> resolving_a_step_with_an_argument_too_large_for_an_int = context ->
+            context.steps.resolve("99999999999 apples are added");
+
+    private final GwtFunction<GherkinTestContext> resolving_and_running_steps_on_a_basket = context -> {
+        BasketContext basket = new BasketContext();
+        context.steps.resolve("an empty basket").apply(basket);
+        context.steps.resolve("4 apples are added").apply(basket);
+        context.steps.resolve("the basket holds 4 fruits").apply(basket);
+        context.steps.resolve("the basket is full").apply(basket);
+        context.basket = basket;
+    };
+
+    private final GwtFunction<GherkinTestContext> binding_a_feature_with_an_undefined_step = context ->
+            new FeatureRunner<>(context.steps, BasketContext.class).scenarios(FeatureParser.parse(
+                    "Feature: Undefined\n"
+                            + "  Scenario: Juggling\n"
+                            + "    Given an empty basket\n"
+                            + "    When the basket is juggled\n", "inline.feature"));
+
+    private final GwtFunction<GherkinTestContext> parsing_a_feature_with_examples_outside_an_outline = context ->
+            FeatureParser.parse("Feature: Outline\n  Scenario: Adding apples\n    When 3 apples are added\n    Examples:\n",
+                    "outline.feature");
+
+    private final GwtFunction<GherkinTestContext> binding_an_expression_with_an_unknown_placeholder = context ->
+            new StepRegistry<BasketContext>().bind("a {color} basket", an_empty_basket_owned_by);
+
+    private final GwtFunction<GherkinTestContext> the_feature_has_its_name_and_background = context -> {
+        Feature feature = context.feature;
+        assertThat(feature.getName(), is("Fruit basket"));
+        assertThat(feature.getBackgroundSteps().stream().map(Object::toString).collect(Collectors.toList()),
+                contains("Given an empty basket owned by \"Alice\""));
+    };
+
+    private final GwtFunction<GherkinTestContext> the_scenarios_have_their_names_tags_and_steps = context -> {
+        assertThat(context.feature.getScenarios().stream().map(scenario -> scenario.getName()).collect(Collectors.toList()),
+                contains("Adding apples", "Adding pears", "Counting the fruit"));
+        assertThat(context.feature.getScenarios().get(0).getTags(), contains("fruit"));
+        assertThat(context.feature.getScenarios().get(1).getTags(), contains("fruit", "heavy"));
+        assertThat(context.feature.getScenarios().get(1).getSteps().get(0).getLine(), is(17));
+        assertThat(context.feature.getScenarios().get(2).getSteps().size(), is(3));
+    };
+
+    private final GwtFunction<GherkinTestContext> the_scenario_names_are_prefixed_with_the_feature_name = context ->
+            assertThat(context.results.stream().map(ScenarioResult::getName).collect(Collectors.toList()),
+                    contains("Fruit basket: Adding apples", "Fruit basket: Adding pears", "Fruit basket: Counting the fruit"));
+
+    private final GwtFunction<GherkinTestContext> the_first_two_scenarios_pass = context -> {
+        assertThat(context.results.get(0).getFailure(), is(nullValue()));
+        assertThat(context.results.get(0).getContext().fruits, is(5));
+        assertThat(context.results.get(1).getFailure(), is(nullValue()));
+    };
+
+    private final GwtFunction<GherkinTestContext> the_third_scenario_fails_at_its_but_step = context ->
+            assertThat(context.results.get(2).getFailure().getCause(), instanceOf(AssertionError.class));
+
+    private final GwtFunction<GherkinTestContext> every_scenario_fails_as_malformed = context -> {
+        assertThat(context.results, hasSize(3));
+        for (ScenarioResult<BasketContext> result : context.results) {
+            assertThat(result.getFailure(), instanceOf(MalformedTestException.class));
+        }
+    };
+
+    private final GwtFunction<GherkinTestContext> the_examples_are_named_after_the_outline_with_their_values = context ->
+            assertThat(context.results.stream().map(ScenarioResult::getName).collect(Collectors.toList()),
+                    contains("Apple basket: Adding 1 apples [example 1]", "Apple basket: Adding 3 apples [example 2]",
+                            "Apple basket: Adding 100 apples [example 3]"));
+
+    private final GwtFunction<GherkinTestContext> every_example_passes = context -> {
+        for (ScenarioResult<BasketContext> result : context.results) {
+            assertThat(result.getName(), result.getFailure(), is(nullValue()));
+        }
+        assertThat(context.results.get(2).getContext().fruits, is(100));
+    };
+
+    private final GwtFunction<GherkinTestContext> the_examples_have_the_tags_of_their_table = context -> {
+        Feature feature = FeatureParser.parse(context.featureFile);
+        assertThat(feature.getScenarios().get(0).getTags(), is(empty()));
+        assertThat(feature.getScenarios().get(2).getTags(), contains("large"));
+        assertThat(feature.getScenarios().get(2).getLine(), is(16));
+        assertThat(feature.getScenarios().get(2).getSteps().get(1).toString(), is("When 100 apples are added"));
+    };
+
+    private final GwtFunction<GherkinTestContext> the_specific_steps_ran_before_the_catch_all_step = context -> {
+        assertThat(context.basket.fruits, is(4));
+        assertThat(context.basket.owner, is("caught: is full"));
+    };
+
+    private final GwtFunctionWithArgument<GherkinTestContext, String> the_exception_message_contains = (context, text) ->
+            assertThat(context.thrownException.getMessage(), containsString(text));
+
+    public static class GherkinTestContext extends Context {
+        Path featureFile;
+        Feature feature;
+        StepRegistry<BasketContext> steps;
+        List<ScenarioResult<BasketContext>> results;
+        BasketContext basket;
+    }
+
+    public static class BasketContext extends Context {
+        int fruits;
+        String owner;
+        double weight;
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.LatencyBudget;
+import io.github.mmbishop.gwttest.core.LatencyBudgetExceededException;
+import io.github.mmbishop.gwttest.core.MalformedTestException;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.LatencySamples;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class LatencyBudgetTest {
+
+    private final GwtTest<LatencyBudgetTestContext> gwt = new GwtTest<>(LatencyBudgetTestContext.class);
+
+    @Test
+    void fast_when_step_is_within_its_budget() {
+        gwt.test()
+                .whenTimed(2, 10, incrementing_the_counter)
+                .then(LatencyBudget.within(Duration.ofSeconds(5)))
+                .and(LatencyBudget.medianWithin(Duration.ofSeconds(5)))
+                .and(LatencyBudget.percentileWithin(99.0, Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void warmup_runs_are_invoked_but_not_measured() {
+        gwt.test()
+                .whenTimed(3, 5, incrementing_the_counter)
+                .then(the_counter_is, 8)
+                .and(the_number_of_samples_is, 5);
+    }
+
+    @Test
+    void slow_when_step_exceeds_its_budget() {
+        gwt.test()
+                .when(running_a_slow_test_with_a_budget_of, Duration.ofMillis(1))
+                .then(the_subject_failed_with_a_latency_budget_exceeded_exception);
+    }
+
+    @Test
+    void budget_cannot_be_checked_without_a_timed_when_step() {
+        gwt.test()
+                .when(checking_a_budget_without_a_timed_when_step)
+                .then(the_subject_failed_with_a_malformed_test_exception);
+    }
+
+    @Test
+    void budget_cannot_be_checked_against_an_earlier_timed_when_clause() {
+        gwt.test()
+                .when(checking_a_budget_after_an_untimed_when_clause_that_follows_a_timed_one)
+                .then(the_subject_failed_with_a_malformed_test_exception);
+    }
+
+    @Test
+    void timed_when_step_needs_a_measured_run() {
+        gwt.test()
+                .when(running_a_timed_test_without_measured_runs)
+                .then(the_subject_failed_with_a_malformed_test_exception);
+    }
+
+    @Test
+    void percentiles_are_evaluated_with_the_nearest_rank_method() {
+        gwt.test()
+                .given(samples_of_one_to_one_hundred_nanoseconds)
+                .then(the_percentile_is, new long[] {50, 50})
+                .and(the_percentile_is, new long[] {99, 99})
+                .and(the_percentile_is, new long[] {100, 100})
+                .and(the_percentile_is, new long[] {0, 1});
+    }
+
+    private final GwtFunction<LatencyBudgetTestContext> incrementing_the_counter = context -> context.counter++;
+
+    private final GwtFunction<LatencyBudgetTestContext> sleeping = context -> {
+        try {
+            Thread.sleep(20);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    private final GwtFunctionWithArgument<LatencyBudgetTestContext, Duration> running_a_slow_test_with_a_budget_of = (context, budget) -> {
+        try {
+            new GwtTest<>(LatencyBudgetTestContext.class).test()
+                    .whenTimed(sleeping)
+                    .then(LatencyBudget.within(budget));
+        }
+        catch (UnexpectedExceptionCaughtException e) {
+            context.subjectFailure = e.getCause();
+        }
+    };
+
+    private final GwtFunction<LatencyBudgetTestContext> checking_a_budget_without_a_timed_when_step = context -> {
+        try {
+            new GwtTest<>(LatencyBudgetTestContext.class).test()
+                    .when(incrementing_the_counter)
+                    .then(LatencyBudget.within(Duration.ofSeconds(1)));
+        }
+        catch (UnexpectedExceptionCaughtException e) {
+            context.subjectFailure = e.getCause();
+        }
+    };
+
+    private final GwtFunction<LatencyBudgetTestContext> checking_a_budget_after_an_untimed_when_clause_that_follows_a_timed_one = context -> {
+        try {
+            new GwtTest<>(LatencyBudgetTestContext.class).test()
+                    .whenTimed(incrementing_the_counter)
+                    .then(LatencyBudget.within(Duration.ofSeconds(5)))
+                    .when(incrementing_the_counter)
+                    .then(LatencyBudget.within(Duration.ofSeconds(5)));
+        }
+        catch (UnexpectedExceptionCaughtException e) {
+            context.subjectFailure = e.getCause();
+        }
+    };
+
+    private final GwtFunction<LatencyBudgetTestContext> running_a_timed_test_without_measured_runs = context -> {
+        try {
+            new GwtTest<>(LatencyBudgetTestContext.class).test()
+                    .whenTimed(1, 0, incrementing_the_counter);
+        }
+        catch (MalformedTestException e) {
+            context.subjectFailure = e;
+        }
+    };
+
+    private final GwtFunction<LatencyBudgetTestContext> samples_of_one_to_one_hundred_nanoseconds = context ->
+            context.whenLatency = new LatencySamples(LongStream.rangeClosed(1, 100).toArray());
+
+    private final GwtFunctionWithArgument<LatencyBudgetTestContext, Integer> the_counter_is = (context, counter) ->
+            assertThat(context.counter, is(counter));
+
+    private final GwtFunctionWithArgument<LatencyBudgetTestContext, Integer> the_number_of_samples_is = (context, count) ->
+            assertThat(context.whenLatency.getCount(), is(count));
+
+    private final GwtFunction<LatencyBudgetTestContext> the_subject_failed_with_a_latency_budget_exceeded_exception = context ->
+            assertThat(context.subjectFailure, is(instanceOf(LatencyBudgetExceededException.class)));
+
+    private final GwtFunction<LatencyBudgetTestContext> the_subject_failed_with_a_malformed_test_exception = context -> {
+        assertThat(context.subjectFailure, is(instanceOf(MalformedTestException.class)));
+        assertThat(context.whenLatency, is(nullValue()));
+    };
+
+    private final GwtFunctionWithArgument<LatencyBudgetTestContext, long[]> the_percentile_is = (context, percentileAndNanos) ->
+            assertThat(context.whenLatency.getPercentile(percentileAndNanos[0]), is(Duration.ofNanos(percentileAndNanos[1])));
+
+    public static class LatencyBudgetTestContext extends Context {
+        int counter;
+        Throwable subjectFailure;
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.LoadProfile;
+import io.github.mmbishop.gwttest.core.MalformedTestException;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.LoadReport;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LoadModeTest {
+
+    private final GwtTest<LoadTestContext> gwt = new GwtTest<>(LoadTestContext.class);
+    private final AtomicInteger givenCount = new AtomicInteger();
+    private final AtomicInteger whenCount = new AtomicInteger();
+
+    @Test
+    void given_runs_once_per_thread_and_when_runs_for_the_given_iterations() {
+        gwt.test()
+                .given(a_counting_scenario)
+                .when(running_the_scenario_under_load, LoadProfile.iterations(4, 1000))
+                .then(the_given_count_is, 4)
+                .and(the_when_count_is, 1000)
+                .and(the_load_report_has_operations_and_threads, new long[] {1000, 4})
+                .and(the_latency_percentiles_are_ordered);
+    }
+
+    @Test
+    void warmup_iterations_are_run_but_not_reported() {
+        gwt.test()
+                .given(a_counting_scenario)
+                .when(running_the_scenario_under_load, LoadProfile.iterations(2, 10).withWarmupIterations(5))
+                .then(the_when_count_is, 20)
+                .and(the_load_report_has_operations_and_threads, new long[] {10, 2});
+    }
+
+    @Test
+    void when_runs_for_the_given_duration() {
+        gwt.test()
+                .given(a_sleeping_scenario)
+                .when(running_the_scenario_under_load, LoadProfile.duration(2, Duration.ofMillis(100)))
+                .then(the_load_ran_for_at_least, Duration.ofMillis(100))
+                .and(the_throughput_is_positive);
+    }
+
+    @Test
+    void then_clause_checks_the_load_report() {
+        gwt.test()
+                .given(a_scenario_that_checks_its_load_report)
+                .when(running_the_scenario_under_load, LoadProfile.iterations(3, 300))
+                .then(the_checking_step_ran);
+    }
+
+    @Test
+    void first_unexpected_exception_fails_the_load_run() {
+        gwt.test().expectingException(UnexpectedExceptionCaughtException.class)
+                .given(a_failing_scenario)
+                .when(running_the_scenario_under_load, LoadProfile.iterations(4, 1000));
+    }
+
+    @Test
+    void scenario_without_when_clause_cannot_run_under_load() {
+        gwt.test().expectingException(MalformedTestException.class)
+                .given(a_scenario_without_a_when_clause)
+                .when(running_the_scenario_under_load, LoadProfile.iterations(1, 1));
+    }
+
+    private final GwtFunction<LoadTestContext> a_counting_scenario = context ->
+            context.scenario = Scenario.builder(LoadTestContext.class)
+                    .given(c -> givenCount.incrementAndGet())
+                    .when(c -> whenCount.incrementAndGet())
+                    .then(c -> {})
+                    .build();
+
+    private final GwtFunction<LoadTestContext> a_sleeping_scenario = context ->
+            context.scenario = Scenario.builder(LoadTestContext.class)
+                    .when(c -> LockSupport.parkNanos(1_000_000))
+                    .build();
+
+    private final GwtFunction<LoadTestContext> a_scenario_that_checks_its_load_report = context ->
+            context.scenario = Scenario.builder(LoadTestContext.class)
+                    .when(c -> whenCount.incrementAndGet())
+                    .then(c -> assertThat(c.loadReport.getOperations(), is(300L)))
+                    .and(c -> c.checked = true)
+                    .build();
+
+    private final GwtFunction<LoadTestContext> a_failing_scenario = context ->
+            context.scenario = Scenario.builder(LoadTestContext.class)
+                    .when(c -> {
+                        if (whenCount.incrementAndGet() == 100) {
+                            throw new IllegalStateException("Thrown under load");
+                        }
+                    })
+                    .build();
+
+    private final GwtFunction<LoadTestContext> a_scenario_without_a_when_clause = context ->
+            context.scenario = Scenario.builder(LoadTestContext.class)
+                    .given(c -> givenCount.incrementAndGet())
+                    .build();
+
+    private final GwtFunctionWithArgument<LoadTestContext, LoadProfile> running_the_scenario_under_load = (context, profile) ->
+            context.result = context.scenario.runLoad(profile);
+
+    private final GwtFunctionWithArgument<LoadTestContext, Integer> the_given_count_is = (context, count) ->
+            assertThat(givenCount.get(), is(count));
+
+    private final GwtFunctionWithArgument<LoadTestContext, Integer> the_when_count_is = (context, count) ->
+            assertThat(whenCount.get(), is(count));
+
+    private final GwtFunctionWithArgument<LoadTestContext, long[]> the_load_report_has_operations_and_threads = (context, expected) -> {
+        LoadReport report = context.result.loadReport;
+        assertThat(report.getOperations(), is(expected[0]));
+        assertThat((long) report.getThreads(), is(expected[1]));
+    };
+
+    private final GwtFunction<LoadTestContext> the_latency_percentiles_are_ordered = context -> {
+        LoadReport report = context.result.loadReport;
+        assertThat(report.getMedianLatency(), is(lessThanOrEqualTo(report.getP99Latency())));
+        assertThat(report.getP99Latency(), is(lessThanOrEqualTo(report.getP999Latency())));
+        assertThat(report.getP999Latency(), is(lessThanOrEqualTo(report.getMaxLatency())));
+    };
+
+    private final GwtFunctionWithArgument<LoadTestContext, Duration> the_load_ran_for_at_least = (context, duration) ->
+            assertThat(context.result.loadReport.getElapsed(), is(greaterThanOrEqualTo(duration)));
+
+    private final GwtFunction<LoadTestContext> the_throughput_is_positive = context -> {
+        assertThat(context.result.loadReport.getOperations(), is(greaterThan(0L)));
+        assertThat(context.result.loadReport.getOperationsPerSecond(), is(greaterThan(0.0)));
+    };
+
+    private final GwtFunction<LoadTestContext> the_checking_step_ran = context ->
+            assertThat(context.result.checked, is(true));
+
+    public static class LoadTestContext extends Context {
+        Scenario<LoadTestContext> scenario;
+        LoadTestContext result;
+        boolean checked;
+    }
+
+}
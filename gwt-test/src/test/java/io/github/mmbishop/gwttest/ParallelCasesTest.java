@@ -0,0 +1,212 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.ContextCopiers;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.ScenarioFailedException;
+import io.github.mmbishop.gwttest.core.ScenarioRunner;
+import io.github.mmbishop.gwttest.functions.ContextCopier;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.instrumentation.StepListener;
+import io.github.mmbishop.gwttest.instrumentation.StepListeners;
+import io.github.mmbishop.gwttest.instrumentation.StepOutcome;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.ScenarioResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class ParallelCasesTest {
+
+    private final GwtTest<CasesTestContext> gwt = new GwtTest<>(CasesTestContext.class);
+    private final ContextCopier<CasesTestContext> copier = ContextCopiers.shallowCopy(CasesTestContext.class);
+    private final AtomicInteger givenCount = new AtomicInteger();
+
+    @Test
+    void cases_run_on_their_own_copy_of_the_given_state() {
+        gwt.test()
+                .given(a_scenario_with_three_cases)
+                .when(running_the_cases)
+                .then(the_given_clause_ran_once)
+                .and(the_cases_are_named, List.of("arithmetic [case 1]", "arithmetic [case 2]", "arithmetic [case 3]"))
+                .and(every_case_succeeded);
+    }
+
+    @Test
+    void given_clauses_are_reported_as_a_scenario_of_their_own() {
+        gwt.test()
+                .given(a_scenario_with_three_cases)
+                .when(running_the_cases_with_a_step_listener)
+                .then(the_started_scenarios_are, List.of("arithmetic [given]", "arithmetic [case 1]", "arithmetic [case 2]", "arithmetic [case 3]"))
+                .and(every_step_belongs_to_a_finished_scenario);
+    }
+
+    @Test
+    void cases_run_concurrently() {
+        gwt.test()
+                .given(a_scenario_whose_cases_wait_for_each_other)
+                .when(running_the_cases)
+                .then(every_case_succeeded);
+    }
+
+    @Test
+    void failing_case_is_reported_separately() {
+        gwt.test()
+                .given(a_scenario_whose_second_case_fails)
+                .when(running_the_cases)
+                .then(only_the_second_case_failed);
+    }
+
+    @Test
+    void running_all_cases_fails_if_a_case_failed() {
+        gwt.test().expectingException(ScenarioFailedException.class)
+                .given(a_scenario_whose_second_case_fails)
+                .when(running_all_cases);
+    }
+
+    private final GwtFunctionWithArguments<CasesTestContext, Integer> numbers = (context, numbers) -> {
+        givenCount.incrementAndGet();
+        context.firstNumber = numbers[0];
+        context.secondNumber = numbers[1];
+    };
+
+    private final GwtFunction<CasesTestContext> a_scenario_with_three_cases = context ->
+            context.scenario = Scenario.builder(CasesTestContext.class).named("arithmetic")
+                    .given(numbers, 12, 4)
+                    .when(c -> c.result = c.firstNumber * c.secondNumber)
+                    .then(c -> assertThat(c.result, is(48)))
+                    .when(c -> c.result = c.firstNumber / c.secondNumber)
+                    .then(c -> assertThat(c.result, is(3)))
+                    .when(c -> c.firstNumber = 100)
+                    .and(c -> c.result = c.firstNumber + c.secondNumber)
+                    .then(c -> assertThat(c.result, is(104)))
+                    .build();
+
+    private final GwtFunction<CasesTestContext> a_scenario_whose_cases_wait_for_each_other = context -> {
+        CountDownLatch allCasesStarted = new CountDownLatch(3);
+        GwtFunction<CasesTestContext> waiting_for_the_other_cases = c -> {
+            allCasesStarted.countDown();
+            try {
+                c.result = allCasesStarted.await(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        context.scenario = Scenario.builder(CasesTestContext.class).named("waiting")
+                .when(waiting_for_the_other_cases).then(c -> assertThat(c.result, is(1)))
+                .when(waiting_for_the_other_cases).then(c -> assertThat(c.result, is(1)))
+                .when(waiting_for_the_other_cases).then(c -> assertThat(c.result, is(1)))
+                .build();
+    };
+
+    private final GwtFunction<CasesTestContext> a_scenario_whose_second_case_fails = context ->
+            context.scenario = Scenario.builder(CasesTestContext.class).named("failing")
+                    .given(numbers, 12, 0)
+                    .when(c -> c.result = c.firstNumber * c.secondNumber)
+                    .then(c -> assertThat(c.result, is(0)))
+                    .when(c -> c.result = c.firstNumber / c.secondNumber)
+                    .then(c -> assertThat(c.result, is(3)))
+                    .build();
+
+    private final GwtFunction<CasesTestContext> running_the_cases = context -> {
+        try (ScenarioRunner runner = new ScenarioRunner(3)) {
+            context.results = runner.runCases(context.scenario, copier);
+        }
+    };
+
+    private final GwtFunction<CasesTestContext> running_the_cases_with_a_step_listener = context -> {
+        StepListener listener = new StepListener() {
+            @Override
+            public void scenarioStarted(Context scenarioContext) {
+                context.startedScenarios.add(scenarioContext.getTestName());
+            }
+
+            @Override
+            public void stepFinished(Context stepContext, int stepIndex, long startNanos, long endNanos, StepOutcome outcome) {
+                context.steppedScenarios.add(stepContext.getTestName());
+            }
+
+            @Override
+            public void scenarioFinished(Context scenarioContext, long startNanos, long endNanos, boolean passed) {
+                context.finishedScenarios.add(scenarioContext.getTestName());
+            }
+        };
+        StepListeners.register(listener);
+        try {
+            running_the_cases.apply(context);
+        }
+        finally {
+            StepListeners.unregister(listener);
+        }
+    };
+
+    private final GwtFunction<CasesTestContext> running_all_cases = context -> {
+        try (ScenarioRunner runner = new ScenarioRunner(3)) {
+            runner.runAllCases(context.scenario, copier);
+        }
+    };
+
+    private final GwtFunctionWithArgument<CasesTestContext, List<String>> the_started_scenarios_are = (context, names) ->
+            assertThat(context.startedScenarios, containsInAnyOrder(names.toArray()));
+
+    private final GwtFunction<CasesTestContext> every_step_belongs_to_a_finished_scenario = context ->
+            assertThat(context.finishedScenarios, hasItems(context.steppedScenarios.toArray(new String[0])));
+
+    private final GwtFunction<CasesTestContext> the_given_clause_ran_once = context -> assertThat(givenCount.get(), is(1));
+
+    private final GwtFunctionWithArgument<CasesTestContext, List<String>> the_cases_are_named = (context, names) ->
+            assertThat(context.results.stream().map(ScenarioResult::getName).collect(Collectors.toList()), is(names));
+
+    private final GwtFunction<CasesTestContext> every_case_succeeded = context -> {
+        for (ScenarioResult<CasesTestContext> result : context.results) {
+            assertThat(result.getName(), result.getFailure(), is(nullValue()));
+        }
+    };
+
+    private final GwtFunction<CasesTestContext> only_the_second_case_failed = context ->
+            assertThat(context.results.stream().map(ScenarioResult::isSuccessful).collect(Collectors.toList()), contains(true, false));
+
+    public static class CasesTestContext extends Context {
+        int firstNumber;
+        int secondNumber;
+        int result;
+        Scenario<CasesTestContext> scenario;
+        List<ScenarioResult<CasesTestContext>> results;
+        final Queue<String> startedScenarios = new ConcurrentLinkedQueue<>();
+        final Queue<String> steppedScenarios = new ConcurrentLinkedQueue<>();
+        final Queue<String> finishedScenarios = new ConcurrentLinkedQueue<>();
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.instrumentation.PrometheusMetrics;
+import io.github.mmbishop.gwttest.instrumentation.StepListeners;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+
+public class PrometheusMetricsTest {
+
+    private final GwtTest<PrometheusMetricsTestContext> gwt = new GwtTest<>(PrometheusMetricsTestContext.class);
+
+    @Test
+    void scenarios_and_steps_are_counted() {
+        gwt.test()
+                .given(a_metrics_listener)
+                .when(running_a_test_and_a_scenario)
+                .and(writing_the_metrics)
+                .then(the_scenarios_are_counted)
+                .and(the_steps_are_counted_by_phase_and_outcome);
+    }
+
+    @Test
+    void step_durations_are_written_as_histograms() {
+        gwt.test()
+                .given(a_metrics_listener)
+                .when(running_a_test_and_a_scenario)
+                .and(writing_the_metrics)
+                .then(each_phase_has_a_cumulative_histogram)
+                .and(each_step_has_a_histogram);
+    }
+
+    @Test
+    void metrics_are_written_to_a_file() {
+        gwt.test()
+                .given(a_metrics_listener)
+                .when(running_a_test_and_a_scenario)
+                .and(writing_the_metrics_to_a_file)
+                .then(the_file_holds_the_metrics);
+    }
+
+    private final GwtFunction<SubjectContext> passing_step = context -> {};
+
+    private final GwtFunction<SubjectContext> throwing_step = context -> {
+        throw new IllegalStateException("expected");
+    };
+
+    private final GwtFunction<PrometheusMetricsTestContext> a_metrics_listener = context -> context.metrics = new PrometheusMetrics();
+
+    private final GwtFunction<PrometheusMetricsTestContext> running_a_test_and_a_scenario = context -> {
+        StepListeners.register(context.metrics);
+        try {
+            new GwtTest<>(SubjectContext.class).test("subject")
+                    .expectingException(IllegalStateException.class)
+                    .given(passing_step)
+                    .when(throwing_step)
+                    .then(passing_step);
+            Scenario.builder(SubjectContext.class)
+                    .named("subject \"scenario\"")
+                    .given(passing_step)
+                    .when(passing_step)
+                    .then(passing_step)
+                    .build()
+                    .run();
+        }
+        finally {
+            StepListeners.unregister(context.metrics);
+        }
+    };
+
+    private final GwtFunction<PrometheusMetricsTestContext> writing_the_metrics = context -> {
+        StringWriter writer = new StringWriter();
+        try {
+            context.metrics.writeTo(writer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        context.lines = writer.toString().lines().toList();
+    };
+
+    private final GwtFunction<PrometheusMetricsTestContext> writing_the_metrics_to_a_file = context -> {
+        try {
+            Path directory = Files.createTempDirectory("gwt-test-metrics");
+            context.metricsFile = directory.resolve("metrics.prom");
+            context.metrics.writeTo(context.metricsFile);
+            context.lines = Files.readAllLines(context.metricsFile);
+            Files.delete(context.metricsFile);
+            Files.delete(directory);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    };
+
+    private final GwtFunction<PrometheusMetricsTestContext> the_scenarios_are_counted = context ->
+            assertThat(context.lines, hasItems(
+                    "# TYPE gwttest_scenarios_started_total counter",
+                    "gwttest_scenarios_started_total 2",
+                    "gwttest_scenarios_finished_total{result=\"passed\"} 1",
+                    "gwttest_scenarios_finished_total{result=\"failed\"} 0",
+                    "gwttest_scenario_duration_seconds_count 1"));
+
+    private final GwtFunction<PrometheusMetricsTestContext> the_steps_are_counted_by_phase_and_outcome = context ->
+            assertThat(context.lines, hasItems(
+                    "gwttest_steps_total{phase=\"GIVEN\",outcome=\"PASSED\"} 2",
+                    "gwttest_steps_total{phase=\"WHEN\",outcome=\"PASSED\"} 1",
+                    "gwttest_steps_total{phase=\"WHEN\",outcome=\"EXPECTED_EXCEPTION\"} 1",
+                    "gwttest_steps_total{phase=\"THEN\",outcome=\"PASSED\"} 2"));
+
+    private final GwtFunction<PrometheusMetricsTestContext> each_phase_has_a_cumulative_histogram = context ->
+            assertThat(context.lines, hasItems(
+                    "# TYPE gwttest_step_duration_seconds histogram",
+                    "gwttest_step_duration_seconds_bucket{phase=\"WHEN\",le=\"10\"} 2",
+                    "gwttest_step_duration_seconds_bucket{phase=\"WHEN\",le=\"+Inf\"} 2",
+                    "gwttest_step_duration_seconds_count{phase=\"WHEN\"} 2"));
+
+    private final GwtFunction<PrometheusMetricsTestContext> each_step_has_a_histogram = context ->
+            assertThat(context.lines, hasItems(
+                    "gwttest_test_step_duration_seconds_count{test=\"subject\",phase=\"WHEN\",step=\"1\"} 1",
+                    "gwttest_test_step_duration_seconds_bucket{test=\"subject \\\"scenario\\\"\",phase=\"THEN\",step=\"2\",le=\"+Inf\"} 1"));
+
+    private final GwtFunction<PrometheusMetricsTestContext> the_file_holds_the_metrics = context -> {
+        assertThat(context.lines, hasItem("gwttest_scenarios_started_total 2"));
+        assertThat(context.lines.get(context.lines.size() - 1).startsWith("gwttest_test_step_duration_seconds_count"), is(true));
+    };
+
+    public static class PrometheusMetricsTestContext extends Context {
+        PrometheusMetrics metrics;
+        Path metricsFile;
+        List<String> lines;
+    }
+
+    public static class SubjectContext extends Context {
+    }
+
+}
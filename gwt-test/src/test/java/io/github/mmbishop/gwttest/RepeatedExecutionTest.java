@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.MalformedTestException;
+import io.github.mmbishop.gwttest.core.TestConstructionException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class RepeatedExecutionTest {
+
+    private final GwtTest<CounterContext> gwt = new GwtTest<>(CounterContext.class);
+    private final List<CounterContext> usedContexts = new ArrayList<>();
+
+    @Test
+    void scenario_is_run_repeatedly_with_a_new_context_after_reset() {
+        for (int i = 0; i < 3; i++) {
+            gwt.reset().test()
+                    .given(the_context_is_recorded)
+                    .when(incrementing_the_counter)
+                    .then(the_counter_is, 1);
+        }
+        assertThat(usedContexts, hasSize(3));
+        assertThat(usedContexts.get(0), is(not(sameInstance(usedContexts.get(1)))));
+        assertThat(usedContexts.get(1), is(not(sameInstance(usedContexts.get(2)))));
+    }
+
+    @Test
+    void scenario_is_run_repeatedly_with_the_same_context_after_reset_with_context_reset_function() {
+        for (int i = 0; i < 3; i++) {
+            gwt.reset(clearing_the_counter).test().expectingException(IllegalStateException.class)
+                    .given(the_context_is_recorded)
+                    .when(incrementing_the_counter)
+                    .and(failing_with_an_expected_exception)
+                    .then(the_counter_is, 1)
+                    .and(the_expected_exception_is_thrown);
+        }
+        assertThat(usedContexts, hasSize(3));
+        assertThat(usedContexts.get(0), is(sameInstance(usedContexts.get(1))));
+        assertThat(usedContexts.get(1), is(sameInstance(usedContexts.get(2))));
+    }
+
+    @Test
+    void test_metadata_is_cleared_when_context_is_reused() {
+        gwt.test("first test").expectingException(IllegalStateException.class)
+                .when(failing_with_an_expected_exception)
+                .then(the_expected_exception_is_thrown);
+        gwt.reset(clearing_the_counter).test("second test")
+                .when(incrementing_the_counter)
+                .then(no_exception_is_expected_or_thrown)
+                .and(the_test_name_is, "second test");
+    }
+
+    @Test
+    void context_is_discarded_when_context_reset_function_fails_with_an_error() {
+        gwt.test()
+                .given(the_context_is_recorded)
+                .when(incrementing_the_counter);
+        Assertions.assertThrows(TestConstructionException.class, () -> gwt.reset(failing_with_an_assertion_error));
+        gwt.test()
+                .given(the_context_is_recorded)
+                .when(incrementing_the_counter)
+                .then(the_counter_is, 1);
+        assertThat(usedContexts, hasSize(2));
+        assertThat(usedContexts.get(0), is(not(sameInstance(usedContexts.get(1)))));
+    }
+
+    @Test
+    void test_is_malformed_when_TEST_is_called_again_without_reset() {
+        try {
+            gwt.test().when(incrementing_the_counter).then(the_counter_is, 1);
+            gwt.test();
+            Assertions.fail();  // MalformedTestException should have been thrown.
+        }
+        catch (MalformedTestException e) {
+            // Test succeeds if this exception is thrown.
+        }
+    }
+
+    private final GwtFunction<CounterContext> clearing_the_counter = context -> context.counter = 0;
+
+    private final GwtFunction<CounterContext> failing_with_an_assertion_error = context -> {
+        throw new AssertionError("Reset failure");
+    };
+
+    private final GwtFunction<CounterContext> the_context_is_recorded = usedContexts::add;
+
+    private final GwtFunction<CounterContext> incrementing_the_counter = context -> context.counter++;
+
+    private final GwtFunction<CounterContext> failing_with_an_expected_exception = context -> {
+        throw new IllegalStateException("Expected failure");
+    };
+
+    private final GwtFunctionWithArgument<CounterContext, Integer> the_counter_is = (context, expectedCount) ->
+            assertThat(context.counter, is(expectedCount));
+
+    private final GwtFunction<CounterContext> the_expected_exception_is_thrown = context ->
+            assertThat(context.thrownException, is(not(nullValue())));
+
+    private final GwtFunction<CounterContext> no_exception_is_expected_or_thrown = context -> {
+        assertThat(context.expectedExceptionClass, is(nullValue()));
+        assertThat(context.thrownException, is(nullValue()));
+    };
+
+    private final GwtFunctionWithArgument<CounterContext, String> the_test_name_is = (context, expectedTestName) ->
+            assertThat(context.getTestName(), is(expectedTestName));
+
+    public static class CounterContext extends Context {
+        int counter;
+    }
+
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.instrumentation.StepListenerProvider;
+import io.github.mmbishop.gwttest.instrumentation.StepListeners;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.report.ReportFormat;
+import io.github.mmbishop.gwttest.report.ScenarioReportWriter;
+import io.github.mmbishop.gwttest.report.ScenarioReportWriterProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public class ScenarioReportTest {
+
+    private final GwtTest<ScenarioReportTestContext> gwt = new GwtTest<>(ScenarioReportTestContext.class);
+
+    @Test
+    void each_finished_scenario_is_written_as_a_json_line() {
+        gwt.test()
+                .given(a_report_file_named, "scenarios.jsonl")
+                .when(running_tests_and_a_scenario_while_the_report_is_written)
+                .and(reading_the_report_lines)
+                .then(one_line_is_written_per_scenario)
+                .and(the_lines_hold_the_phases_and_outcomes_of_the_steps)
+                .and(the_failed_test_holds_its_thrown_exception);
+    }
+
+    @Test
+    void scenarios_are_written_as_junit_test_cases() {
+        gwt.test()
+                .given(a_report_file_named, "scenarios.xml")
+                .when(running_tests_and_a_scenario_while_the_report_is_written)
+                .and(parsing_the_report_as_xml)
+                .then(the_test_suite_counts_the_scenarios_and_failures)
+                .and(the_failed_test_case_has_a_failure_element);
+    }
+
+    @Test
+    void test_nested_in_a_step_is_written_separately_from_the_enclosing_test() {
+        gwt.test()
+                .given(a_report_file_named, "nested.jsonl")
+                .when(running_a_test_nested_in_a_step_of_another_test)
+                .and(reading_the_report_lines)
+                .then(both_tests_are_written_with_their_own_steps);
+    }
+
+    @Test
+    @Timeout(30)
+    void tests_that_end_after_the_report_is_closed_are_not_recorded() {
+        gwt.test()
+                .given(a_report_file_named, "closed.jsonl")
+                .when(running_more_tests_than_the_queue_holds_after_the_report_is_closed)
+                .and(reading_the_report_lines)
+                .then(only_the_test_run_before_closing_is_written);
+    }
+
+    @Test
+    void report_writer_provider_is_discovered_by_the_service_loader() {
+        gwt.test()
+                .when(loading_the_step_listener_providers)
+                .then(the_report_writer_provider_is_loaded);
+    }
+
+    private final GwtFunction<SubjectContext> passing_step = context -> {};
+
+    private final GwtFunction<SubjectContext> throwing_step = context -> {
+        throw new IllegalStateException("Failed \"badly\"");
+    };
+
+    private final GwtFunctionWithArgument<ScenarioReportTestContext, String> a_report_file_named = (context, fileName) -> {
+        try {
+            context.reportFile = Files.createTempDirectory("gwt-test-report").resolve(fileName);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> running_tests_and_a_scenario_while_the_report_is_written = context -> {
+        try (ScenarioReportWriter writer = ScenarioReportWriter.open(context.reportFile, ReportFormat.forFileName(context.reportFile.toString()))) {
+            StepListeners.register(writer);
+            try {
+                new GwtTest<>(SubjectContext.class).test("passing test")
+                        .given(passing_step)
+                        .when(passing_step)
+                        .then(passing_step);
+                try {
+                    new GwtTest<>(SubjectContext.class).test("failing test")
+                            .given(passing_step)
+                            .when(throwing_step);
+                }
+                catch (UnexpectedExceptionCaughtException e) {
+                    // recorded in the report
+                }
+                new GwtTest<>(SubjectContext.class).test("abandoned test")
+                        .given(passing_step)
+                        .when(passing_step);
+                Scenario.builder(SubjectContext.class)
+                        .named("scenario")
+                        .given(passing_step)
+                        .when(passing_step)
+                        .then(passing_step)
+                        .build()
+                        .run();
+            }
+            finally {
+                StepListeners.unregister(writer);
+            }
+        }
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> running_a_test_nested_in_a_step_of_another_test = context -> {
+        try (ScenarioReportWriter writer = ScenarioReportWriter.open(context.reportFile, ReportFormat.JSON_LINES)) {
+            StepListeners.register(writer);
+            try {
+                new GwtTest<>(SubjectContext.class).test("outer test")
+                        .given(passing_step)
+                        .when(outerContext -> new GwtTest<>(SubjectContext.class).test("inner test")
+                                .when(passing_step)
+                                .then(passing_step))
+                        .then(passing_step);
+            }
+            finally {
+                StepListeners.unregister(writer);
+            }
+        }
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> running_more_tests_than_the_queue_holds_after_the_report_is_closed = context -> {
+        ScenarioReportWriter writer = ScenarioReportWriter.open(context.reportFile, ReportFormat.JSON_LINES);
+        StepListeners.register(writer);
+        try {
+            new GwtTest<>(SubjectContext.class).test("test before closing")
+                    .when(passing_step)
+                    .then(passing_step);
+            writer.close();
+            for (int i = 0; i < 5000; i++) {
+                new GwtTest<>(SubjectContext.class).test("test after closing")
+                        .when(passing_step)
+                        .then(passing_step);
+            }
+        }
+        finally {
+            StepListeners.unregister(writer);
+        }
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> reading_the_report_lines = context -> {
+        try {
+            context.lines = Files.readAllLines(context.reportFile);
+            deleteReport(context);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> parsing_the_report_as_xml = context -> {
+        try {
+            context.document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(context.reportFile.toFile());
+            deleteReport(context);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> loading_the_step_listener_providers = context ->
+            context.providerTypes = ServiceLoader.load(StepListenerProvider.class).stream().map(ServiceLoader.Provider::type).toList();
+
+    private final GwtFunction<ScenarioReportTestContext> the_report_writer_provider_is_loaded = context ->
+            assertThat(context.providerTypes, hasItem(ScenarioReportWriterProvider.class));
+
+    /*
+     * A test run by a GwtTest has no end of its own: it passed if its Then clause completed, and its result is unknown if it
+     * was abandoned before reaching one.
+     */
+    private final GwtFunction<ScenarioReportTestContext> one_line_is_written_per_scenario = context -> {
+        assertThat(context.lines, hasSize(4));
+        assertThat(context.lines.get(0), startsWith("{\"name\":\"passing test\",\"result\":\"passed\""));
+        assertThat(context.lines.get(1), startsWith("{\"name\":\"failing test\",\"result\":\"failed\""));
+        assertThat(context.lines.get(2), startsWith("{\"name\":\"abandoned test\",\"result\":\"unknown\""));
+        assertThat(context.lines.get(3), startsWith("{\"name\":\"scenario\",\"result\":\"passed\""));
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> only_the_test_run_before_closing_is_written = context -> {
+        assertThat(context.lines, hasSize(1));
+        assertThat(context.lines.get(0), startsWith("{\"name\":\"test before closing\",\"result\":\"passed\""));
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> the_lines_hold_the_phases_and_outcomes_of_the_steps = context -> {
+        assertThat(context.lines.get(0), containsString("{\"phase\":\"GIVEN\",\"index\":0,"));
+        assertThat(context.lines.get(0), containsString("{\"phase\":\"THEN\",\"index\":2,"));
+        assertThat(context.lines.get(1), containsString("{\"phase\":\"WHEN\",\"index\":1,"));
+        assertThat(context.lines.get(1), containsString("\"outcome\":\"FAILED\""));
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> the_failed_test_holds_its_thrown_exception = context ->
+            assertThat(context.lines.get(1), containsString(
+                    "\"thrownException\":{\"type\":\"java.lang.IllegalStateException\",\"message\":\"Failed \\\"badly\\\"\"}"));
+
+    private final GwtFunction<ScenarioReportTestContext> the_test_suite_counts_the_scenarios_and_failures = context -> {
+        Element testSuite = context.document.getDocumentElement();
+        assertThat(testSuite.getAttribute("tests"), is("4"));
+        assertThat(testSuite.getAttribute("failures"), is("1"));
+        assertThat(testSuite.getAttribute("skipped"), is("1"));
+        assertThat(testSuite.getElementsByTagName("testcase").getLength(), is(4));
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> the_failed_test_case_has_a_failure_element = context -> {
+        NodeList failures = context.document.getElementsByTagName("failure");
+        assertThat(failures.getLength(), is(1));
+        Element failure = (Element) failures.item(0);
+        assertThat(((Element) failure.getParentNode()).getAttribute("name"), is("failing test"));
+        assertThat(failure.getAttribute("message"), is("Failed \"badly\""));
+    };
+
+    private final GwtFunction<ScenarioReportTestContext> both_tests_are_written_with_their_own_steps = context -> {
+        assertThat(context.lines, hasSize(2));
+        assertThat(context.lines.get(0), startsWith("{\"name\":\"outer test\""));
+        assertThat(context.lines.get(0), containsString("{\"phase\":\"THEN\",\"index\":2,"));
+        assertThat(context.lines.get(1), startsWith("{\"name\":\"inner test\""));
+        assertThat(context.lines.get(1), containsString("{\"phase\":\"THEN\",\"index\":1,"));
+    };
+
+    private static void deleteReport(ScenarioReportTestContext context) throws IOException {
+        Files.delete(context.reportFile);
+        Files.delete(context.reportFile.getParent());
+    }
+
+    public static class ScenarioReportTestContext extends Context {
+        Path reportFile;
+        List<String> lines;
+        Document document;
+        List<Class<? extends StepListenerProvider>> providerTypes;
+    }
+
+    public static class SubjectContext extends Context {
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.PinnedThreadMonitor;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.ScenarioFailedException;
+import io.github.mmbishop.gwttest.core.ScenarioRunner;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.ScenarioResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class ScenarioRunnerTest {
+
+    private static final int RUN_COUNT = 200;
+
+    private final GwtTest<RunnerTestContext> gwt = new GwtTest<>(RunnerTestContext.class);
+
+    @Test
+    void scenarios_are_run_concurrently_with_their_own_contexts() {
+        gwt.test()
+                .given(a_runner_with_threads, 4)
+                .and(a_scenario_that_records_its_thread)
+                .when(running_the_scenario_many_times)
+                .then(every_run_succeeded)
+                .and(every_run_had_its_own_context)
+                .and(runs_were_spread_over_more_than_one_thread);
+    }
+
+    @Test
+    void failed_scenarios_are_reported_in_their_results() {
+        gwt.test()
+                .given(a_runner_with_threads, 2)
+                .and(a_succeeding_and_a_failing_scenario)
+                .when(running_the_scenarios)
+                .then(the_failing_scenario_result_has_a_failure);
+    }
+
+    @Test
+    void running_all_scenarios_fails_when_any_scenario_fails() {
+        gwt.test().expectingException(ScenarioFailedException.class)
+                .given(a_runner_with_threads, 2)
+                .and(a_succeeding_and_a_failing_scenario)
+                .when(running_all_the_scenarios)
+                .then(the_failure_of_the_failing_scenario_is_suppressed);
+    }
+
+    @Test
+    void blocking_scenarios_are_run_concurrently_on_virtual_threads() {
+        gwt.test()
+                .given(a_virtual_thread_runner_with_scenarios_in_flight, 1000)
+                .and(a_scenario_that_blocks_for_milliseconds, 50)
+                .when(running_the_blocking_scenario_while_monitoring_pinned_threads, 1000)
+                .then(every_blocking_run_succeeded, 1000)
+                .and(the_runs_took_less_time_than_running_them_sequentially)
+                .and(no_virtual_thread_was_pinned);
+    }
+
+    private final GwtFunction<RunContext> recording_the_thread = context -> context.threadName = Thread.currentThread().getName();
+
+    private final GwtFunction<RunContext> waiting_briefly = context -> {
+        try {
+            Thread.sleep(1);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    private final GwtFunction<RunContext> the_thread_is_recorded = context -> assertThat(context.threadName != null, is(true));
+
+    private final GwtFunction<RunContext> failing = context -> {
+        throw new IllegalStateException("Scenario failure");
+    };
+
+    private final GwtFunctionWithArgument<RunnerTestContext, Integer> a_runner_with_threads = (context, threadCount) ->
+            context.runner = new ScenarioRunner(threadCount);
+
+    private final GwtFunctionWithArgument<RunnerTestContext, Integer> a_virtual_thread_runner_with_scenarios_in_flight = (context, maxConcurrentScenarios) ->
+            context.runner = ScenarioRunner.withVirtualThreads(maxConcurrentScenarios);
+
+    private final GwtFunctionWithArgument<RunnerTestContext, Integer> a_scenario_that_blocks_for_milliseconds = (context, blockingMillis) -> {
+        context.blockingMillis = blockingMillis;
+        context.scenarios.add(Scenario.builder(RunContext.class)
+                .when(runContext -> {
+                    try {
+                        Thread.sleep(blockingMillis);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                })
+                .then(recording_the_thread)
+                .build());
+    };
+
+    private final GwtFunctionWithArgument<RunnerTestContext, Integer> running_the_blocking_scenario_while_monitoring_pinned_threads = (context, runCount) -> {
+        long startTime = System.nanoTime();
+        try (ScenarioRunner runner = context.runner; PinnedThreadMonitor monitor = PinnedThreadMonitor.start()) {
+            context.results = runner.run(context.scenarios.get(0), runCount);
+            context.pinnedThreadMonitor = monitor;
+        }
+        context.elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+    };
+
+    private final GwtFunctionWithArgument<RunnerTestContext, Integer> every_blocking_run_succeeded = (context, runCount) -> {
+        assertThat(context.results, hasSize(runCount));
+        assertThat(context.results.stream().map(ScenarioResult::isSuccessful).toList(), everyItem(is(true)));
+    };
+
+    private final GwtFunction<RunnerTestContext> the_runs_took_less_time_than_running_them_sequentially = context ->
+            assertThat(context.elapsedMillis, is(lessThan((long) context.blockingMillis * context.results.size() / 10)));
+
+    private final GwtFunction<RunnerTestContext> no_virtual_thread_was_pinned = context ->
+            assertThat(context.pinnedThreadMonitor.getPinnedThreadEvents(), hasSize(0));
+
+    private final GwtFunction<RunnerTestContext> a_scenario_that_records_its_thread = context ->
+            context.scenarios.add(Scenario.builder(RunContext.class)
+                    .given(recording_the_thread)
+                    .when(waiting_briefly)
+                    .then(the_thread_is_recorded)
+                    .build());
+
+    private final GwtFunction<RunnerTestContext> a_succeeding_and_a_failing_scenario = context -> {
+        context.scenarios.add(Scenario.builder(RunContext.class).named("succeeding").when(recording_the_thread).build());
+        context.scenarios.add(Scenario.builder(RunContext.class).named("failing").when(failing).build());
+    };
+
+    private final GwtFunction<RunnerTestContext> running_the_scenario_many_times = context -> {
+        try (ScenarioRunner runner = context.runner) {
+            context.results = runner.run(context.scenarios.get(0), RUN_COUNT);
+        }
+    };
+
+    private final GwtFunction<RunnerTestContext> running_the_scenarios = context -> {
+        try (ScenarioRunner runner = context.runner) {
+            context.results = runner.run(context.scenarios);
+        }
+    };
+
+    private final GwtFunction<RunnerTestContext> running_all_the_scenarios = context -> {
+        try (ScenarioRunner runner = context.runner) {
+            context.results = runner.runAll(context.scenarios);
+        }
+    };
+
+    private final GwtFunction<RunnerTestContext> every_run_succeeded = context -> {
+        assertThat(context.results, hasSize(RUN_COUNT));
+        assertThat(context.results.stream().map(ScenarioResult::isSuccessful).toList(), everyItem(is(true)));
+    };
+
+    private final GwtFunction<RunnerTestContext> every_run_had_its_own_context = context -> {
+        Set<RunContext> contexts = Collections.newSetFromMap(new IdentityHashMap<>());
+        context.results.forEach(result -> contexts.add(result.getContext()));
+        assertThat(contexts, hasSize(RUN_COUNT));
+    };
+
+    private final GwtFunction<RunnerTestContext> runs_were_spread_over_more_than_one_thread = context -> {
+        Set<String> threadNames = context.results.stream().map(result -> result.getContext().threadName).collect(Collectors.toSet());
+        assertThat(threadNames.size(), is(greaterThan(1)));
+    };
+
+    private final GwtFunction<RunnerTestContext> the_failing_scenario_result_has_a_failure = context -> {
+        assertThat(context.results.get(0).isSuccessful(), is(true));
+        assertThat(context.results.get(1).isSuccessful(), is(false));
+        assertThat(context.results.get(1).getName(), is("failing"));
+    };
+
+    private final GwtFunction<RunnerTestContext> the_failure_of_the_failing_scenario_is_suppressed = context ->
+            assertThat(context.thrownException.getSuppressed(), is(arrayWithSize(1)));
+
+    public static class RunContext extends Context {
+        String threadName;
+    }
+
+    public static class RunnerTestContext extends Context {
+        ScenarioRunner runner;
+        List<Scenario<RunContext>> scenarios = new ArrayList<>();
+        List<ScenarioResult<RunContext>> results;
+        PinnedThreadMonitor pinnedThreadMonitor;
+        int blockingMillis;
+        long elapsedMillis;
+    }
+
+}
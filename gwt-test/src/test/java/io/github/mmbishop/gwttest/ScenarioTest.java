@@ -0,0 +1,221 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.ExpectedExceptionNotThrownException;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.MalformedTestException;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArguments;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ScenarioTest {
+
+    private final GwtTest<ScenarioTestContext> gwt = new GwtTest<>(ScenarioTestContext.class);
+
+    @Test
+    void scenario_is_run_repeatedly_with_a_new_context_for_each_run() {
+        gwt.test()
+                .given(a_squaring_scenario)
+                .when(running_the_scenario_twice)
+                .then(each_run_has_the_squared_result)
+                .and(each_run_has_its_own_context);
+    }
+
+    @Test
+    void scenario_is_run_concurrently() {
+        gwt.test()
+                .given(a_squaring_scenario)
+                .when(running_the_scenario_concurrently, 1000)
+                .then(each_run_has_the_squared_result);
+    }
+
+    @Test
+    void scenario_is_named_after_the_method_that_builds_it() {
+        gwt.test()
+                .given(a_squaring_scenario)
+                .then(the_scenario_name_is, "scenario_is_named_after_the_method_that_builds_it");
+    }
+
+    @Test
+    void scenario_with_multiple_cases_is_run() {
+        gwt.test()
+                .given(a_scenario_with_multiple_cases)
+                .when(running_the_scenario_twice)
+                .then(no_exception_is_thrown);
+    }
+
+    @Test
+    void scenario_with_expected_exception_is_run() {
+        gwt.test()
+                .given(a_scenario_with_an_expected_exception)
+                .when(running_the_scenario_twice)
+                .then(no_exception_is_thrown);
+    }
+
+    @Test
+    void scenario_fails_when_expected_exception_is_not_thrown() {
+        gwt.test().expectingException(ExpectedExceptionNotThrownException.class)
+                .given(a_scenario_with_an_expected_exception_that_is_not_thrown)
+                .when(running_the_scenario_twice)
+                .then(the_scenario_failed_with, ExpectedExceptionNotThrownException.class);
+    }
+
+    @Test
+    void scenario_fails_when_unexpected_exception_is_thrown() {
+        gwt.test().expectingException(UnexpectedExceptionCaughtException.class)
+                .given(a_scenario_with_an_unexpected_exception)
+                .when(running_the_scenario_twice)
+                .then(the_scenario_failed_with, UnexpectedExceptionCaughtException.class);
+    }
+
+    @Test
+    void malformed_scenario_fails_when_it_is_built() {
+        gwt.test().expectingException(MalformedTestException.class)
+                .when(building_a_scenario_with_two_consecutive_when_clauses)
+                .then(the_scenario_failed_with, MalformedTestException.class);
+    }
+
+    private final GwtFunctionWithArgument<NumberContext, Integer> a_number = (context, number) -> context.number = number;
+
+    private final GwtFunctionWithArguments<NumberContext, Integer> the_numbers = (context, numbers) -> context.numbers = numbers;
+
+    private final GwtFunction<NumberContext> squaring_the_number = context -> context.result = context.number * context.number;
+
+    private final GwtFunction<NumberContext> adding_the_numbers = context -> context.result = context.numbers[0] + context.numbers[1];
+
+    private final GwtFunction<NumberContext> multiplying_the_numbers = context -> context.result = context.numbers[0] * context.numbers[1];
+
+    private final GwtFunction<NumberContext> failing_with_an_exception = context -> {
+        throw new IllegalStateException("Failure");
+    };
+
+    private final GwtFunction<NumberContext> not_reached = context -> context.result = -1;
+
+    private final GwtFunctionWithArgument<NumberContext, Integer> the_result_is = (context, expectedResult) ->
+            assertThat(context.result, is(expectedResult));
+
+    private final GwtFunction<NumberContext> the_exception_is_recorded = context ->
+            assertThat(context.thrownException, is(instanceOf(IllegalStateException.class)));
+
+    private final GwtFunction<ScenarioTestContext> a_squaring_scenario = context -> context.scenario = Scenario.builder(NumberContext.class)
+            .given(a_number, 7)
+            .when(squaring_the_number)
+            .then(the_result_is, 49)
+            .build();
+
+    private final GwtFunction<ScenarioTestContext> a_scenario_with_multiple_cases = context -> context.scenario = Scenario.builder(NumberContext::new)
+            .given(the_numbers, 3, 4)
+            .when(adding_the_numbers)
+            .then(the_result_is, 7)
+            .when(multiplying_the_numbers)
+            .then(the_result_is, 12)
+            .build();
+
+    private final GwtFunction<ScenarioTestContext> a_scenario_with_an_expected_exception = context -> context.scenario = Scenario.builder(NumberContext.class)
+            .expectingException(IllegalStateException.class)
+            .given(a_number, 7)
+            .when(failing_with_an_exception, not_reached)
+            .and(squaring_the_number)
+            .then(the_exception_is_recorded)
+            .and(the_result_is, 49)
+            .build();
+
+    private final GwtFunction<ScenarioTestContext> a_scenario_with_an_expected_exception_that_is_not_thrown = context -> context.scenario = Scenario.builder(NumberContext.class)
+            .expectingException(IllegalStateException.class)
+            .given(a_number, 7)
+            .when(squaring_the_number)
+            .then(the_result_is, 49)
+            .build();
+
+    private final GwtFunction<ScenarioTestContext> a_scenario_with_an_unexpected_exception = context -> context.scenario = Scenario.builder(NumberContext.class)
+            .given(a_number, 7)
+            .when(failing_with_an_exception)
+            .then(the_result_is, 49)
+            .build();
+
+    private final GwtFunction<ScenarioTestContext> building_a_scenario_with_two_consecutive_when_clauses = context ->
+            Scenario.builder(NumberContext.class).given(a_number, 7).when(squaring_the_number).when(squaring_the_number);
+
+    private final GwtFunction<ScenarioTestContext> running_the_scenario_twice = context -> {
+        context.runContexts.add(context.scenario.run());
+        context.runContexts.add(context.scenario.run());
+    };
+
+    private final GwtFunctionWithArgument<ScenarioTestContext, Integer> running_the_scenario_concurrently = (context, runCount) -> {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<NumberContext>> runs = new ArrayList<>();
+            for (int i = 0; i < runCount; i++) {
+                runs.add(executor.submit(() -> context.scenario.run()));
+            }
+            for (Future<NumberContext> run : runs) {
+                context.runContexts.add(run.get());
+            }
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        finally {
+            executor.shutdown();
+        }
+    };
+
+    private final GwtFunction<ScenarioTestContext> each_run_has_the_squared_result = context ->
+            assertThat(context.runContexts.stream().map(runContext -> runContext.result).toList(), everyItem(is(49)));
+
+    private final GwtFunction<ScenarioTestContext> each_run_has_its_own_context = context ->
+            assertThat(context.runContexts.get(0), is(not(sameInstance(context.runContexts.get(1)))));
+
+    private final GwtFunctionWithArgument<ScenarioTestContext, String> the_scenario_name_is = (context, expectedName) ->
+            assertThat(context.scenario.getName(), is(expectedName));
+
+    private final GwtFunction<ScenarioTestContext> no_exception_is_thrown = context -> assertThat(context.thrownException, is(nullValue()));
+
+    private final GwtFunctionWithArgument<ScenarioTestContext, Class<? extends Throwable>> the_scenario_failed_with = (context, exceptionClass) ->
+            assertThat(context.thrownException, is(instanceOf(exceptionClass)));
+
+    public static class NumberContext extends Context {
+        Integer number;
+        Integer[] numbers;
+        Integer result;
+    }
+
+    public static class ScenarioTestContext extends Context {
+        Scenario<NumberContext> scenario;
+        List<NumberContext> runContexts = new ArrayList<>();
+    }
+
+}
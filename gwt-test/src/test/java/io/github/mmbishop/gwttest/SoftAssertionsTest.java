@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.SoftAssertionError;
+import io.github.mmbishop.gwttest.core.SoftAssertions;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SoftAssertionsTest {
+
+    private final GwtTest<SoftAssertionsTestContext> gwt = new GwtTest<>(SoftAssertionsTestContext.class);
+    private final AtomicInteger evaluatedAssertions = new AtomicInteger();
+
+    @Test
+    void passing_assertions_do_not_fail_the_test() {
+        gwt.test()
+                .when(running_a_test_with_soft_assertions, SoftAssertions.all(passing, passing))
+                .then(the_subject_passed);
+    }
+
+    @Test
+    void all_assertions_are_evaluated_and_every_failure_is_reported() {
+        gwt.test()
+                .when(running_a_test_with_soft_assertions, SoftAssertions.all(failing, passing, failing))
+                .then(the_number_of_evaluated_assertions_is, 3)
+                .and(the_subject_failed_with_a_soft_assertion_error_describing, "2 of 3 assertions failed")
+                .and(the_failed_assertions_are, List.of(1, 3));
+    }
+
+    @Test
+    void assertions_are_evaluated_concurrently() {
+        gwt.test()
+                .when(running_a_test_with_soft_assertions, SoftAssertions.allConcurrently(waiting_for_the_other_assertions,
+                        waiting_for_the_other_assertions, waiting_for_the_other_assertions))
+                .then(the_subject_passed)
+                .and(the_number_of_evaluated_assertions_is, 3);
+    }
+
+    @Test
+    void concurrent_failures_are_reported_in_declaration_order() {
+        gwt.test()
+                .when(running_a_test_with_soft_assertions, SoftAssertions.allConcurrently(passing, failing, failing))
+                .then(the_subject_failed_with_a_soft_assertion_error_describing, "2 of 3 assertions failed")
+                .and(the_failed_assertions_are, List.of(2, 3));
+    }
+
+    private final CountDownLatch allAssertionsRunning = new CountDownLatch(3);
+
+    private final GwtFunction<SoftAssertionsTestContext> passing = context -> evaluatedAssertions.incrementAndGet();
+
+    private final GwtFunction<SoftAssertionsTestContext> failing = context -> {
+        evaluatedAssertions.incrementAndGet();
+        assertThat(1, is(2));
+    };
+
+    private final GwtFunction<SoftAssertionsTestContext> waiting_for_the_other_assertions = context -> {
+        evaluatedAssertions.incrementAndGet();
+        allAssertionsRunning.countDown();
+        try {
+            assertThat(allAssertionsRunning.await(10, TimeUnit.SECONDS), is(true));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    private final GwtFunctionWithArgument<SoftAssertionsTestContext, GwtFunction<SoftAssertionsTestContext>> running_a_test_with_soft_assertions =
+            (context, assertions) -> {
+                try {
+                    new GwtTest<>(SoftAssertionsTestContext.class).test()
+                            .when(c -> {})
+                            .then(assertions);
+                }
+                catch (UnexpectedExceptionCaughtException e) {
+                    context.subjectFailure = e.getCause();
+                }
+            };
+
+    private final GwtFunction<SoftAssertionsTestContext> the_subject_passed = context ->
+            assertThat(context.subjectFailure, is(nullValue()));
+
+    private final GwtFunctionWithArgument<SoftAssertionsTestContext, Integer> the_number_of_evaluated_assertions_is = (context, count) ->
+            assertThat(evaluatedAssertions.get(), is(count));
+
+    private final GwtFunctionWithArgument<SoftAssertionsTestContext, String> the_subject_failed_with_a_soft_assertion_error_describing =
+            (context, description) -> {
+                assertThat(context.subjectFailure, is(instanceOf(SoftAssertionError.class)));
+                assertThat(context.subjectFailure.getMessage(), containsString(description));
+                assertThat(context.subjectFailure.getSuppressed(), is(arrayWithSize(2)));
+            };
+
+    private final GwtFunctionWithArgument<SoftAssertionsTestContext, List<Integer>> the_failed_assertions_are = (context, indexes) ->
+            assertThat(((SoftAssertionError) context.subjectFailure).getResults().stream()
+                    .filter(result -> result.getFailure() != null)
+                    .map(SoftAssertionError.AssertionResult::getIndex)
+                    .collect(Collectors.toList()), is(indexes));
+
+    public static class SoftAssertionsTestContext extends Context {
+        Throwable subjectFailure;
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import com.sun.management.ThreadMXBean;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.instrumentation.StepListeners;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class StepAllocationTest {
+
+    private static final int ITERATIONS = 10_000;
+
+    private final GwtTest<AllocationTestContext> gwt = new GwtTest<>(AllocationTestContext.class);
+
+    @BeforeEach
+    void requireNoStepListeners() {
+        assumeFalse(StepListeners.isActive(), "Steps are only allocation-free when no step listener is registered");
+    }
+
+    @Test
+    void given_when_then_steps_do_not_allocate() {
+        gwt.test()
+                .given(a_started_scenario)
+                .and(the_scenario_steps_have_been_warmed_up)
+                .when(running_the_scenario_steps_repeatedly)
+                .then(no_memory_is_allocated_by_the_steps);
+    }
+
+    private final GwtFunction<CounterContext> incrementing_the_counter = context -> context.counter++;
+
+    private final GwtFunction<CounterContext> the_counter_is_positive = context -> {
+        if (context.counter <= 0) {
+            throw new IllegalStateException("Counter is not positive");
+        }
+    };
+
+    private final GwtFunction<AllocationTestContext> a_started_scenario = context -> {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        context.threadMXBean = threadMXBean;
+        context.scenario = new GwtTest<>(CounterContext.class).test("measured scenario")
+                .given(incrementing_the_counter)
+                .and(incrementing_the_counter);
+    };
+
+    private final GwtFunction<AllocationTestContext> the_scenario_steps_have_been_warmed_up = context -> runScenarioSteps(context);
+
+    private final GwtFunction<AllocationTestContext> running_the_scenario_steps_repeatedly = context -> {
+        long threadId = Thread.currentThread().getId();
+        long measurementOverhead = -context.threadMXBean.getThreadAllocatedBytes(threadId)
+                + context.threadMXBean.getThreadAllocatedBytes(threadId);
+        long allocatedBytesBefore = context.threadMXBean.getThreadAllocatedBytes(threadId);
+        runScenarioSteps(context);
+        long allocatedBytesAfter = context.threadMXBean.getThreadAllocatedBytes(threadId);
+        context.allocatedBytes = allocatedBytesAfter - allocatedBytesBefore - measurementOverhead;
+    };
+
+    /*
+     * The total is compared with the number of iterations instead of being divided by it, so that an allocation of even
+     * one object per iteration fails the test, while a few incidental allocations during the run don't.
+     */
+    private final GwtFunction<AllocationTestContext> no_memory_is_allocated_by_the_steps = context ->
+            assertThat(context.allocatedBytes, is(lessThan((long) ITERATIONS)));
+
+    private void runScenarioSteps(AllocationTestContext context) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            context.scenario
+                    .when(incrementing_the_counter)
+                    .and(incrementing_the_counter)
+                    .then(the_counter_is_positive)
+                    .when(incrementing_the_counter, incrementing_the_counter)
+                    .then(the_counter_is_positive, the_counter_is_positive, the_counter_is_positive);
+        }
+    }
+
+    public static class CounterContext extends Context {
+        int counter;
+    }
+
+    public static class AllocationTestContext extends Context {
+        ThreadMXBean threadMXBean;
+        GwtTest<CounterContext> scenario;
+        long allocatedBytes;
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.instrumentation.StepEvent;
+import io.github.mmbishop.gwttest.instrumentation.StepEventLog;
+import io.github.mmbishop.gwttest.instrumentation.StepOutcome;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class StepEventLogTest {
+
+    private static final String SUBJECT_TEST_NAME = "subject";
+
+    private final GwtTest<StepEventLogTestContext> gwt = new GwtTest<>(StepEventLogTestContext.class);
+
+    @BeforeEach
+    void clearEventLog() {
+        StepEventLog.clear();
+    }
+
+    @Test
+    void expected_exception_is_recorded_without_failing_the_test() {
+        gwt.test()
+                .when(running_a_test_that_throws_an_expected_exception)
+                .then(one_event_is_recorded_for_the_subject)
+                .and(the_event_has_outcome, StepOutcome.EXPECTED_EXCEPTION)
+                .and(the_event_was_recorded_in_the_when_phase_at_step_index_one)
+                .and(the_event_holds_the_thrown_exception);
+    }
+
+    @Test
+    void unexpected_exception_is_recorded_and_its_stack_trace_can_be_rendered() {
+        gwt.test()
+                .when(running_a_test_that_throws_an_unexpected_exception)
+                .then(one_event_is_recorded_for_the_subject)
+                .and(the_event_has_outcome, StepOutcome.FAILED)
+                .and(the_event_was_recorded_in_the_when_phase_at_step_index_one)
+                .and(the_rendered_stack_trace_names_the_exception);
+    }
+
+    @Test
+    void ring_buffer_keeps_only_the_most_recent_events() {
+        gwt.test()
+                .when(recording_more_events_than_the_capacity)
+                .then(only_the_most_recent_events_are_kept);
+    }
+
+    @Test
+    void test_name_is_resolved_only_when_the_event_is_read() {
+        gwt.test()
+                .when(recording_an_event_for_a_test_whose_name_is_not_resolved)
+                .then(the_test_name_was_not_resolved_when_the_event_was_recorded)
+                .and(the_test_name_is_resolved_when_the_event_is_read);
+    }
+
+    @Test
+    void level_can_be_changed_per_outcome() {
+        gwt.test()
+                .when(turning_off_logging_of_expected_exceptions)
+                .then(expected_exceptions_are_not_logged)
+                .and(unexpected_exceptions_are_still_logged_at_error);
+    }
+
+    @Test
+    void level_cannot_be_set_for_passed_steps() {
+        gwt.test()
+                .expectingException(IllegalArgumentException.class)
+                .when(setting_the_level_for_passed_steps)
+                .then(an_illegal_argument_exception_is_thrown);
+    }
+
+    private final GwtFunction<StepEventLogTestContext> running_a_test_that_throws_an_expected_exception = context -> {
+        new GwtTest<>(SubjectContext.class).test(SUBJECT_TEST_NAME)
+                .expectingException(IllegalStateException.class)
+                .given(subjectContext -> {})
+                .when(subjectContext -> {
+                    throw new IllegalStateException("expected");
+                })
+                .then(subjectContext -> {});
+        context.events = subjectEvents();
+    };
+
+    private final GwtFunction<StepEventLogTestContext> running_a_test_that_throws_an_unexpected_exception = context -> {
+        try {
+            new GwtTest<>(SubjectContext.class).test(SUBJECT_TEST_NAME)
+                    .given(subjectContext -> {})
+                    .when(subjectContext -> {
+                        throw new IllegalStateException("unexpected");
+                    });
+        }
+        catch (UnexpectedExceptionCaughtException e) {
+            context.events = subjectEvents();
+        }
+    };
+
+    private final GwtFunction<StepEventLogTestContext> recording_more_events_than_the_capacity = context -> {
+        SubjectContext subjectContext = new SubjectContext();
+        subjectContext.setTestName(SUBJECT_TEST_NAME);
+        subjectContext.testPhase = TestPhase.WHEN;
+        Level level = StepEventLog.getLevel(StepOutcome.EXPECTED_EXCEPTION);
+        StepEventLog.setLevel(StepOutcome.EXPECTED_EXCEPTION, null);
+        try {
+            for (int i = 0; i < StepEventLog.getCapacity() + 10; i++) {
+                StepEventLog.record(subjectContext, i, StepOutcome.EXPECTED_EXCEPTION, new IllegalStateException());
+            }
+        }
+        finally {
+            StepEventLog.setLevel(StepOutcome.EXPECTED_EXCEPTION, level);
+        }
+        context.events = subjectEvents();
+    };
+
+    private final GwtFunction<StepEventLogTestContext> recording_an_event_for_a_test_whose_name_is_not_resolved = context -> {
+        SubjectContext subjectContext = new SubjectContext();
+        subjectContext.setTestNameResolver(() -> {
+            context.testNameResolutions.incrementAndGet();
+            return SUBJECT_TEST_NAME;
+        });
+        subjectContext.testPhase = TestPhase.WHEN;
+        Level level = StepEventLog.getLevel(StepOutcome.EXPECTED_EXCEPTION);
+        StepEventLog.setLevel(StepOutcome.EXPECTED_EXCEPTION, null);
+        try {
+            StepEventLog.record(subjectContext, 1, StepOutcome.EXPECTED_EXCEPTION, new IllegalStateException());
+        }
+        finally {
+            StepEventLog.setLevel(StepOutcome.EXPECTED_EXCEPTION, level);
+        }
+        context.testNameResolutionsWhenRecorded = context.testNameResolutions.get();
+    };
+
+    private final GwtFunction<StepEventLogTestContext> turning_off_logging_of_expected_exceptions = context -> {
+        Level level = StepEventLog.getLevel(StepOutcome.EXPECTED_EXCEPTION);
+        StepEventLog.setLevel(StepOutcome.EXPECTED_EXCEPTION, null);
+        context.expectedExceptionLevel = StepEventLog.getLevel(StepOutcome.EXPECTED_EXCEPTION);
+        context.failedLevel = StepEventLog.getLevel(StepOutcome.FAILED);
+        StepEventLog.setLevel(StepOutcome.EXPECTED_EXCEPTION, level);
+    };
+
+    private final GwtFunction<StepEventLogTestContext> setting_the_level_for_passed_steps = context ->
+            StepEventLog.setLevel(StepOutcome.PASSED, Level.INFO);
+
+    private final GwtFunction<StepEventLogTestContext> one_event_is_recorded_for_the_subject = context ->
+            assertThat(context.events, hasSize(1));
+
+    private final GwtFunctionWithArgument<StepEventLogTestContext, StepOutcome> the_event_has_outcome = (context, outcome) ->
+            assertThat(context.events.get(0).getOutcome(), is(outcome));
+
+    private final GwtFunction<StepEventLogTestContext> the_event_was_recorded_in_the_when_phase_at_step_index_one = context -> {
+        assertThat(context.events.get(0).getPhase(), is(TestPhase.WHEN));
+        assertThat(context.events.get(0).getStepIndex(), is(1));
+    };
+
+    private final GwtFunction<StepEventLogTestContext> the_event_holds_the_thrown_exception = context ->
+            assertThat(context.events.get(0).getException(), instanceOf(IllegalStateException.class));
+
+    private final GwtFunction<StepEventLogTestContext> the_rendered_stack_trace_names_the_exception = context ->
+            assertThat(context.events.get(0).renderStackTrace(), containsString("java.lang.IllegalStateException: unexpected"));
+
+    private final GwtFunction<StepEventLogTestContext> only_the_most_recent_events_are_kept = context -> {
+        assertThat(context.events, hasSize(StepEventLog.getCapacity()));
+        assertThat(context.events.get(0).getStepIndex(), is(10));
+        assertThat(context.events.get(context.events.size() - 1).getStepIndex(), is(StepEventLog.getCapacity() + 9));
+    };
+
+    private final GwtFunction<StepEventLogTestContext> the_test_name_was_not_resolved_when_the_event_was_recorded = context ->
+            assertThat(context.testNameResolutionsWhenRecorded, is(0));
+
+    private final GwtFunction<StepEventLogTestContext> the_test_name_is_resolved_when_the_event_is_read = context -> {
+        assertThat(subjectEvents(), hasSize(1));
+        assertThat(context.testNameResolutions.get(), is(greaterThan(0)));
+    };
+
+    private final GwtFunction<StepEventLogTestContext> expected_exceptions_are_not_logged = context ->
+            assertThat(context.expectedExceptionLevel, is(nullValue()));
+
+    private final GwtFunction<StepEventLogTestContext> unexpected_exceptions_are_still_logged_at_error = context ->
+            assertThat(context.failedLevel, is(Level.ERROR));
+
+    private final GwtFunction<StepEventLogTestContext> an_illegal_argument_exception_is_thrown = context ->
+            assertThat(context.thrownException, instanceOf(IllegalArgumentException.class));
+
+    private static List<StepEvent> subjectEvents() {
+        return StepEventLog.getRecentEvents().stream()
+                .filter(event -> SUBJECT_TEST_NAME.equals(event.getTestName()))
+                .collect(Collectors.toList());
+    }
+
+    public static class StepEventLogTestContext extends Context {
+        List<StepEvent> events;
+        Level expectedExceptionLevel;
+        Level failedLevel;
+        final AtomicInteger testNameResolutions = new AtomicInteger();
+        int testNameResolutionsWhenRecorded;
+    }
+
+    public static class SubjectContext extends Context {
+    }
+
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.core.Scenario;
+import io.github.mmbishop.gwttest.core.UnexpectedExceptionCaughtException;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.instrumentation.StepListener;
+import io.github.mmbishop.gwttest.instrumentation.StepListeners;
+import io.github.mmbishop.gwttest.instrumentation.StepOutcome;
+import io.github.mmbishop.gwttest.instrumentation.StepTimingCollector;
+import io.github.mmbishop.gwttest.model.Context;
+import io.github.mmbishop.gwttest.model.TestPhase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class StepListenerTest {
+
+    private static final String SUBJECT_TEST_NAME = "subject";
+
+    private final GwtTest<StepListenerTestContext> gwt = new GwtTest<>(StepListenerTestContext.class);
+    private final RecordingStepListener recordingListener = new RecordingStepListener();
+    private final StepTimingCollector timingCollector = new StepTimingCollector();
+
+    @BeforeEach
+    void registerListeners() {
+        StepListeners.register(recordingListener);
+        StepListeners.register(timingCollector);
+    }
+
+    @AfterEach
+    void unregisterListeners() {
+        StepListeners.unregister(recordingListener);
+        StepListeners.unregister(timingCollector);
+    }
+
+    @Test
+    void listener_is_notified_around_every_step_of_a_test() {
+        gwt.test()
+                .when(running_a_test_with_four_steps)
+                .then(the_recorded_step_indexes_are, List.of(0, 1, 2, 3))
+                .and(the_recorded_phases_are, List.of(TestPhase.GIVEN, TestPhase.WHEN, TestPhase.WHEN, TestPhase.THEN))
+                .and(the_recorded_outcomes_are, List.of(StepOutcome.PASSED, StepOutcome.PASSED, StepOutcome.PASSED, StepOutcome.PASSED))
+                .and(every_step_started_before_it_finished);
+    }
+
+    @Test
+    void listener_is_notified_of_an_expected_exception() {
+        gwt.test()
+                .when(running_a_test_that_throws_an_expected_exception)
+                .then(the_recorded_step_indexes_are, List.of(0, 1))
+                .and(the_recorded_outcomes_are, List.of(StepOutcome.EXPECTED_EXCEPTION, StepOutcome.PASSED));
+    }
+
+    @Test
+    void listener_is_notified_of_an_unexpected_exception() {
+        gwt.test()
+                .when(running_a_test_that_throws_an_unexpected_exception)
+                .then(the_recorded_step_indexes_are, List.of(0))
+                .and(the_recorded_outcomes_are, List.of(StepOutcome.FAILED));
+    }
+
+    @Test
+    void timed_when_step_is_notified_as_a_single_step() {
+        gwt.test()
+                .when(running_a_test_with_a_timed_step)
+                .then(the_recorded_step_indexes_are, List.of(0, 1, 2))
+                .and(the_recorded_phases_are, List.of(TestPhase.GIVEN, TestPhase.WHEN, TestPhase.THEN));
+    }
+
+    @Test
+    void listener_is_notified_around_every_step_of_a_scenario() {
+        gwt.test()
+                .when(running_a_scenario_with_three_steps)
+                .then(the_recorded_step_indexes_are, List.of(0, 1, 2))
+                .and(the_recorded_phases_are, List.of(TestPhase.GIVEN, TestPhase.WHEN, TestPhase.THEN));
+    }
+
+    @Test
+    void timing_collector_finds_the_slowest_step() {
+        gwt.test()
+                .when(running_a_test_with_a_slow_step)
+                .then(the_slowest_step_is_the_slow_step)
+                .and(the_when_histogram_recorded_the_slow_step);
+    }
+
+    @Test
+    void listener_is_not_notified_after_it_is_unregistered() {
+        gwt.test()
+                .given(the_recording_listener_is_unregistered)
+                .when(running_a_test_with_four_steps)
+                .then(the_recorded_step_indexes_are, List.of());
+    }
+
+    private final GwtFunction<StepListenerTestContext> doing_nothing = context -> {};
+
+    private final GwtFunction<StepListenerTestContext> sleeping = context -> {
+        try {
+            Thread.sleep(20);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    };
+
+    private final GwtFunction<StepListenerTestContext> throwing_an_illegal_state_exception = context -> {
+        throw new IllegalStateException("Expected by the test");
+    };
+
+    private final GwtFunction<StepListenerTestContext> running_a_test_with_four_steps = context ->
+            new GwtTest<>(StepListenerTestContext.class).test(SUBJECT_TEST_NAME)
+                    .given(doing_nothing)
+                    .when(doing_nothing)
+                    .and(doing_nothing)
+                    .then(doing_nothing);
+
+    private final GwtFunction<StepListenerTestContext> running_a_test_with_a_timed_step = context ->
+            new GwtTest<>(StepListenerTestContext.class).test(SUBJECT_TEST_NAME)
+                    .given(doing_nothing)
+                    .whenTimed(3, 5, doing_nothing)
+                    .then(doing_nothing);
+
+    private final GwtFunction<StepListenerTestContext> running_a_test_that_throws_an_expected_exception = context ->
+            new GwtTest<>(StepListenerTestContext.class).test(SUBJECT_TEST_NAME).expectingException(IllegalStateException.class)
+                    .when(throwing_an_illegal_state_exception, doing_nothing)
+                    .then(doing_nothing);
+
+    private final GwtFunction<StepListenerTestContext> running_a_test_that_throws_an_unexpected_exception = context -> {
+        try {
+            new GwtTest<>(StepListenerTestContext.class).test(SUBJECT_TEST_NAME)
+                    .when(throwing_an_illegal_state_exception)
+                    .then(doing_nothing);
+        }
+        catch (UnexpectedExceptionCaughtException e) {
+            // expected
+        }
+    };
+
+    private final GwtFunction<StepListenerTestContext> running_a_scenario_with_three_steps = context ->
+            Scenario.builder(StepListenerTestContext.class).named(SUBJECT_TEST_NAME)
+                    .given(doing_nothing)
+                    .when(doing_nothing)
+                    .then(doing_nothing)
+                    .build()
+                    .run();
+
+    private final GwtFunction<StepListenerTestContext> running_a_test_with_a_slow_step = context ->
+            new GwtTest<>(StepListenerTestContext.class).test(SUBJECT_TEST_NAME)
+                    .given(doing_nothing)
+                    .when(sleeping)
+                    .then(doing_nothing);
+
+    private final GwtFunction<StepListenerTestContext> the_recording_listener_is_unregistered = context ->
+            StepListeners.unregister(recordingListener);
+
+    private final GwtFunctionWithArgument<StepListenerTestContext, List<Integer>> the_recorded_step_indexes_are =
+            (context, stepIndexes) -> assertThat(recordingListener.events().stream().map(event -> event.stepIndex)
+                    .collect(Collectors.toList()), is(stepIndexes));
+
+    private final GwtFunctionWithArgument<StepListenerTestContext, List<TestPhase>> the_recorded_phases_are =
+            (context, phases) -> assertThat(recordingListener.events().stream().map(event -> event.phase)
+                    .collect(Collectors.toList()), is(phases));
+
+    private final GwtFunctionWithArgument<StepListenerTestContext, List<StepOutcome>> the_recorded_outcomes_are =
+            (context, outcomes) -> assertThat(recordingListener.events().stream().map(event -> event.outcome)
+                    .collect(Collectors.toList()), is(outcomes));
+
+    private final GwtFunction<StepListenerTestContext> every_step_started_before_it_finished = context ->
+            assertThat(recordingListener.events().stream().map(event -> event.endNanos - event.startNanos)
+                    .collect(Collectors.toList()), everyItem(greaterThanOrEqualTo(0L)));
+
+    private final GwtFunction<StepListenerTestContext> the_slowest_step_is_the_slow_step = context -> {
+        List<StepTimingCollector.StepTiming> slowestSteps = timingCollector.getSlowestSteps(Integer.MAX_VALUE).stream()
+                .filter(stepTiming -> SUBJECT_TEST_NAME.equals(stepTiming.getTestName()))
+                .collect(Collectors.toList());
+        assertThat(slowestSteps, hasSize(3));
+        StepTimingCollector.StepTiming slowestStep = slowestSteps.get(0);
+        assertThat(List.of(slowestStep.getPhase(), slowestStep.getStepIndex()), contains(TestPhase.WHEN, 1));
+        assertThat(slowestStep.getMaxDuration().compareTo(Duration.ofMillis(20)), is(greaterThanOrEqualTo(0)));
+    };
+
+    private final GwtFunction<StepListenerTestContext> the_when_histogram_recorded_the_slow_step = context ->
+            assertThat(timingCollector.getPhaseHistogram(TestPhase.WHEN).getMaxNanos(),
+                    is(greaterThanOrEqualTo(Duration.ofMillis(20).toNanos())));
+
+    public static class StepListenerTestContext extends Context {
+    }
+
+    private static class RecordingStepListener implements StepListener {
+
+        private final List<StepEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void stepFinished(Context context, int stepIndex, long startNanos, long endNanos, StepOutcome outcome) {
+            if (SUBJECT_TEST_NAME.equals(context.getTestName())) {
+                events.add(new StepEvent(stepIndex, context.testPhase, startNanos, endNanos, outcome));
+            }
+        }
+
+        List<StepEvent> events() {
+            return events;
+        }
+
+    }
+
+    private static class StepEvent {
+
+        private final int stepIndex;
+        private final TestPhase phase;
+        private final long startNanos;
+        private final long endNanos;
+        private final StepOutcome outcome;
+
+        StepEvent(int stepIndex, TestPhase phase, long startNanos, long endNanos, StepOutcome outcome) {
+            this.stepIndex = stepIndex;
+            this.phase = phase;
+            this.startNanos = startNanos;
+            this.endNanos = endNanos;
+            this.outcome = outcome;
+        }
+
+    }
+
+}
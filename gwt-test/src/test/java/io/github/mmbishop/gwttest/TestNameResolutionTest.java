@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Michael Bishop
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.mmbishop.gwttest;
+
+import io.github.mmbishop.gwttest.core.Concurrently;
+import io.github.mmbishop.gwttest.core.GwtTest;
+import io.github.mmbishop.gwttest.functions.GwtFunction;
+import io.github.mmbishop.gwttest.functions.GwtFunctionWithArgument;
+import io.github.mmbishop.gwttest.model.Context;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TestNameResolutionTest {
+
+    private final GwtTest<NameTestContext> gwt = new GwtTest<>(NameTestContext.class);
+
+    @Test
+    void calling_method_name_is_resolved_when_test_name_is_read_after_several_steps() {
+        gwt.test()
+                .given(nothing_is_done)
+                .when(nothing_is_done)
+                .and(nothing_is_done)
+                .then(test_name_is, "calling_method_name_is_resolved_when_test_name_is_read_after_several_steps");
+    }
+
+    @Test
+    void calling_method_name_is_resolved_when_test_name_is_read_by_concurrent_functions() {
+        gwt.test()
+                .then(Concurrently.of(
+                        test_name_is_calling_method_name_read_concurrently,
+                        test_name_is_calling_method_name_read_concurrently));
+    }
+
+    @Test
+    void calling_method_name_is_resolved_when_test_name_is_read_by_a_helper_after_the_chain() {
+        NameTestContext context = new NameTestContext();
+        gwt.test().given(context_is_captured, context);
+        assertThat(testNameOf(context), is("calling_method_name_is_resolved_when_test_name_is_read_by_a_helper_after_the_chain"));
+    }
+
+    @Test
+    void deprecated_test_name_field_is_filled_in_before_the_first_step_runs() {
+        gwt.test().given(deprecated_test_name_field_is, "deprecated_test_name_field_is_filled_in_before_the_first_step_runs");
+    }
+
+    private final GwtFunction<NameTestContext> nothing_is_done = context -> {};
+
+    private final GwtFunction<NameTestContext> test_name_is_calling_method_name_read_concurrently = context ->
+            assertThat(context.getTestName(), is("calling_method_name_is_resolved_when_test_name_is_read_by_concurrent_functions"));
+
+    private final GwtFunctionWithArgument<NameTestContext, NameTestContext> context_is_captured = (context, holder) ->
+            holder.captured = context;
+
+    private final GwtFunctionWithArgument<NameTestContext, String> test_name_is = (context, expectedTestName) ->
+            assertThat(context.getTestName(), is(expectedTestName));
+
+    @SuppressWarnings("deprecation")
+    private final GwtFunctionWithArgument<NameTestContext, String> deprecated_test_name_field_is = (context, expectedTestName) ->
+            assertThat(context.testName, is(expectedTestName));
+
+    private static String testNameOf(NameTestContext holder) {
+        return holder.captured.getTestName();
+    }
+
+    public static class NameTestContext extends Context {
+        NameTestContext captured;
+    }
+
+}
@@ -0,0 +1,24 @@
+@fruit
+Feature: Fruit basket
+  A basket holds fruit that is added to it.
+
+  Background:
+    Given an empty basket owned by "Alice"
+
+  Scenario: Adding apples
+    When 3 apples are added
+    And 2 apples are added
+    Then the basket holds 5 fruits
+    And the basket is owned by "Alice"
+
+  # Pears weigh more than apples
+  @heavy
+  Scenario: Adding pears
+    When 2 pears weighing 0.25 kg are added
+    Then the basket holds 2 fruits
+    And the basket weighs 0.5 kg
+
+  Scenario: Counting the fruit
+    When the fruits 1, 2 and 3 are added
+    Then the basket holds 6 fruits
+    But the basket holds 7 fruits
@@ -0,0 +1,16 @@
+Feature: Apple basket
+
+  Scenario Outline: Adding <count> apples
+    Given an empty basket
+    When <count> apples are added
+    Then the basket holds <total> fruits
+
+    Examples:
+      | count | total |
+      | 1     | 1     |
+      | 3     | 3     |
+
+    @large
+    Examples: Large baskets
+      | count | total |
+      | 100   | 100   |